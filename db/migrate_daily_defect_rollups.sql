@@ -0,0 +1,21 @@
+-- Adds daily_defect_rollups to a database created from an earlier schema.sql.
+-- Run once, inside a transaction, before migrate_rollup_units_actual.sql; new databases get the
+-- table from schema.sql directly. The table starts empty: the application builds every day from
+-- production_logs on the next dashboard request.
+
+BEGIN;
+
+CREATE TABLE daily_defect_rollups (
+    id SERIAL PRIMARY KEY,
+    rollup_date DATE NOT NULL,
+    production_line_id INTEGER NOT NULL REFERENCES production_lines(id) ON DELETE CASCADE,
+    defect_type_id INTEGER REFERENCES defect_types(id) ON DELETE SET NULL,
+    shift VARCHAR(20) NOT NULL,
+    issue_count BIGINT NOT NULL CHECK (issue_count >= 0),
+    log_count BIGINT NOT NULL CHECK (log_count >= 0),
+    last_production_log_id INTEGER NOT NULL
+);
+
+CREATE INDEX idx_rollup_date ON daily_defect_rollups(rollup_date);
+
+COMMIT;
@@ -0,0 +1,46 @@
+-- Adds source_file/source_line and their UNIQUE constraints to production_logs and shipping_logs
+-- in a database created from an earlier schema.sql. Run once, inside a transaction; new databases
+-- get the columns from schema.sql directly.
+-- Rows already present were entered in the app or loaded without provenance, so their source
+-- stays NULL; the constraints ignore NULLs. Where the columns already exist (e.g. added by
+-- hand or by a re-run import), rows sharing a source file and line are collapsed to the first
+-- one inserted before the constraints are added, matching the ON CONFLICT DO NOTHING the CSV
+-- ingestion uses. The daily defect rollup is emptied as well, so the application rebuilds it
+-- without the removed rows on the next dashboard request.
+
+BEGIN;
+
+ALTER TABLE production_logs
+    ADD COLUMN IF NOT EXISTS source_file VARCHAR(255),
+    ADD COLUMN IF NOT EXISTS source_line INTEGER;
+
+ALTER TABLE shipping_logs
+    ADD COLUMN IF NOT EXISTS source_file VARCHAR(255),
+    ADD COLUMN IF NOT EXISTS source_line INTEGER;
+
+UPDATE production_logs SET source_line = NULL WHERE source_file IS NULL;
+UPDATE production_logs SET source_file = NULL WHERE source_line IS NULL;
+UPDATE shipping_logs SET source_line = NULL WHERE source_file IS NULL;
+UPDATE shipping_logs SET source_file = NULL WHERE source_line IS NULL;
+
+DELETE FROM production_logs p
+USING production_logs kept
+WHERE p.source_file = kept.source_file
+  AND p.source_line = kept.source_line
+  AND p.id > kept.id;
+
+DELETE FROM shipping_logs s
+USING shipping_logs kept
+WHERE s.source_file = kept.source_file
+  AND s.source_line = kept.source_line
+  AND s.id > kept.id;
+
+TRUNCATE daily_defect_rollups;
+
+ALTER TABLE production_logs
+    ADD CONSTRAINT uq_production_logs_source UNIQUE (source_file, source_line);
+
+ALTER TABLE shipping_logs
+    ADD CONSTRAINT uq_shipping_logs_source UNIQUE (source_file, source_line);
+
+COMMIT;
@@ -0,0 +1,21 @@
+-- Adds lots.normalized_identifier to a database created from an earlier schema.sql.
+-- Run once, inside a transaction; new databases get the column from schema.sql directly.
+-- The backfill matches LotIdNormalizer: dashes and whitespace removed, then upper-cased.
+
+BEGIN;
+
+ALTER TABLE lots ADD COLUMN normalized_identifier VARCHAR(50);
+
+UPDATE lots
+SET normalized_identifier = UPPER(regexp_replace(lot_identifier, '[-\s]', '', 'g'));
+
+ALTER TABLE lots ALTER COLUMN normalized_identifier SET NOT NULL;
+
+CREATE INDEX idx_lots_normalized_identifier
+    ON lots(normalized_identifier varchar_pattern_ops);
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_lots_normalized_identifier_trgm
+    ON lots USING GIN (normalized_identifier gin_trgm_ops);
+
+COMMIT;
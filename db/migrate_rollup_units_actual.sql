@@ -0,0 +1,13 @@
+-- Adds daily_defect_rollups.units_actual to a database created from an earlier schema.sql.
+-- Run once, inside a transaction; new databases get the column from schema.sql directly.
+-- The rollup is derived data: emptying it makes the application rebuild every day, units
+-- included, on the next dashboard request.
+
+BEGIN;
+
+TRUNCATE daily_defect_rollups;
+
+ALTER TABLE daily_defect_rollups
+    ADD COLUMN units_actual BIGINT NOT NULL CHECK (units_actual >= 0);
+
+COMMIT;
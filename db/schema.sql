@@ -25,6 +25,7 @@ CREATE TABLE customers (
 CREATE TABLE lots (
     id SERIAL PRIMARY KEY,
     lot_identifier VARCHAR(50) NOT NULL UNIQUE, -- The "Business Key" used for fuzzy matching
+    normalized_identifier VARCHAR(50) NOT NULL, -- Upper-cased, without dashes or whitespace
     part_number VARCHAR(100) NOT NULL,
     created_date DATE NOT NULL DEFAULT CURRENT_DATE
 );
@@ -41,7 +42,10 @@ CREATE TABLE production_logs (
     units_actual INTEGER NOT NULL CHECK (units_actual >= 0),
     downtime_minutes INTEGER NOT NULL DEFAULT 0 CHECK (downtime_minutes >= 0),
     issue_flag BOOLEAN NOT NULL DEFAULT FALSE,
-    supervisor_notes TEXT
+    supervisor_notes TEXT,
+    source_file VARCHAR(255), -- CSV file the row was ingested from (NULL when entered in the app)
+    source_line INTEGER,      -- Line of source_file the row started on
+    CONSTRAINT uq_production_logs_source UNIQUE (source_file, source_line)
 );
 
 CREATE TABLE shipping_logs (
@@ -57,7 +61,10 @@ CREATE TABLE shipping_logs (
     qty_shipped INTEGER NOT NULL CHECK (qty_shipped > 0),
     ship_status VARCHAR(50) NOT NULL CHECK (ship_status IN ('Shipped', 'On Hold', 'Partial')),
     hold_reason TEXT,
-    shipping_notes TEXT
+    shipping_notes TEXT,
+    source_file VARCHAR(255), -- CSV file the row was ingested from (NULL when entered in the app)
+    source_line INTEGER,      -- Line of source_file the row started on
+    CONSTRAINT uq_shipping_logs_source UNIQUE (source_file, source_line)
 );
 
 -- 4. Indexes for Query Optimization
@@ -65,3 +72,27 @@ CREATE INDEX idx_production_date ON production_logs(production_date);
 CREATE INDEX idx_production_lot_id ON production_logs(lot_id);
 CREATE INDEX idx_shipping_lot_id ON shipping_logs(lot_id);
 CREATE INDEX idx_shipping_date ON shipping_logs(ship_date);
+-- Exact and prefix lot lookups (varchar_pattern_ops keeps LIKE 'x%' indexable in any collation)
+CREATE INDEX idx_lots_normalized_identifier
+    ON lots(normalized_identifier varchar_pattern_ops);
+-- Substring lot lookups (LIKE '%x%') through trigrams
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_lots_normalized_identifier_trgm
+    ON lots USING GIN (normalized_identifier gin_trgm_ops);
+
+-- 5. Derived Reporting Tables
+-- Daily defect counts per line, defect type and shift. Rebuilt per day from
+-- production_logs by the application; never edited directly.
+CREATE TABLE daily_defect_rollups (
+    id SERIAL PRIMARY KEY,
+    rollup_date DATE NOT NULL,
+    production_line_id INTEGER NOT NULL REFERENCES production_lines(id) ON DELETE CASCADE,
+    defect_type_id INTEGER REFERENCES defect_types(id) ON DELETE SET NULL,
+    shift VARCHAR(20) NOT NULL,
+    issue_count BIGINT NOT NULL CHECK (issue_count >= 0),
+    log_count BIGINT NOT NULL CHECK (log_count >= 0),
+    units_actual BIGINT NOT NULL CHECK (units_actual >= 0),
+    last_production_log_id INTEGER NOT NULL
+);
+
+CREATE INDEX idx_rollup_date ON daily_defect_rollups(rollup_date);
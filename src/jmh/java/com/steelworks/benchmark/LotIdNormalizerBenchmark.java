@@ -0,0 +1,97 @@
+package com.steelworks.benchmark;
+
+import com.steelworks.util.LotIdNormalizer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link LotIdNormalizer} with the regex-based implementation it replaced. AC2: Lot IDs
+ * are normalized for every search match and every ingested row.
+ *
+ * <p>
+ * Each invocation processes the same mix of canonical ("LOT123"), dashed, spaced and lower-case
+ * identifiers. Run with {@code -prof gc} to compare allocation per operation as well as time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LotIdNormalizerBenchmark {
+
+    /** Share of identifiers already in canonical form. */
+    @Param({"0", "50", "100"})
+    private int canonicalPercent;
+
+    private final LotIdNormalizer lotIdNormalizer = new LotIdNormalizer();
+
+    private String[] lotIds;
+    private String[] otherLotIds;
+
+    @Setup
+    public void setUp() {
+        int count = 1024;
+        lotIds = new String[count];
+        otherLotIds = new String[count];
+        for (int i = 0; i < count; i++) {
+            String canonical = "LOT" + (100_000 + i * 7);
+            lotIds[i] = i % 100 < canonicalPercent ? canonical : format(canonical, i);
+            otherLotIds[i] = format(canonical, i + 1);
+        }
+    }
+
+    @Benchmark
+    public void normalizeLegacy(Blackhole blackhole) {
+        for (String lotId : lotIds) {
+            blackhole.consume(legacyNormalize(lotId));
+        }
+    }
+
+    @Benchmark
+    public void normalize(Blackhole blackhole) {
+        for (String lotId : lotIds) {
+            blackhole.consume(lotIdNormalizer.normalize(lotId));
+        }
+    }
+
+    @Benchmark
+    public void areEquivalentLegacy(Blackhole blackhole) {
+        for (int i = 0; i < lotIds.length; i++) {
+            blackhole.consume(legacyNormalize(lotIds[i]).equals(legacyNormalize(otherLotIds[i])));
+        }
+    }
+
+    @Benchmark
+    public void areEquivalent(Blackhole blackhole) {
+        for (int i = 0; i < lotIds.length; i++) {
+            blackhole.consume(lotIdNormalizer.areEquivalent(lotIds[i], otherLotIds[i]));
+        }
+    }
+
+    /** The implementation before the single-pass rewrite, kept as the baseline. */
+    private static String legacyNormalize(String rawLotId) {
+        return rawLotId.replaceAll("[\\-\\s]", "").toUpperCase(Locale.ROOT);
+    }
+
+    private static String format(String canonical, int variant) {
+        String digits = canonical.substring(3);
+        return switch (variant % 3) {
+            case 0 -> "LOT-" + digits;
+            case 1 -> "lot " + digits;
+            default -> "Lot-" + digits.substring(0, 3) + " " + digits.substring(3);
+        };
+    }
+}
@@ -0,0 +1,202 @@
+package com.steelworks.benchmark;
+
+import com.steelworks.SteelworksApplication;
+import com.steelworks.dto.ConsolidatedLotView;
+import com.steelworks.dto.DashboardSummaryDTO;
+import com.steelworks.dto.DataConflictDTO;
+import com.steelworks.dto.LotSearchRequest;
+import com.steelworks.dto.LotSearchResult;
+import com.steelworks.dto.OrphanedRecordDTO;
+import com.steelworks.dto.ShippingRiskAlertDTO;
+import com.steelworks.enums.TimeGrouping;
+import com.steelworks.ingest.SyntheticPlantGenerator;
+import com.steelworks.ingest.SyntheticPlantSpec;
+import com.steelworks.service.DashboardService;
+import com.steelworks.service.DataIntegrityService;
+import com.steelworks.service.LotLookupService;
+import com.steelworks.service.ShippingStatusService;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * End-to-end service benchmarks against a {@link SyntheticPlantGenerator synthetic plant} of 10k,
+ * 100k and 1M lots. Each trial starts the application without its web layer, seeds a fresh
+ * database and calls the services the API controllers use, so query plans, JPA mapping and
+ * in-memory indexes are all measured.
+ *
+ * <p>
+ * The database is an in-memory H2 in PostgreSQL mode by default. Run with
+ * {@code -Dbenchmark.database=postgres} to use a PostgreSQL Testcontainer created from
+ * {@code db/schema.sql} instead (needs Docker). Services that keep derived state (lot search
+ * index, orphan high-water marks, daily defect rollup) are measured in their steady state after
+ * warm-up; the dashboard is measured both served from its cache and rebuilt.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Djmh.includes=ServiceBenchmark -Djmh.lots=10000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class ServiceBenchmark {
+
+    private static final long SEED = 20_260_301L;
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    private int lots;
+
+    private ConfigurableApplicationContext context;
+    private PostgreSQLContainer<?> postgres;
+
+    private LotLookupService lotLookupService;
+    private DataIntegrityService dataIntegrityService;
+    private ShippingStatusService shippingStatusService;
+    private DashboardService dashboardService;
+
+    private LotSearchRequest[] searchRequests;
+    private long[] lotIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Passed as command line arguments, which take precedence over application.properties.
+        Map<String, String> properties = new HashMap<>();
+        properties.put("sentry.enabled", "false");
+        properties.put("logging.level.com.steelworks", "WARN");
+        properties.put("steelworks.dashboard.cache.stale-while-revalidate", "false");
+        if ("postgres".equalsIgnoreCase(System.getProperty("benchmark.database", "h2"))) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            new ResourceDatabasePopulator(new FileSystemResource(Path.of("db", "schema.sql")))
+                    .execute(new DriverManagerDataSource(postgres.getJdbcUrl(),
+                            postgres.getUsername(), postgres.getPassword()));
+            String url = postgres.getJdbcUrl();
+            properties.put("spring.datasource.url",
+                    url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true");
+            properties.put("spring.datasource.username", postgres.getUsername());
+            properties.put("spring.datasource.password", postgres.getPassword());
+        } else {
+            properties.put("spring.datasource.url", "jdbc:h2:mem:benchmark-" + lots
+                    + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+            properties.put("spring.jpa.properties.hibernate.dialect",
+                    "org.hibernate.dialect.H2Dialect");
+        }
+
+        context = new SpringApplicationBuilder(SteelworksApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(properties.entrySet().stream()
+                        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+        lotLookupService = context.getBean(LotLookupService.class);
+        dataIntegrityService = context.getBean(DataIntegrityService.class);
+        shippingStatusService = context.getBean(ShippingStatusService.class);
+        dashboardService = context.getBean(DashboardService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        context.getBean(SyntheticPlantGenerator.class).generate(SyntheticPlantSpec.of(lots, SEED));
+        lotIds = jdbcTemplate.queryForList("SELECT id FROM lots", Long.class).stream()
+                .mapToLong(Long::longValue).toArray();
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        searchRequests = new LotSearchRequest[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            LotSearchRequest request = new LotSearchRequest();
+            String identifier = jdbcTemplate.queryForObject(
+                    "SELECT lot_identifier FROM lots WHERE id = ?", String.class,
+                    lotIds[random.nextInt(lotIds.length)]);
+            // Alternate a whole Lot ID, written differently, with a five-digit fragment.
+            request.setLotId(i % 2 == 0
+                    ? identifier.toLowerCase(Locale.ROOT).replace("-", " ")
+                    : identifier.substring(identifier.length() - 5));
+            searchRequests[i] = request;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Benchmark
+    public List<LotSearchResult> searchLots() {
+        return lotLookupService.searchLots(searchRequests[nextIndex() % QUERIES]);
+    }
+
+    @Benchmark
+    public ConsolidatedLotView getConsolidatedView() {
+        return lotLookupService.getConsolidatedView(lotIds[nextIndex() % lotIds.length]);
+    }
+
+    @Benchmark
+    public List<OrphanedRecordDTO> findOrphanedRecords() {
+        return lotLookupService.findOrphanedRecords(true);
+    }
+
+    @Benchmark
+    public List<OrphanedRecordDTO> findOrphanedRecordsFullScan() {
+        return lotLookupService.findOrphanedRecords(false);
+    }
+
+    @Benchmark
+    public List<DataConflictDTO> detectDataConflicts() {
+        return dataIntegrityService.detectDataConflicts();
+    }
+
+    @Benchmark
+    public List<ShippingRiskAlertDTO> getProblematicShippedBatches() {
+        return shippingStatusService.getProblematicShippedBatches();
+    }
+
+    @Benchmark
+    public DashboardSummaryDTO getDashboardSummary() {
+        return dashboardService.getDashboardSummary(TimeGrouping.WEEKLY);
+    }
+
+    @Benchmark
+    public DashboardSummaryDTO getDashboardSummaryUncached() {
+        dashboardService.invalidateSummaries();
+        return dashboardService.getDashboardSummary(TimeGrouping.WEEKLY);
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & Integer.MAX_VALUE;
+        return next;
+    }
+}
@@ -0,0 +1,100 @@
+package com.steelworks.loadtest;
+
+import com.steelworks.enums.TimeGrouping;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * The API calls a load test mixes, each named by the key used in {@code loadtest.mix.*} and
+ * {@code loadtest.budget.*}.
+ */
+enum Endpoint {
+
+    /** Lot search, alternating a whole Lot ID typed differently with a five-digit fragment. */
+    SEARCH("search") {
+        @Override
+        String path(LoadDriver.Targets targets, SplittableRandom random) {
+            String identifier = targets.lotIdentifiers()[random.nextInt(
+                    targets.lotIdentifiers().length)];
+            String query = random.nextBoolean()
+                    ? identifier.toLowerCase(Locale.ROOT).replace("-", " ")
+                    : identifier.substring(identifier.length() - 5);
+            return "/api/lots/search?lotId=" + URLEncoder.encode(query, StandardCharsets.UTF_8);
+        }
+    },
+
+    /** Consolidated view of a random lot. */
+    CONSOLIDATED("consolidated") {
+        @Override
+        String path(LoadDriver.Targets targets, SplittableRandom random) {
+            return "/api/lots/" + targets.lotIds()[random.nextInt(targets.lotIds().length)]
+                    + "/consolidated";
+        }
+    },
+
+    /** Full orphaned-record scan. */
+    ORPHANED("orphaned") {
+        @Override
+        String path(LoadDriver.Targets targets, SplittableRandom random) {
+            return "/api/lots/orphaned";
+        }
+    },
+
+    /** Multi-line conflict report. */
+    CONFLICTS("conflicts") {
+        @Override
+        String path(LoadDriver.Targets targets, SplittableRandom random) {
+            return "/api/lots/conflicts";
+        }
+    },
+
+    /** Dashboard summary in a random time grouping. */
+    DASHBOARD("dashboard") {
+        @Override
+        String path(LoadDriver.Targets targets, SplittableRandom random) {
+            TimeGrouping[] groupings = TimeGrouping.values();
+            return "/api/dashboard/summary?timeGrouping="
+                    + groupings[random.nextInt(groupings.length)];
+        }
+    };
+
+    private final String key;
+
+    Endpoint(String key) {
+        this.key = key;
+    }
+
+    /**
+     * @return the endpoint's name in configuration keys and reports
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * @param targets
+     *            lots of the seeded plant
+     * @param random
+     *            the calling terminal's random stream
+     * @return path and query of the next request
+     */
+    abstract String path(LoadDriver.Targets targets, SplittableRandom random);
+
+    /**
+     * @param key
+     *            configuration name of an endpoint
+     * @return the endpoint
+     * @throws IllegalArgumentException
+     *             if no endpoint has that name
+     */
+    static Endpoint fromKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equals(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint: " + key);
+    }
+}
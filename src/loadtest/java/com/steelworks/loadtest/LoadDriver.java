@@ -0,0 +1,214 @@
+package com.steelworks.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Replays a request mix against a running application from a number of terminals, each a thread
+ * with one request in flight at a time, and records latencies per endpoint as HdrHistograms.
+ *
+ * <p>
+ * Terminals issue requests on a fixed schedule, one every think time, starting at random offsets.
+ * Latency is measured from a request's scheduled start rather than from when it was sent, so a
+ * terminal held up by a slow response charges the wait to the requests it delayed instead of
+ * silently issuing fewer of them (coordinated omission). Requests scheduled during the warm-up are
+ * sent but not recorded.
+ */
+final class LoadDriver {
+
+    /** Highest latency recorded, in microseconds; slower requests are recorded at this value. */
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final LoadTestConfig config;
+    private final Targets targets;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+
+    /**
+     * Lots requests are drawn from.
+     *
+     * @param lotIds
+     *            database ids
+     * @param lotIdentifiers
+     *            Lot IDs
+     */
+    record Targets(long[] lotIds, String[] lotIdentifiers) {
+    }
+
+    /**
+     * Outcome of a run.
+     *
+     * @param latencies
+     *            successful request latencies per endpoint, in microseconds
+     * @param errors
+     *            failed requests per endpoint (error status, timeout or I/O failure)
+     * @param measured
+     *            length of the recorded part of the run
+     */
+    record Result(Map<Endpoint, Histogram> latencies, Map<Endpoint, Long> errors,
+            Duration measured) {
+
+        long requests() {
+            long requests = 0;
+            for (Histogram histogram : latencies.values()) {
+                requests += histogram.getTotalCount();
+            }
+            for (long count : errors.values()) {
+                requests += count;
+            }
+            return requests;
+        }
+
+        long failures() {
+            long failures = 0;
+            for (long count : errors.values()) {
+                failures += count;
+            }
+            return failures;
+        }
+
+        double throughput() {
+            return requests() * 1e9 / measured.toNanos();
+        }
+    }
+
+    LoadDriver(URI baseUri, LoadTestConfig config, Targets targets) {
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.requestTimeout()).build();
+        this.baseUri = baseUri;
+        this.config = config;
+        this.targets = targets;
+        Map<Endpoint, Integer> mix = config.mix();
+        this.endpoints = mix.keySet().toArray(new Endpoint[0]);
+        this.cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += mix.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Runs the warm-up and the measured period.
+     *
+     * @return latencies and errors of the measured period
+     * @throws InterruptedException
+     *             if interrupted while waiting for the terminals
+     */
+    Result run() throws InterruptedException {
+        int terminals = config.terminals();
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+
+        List<Callable<Terminal>> tasks = new ArrayList<>(terminals);
+        for (int i = 0; i < terminals; i++) {
+            Terminal terminal = new Terminal(new SplittableRandom(config.seed() + i));
+            tasks.add(() -> terminal.run(start, measureFrom, end));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(terminals);
+        Map<Endpoint, Histogram> latencies = new EnumMap<>(Endpoint.class);
+        Map<Endpoint, Long> errors = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : endpoints) {
+            latencies.put(endpoint, newHistogram());
+            errors.put(endpoint, 0L);
+        }
+        try {
+            for (Future<Terminal> future : executor.invokeAll(tasks)) {
+                Terminal terminal = future.get();
+                for (int i = 0; i < endpoints.length; i++) {
+                    latencies.get(endpoints[i]).add(terminal.latencies[i]);
+                    errors.merge(endpoints[i], terminal.errors[i], Long::sum);
+                }
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Load test terminal failed", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Result(latencies, errors, Duration.ofNanos(end - measureFrom));
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+    }
+
+    /** Draws the index of the next request's endpoint according to the mix weights. */
+    private int pick(SplittableRandom random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (draw >= cumulativeWeights[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    /** One simulated user; its histograms are merged once the run ends. */
+    private final class Terminal {
+
+        private final SplittableRandom random;
+        private final Histogram[] latencies = new Histogram[endpoints.length];
+        private final long[] errors = new long[endpoints.length];
+
+        Terminal(SplittableRandom random) {
+            this.random = random;
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = newHistogram();
+            }
+        }
+
+        Terminal run(long start, long measureFrom, long end) throws InterruptedException {
+            long interval = config.thinkTime().toNanos();
+            long scheduled = interval > 0 ? start + random.nextLong(interval) : start;
+            while (scheduled - end < 0) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                int index = pick(random);
+                boolean ok = send(endpoints[index].path(targets, random));
+                long done = System.nanoTime();
+                if (scheduled - measureFrom >= 0) {
+                    if (ok) {
+                        latencies[index].recordValue(Math.min(MAX_LATENCY_MICROS,
+                                TimeUnit.NANOSECONDS.toMicros(done - scheduled)));
+                    } else {
+                        errors[index]++;
+                    }
+                }
+                scheduled = interval > 0 ? scheduled + interval : done;
+            }
+            return this;
+        }
+
+        private boolean send(String path) throws InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                    .timeout(config.requestTimeout()).GET().build();
+            try {
+                return client.send(request, HttpResponse.BodyHandlers.discarding())
+                        .statusCode() < 400;
+            } catch (IOException ex) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.steelworks.loadtest;
+
+import com.steelworks.SteelworksApplication;
+import com.steelworks.ingest.SyntheticPlantGenerator;
+import com.steelworks.ingest.SyntheticPlantSpec;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * HTTP load test of the lot and dashboard APIs. Starts a PostgreSQL Testcontainer created from
+ * {@code db/schema.sql}, fills it through {@link SyntheticPlantGenerator}, starts the application
+ * on a random port and replays the configured request mix from concurrent terminals through
+ * {@link LoadDriver}. The defaults model the shift-change spike: 300 terminals each issuing
+ * a request per second.
+ *
+ * <p>
+ * Per-endpoint p50/p95/p99 latencies are logged and each endpoint's HdrHistogram percentile
+ * distribution is written to {@code loadtest.output-dir} for plotting or comparing runs. The run
+ * fails when an endpoint exceeds its latency budget, too many requests fail or throughput falls
+ * below {@code loadtest.budget.min-throughput}. Settings live in {@code loadtest.properties}.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.mix=dashboard-wall -Dloadtest.terminals=100
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTest.class);
+
+    private LoadTest() {
+    }
+
+    /**
+     * @param args
+     *            ignored; settings come from {@code loadtest.properties} and system properties
+     * @throws IllegalStateException
+     *             if a budget is exceeded
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadTestConfig config = LoadTestConfig.load();
+        List<String> violations;
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")) {
+            postgres.start();
+            new ResourceDatabasePopulator(new FileSystemResource(Path.of("db", "schema.sql")))
+                    .execute(new DriverManagerDataSource(postgres.getJdbcUrl(),
+                            postgres.getUsername(), postgres.getPassword()));
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                    SteelworksApplication.class).properties(properties(postgres)).run()) {
+                context.getBean(SyntheticPlantGenerator.class)
+                        .generate(SyntheticPlantSpec.of(config.lots(), config.seed()));
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                LoadDriver.Result result = new LoadDriver(URI.create("http://localhost:" + port),
+                        config, targets(context.getBean(JdbcTemplate.class))).run();
+                report(config, result);
+                violations = check(config, result);
+            }
+        }
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException("Load test budgets exceeded: "
+                    + String.join("; ", violations));
+        }
+    }
+
+    private static Map<String, Object> properties(PostgreSQLContainer<?> postgres) {
+        Map<String, Object> properties = new HashMap<>();
+        String url = postgres.getJdbcUrl();
+        properties.put("spring.datasource.url",
+                url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true");
+        properties.put("spring.datasource.username", postgres.getUsername());
+        properties.put("spring.datasource.password", postgres.getPassword());
+        properties.put("server.port", "0");
+        properties.put("sentry.enabled", "false");
+        // Per-request INFO logging would dominate the measurements.
+        properties.put("logging.level.com.steelworks", "WARN");
+        properties.put("logging.level.com.steelworks.loadtest", "INFO");
+        return properties;
+    }
+
+    private static LoadDriver.Targets targets(JdbcTemplate jdbcTemplate) {
+        List<Long> ids = new ArrayList<>();
+        List<String> identifiers = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, lot_identifier FROM lots ORDER BY id", rs -> {
+            ids.add(rs.getLong(1));
+            identifiers.add(rs.getString(2));
+        });
+        return new LoadDriver.Targets(ids.stream().mapToLong(Long::longValue).toArray(),
+                identifiers.toArray(new String[0]));
+    }
+
+    private static void report(LoadTestConfig config, LoadDriver.Result result)
+            throws IOException {
+        Files.createDirectories(config.outputDir());
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Mix {}: {} terminal(s), {} lot(s), {} request(s) in {}s, {} req/s, "
+                    + "{} failed", config.mixName(), config.terminals(), config.lots(),
+                    result.requests(), result.measured().toSeconds(),
+                    String.format(Locale.ROOT, "%.1f", result.throughput()), result.failures());
+            LOGGER.info(String.format(Locale.ROOT, "%-13s %9s %7s %9s %9s %9s %9s", "endpoint",
+                    "requests", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        }
+        for (Map.Entry<Endpoint, Histogram> entry : result.latencies().entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info(String.format(Locale.ROOT, "%-13s %9d %7d %9.1f %9.1f %9.1f %9.1f",
+                        entry.getKey().key(), histogram.getTotalCount(),
+                        result.errors().get(entry.getKey()), millis(histogram, 50),
+                        millis(histogram, 95), millis(histogram, 99),
+                        histogram.getMaxValue() / 1000.0));
+            }
+            Path file = config.outputDir()
+                    .resolve(config.mixName() + "-" + entry.getKey().key() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false,
+                    StandardCharsets.UTF_8)) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    /** Compares the run against the configured budgets. */
+    private static List<String> check(LoadTestConfig config, LoadDriver.Result result) {
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<Endpoint, Histogram> entry : result.latencies().entrySet()) {
+            String endpoint = entry.getKey().key();
+            Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0) {
+                violations.add(endpoint + ": no successful requests");
+                continue;
+            }
+            LoadTestConfig.Budget budget = config.budget(entry.getKey());
+            checkPercentile(violations, endpoint, histogram, 50, budget.p50());
+            checkPercentile(violations, endpoint, histogram, 95, budget.p95());
+            checkPercentile(violations, endpoint, histogram, 99, budget.p99());
+        }
+        double errorPercent = result.requests() == 0 ? 0
+                : 100.0 * result.failures() / result.requests();
+        if (errorPercent > config.maxErrorPercent()) {
+            violations.add(String.format(Locale.ROOT, "%.2f%% of requests failed, budget %s%%",
+                    errorPercent, config.maxErrorPercent()));
+        }
+        if (result.throughput() < config.minThroughput()) {
+            violations.add(String.format(Locale.ROOT, "throughput %.1f req/s, budget %s req/s",
+                    result.throughput(), config.minThroughput()));
+        }
+        return violations;
+    }
+
+    private static void checkPercentile(List<String> violations, String endpoint,
+            Histogram histogram, double percentile, double budgetMillis) {
+        double actual = millis(histogram, percentile);
+        if (budgetMillis > 0 && actual > budgetMillis) {
+            violations.add(String.format(Locale.ROOT, "%s p%.0f %.1f ms, budget %s ms", endpoint,
+                    percentile, actual, budgetMillis));
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
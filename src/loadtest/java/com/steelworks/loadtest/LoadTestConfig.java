@@ -0,0 +1,180 @@
+package com.steelworks.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Load test settings from {@code loadtest.properties} on the classpath, each overridable by a
+ * system property of the same name.
+ */
+final class LoadTestConfig {
+
+    private static final String RESOURCE = "loadtest.properties";
+    private static final String PREFIX = "loadtest.";
+
+    private final Properties properties;
+
+    /**
+     * Latency budget of one endpoint, in milliseconds; zero leaves a percentile unchecked.
+     *
+     * @param p50
+     *            median
+     * @param p95
+     *            95th percentile
+     * @param p99
+     *            99th percentile
+     */
+    record Budget(double p50, double p95, double p99) {
+    }
+
+    private LoadTestConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @return the packaged settings overlaid with {@code -Dloadtest.*} system properties
+     * @throws IOException
+     *             if {@code loadtest.properties} cannot be read
+     */
+    static LoadTestConfig load() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = LoadTestConfig.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IOException(RESOURCE + " not found on the classpath");
+            }
+            properties.load(in);
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(PREFIX)) {
+                properties.setProperty(name, System.getProperty(name));
+            }
+        }
+        return new LoadTestConfig(properties);
+    }
+
+    int lots() {
+        return Integer.parseInt(required("lots"));
+    }
+
+    long seed() {
+        return Long.parseLong(required("seed"));
+    }
+
+    /**
+     * @return number of concurrent terminals, each with one request in flight at a time
+     */
+    int terminals() {
+        return Integer.parseInt(required("terminals"));
+    }
+
+    /**
+     * @return interval at which each terminal issues requests; zero sends back to back
+     */
+    Duration thinkTime() {
+        return duration("think-time");
+    }
+
+    Duration warmup() {
+        return duration("warmup");
+    }
+
+    Duration duration() {
+        return duration("duration");
+    }
+
+    Duration requestTimeout() {
+        return duration("request-timeout");
+    }
+
+    Path outputDir() {
+        return Path.of(required("output-dir"));
+    }
+
+    String mixName() {
+        return required("mix");
+    }
+
+    /**
+     * @return relative weights of the endpoints in the selected mix, in declaration order
+     * @throws IllegalArgumentException
+     *             if the mix is undefined, names an unknown endpoint or has no positive weight
+     */
+    Map<Endpoint, Integer> mix() {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (Map.Entry<String, String> entry : pairs("mix." + mixName()).entrySet()) {
+            int weight = Integer.parseInt(entry.getValue());
+            if (weight > 0) {
+                weights.put(Endpoint.fromKey(entry.getKey()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix " + mixName() + " has no endpoint weights");
+        }
+        return weights;
+    }
+
+    /**
+     * @return the endpoint's latency budget, all zero when none is configured
+     */
+    Budget budget(Endpoint endpoint) {
+        String key = PREFIX + "budget." + endpoint.key();
+        if (properties.getProperty(key) == null) {
+            return new Budget(0, 0, 0);
+        }
+        Map<String, String> limits = pairs("budget." + endpoint.key());
+        return new Budget(millis(limits, "p50"), millis(limits, "p95"), millis(limits, "p99"));
+    }
+
+    /**
+     * @return completed requests per second the run must reach, zero for no minimum
+     */
+    double minThroughput() {
+        return Double.parseDouble(properties.getProperty(PREFIX + "budget.min-throughput", "0"));
+    }
+
+    /**
+     * @return share of failed requests, in percent, above which the run fails
+     */
+    double maxErrorPercent() {
+        return Double.parseDouble(
+                properties.getProperty(PREFIX + "budget.max-error-percent", "100"));
+    }
+
+    private String required(String key) {
+        String value = properties.getProperty(PREFIX + key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(PREFIX + key + " is not set");
+        }
+        return value.trim();
+    }
+
+    private Duration duration(String key) {
+        return DurationStyle.detectAndParse(required(key));
+    }
+
+    /** Parses a {@code name:value,name:value} setting. */
+    private Map<String, String> pairs(String key) {
+        Map<String, String> pairs = new LinkedHashMap<>();
+        for (String pair : required(key).split(",")) {
+            int colon = pair.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException(
+                        PREFIX + key + ": expected name:value, got " + pair.trim());
+            }
+            pairs.put(pair.substring(0, colon).trim(), pair.substring(colon + 1).trim());
+        }
+        return pairs;
+    }
+
+    private static double millis(Map<String, String> limits, String percentile) {
+        String value = limits.get(percentile);
+        return value == null ? 0 : Double.parseDouble(value);
+    }
+}
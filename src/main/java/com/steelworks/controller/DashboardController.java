@@ -1,27 +1,49 @@
 package com.steelworks.controller;
 
+import com.steelworks.dto.ControlChartDTO;
 import com.steelworks.dto.DashboardSummaryDTO;
+import com.steelworks.dto.DefectTimeSeriesDTO;
+import com.steelworks.enums.ControlChartType;
 import com.steelworks.enums.TimeGrouping;
 import com.steelworks.service.DashboardService;
+import com.steelworks.service.DefectAnalysisService;
+import com.steelworks.service.SpcService;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
- * REST controller for the Summary Dashboard ("Meeting Ready" view). AC5: Production line rankings.
- * AC6: Shipping risk alerts. AC7: Defect trending. AC8: Supports time grouping toggle (DAILY,
- * WEEKLY, MONTHLY); defaults to WEEKLY.
+ * REST controller for the Summary Dashboard ("Meeting Ready" view). AC5: Production line rankings
+ * and defect rate control charts. AC6: Shipping risk alerts. AC7: Defect trending. AC8: Supports
+ * time grouping toggle (DAILY, WEEKLY, MONTHLY); defaults to WEEKLY. Defect time series and
+ * control charts cover arbitrary ranges.
  */
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
 
+    /** Length of the rolling window ending today used when no range is given. */
+    static final int DEFAULT_TREND_DAYS = 90;
+
+    /** Length of the rolling control chart window ending today used when no range is given. */
+    static final int DEFAULT_CONTROL_CHART_DAYS = 30;
+
     private final DashboardService dashboardService;
+    private final DefectAnalysisService defectAnalysisService;
+    private final SpcService spcService;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService,
+            DefectAnalysisService defectAnalysisService, SpcService spcService) {
         this.dashboardService = dashboardService;
+        this.defectAnalysisService = defectAnalysisService;
+        this.spcService = spcService;
     }
 
     /**
@@ -38,4 +60,91 @@ public class DashboardController {
             @RequestParam(required = false, defaultValue = "WEEKLY") TimeGrouping timeGrouping) {
         return ResponseEntity.ok(dashboardService.getDashboardSummary(timeGrouping));
     }
+
+    /**
+     * Returns defect counts per day, week or month for each defect type and production line. AC7:
+     * Defect trending over any range, up to {@value DefectAnalysisService#MAX_TIME_SERIES_DAYS}
+     * days. Give startDate and endDate for a fixed range, or days for a rolling window ending on
+     * endDate (today by default).
+     *
+     * @param startDate
+     *            optional first day of the range
+     * @param endDate
+     *            optional last day of the range; defaults to today
+     * @param days
+     *            optional rolling window length, used when startDate is absent; defaults to
+     *            {@value #DEFAULT_TREND_DAYS}
+     * @param timeGrouping
+     *            optional bucket size (DAILY, WEEKLY, MONTHLY); defaults to WEEKLY
+     * @return defect time series
+     */
+    @GetMapping("/trends")
+    public ResponseEntity<DefectTimeSeriesDTO> getDefectTimeSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer days,
+            @RequestParam(required = false, defaultValue = "WEEKLY") TimeGrouping timeGrouping) {
+        LocalDate effectiveEnd = endDate == null ? LocalDate.now() : endDate;
+        try {
+            LocalDate effectiveStart = rangeStart(startDate, effectiveEnd, days,
+                    DEFAULT_TREND_DAYS, DefectAnalysisService.MAX_TIME_SERIES_DAYS);
+            return ResponseEntity.ok(defectAnalysisService.computeDefectTimeSeries(effectiveStart,
+                    effectiveEnd, timeGrouping));
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage(),
+                    exception);
+        }
+    }
+
+    /**
+     * Returns a defect rate control chart per production line and shift, one point per production
+     * day, with control limits and Western Electric rule violations. AC5: Ranks lines by defect
+     * rate rather than count. Ranges are given as for {@link #getDefectTimeSeries}, up to
+     * {@value SpcService#MAX_CHART_DAYS} days.
+     *
+     * @param chartType
+     *            optional chart type: U for issues per unit actual (default), P for the share of
+     *            production runs with an issue
+     * @param startDate
+     *            optional first day of the range
+     * @param endDate
+     *            optional last day of the range; defaults to today
+     * @param days
+     *            optional rolling window length, used when startDate is absent; defaults to
+     *            {@value #DEFAULT_CONTROL_CHART_DAYS}
+     * @return control charts, highest defect rate first
+     */
+    @GetMapping("/control-charts")
+    public ResponseEntity<List<ControlChartDTO>> getControlCharts(
+            @RequestParam(required = false, defaultValue = "U") ControlChartType chartType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer days) {
+        LocalDate effectiveEnd = endDate == null ? LocalDate.now() : endDate;
+        try {
+            LocalDate effectiveStart = rangeStart(startDate, effectiveEnd, days,
+                    DEFAULT_CONTROL_CHART_DAYS, SpcService.MAX_CHART_DAYS);
+            return ResponseEntity.ok(spcService.getControlCharts(chartType, effectiveStart,
+                    effectiveEnd));
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage(),
+                    exception);
+        }
+    }
+
+    /**
+     * Returns startDate if given, otherwise the first day of a window of days (defaultDays when
+     * absent) ending on endDate.
+     */
+    private static LocalDate rangeStart(LocalDate startDate, LocalDate endDate, Integer days,
+            int defaultDays, int maxDays) {
+        if (startDate != null) {
+            return startDate;
+        }
+        int window = days == null ? defaultDays : days;
+        if (window < 1 || window > maxDays) {
+            throw new IllegalArgumentException("days must be between 1 and " + maxDays);
+        }
+        return endDate.minusDays(window - 1L);
+    }
 }
@@ -1,27 +1,42 @@
 package com.steelworks.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.steelworks.dto.ConsolidatedLotView;
+import com.steelworks.dto.ConsolidatedViewRequest;
 import com.steelworks.dto.DataConflictDTO;
+import com.steelworks.dto.LotSearchPage;
 import com.steelworks.dto.LotSearchRequest;
 import com.steelworks.dto.LotSearchResult;
+import com.steelworks.dto.LotSuggestion;
 import com.steelworks.dto.OrphanedRecordDTO;
 import com.steelworks.service.DataIntegrityService;
 import com.steelworks.service.LotLookupService;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * REST controller for lot lookup operations. Supports searching by Lot ID (with fuzzy matching) and
- * date range, and provides data integrity endpoints.
+ * date range, keyset paging and NDJSON streaming of search results, "did you mean" suggestions for
+ * mistyped Lot IDs, single and bulk consolidated views, and provides data integrity endpoints.
  */
 @RestController
 @RequestMapping("/api/lots")
@@ -29,18 +44,33 @@ public class LotLookupController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LotLookupController.class);
 
+    /** Response header carrying the cursor of the next search page, absent on the last page. */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Response header listing the closest lot identifiers, comma-separated, when a search by Lot ID
+     * finds nothing.
+     */
+    public static final String DID_YOU_MEAN_HEADER = "X-Did-You-Mean";
+
     private final LotLookupService lotLookupService;
     private final DataIntegrityService dataIntegrityService;
+    private final ObjectMapper objectMapper;
 
     public LotLookupController(LotLookupService lotLookupService,
-            DataIntegrityService dataIntegrityService) {
+            DataIntegrityService dataIntegrityService, ObjectMapper objectMapper) {
         this.lotLookupService = lotLookupService;
         this.dataIntegrityService = dataIntegrityService;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Searches lots by ID and/or date range. AC1: Returns cross-referenced data from all three
-     * sources. AC2: Supports fuzzy matching on Lot ID.
+     * sources. AC2: Supports fuzzy matching on Lot ID. Without {@code cursor} and {@code limit} the
+     * full result list is returned sorted by lot identifier. With either parameter the response is
+     * one keyset page ordered by normalized lot identifier, and the {@value #NEXT_CURSOR_HEADER}
+     * header carries the cursor of the next page. When a Lot ID matches nothing, the
+     * {@value #DID_YOU_MEAN_HEADER} header suggests the closest lot identifiers.
      *
      * @param lotId
      *            optional Lot ID (supports fuzzy input)
@@ -48,26 +78,114 @@ public class LotLookupController {
      *            optional start of date range
      * @param endDate
      *            optional end of date range
+     * @param cursor
+     *            optional cursor returned by the previous page
+     * @param limit
+     *            optional page size (capped at {@value LotLookupService#MAX_PAGE_SIZE})
      * @return list of matching lot results
      */
     @GetMapping("/search")
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
     public ResponseEntity<List<LotSearchResult>> searchLots(
             @RequestParam(required = false) String lotId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         if (LOGGER.isInfoEnabled()) {
-            LOGGER.info("Lot search request received: lotId='{}', startDate={}, endDate={}", lotId,
-                    startDate, endDate);
+            LOGGER.info(
+                    "Lot search request received: lotId='{}', startDate={}, endDate={}, cursor={}, limit={}",
+                    lotId, startDate, endDate, cursor, limit);
         }
-        LotSearchRequest request = new LotSearchRequest();
-        request.setLotId(lotId);
-        request.setStartDate(startDate);
-        request.setEndDate(endDate);
-        List<LotSearchResult> results = lotLookupService.searchLots(request);
+        LotSearchRequest request = toSearchRequest(lotId, startDate, endDate);
+        if (cursor == null && limit == null) {
+            List<LotSearchResult> results = lotLookupService.searchLots(request);
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("Lot search completed with {} result(s)", results.size());
+            }
+            return withSuggestions(ResponseEntity.ok(), request, results).body(results);
+        }
+
+        request.setCursor(cursor);
+        request.setLimit(limit);
+        LotSearchPage page;
+        try {
+            page = lotLookupService.searchLotsPage(request);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage(),
+                    exception);
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Lot search page completed with {} result(s), nextCursor={}",
+                    page.getResults().size(), page.getNextCursor());
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        if (cursor == null) {
+            withSuggestions(response, toSearchRequest(lotId, startDate, endDate),
+                    page.getResults());
+        }
+        return response.body(page.getResults());
+    }
+
+    /**
+     * Suggests lots for a Lot ID that may have been mistyped. AC2: Ranks lots whose normalized
+     * identifier is within a couple of edits of the requested one, closest first.
+     *
+     * @param lotId
+     *            the Lot ID as typed
+     * @param startDate
+     *            optional start of date range
+     * @param endDate
+     *            optional end of date range
+     * @param limit
+     *            optional number of suggestions (default
+     *            {@value LotLookupService#DEFAULT_SUGGESTION_LIMIT})
+     * @return ranked suggestions
+     */
+    @GetMapping("/search/suggestions")
+    public ResponseEntity<List<LotSuggestion>> suggestLots(@RequestParam String lotId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer limit) {
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Lot suggestions requested: lotId='{}', startDate={}, endDate={}, limit={}",
+                    lotId, startDate, endDate, limit);
+        }
+        LotSearchRequest request = toSearchRequest(lotId, startDate, endDate);
+        request.setLimit(limit);
+        return ResponseEntity.ok(lotLookupService.suggestLots(request));
+    }
+
+    /**
+     * Streams every matching lot as newline-delimited JSON, one {@link LotSearchResult} per line,
+     * ordered by normalized lot identifier. AC1, AC2: Same matching as {@code /search}; results
+     * are assembled and flushed in batches so the first lines arrive before the search completes.
+     *
+     * @param lotId
+     *            optional Lot ID (supports fuzzy input)
+     * @param startDate
+     *            optional start of date range
+     * @param endDate
+     *            optional end of date range
+     * @return NDJSON response body
+     */
+    @GetMapping(value = "/search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public ResponseEntity<StreamingResponseBody> streamSearchLots(
+            @RequestParam(required = false) String lotId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         if (LOGGER.isInfoEnabled()) {
-            LOGGER.info("Lot search completed with {} result(s)", results.size());
+            LOGGER.info("Lot search stream requested: lotId='{}', startDate={}, endDate={}", lotId,
+                    startDate, endDate);
         }
-        return ResponseEntity.ok(results);
+        LotSearchRequest request = toSearchRequest(lotId, startDate, endDate);
+        StreamingResponseBody body = outputStream -> lotLookupService.streamSearchLots(request,
+                batch -> writeNdjson(outputStream, batch));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     /**
@@ -92,18 +210,52 @@ public class LotLookupController {
         return ResponseEntity.ok(consolidatedLotView);
     }
 
+    /**
+     * Streams consolidated views for many lots as newline-delimited JSON, one
+     * {@link ConsolidatedLotView} per line. AC1: Same cross-referencing as the single-lot view.
+     * AC2: Lots may be named by Lot ID with fuzzy matching. AC9: Source references are included.
+     * Views are assembled and flushed in batches; unknown lots are left out.
+     *
+     * @param request
+     *            lot ids and/or Lot IDs, at most {@value LotLookupService#MAX_CONSOLIDATED_LOTS}
+     * @return NDJSON response body
+     */
+    @PostMapping(value = "/consolidated", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public ResponseEntity<StreamingResponseBody> streamConsolidatedViews(
+            @RequestBody ConsolidatedViewRequest request) {
+        List<Long> lotIds;
+        try {
+            lotIds = lotLookupService.resolveLotIds(request);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage(),
+                    exception);
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Bulk consolidated view requested for {} lot(s)", lotIds.size());
+        }
+        StreamingResponseBody body = outputStream -> lotLookupService
+                .streamConsolidatedViews(lotIds, batch -> writeNdjson(outputStream, batch));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     /**
      * Returns all orphaned records (lots missing from one or more data sources). AC10: Flags
      * unmatched records as "Orphaned Data."
      *
+     * @param incremental
+     *            re-examine only lots touched since the previous run (optional)
      * @return list of orphaned record details
      */
     @GetMapping("/orphaned")
-    public ResponseEntity<List<OrphanedRecordDTO>> getOrphanedRecords() {
+    public ResponseEntity<List<OrphanedRecordDTO>> getOrphanedRecords(
+            @RequestParam(defaultValue = "false") boolean incremental) {
         if (LOGGER.isInfoEnabled()) {
-            LOGGER.info("Orphaned records query requested");
+            LOGGER.info("Orphaned records query requested (incremental={})", incremental);
         }
-        List<OrphanedRecordDTO> orphanedRecords = lotLookupService.findOrphanedRecords();
+        List<OrphanedRecordDTO> orphanedRecords = lotLookupService
+                .findOrphanedRecords(incremental);
         if (LOGGER.isInfoEnabled()) {
             LOGGER.info("Orphaned records query returned {} record(s)", orphanedRecords.size());
         }
@@ -127,4 +279,39 @@ public class LotLookupController {
         }
         return ResponseEntity.ok(dataConflicts);
     }
+
+    /** Adds the {@value #DID_YOU_MEAN_HEADER} header when a search by Lot ID found nothing. */
+    private ResponseEntity.BodyBuilder withSuggestions(ResponseEntity.BodyBuilder response,
+            LotSearchRequest request, List<LotSearchResult> results) {
+        if (!results.isEmpty() || request.getLotId() == null || request.getLotId().isBlank()) {
+            return response;
+        }
+        List<LotSuggestion> suggestions = lotLookupService.suggestLots(request);
+        if (!suggestions.isEmpty()) {
+            response.header(DID_YOU_MEAN_HEADER, suggestions.stream()
+                    .map(LotSuggestion::getLotIdentifier).collect(Collectors.joining(",")));
+        }
+        return response;
+    }
+
+    private LotSearchRequest toSearchRequest(String lotId, LocalDate startDate,
+            LocalDate endDate) {
+        LotSearchRequest request = new LotSearchRequest();
+        request.setLotId(lotId);
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+        return request;
+    }
+
+    private void writeNdjson(OutputStream outputStream, List<?> rows) {
+        try {
+            for (Object row : rows) {
+                outputStream.write(objectMapper.writeValueAsBytes(row));
+                outputStream.write('\n');
+            }
+            outputStream.flush();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
 }
@@ -10,6 +10,7 @@ import java.util.List;
  */
 public class ConsolidatedLotView {
 
+    private Long lotId;
     private String lotIdentifier;
     private String partNumber;
     private LocalDate createdDate;
@@ -37,6 +38,13 @@ public class ConsolidatedLotView {
     public ConsolidatedLotView() {
     }
 
+    public Long getLotId() {
+        return lotId;
+    }
+    public void setLotId(Long lotId) {
+        this.lotId = lotId;
+    }
+
     public String getLotIdentifier() {
         return lotIdentifier;
     }
@@ -0,0 +1,30 @@
+package com.steelworks.dto;
+
+import java.util.List;
+
+/**
+ * Input DTO for bulk consolidated views. Lots may be named by database id, by Lot ID (with fuzzy
+ * matching), or both; views come back in the order given, ids first.
+ */
+public class ConsolidatedViewRequest {
+
+    private List<Long> lotIds;
+    private List<String> lotIdentifiers;
+
+    public ConsolidatedViewRequest() {
+    }
+
+    public List<Long> getLotIds() {
+        return lotIds;
+    }
+    public void setLotIds(List<Long> lotIds) {
+        this.lotIds = lotIds;
+    }
+
+    public List<String> getLotIdentifiers() {
+        return lotIdentifiers;
+    }
+    public void setLotIdentifiers(List<String> lotIdentifiers) {
+        this.lotIdentifiers = lotIdentifiers;
+    }
+}
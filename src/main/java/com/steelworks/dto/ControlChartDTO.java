@@ -0,0 +1,172 @@
+package com.steelworks.dto;
+
+import com.steelworks.enums.ControlChartType;
+import com.steelworks.enums.WesternElectricRule;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for the defect rate control chart of one production line and shift. AC5: Defect rates are
+ * normalized by volume (production runs for P charts, units actual for U charts), so lines of
+ * different output compare fairly. Each point is one production day; the center line and the
+ * subgroup rate statistics cover the line and shift's whole history.
+ */
+public class ControlChartDTO {
+
+    private String lineName;
+    private String shift;
+    private ControlChartType chartType;
+    private double centerLine;
+    private long subgroupCount;
+    private double subgroupRateMean;
+    private double subgroupRateStandardDeviation;
+    private double periodRate;
+    private boolean outOfControl;
+    private List<Point> points;
+
+    /**
+     * One production day of a control chart.
+     */
+    public static class Point {
+
+        private LocalDate date;
+        private long sampleSize;
+        private long defects;
+        private double rate;
+        private double lowerControlLimit;
+        private double upperControlLimit;
+        private List<WesternElectricRule> violations;
+
+        public Point() {
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+        public void setDate(LocalDate date) {
+            this.date = date;
+        }
+
+        /** Production runs (P chart) or units actual (U chart) of the day. */
+        public long getSampleSize() {
+            return sampleSize;
+        }
+        public void setSampleSize(long sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+
+        /** Production runs with the issue flag set. */
+        public long getDefects() {
+            return defects;
+        }
+        public void setDefects(long defects) {
+            this.defects = defects;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public double getLowerControlLimit() {
+            return lowerControlLimit;
+        }
+        public void setLowerControlLimit(double lowerControlLimit) {
+            this.lowerControlLimit = lowerControlLimit;
+        }
+
+        public double getUpperControlLimit() {
+            return upperControlLimit;
+        }
+        public void setUpperControlLimit(double upperControlLimit) {
+            this.upperControlLimit = upperControlLimit;
+        }
+
+        /** Western Electric rules fired at this point; empty while in control. */
+        public List<WesternElectricRule> getViolations() {
+            return violations;
+        }
+        public void setViolations(List<WesternElectricRule> violations) {
+            this.violations = violations;
+        }
+    }
+
+    public ControlChartDTO() {
+    }
+
+    public String getLineName() {
+        return lineName;
+    }
+    public void setLineName(String lineName) {
+        this.lineName = lineName;
+    }
+
+    public String getShift() {
+        return shift;
+    }
+    public void setShift(String shift) {
+        this.shift = shift;
+    }
+
+    public ControlChartType getChartType() {
+        return chartType;
+    }
+    public void setChartType(ControlChartType chartType) {
+        this.chartType = chartType;
+    }
+
+    /** Pooled defect rate over all subgroups: total defects divided by total sample size. */
+    public double getCenterLine() {
+        return centerLine;
+    }
+    public void setCenterLine(double centerLine) {
+        this.centerLine = centerLine;
+    }
+
+    /** Days with a non-zero sample size in the line and shift's history. */
+    public long getSubgroupCount() {
+        return subgroupCount;
+    }
+    public void setSubgroupCount(long subgroupCount) {
+        this.subgroupCount = subgroupCount;
+    }
+
+    public double getSubgroupRateMean() {
+        return subgroupRateMean;
+    }
+    public void setSubgroupRateMean(double subgroupRateMean) {
+        this.subgroupRateMean = subgroupRateMean;
+    }
+
+    public double getSubgroupRateStandardDeviation() {
+        return subgroupRateStandardDeviation;
+    }
+    public void setSubgroupRateStandardDeviation(double subgroupRateStandardDeviation) {
+        this.subgroupRateStandardDeviation = subgroupRateStandardDeviation;
+    }
+
+    /** Total defects divided by total sample size within the requested range. */
+    public double getPeriodRate() {
+        return periodRate;
+    }
+    public void setPeriodRate(double periodRate) {
+        this.periodRate = periodRate;
+    }
+
+    /** Whether any point in the requested range violates a Western Electric rule. */
+    public boolean isOutOfControl() {
+        return outOfControl;
+    }
+    public void setOutOfControl(boolean outOfControl) {
+        this.outOfControl = outOfControl;
+    }
+
+    public List<Point> getPoints() {
+        return points;
+    }
+    public void setPoints(List<Point> points) {
+        this.points = points;
+    }
+}
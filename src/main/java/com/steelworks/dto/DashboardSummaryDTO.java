@@ -5,8 +5,8 @@ import java.util.List;
 
 /**
  * Top-level DTO for the summary dashboard ("Meeting Ready" view). AC5: Contains production line
- * rankings. AC6: Contains shipping risk alerts. AC7: Contains defect trends. AC8: Reflects the
- * selected time grouping (defaults to WEEKLY).
+ * rankings and defect rate control charts. AC6: Contains shipping risk alerts. AC7: Contains
+ * defect trends. AC8: Reflects the selected time grouping (defaults to WEEKLY).
  */
 public class DashboardSummaryDTO {
 
@@ -14,6 +14,9 @@ public class DashboardSummaryDTO {
     private List<ProductionLineRankingDTO> productionLineRankings;
     private List<ShippingRiskAlertDTO> shippingRiskAlerts;
     private List<DefectTrendDTO> defectTrends;
+    private List<ControlChartDTO> controlCharts;
+    /** Sections that failed or timed out and were returned empty. */
+    private List<String> degradedSections = List.of();
 
     public DashboardSummaryDTO() {
     }
@@ -45,4 +48,19 @@ public class DashboardSummaryDTO {
     public void setDefectTrends(List<DefectTrendDTO> defectTrends) {
         this.defectTrends = defectTrends;
     }
+
+    /** U charts of defects per unit actual for each line and shift over the period. */
+    public List<ControlChartDTO> getControlCharts() {
+        return controlCharts;
+    }
+    public void setControlCharts(List<ControlChartDTO> controlCharts) {
+        this.controlCharts = controlCharts;
+    }
+
+    public List<String> getDegradedSections() {
+        return degradedSections;
+    }
+    public void setDegradedSections(List<String> degradedSections) {
+        this.degradedSections = degradedSections;
+    }
 }
@@ -0,0 +1,100 @@
+package com.steelworks.dto;
+
+import com.steelworks.enums.TimeGrouping;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for defect counts over time. AC7: Defect frequency per day, week or month for each defect
+ * type and production line, over any date range. Every series holds one count per bucket, aligned
+ * with {@code bucketStarts}; buckets without defects count zero.
+ */
+public class DefectTimeSeriesDTO {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private TimeGrouping timeGrouping;
+    private List<LocalDate> bucketStarts;
+    private List<Series> series;
+
+    /**
+     * Defect counts of one defect type on one production line.
+     */
+    public static class Series {
+
+        private String defectName;
+        private String lineName;
+        private List<Long> counts;
+        private long total;
+
+        public Series() {
+        }
+
+        public String getDefectName() {
+            return defectName;
+        }
+        public void setDefectName(String defectName) {
+            this.defectName = defectName;
+        }
+
+        public String getLineName() {
+            return lineName;
+        }
+        public void setLineName(String lineName) {
+            this.lineName = lineName;
+        }
+
+        public List<Long> getCounts() {
+            return counts;
+        }
+        public void setCounts(List<Long> counts) {
+            this.counts = counts;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+        public void setTotal(long total) {
+            this.total = total;
+        }
+    }
+
+    public DefectTimeSeriesDTO() {
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public TimeGrouping getTimeGrouping() {
+        return timeGrouping;
+    }
+    public void setTimeGrouping(TimeGrouping timeGrouping) {
+        this.timeGrouping = timeGrouping;
+    }
+
+    /** First day of each bucket; the first and last bucket may extend beyond the range. */
+    public List<LocalDate> getBucketStarts() {
+        return bucketStarts;
+    }
+    public void setBucketStarts(List<LocalDate> bucketStarts) {
+        this.bucketStarts = bucketStarts;
+    }
+
+    public List<Series> getSeries() {
+        return series;
+    }
+    public void setSeries(List<Series> series) {
+        this.series = series;
+    }
+}
@@ -0,0 +1,30 @@
+package com.steelworks.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of lot search results. Results are ordered by normalized lot identifier; the next
+ * cursor is null when no further results exist.
+ */
+public class LotSearchPage {
+
+    private List<LotSearchResult> results;
+    private String nextCursor;
+
+    public LotSearchPage() {
+    }
+
+    public List<LotSearchResult> getResults() {
+        return results;
+    }
+    public void setResults(List<LotSearchResult> results) {
+        this.results = results;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
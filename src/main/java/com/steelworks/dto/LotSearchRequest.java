@@ -4,13 +4,15 @@ import java.time.LocalDate;
 
 /**
  * Input DTO for lot lookup requests. Supports searching by lot ID (with fuzzy matching) and/or date
- * range.
+ * range, optionally paged with a keyset cursor and page size limit.
  */
 public class LotSearchRequest {
 
     private String lotId;
     private LocalDate startDate;
     private LocalDate endDate;
+    private String cursor;
+    private Integer limit;
 
     public LotSearchRequest() {
     }
@@ -35,4 +37,18 @@ public class LotSearchRequest {
     public void setEndDate(LocalDate endDate) {
         this.endDate = endDate;
     }
+
+    public String getCursor() {
+        return cursor;
+    }
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
 }
@@ -0,0 +1,46 @@
+package com.steelworks.dto;
+
+/**
+ * "Did you mean" entry for a Lot ID that matched nothing. AC2: Lots whose normalized identifier is
+ * a few typing mistakes away from the one searched for, closest first.
+ */
+public class LotSuggestion {
+
+    private Long lotId;
+    private String lotIdentifier;
+    private int distance;
+
+    public LotSuggestion() {
+    }
+
+    public LotSuggestion(Long lotId, String lotIdentifier, int distance) {
+        this.lotId = lotId;
+        this.lotIdentifier = lotIdentifier;
+        this.distance = distance;
+    }
+
+    public Long getLotId() {
+        return lotId;
+    }
+    public void setLotId(Long lotId) {
+        this.lotId = lotId;
+    }
+
+    public String getLotIdentifier() {
+        return lotIdentifier;
+    }
+    public void setLotIdentifier(String lotIdentifier) {
+        this.lotIdentifier = lotIdentifier;
+    }
+
+    /**
+     * @return number of inserted, deleted, replaced or swapped characters between the normalized
+     *         identifiers
+     */
+    public int getDistance() {
+        return distance;
+    }
+    public void setDistance(int distance) {
+        this.distance = distance;
+    }
+}
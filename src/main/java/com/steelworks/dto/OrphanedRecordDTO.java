@@ -15,6 +15,18 @@ public class OrphanedRecordDTO {
     public OrphanedRecordDTO() {
     }
 
+    /**
+     * Projection constructor used by the set-based orphan queries; the reason is filled in by the
+     * service.
+     */
+    public OrphanedRecordDTO(String lotIdentifier, boolean inProduction, boolean inShipping,
+            boolean inQuality) {
+        this.lotIdentifier = lotIdentifier;
+        this.inProduction = inProduction;
+        this.inShipping = inShipping;
+        this.inQuality = inQuality;
+    }
+
     public String getLotIdentifier() {
         return lotIdentifier;
     }
@@ -18,6 +18,19 @@ public class ShippingRiskAlertDTO {
     public ShippingRiskAlertDTO() {
     }
 
+    /**
+     * Projection constructor used by the shipping risk alert query.
+     */
+    public ShippingRiskAlertDTO(String lotIdentifier, String defectName, String defectSeverity,
+            LocalDate shipDate, String customerName, String productionLineName) {
+        this.lotIdentifier = lotIdentifier;
+        this.defectName = defectName;
+        this.defectSeverity = defectSeverity;
+        this.shipDate = shipDate;
+        this.customerName = customerName;
+        this.productionLineName = productionLineName;
+    }
+
     public String getLotIdentifier() {
         return lotIdentifier;
     }
@@ -0,0 +1,10 @@
+package com.steelworks.enums;
+
+/**
+ * Attribute control charts over production line and shift subgroups. AC5: P charts the share of
+ * production runs with an issue (per production log); U charts issues per unit produced
+ * (per units_actual), which stays comparable across lines of different volume.
+ */
+public enum ControlChartType {
+    P, U
+}
@@ -0,0 +1,56 @@
+package com.steelworks.enums;
+
+/**
+ * Western Electric rules for detecting an out-of-control process on a control chart. Each rule
+ * looks at the latest points' distances from the center line in standard deviations (z-scores)
+ * and fires on the point that completes its pattern.
+ */
+public enum WesternElectricRule {
+
+    /** One point beyond 3 sigma. */
+    BEYOND_THREE_SIGMA(1, 1, 3),
+    /** Two of three consecutive points beyond 2 sigma on the same side. */
+    TWO_OF_THREE_BEYOND_TWO_SIGMA(3, 2, 2),
+    /** Four of five consecutive points beyond 1 sigma on the same side. */
+    FOUR_OF_FIVE_BEYOND_ONE_SIGMA(5, 4, 1),
+    /** Eight consecutive points on the same side of the center line. */
+    EIGHT_ON_ONE_SIDE(8, 8, 0);
+
+    private final int window;
+    private final int required;
+    private final double sigmas;
+
+    WesternElectricRule(int window, int required, double sigmas) {
+        this.window = window;
+        this.required = required;
+        this.sigmas = sigmas;
+    }
+
+    /**
+     * Checks whether the point at index completes this rule's pattern. The point itself must lie
+     * beyond the rule's limit, and enough of the preceding points in the window on its side.
+     *
+     * @param zScores
+     *            distances of consecutive points from the center line, in standard deviations
+     * @param index
+     *            point to check
+     * @return true if the rule fires at index
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public boolean isViolatedAt(double[] zScores, int index) {
+        if (index + 1 < window) {
+            return false;
+        }
+        double side = Math.signum(zScores[index]);
+        if (side == 0) {
+            return false;
+        }
+        int beyond = 0;
+        for (int i = index - window + 1; i <= index; i++) {
+            if (zScores[i] * side > sigmas) {
+                beyond++;
+            }
+        }
+        return zScores[index] * side > sigmas && beyond >= required;
+    }
+}
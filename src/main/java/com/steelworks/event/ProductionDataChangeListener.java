@@ -0,0 +1,49 @@
+package com.steelworks.event;
+
+import com.steelworks.model.ProductionLog;
+import com.steelworks.model.ShippingLog;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns production and shipping log writes into
+ * {@link ProductionDataChangedEvent}s. Entity listeners run before the entity's own callbacks, so
+ * a production log still reports the date it was loaded with. Listeners annotated with
+ * {@code @TransactionalEventListener} receive the event once the writing transaction commits.
+ */
+@Component
+public class ProductionDataChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductionDataChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(Object entity) {
+        Set<LocalDate> affectedDates = new HashSet<>(4);
+        if (entity instanceof ProductionLog productionLog) {
+            addIfPresent(affectedDates, productionLog.getProductionDate());
+            addIfPresent(affectedDates, productionLog.getLoadedProductionDate());
+        } else if (entity instanceof ShippingLog shippingLog) {
+            addIfPresent(affectedDates, shippingLog.getShipDate());
+        }
+        eventPublisher.publishEvent(
+                new ProductionDataChangedEvent(entity.getClass(), Set.copyOf(affectedDates)));
+    }
+
+    private static void addIfPresent(Set<LocalDate> dates, LocalDate date) {
+        if (date != null) {
+            dates.add(date);
+        }
+    }
+}
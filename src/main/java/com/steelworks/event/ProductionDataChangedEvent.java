@@ -0,0 +1,17 @@
+package com.steelworks.event;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Published when production or shipping log rows are inserted, updated or deleted. AC5/AC6/AC7:
+ * Lets dashboard caches and aggregates react to new plant data.
+ *
+ * @param entityType
+ *            the entity class whose rows changed
+ * @param affectedDates
+ *            production or ship dates touched by the change, including the previous date when an
+ *            update moved a row to another day
+ */
+public record ProductionDataChangedEvent(Class<?> entityType, Set<LocalDate> affectedDates) {
+}
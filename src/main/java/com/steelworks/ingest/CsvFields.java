@@ -0,0 +1,114 @@
+package com.steelworks.ingest;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Parsers for the field formats found in plant CSV exports. Each method throws
+ * {@link IllegalArgumentException} with a message naming the column, which becomes the row's
+ * rejection reason.
+ */
+final class CsvFields {
+
+    /** MM/DD/YY and MM/DD/YYYY, as written by the floor spreadsheets. */
+    private static final DateTimeFormatter US_SHORT_DATE = DateTimeFormatter.ofPattern("M/d/yy");
+    private static final DateTimeFormatter US_DATE = DateTimeFormatter.ofPattern("M/d/yyyy");
+
+    private CsvFields() {
+    }
+
+    static String required(String value, String column) {
+        String trimmed = optional(value);
+        if (trimmed == null) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        return trimmed;
+    }
+
+    static String optional(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * Accepts YYYY-MM-DD, MM/DD/YYYY and MM/DD/YY.
+     */
+    static LocalDate date(String value, String column) {
+        String text = required(value, column);
+        try {
+            if (text.indexOf('/') < 0) {
+                return LocalDate.parse(text);
+            }
+            int lastSlash = text.lastIndexOf('/');
+            return LocalDate.parse(text,
+                    text.length() - lastSlash - 1 > 2 ? US_DATE : US_SHORT_DATE);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException(column + " is not a date: " + text, ex);
+        }
+    }
+
+    static int nonNegativeInt(String value, String column) {
+        return nonNegativeInt(required(value, column), column, 0);
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    static int nonNegativeInt(String value, String column, int defaultValue) {
+        String text = optional(value);
+        if (text == null) {
+            return defaultValue;
+        }
+        int parsed;
+        try {
+            parsed = Integer.parseInt(text);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(column + " is not a number: " + text, ex);
+        }
+        if (parsed < 0) {
+            throw new IllegalArgumentException(column + " must not be negative: " + text);
+        }
+        return parsed;
+    }
+
+    static boolean flag(String value, String column) {
+        String text = optional(value);
+        if (text == null) {
+            return false;
+        }
+        return switch (text.toUpperCase(Locale.ROOT)) {
+            case "TRUE", "YES", "Y", "1" -> true;
+            case "FALSE", "NO", "N", "0" -> false;
+            default -> throw new IllegalArgumentException(column + " is not a yes/no value: " + text);
+        };
+    }
+
+    /**
+     * Maps a shift code to the canonical Day, Swing or Night value.
+     */
+    static String shift(String value, String column) {
+        String text = required(value, column);
+        return switch (text.toUpperCase(Locale.ROOT)) {
+            case "DAY", "D" -> "Day";
+            case "SWING", "S" -> "Swing";
+            case "NIGHT", "N" -> "Night";
+            default -> throw new IllegalArgumentException(column + " is not a shift: " + text);
+        };
+    }
+
+    /**
+     * Maps a ship status to the canonical Shipped, On Hold or Partial value.
+     */
+    static String shipStatus(String value, String column) {
+        String text = required(value, column);
+        return switch (text.toUpperCase(Locale.ROOT).replace('_', ' ')) {
+            case "SHIPPED" -> "Shipped";
+            case "ON HOLD", "HOLD" -> "On Hold";
+            case "PARTIAL" -> "Partial";
+            default -> throw new IllegalArgumentException(column + " is not a ship status: " + text);
+        };
+    }
+}
@@ -0,0 +1,601 @@
+package com.steelworks.ingest;
+
+import com.steelworks.event.ProductionDataChangedEvent;
+import com.steelworks.model.ProductionLog;
+import com.steelworks.model.ShippingLog;
+import com.steelworks.service.LotSearchIndex;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bulk loads production and shipping logs from the plant's CSV exports. AC1: Lot, production line,
+ * defect type and customer references are resolved in memory through {@link ReferenceData}. AC9:
+ * Every row records the file it came from and the line it started on.
+ *
+ * <p>
+ * Rows are written with batched JDBC inserts, one transaction per batch of
+ * {@code steelworks.ingest.batch-size} rows. Files given by path are memory-mapped
+ * ({@link MappedCsvFile}), split into record-aligned segments and parsed on a fork-join pool of
+ * {@code steelworks.ingest.parallelism} threads. Numbers, dates, flags and shift codes are decoded
+ * straight from the mapped bytes. Readers are parsed as a single stream. Columns are matched by
+ * header name in any order. Rows that fail validation are rejected and reported rather than
+ * aborting the load. Loading a file again is harmless: rows whose (source file, source line)
+ * already exist are skipped. Quality data (the defect recorded against each run) arrives in the
+ * production export's PrimaryIssue column.
+ *
+ * <p>
+ * AC2: Lot identifiers are linked through the normalized-identifier cache in
+ * {@link ReferenceData}. With {@code steelworks.ingest.create-missing-lots} on, lots that first
+ * appear in a production export are created with the batch that uses them: one multi-row insert
+ * and one id query per batch, in the batch's transaction. Shipping rows are never allowed to
+ * create lots, since a shipment of an unknown lot is an orphan (AC10) rather than a new lot.
+ *
+ * <p>
+ * JDBC writes bypass the JPA entity listeners, so once the load ends a
+ * {@link ProductionDataChangedEvent} carrying the loaded dates is published for the dashboard cache
+ * and the daily defect rollup. A load that created lots also invalidates the {@link LotSearchIndex},
+ * since parallel segments commit their lots out of id order.
+ */
+@Service
+public class CsvIngestionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CsvIngestionService.class);
+
+    private static final String PRODUCTION_INSERT = "INSERT INTO production_logs (production_date, "
+            + "shift, production_line_id, lot_id, defect_type_id, units_planned, units_actual, "
+            + "downtime_minutes, issue_flag, supervisor_notes, source_file, source_line) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final int[] PRODUCTION_TYPES = {Types.DATE, Types.VARCHAR, Types.BIGINT,
+            Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.BOOLEAN,
+            Types.VARCHAR, Types.VARCHAR, Types.INTEGER};
+
+    private static final String SHIPPING_INSERT = "INSERT INTO shipping_logs (ship_date, lot_id, "
+            + "customer_id, sales_order_number, destination_state, carrier, bol_number, "
+            + "tracking_number, qty_shipped, ship_status, hold_reason, shipping_notes, "
+            + "source_file, source_line) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT DO NOTHING";
+
+    private static final int[] SHIPPING_TYPES = {Types.DATE, Types.BIGINT, Types.BIGINT,
+            Types.VARCHAR, Types.CHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER};
+
+    private static final String LOT_INSERT = "INSERT INTO lots (lot_identifier, "
+            + "normalized_identifier, part_number, created_date) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (lot_identifier) DO NOTHING";
+
+    private static final int[] LOT_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.DATE};
+
+    private static final String LOT_ID_QUERY = "SELECT id, lot_identifier FROM lots "
+            + "WHERE lot_identifier IN (";
+
+    /** Parameter positions of the lot id in production and shipping inserts. */
+    private static final int PRODUCTION_LOT_PARAM = 3;
+    private static final int SHIPPING_LOT_PARAM = 1;
+
+    /** Segments per thread, so threads that finish early can pick up remaining work. */
+    private static final int SEGMENTS_PER_THREAD = 4;
+
+    private static final String LOT_ID_COLUMN = "LotID";
+
+    private static final int STATE_CODE_LENGTH = 2;
+
+    private static final Target PRODUCTION = new Target(ProductionLog.class, PRODUCTION_INSERT,
+            PRODUCTION_TYPES, PRODUCTION_LOT_PARAM, CsvIngestionService::productionConverter);
+
+    private static final Target SHIPPING = new Target(ShippingLog.class, SHIPPING_INSERT,
+            SHIPPING_TYPES, SHIPPING_LOT_PARAM, CsvIngestionService::shippingConverter);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReferenceDataLoader referenceDataLoader;
+    private final LotSearchIndex lotSearchIndex;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final int parallelism;
+
+    /**
+     * Converts the current CSV record into insert parameters. The event date goes first and the
+     * last two slots are left for the source file and line.
+     */
+    @FunctionalInterface
+    private interface RowConverter {
+        Object[] convert(CsvRecord record, ReferenceData referenceData);
+    }
+
+    /** What one kind of export is loaded into. */
+    private record Target(Class<?> entityType, String sql, int[] sqlTypes, int lotParam,
+            Function<Map<String, Integer>, RowConverter> layout) {
+    }
+
+    /** Running counts for one file, or for one segment of it. */
+    private static final class Tally {
+        private long rowsRead;
+        private long rowsInserted;
+        private long rowsSkipped;
+        private long rowsRejected;
+        private long lotsCreated;
+        private final List<IngestionResult.RowError> errors = new ArrayList<>();
+        private final Set<LocalDate> affectedDates = new HashSet<>();
+
+        private void add(Tally other) {
+            rowsRead += other.rowsRead;
+            rowsInserted += other.rowsInserted;
+            rowsSkipped += other.rowsSkipped;
+            rowsRejected += other.rowsRejected;
+            lotsCreated += other.lotsCreated;
+            errors.addAll(other.errors);
+            affectedDates.addAll(other.affectedDates);
+        }
+    }
+
+    /** Converts records and writes them in batches; one per stream or segment. */
+    private final class BatchWriter {
+        private final Target target;
+        private final RowConverter converter;
+        private final ReferenceData referenceData;
+        private final String sourceFile;
+        private final Tally tally;
+        private final List<Object[]> batch = new ArrayList<>(batchSize);
+
+        private BatchWriter(Target target, RowConverter converter, ReferenceData referenceData,
+                String sourceFile, Tally tally) {
+            this.target = target;
+            this.converter = converter;
+            this.referenceData = referenceData;
+            this.sourceFile = sourceFile;
+            this.tally = tally;
+        }
+
+        private void accept(CsvRecord record) {
+            if (record.isBlank()) {
+                return;
+            }
+            tally.rowsRead++;
+            if (addToBatch(record) && batch.size() == batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Adds the record's insert parameters, including its source, to the batch.
+         *
+         * @return false if the record was rejected
+         */
+        private boolean addToBatch(CsvRecord record) {
+            try {
+                Object[] params = converter.convert(record, referenceData);
+                params[params.length - 2] = sourceFile;
+                params[params.length - 1] = Math.toIntExact(record.getLineNumber());
+                batch.add(params);
+                return true;
+            } catch (IllegalArgumentException ex) {
+                tally.rowsRejected++;
+                if (tally.errors.size() < maxReportedErrors) {
+                    tally.errors.add(
+                            new IngestionResult.RowError(record.getLineNumber(), ex.getMessage()));
+                }
+                return false;
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            Map<ReferenceData.NewLot, Long> createdLots = new HashMap<>();
+            int[] updateCounts = transactionTemplate.execute(status -> insertBatch(createdLots));
+            // Only lots whose transaction committed become resolvable.
+            createdLots.forEach(referenceData::lotCreated);
+            long inserted = countInserted(updateCounts);
+            tally.rowsInserted += inserted;
+            tally.rowsSkipped += batch.size() - inserted;
+            for (Object[] row : batch) {
+                tally.affectedDates.add((LocalDate) row[0]);
+            }
+            batch.clear();
+        }
+
+        private int[] insertBatch(Map<ReferenceData.NewLot, Long> createdLots) {
+            createLots(createdLots);
+            return jdbcTemplate.batchUpdate(target.sql(), batch, target.sqlTypes());
+        }
+
+        /**
+         * Inserts the new lots the batch refers to in one round trip, reads their ids back in
+         * another and puts the ids into the rows.
+         */
+        private void createLots(Map<ReferenceData.NewLot, Long> createdLots) {
+            Map<String, ReferenceData.NewLot> newLots = new LinkedHashMap<>();
+            for (Object[] row : batch) {
+                if (row[target.lotParam()] instanceof ReferenceData.NewLot lot) {
+                    newLots.putIfAbsent(lot.lotIdentifier(), lot);
+                }
+            }
+            if (newLots.isEmpty()) {
+                return;
+            }
+            List<Object[]> lotRows = new ArrayList<>(newLots.size());
+            for (ReferenceData.NewLot lot : newLots.values()) {
+                lotRows.add(new Object[]{lot.lotIdentifier(), lot.normalizedIdentifier(),
+                        lot.partNumber(), lot.createdDate()});
+            }
+            tally.lotsCreated += countInserted(
+                    jdbcTemplate.batchUpdate(LOT_INSERT, lotRows, LOT_TYPES));
+            resolveCreatedLots(createdLotIds(newLots.keySet()), createdLots);
+        }
+
+        private Map<String, Long> createdLotIds(Set<String> lotIdentifiers) {
+            Map<String, Long> ids = new HashMap<>(lotIdentifiers.size() * 2);
+            String placeholders = String.join(", ",
+                    Collections.nCopies(lotIdentifiers.size(), "?"));
+            jdbcTemplate.query(LOT_ID_QUERY + placeholders + ")",
+                    (RowCallbackHandler) rs -> ids.put(rs.getString(2), rs.getLong(1)),
+                    lotIdentifiers.toArray());
+            return ids;
+        }
+
+        private void resolveCreatedLots(Map<String, Long> ids,
+                Map<ReferenceData.NewLot, Long> createdLots) {
+            batch.replaceAll(row -> {
+                if (row[target.lotParam()] instanceof ReferenceData.NewLot lot) {
+                    Long id = ids.get(lot.lotIdentifier());
+                    if (id == null) {
+                        throw new IllegalStateException(
+                                "Lot " + lot.lotIdentifier() + " was not created");
+                    }
+                    row[target.lotParam()] = id;
+                    createdLots.put(lot, id);
+                }
+                return row;
+            });
+        }
+    }
+
+    private static long countInserted(int... updateCounts) {
+        // Rewritten multi-row batches report success without a row count.
+        return Arrays.stream(updateCounts)
+                .filter(count -> count > 0 || count == Statement.SUCCESS_NO_INFO).count();
+    }
+
+    public CsvIngestionService(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher, ReferenceDataLoader referenceDataLoader,
+            LotSearchIndex lotSearchIndex,
+            @Value("${steelworks.ingest.batch-size}") int batchSize,
+            @Value("${steelworks.ingest.max-reported-errors}") int maxReportedErrors,
+            @Value("${steelworks.ingest.parallelism}") int parallelism) {
+        if (batchSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("batchSize and parallelism must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.referenceDataLoader = referenceDataLoader;
+        this.lotSearchIndex = lotSearchIndex;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Loads a production log export. Expected columns: Date, Shift, LineName, LotID, UnitsPlanned,
+     * UnitsActual and optionally DowntimeMinutes, IssueFlag, PrimaryIssue (defect code or name),
+     * SupervisorNotes and PartNumber (used to create lots the file introduces).
+     *
+     * @param file
+     *            the CSV file; its file name is recorded as the rows' source
+     * @return counts and the first rejected rows
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws IllegalArgumentException
+     *             if a required column is missing or the file is malformed
+     */
+    public IngestionResult ingestProductionLogs(Path file) throws IOException {
+        return ingestMapped(file, PRODUCTION);
+    }
+
+    /**
+     * Loads a production log export from a reader. See {@link #ingestProductionLogs(Path)}.
+     *
+     * @param reader
+     *            CSV content, header first
+     * @param sourceFile
+     *            name recorded as the rows' source
+     * @return counts and the first rejected rows
+     * @throws IOException
+     *             if the reader fails
+     */
+    public IngestionResult ingestProductionLogs(Reader reader, String sourceFile)
+            throws IOException {
+        return ingest(reader, sourceFile, PRODUCTION);
+    }
+
+    /**
+     * Loads a shipping log export. Expected columns: LotID, ShipDate, SalesOrder, CustomerName,
+     * DestinationState, BOLNumber, QtyShipped, ShipStatus and optionally Carrier, TrackingNumber,
+     * HoldReason and ShippingNotes.
+     *
+     * @param file
+     *            the CSV file; its file name is recorded as the rows' source
+     * @return counts and the first rejected rows
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws IllegalArgumentException
+     *             if a required column is missing or the file is malformed
+     */
+    public IngestionResult ingestShippingLogs(Path file) throws IOException {
+        return ingestMapped(file, SHIPPING);
+    }
+
+    /**
+     * Loads a shipping log export from a reader. See {@link #ingestShippingLogs(Path)}.
+     *
+     * @param reader
+     *            CSV content, header first
+     * @param sourceFile
+     *            name recorded as the rows' source
+     * @return counts and the first rejected rows
+     * @throws IOException
+     *             if the reader fails
+     */
+    public IngestionResult ingestShippingLogs(Reader reader, String sourceFile) throws IOException {
+        return ingest(reader, sourceFile, SHIPPING);
+    }
+
+    private IngestionResult ingest(Reader reader, String sourceFile, Target target)
+            throws IOException {
+        logStart(target, sourceFile);
+        ReferenceData referenceData = referenceDataLoader.load();
+        Tally tally = new Tally();
+        try (CsvRecordReader record = new CsvRecordReader(reader)) {
+            if (record.next()) {
+                List<String> header = new ArrayList<>(record.size());
+                for (int i = 0; i < record.size(); i++) {
+                    header.add(record.get(i));
+                }
+                RowConverter converter = target.layout().apply(headerIndex(header));
+                BatchWriter writer = new BatchWriter(target, converter, referenceData, sourceFile,
+                        tally);
+                while (record.next()) {
+                    writer.accept(record);
+                }
+                writer.flush();
+            }
+        } finally {
+            publishChanges(target, tally);
+        }
+        return toResult(sourceFile, tally, referenceData);
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private IngestionResult ingestMapped(Path file, Target target) throws IOException {
+        String sourceFile = sourceName(file);
+        logStart(target, sourceFile);
+        ReferenceData referenceData = referenceDataLoader.load();
+        Tally total = new Tally();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (MappedCsvFile csv = MappedCsvFile.open(file)) {
+            if (csv.getHeader().isEmpty()) {
+                return toResult(sourceFile, total, referenceData);
+            }
+            RowConverter converter = target.layout().apply(headerIndex(csv.getHeader()));
+            List<MappedCsvFile.Segment> segments = csv
+                    .segments(parallelism * SEGMENTS_PER_THREAD, pool);
+
+            List<Tally> tallies = new ArrayList<>(segments.size());
+            List<Callable<Void>> tasks = new ArrayList<>(segments.size());
+            for (MappedCsvFile.Segment segment : segments) {
+                Tally tally = new Tally();
+                tallies.add(tally);
+                tasks.add(() -> {
+                    MappedCsvRecordReader record = csv.reader(segment);
+                    BatchWriter writer = new BatchWriter(target, converter, referenceData,
+                            sourceFile, tally);
+                    while (record.next()) {
+                        writer.accept(record);
+                    }
+                    writer.flush();
+                    return null;
+                });
+            }
+            awaitAll(pool.invokeAll(tasks), tallies, total);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException(
+                    "Interrupted while ingesting " + sourceFile);
+            interrupted.initCause(ex);
+            throw interrupted;
+        } finally {
+            pool.shutdownNow();
+            publishChanges(target, total);
+        }
+        return toResult(sourceFile, total, referenceData);
+    }
+
+    /**
+     * Waits for every segment, folds all segment tallies into the total (including those of
+     * failed segments, whose earlier batches did commit) and then rethrows the first failure.
+     */
+    private static void awaitAll(List<Future<Void>> futures, List<Tally> tallies, Tally total)
+            throws IOException, InterruptedException {
+        Throwable failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException ex) {
+                if (failure == null) {
+                    failure = ex.getCause();
+                }
+            }
+            total.add(tallies.get(i));
+        }
+        if (failure instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (failure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+    }
+
+    private void publishChanges(Target target, Tally tally) {
+        if (!tally.affectedDates.isEmpty()) {
+            eventPublisher.publishEvent(new ProductionDataChangedEvent(target.entityType(),
+                    Set.copyOf(tally.affectedDates)));
+        }
+        if (tally.lotsCreated > 0) {
+            lotSearchIndex.invalidate();
+        }
+    }
+
+    private static void logStart(Target target, String sourceFile) {
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Ingesting {} rows from {}", target.entityType().getSimpleName(),
+                    sourceFile);
+        }
+    }
+
+    private IngestionResult toResult(String sourceFile, Tally tally,
+            ReferenceData referenceData) {
+        List<IngestionResult.RowError> errors = tally.errors.stream()
+                .sorted(Comparator.comparingLong(IngestionResult.RowError::lineNumber))
+                .limit(maxReportedErrors).toList();
+        IngestionResult result = new IngestionResult(sourceFile, tally.rowsRead,
+                tally.rowsInserted, tally.rowsSkipped, tally.rowsRejected, tally.lotsCreated,
+                errors, referenceData.ambiguousLots());
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Ingested {}: {} read, {} inserted, {} already present, {} rejected, "
+                    + "{} lot(s) created", sourceFile, result.rowsRead(), result.rowsInserted(),
+                    result.rowsSkipped(), result.rowsRejected(), result.lotsCreated());
+        }
+        return result;
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private static RowConverter productionConverter(Map<String, Integer> header) {
+        int date = column(header, true, "Date", "productiondate");
+        int shift = column(header, true, "Shift");
+        int line = column(header, true, "LineName", "productionline", "line");
+        int lot = column(header, true, LOT_ID_COLUMN, "lotidentifier", "lot");
+        int unitsPlanned = column(header, true, "UnitsPlanned");
+        int unitsActual = column(header, true, "UnitsActual");
+        int downtime = column(header, false, "DowntimeMinutes", "downtime");
+        int issueFlag = column(header, false, "IssueFlag");
+        int defect = column(header, false, "PrimaryIssue", "defectcode", "defecttype");
+        int notes = column(header, false, "SupervisorNotes", "notes");
+        int partNumber = column(header, false, "PartNumber", "part");
+        return (record, referenceData) -> {
+            LocalDate productionDate = record.date(date, "Date");
+            String defectValue = record.optional(defect);
+            return new Object[]{productionDate, record.shift(shift, "Shift"),
+                    referenceData.productionLineId(record.required(line, "LineName")),
+                    referenceData.lotIdOrNewLot(record.required(lot, LOT_ID_COLUMN),
+                            record.optional(partNumber), productionDate),
+                    defectValue == null ? null : referenceData.defectTypeId(defectValue),
+                    record.nonNegativeInt(unitsPlanned, "UnitsPlanned"),
+                    record.nonNegativeInt(unitsActual, "UnitsActual"),
+                    record.nonNegativeInt(downtime, "DowntimeMinutes", 0),
+                    record.flag(issueFlag, "IssueFlag"), record.optional(notes), null, null};
+        };
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private static RowConverter shippingConverter(Map<String, Integer> header) {
+        int lot = column(header, true, LOT_ID_COLUMN, "lotidentifier", "lot");
+        int shipDate = column(header, true, "ShipDate");
+        int salesOrder = column(header, true, "SalesOrder", "salesordernumber");
+        int customer = column(header, true, "CustomerName", "customer");
+        int state = column(header, true, "DestinationState", "state");
+        int carrier = column(header, false, "Carrier");
+        int bol = column(header, true, "BOLNumber", "bol");
+        int tracking = column(header, false, "TrackingNumber");
+        int qty = column(header, true, "QtyShipped");
+        int status = column(header, true, "ShipStatus");
+        int holdReason = column(header, false, "HoldReason");
+        int notes = column(header, false, "ShippingNotes", "notes");
+        return (record, referenceData) -> {
+            String destinationState = record.required(state, "DestinationState")
+                    .toUpperCase(Locale.ROOT);
+            if (destinationState.length() != STATE_CODE_LENGTH) {
+                throw new IllegalArgumentException(
+                        "DestinationState must be a two-letter code: " + destinationState);
+            }
+            int qtyShipped = record.nonNegativeInt(qty, "QtyShipped");
+            if (qtyShipped == 0) {
+                throw new IllegalArgumentException("QtyShipped must be positive");
+            }
+            return new Object[]{record.date(shipDate, "ShipDate"),
+                    referenceData.lotId(record.required(lot, LOT_ID_COLUMN)),
+                    referenceData.customerId(record.required(customer, "CustomerName")),
+                    record.required(salesOrder, "SalesOrder"), destinationState,
+                    record.optional(carrier), record.required(bol, "BOLNumber"),
+                    record.optional(tracking), qtyShipped, record.shipStatus(status, "ShipStatus"),
+                    record.optional(holdReason), record.optional(notes), null, null};
+        };
+    }
+
+    private static Map<String, Integer> headerIndex(List<String> cells) {
+        Map<String, Integer> header = new HashMap<>(cells.size() * 2);
+        for (int i = 0; i < cells.size(); i++) {
+            header.putIfAbsent(CsvRecordReader.normalizeHeader(cells.get(i)), i);
+        }
+        return header;
+    }
+
+    /**
+     * Finds a column by its documented name or one of its aliases.
+     *
+     * @return the column position, or -1 for a missing optional column
+     */
+    private static int column(Map<String, Integer> header, boolean required, String name,
+            String... aliases) {
+        Integer index = header.get(CsvRecordReader.normalizeHeader(name));
+        for (int i = 0; index == null && i < aliases.length; i++) {
+            index = header.get(aliases[i]);
+        }
+        if (index == null && required) {
+            throw new IllegalArgumentException("Missing required column: " + name);
+        }
+        return index != null ? index : -1;
+    }
+
+    private static String sourceName(Path file) {
+        Path fileName = file.getFileName();
+        return fileName != null ? fileName.toString() : file.toString();
+    }
+}
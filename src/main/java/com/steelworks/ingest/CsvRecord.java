@@ -0,0 +1,84 @@
+package com.steelworks.ingest;
+
+import java.time.LocalDate;
+
+/**
+ * The current record of a CSV reader. AC9: Exposes the source line the record starts on.
+ *
+ * <p>
+ * The typed accessors take a field position and the documented column name used in rejection
+ * messages. They throw {@link IllegalArgumentException} for values that do not parse. Their
+ * default implementations go through {@link #get(int)}. Readers that hold the raw bytes override
+ * them to decode without building a String.
+ */
+public interface CsvRecord {
+
+    /**
+     * @return line number (1-based) the current record starts on
+     */
+    long getLineNumber();
+
+    /**
+     * @return number of fields in the current record
+     */
+    int size();
+
+    /**
+     * @param index
+     *            zero-based field position
+     * @return the field value, or null when the record has fewer fields or the index is negative
+     */
+    String get(int index);
+
+    /**
+     * @return whether the current record is an empty line
+     */
+    boolean isBlank();
+
+    /**
+     * @return the trimmed value, or null when the field is missing or blank
+     */
+    default String optional(int index) {
+        return CsvFields.optional(get(index));
+    }
+
+    default String required(int index, String column) {
+        return CsvFields.required(get(index), column);
+    }
+
+    /**
+     * Accepts YYYY-MM-DD, MM/DD/YYYY and MM/DD/YY.
+     */
+    default LocalDate date(int index, String column) {
+        return CsvFields.date(get(index), column);
+    }
+
+    default int nonNegativeInt(int index, String column) {
+        return CsvFields.nonNegativeInt(get(index), column);
+    }
+
+    default int nonNegativeInt(int index, String column, int defaultValue) {
+        return CsvFields.nonNegativeInt(get(index), column, defaultValue);
+    }
+
+    /**
+     * Accepts true/false, yes/no, y/n and 1/0; a blank field is false.
+     */
+    default boolean flag(int index, String column) {
+        return CsvFields.flag(get(index), column);
+    }
+
+    /**
+     * @return the canonical Day, Swing or Night value
+     */
+    default String shift(int index, String column) {
+        return CsvFields.shift(get(index), column);
+    }
+
+    /**
+     * @return the canonical Shipped, On Hold or Partial value
+     */
+    default String shipStatus(int index, String column) {
+        return CsvFields.shipStatus(get(index), column);
+    }
+}
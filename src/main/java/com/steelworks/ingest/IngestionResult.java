@@ -0,0 +1,56 @@
+package com.steelworks.ingest;
+
+import java.util.List;
+
+/**
+ * Outcome of ingesting one CSV file. AC9: Rejected rows are reported by source line so they can be
+ * fixed in the export and the file loaded again.
+ *
+ * @param sourceFile
+ *            file name recorded on every ingested row
+ * @param rowsRead
+ *            non-blank data rows read from the file
+ * @param rowsInserted
+ *            rows written to the database
+ * @param rowsSkipped
+ *            valid rows already present from an earlier load of the same file
+ * @param rowsRejected
+ *            rows that failed validation or reference resolution
+ * @param lotsCreated
+ *            lots created for rows naming an unknown lot, when
+ *            {@code steelworks.ingest.create-missing-lots} is on
+ * @param errors
+ *            the first rejected rows, capped by {@code steelworks.ingest.max-reported-errors}
+ * @param ambiguousLots
+ *            lot identifiers that matched several lots, with the rows rejected for each
+ */
+public record IngestionResult(String sourceFile, long rowsRead, long rowsInserted, long rowsSkipped,
+        long rowsRejected, long lotsCreated, List<RowError> errors,
+        List<AmbiguousLot> ambiguousLots) {
+
+    /**
+     * A rejected row.
+     *
+     * @param lineNumber
+     *            line of the source file the row starts on
+     * @param message
+     *            why the row was rejected
+     */
+    public record RowError(long lineNumber, String message) {
+    }
+
+    /**
+     * AC2: A normalized lot identifier shared by several stored lots, so rows naming it could not
+     * be linked.
+     *
+     * @param normalizedIdentifier
+     *            the shared normalized identifier
+     * @param candidates
+     *            identifiers of the lots it matches, as stored
+     * @param rowsRejected
+     *            rows rejected because they named it
+     */
+    public record AmbiguousLot(String normalizedIdentifier, List<String> candidates,
+            long rowsRejected) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.steelworks.ingest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs CSV ingestion from the command line, e.g. for the nightly load:
+ *
+ * <pre>
+ * java -jar steelworks-app.jar --spring.main.web-application-type=none \
+ *     --ingest.production=production.csv --ingest.shipping=shipping.csv
+ * </pre>
+ *
+ * Each option may be repeated or list several comma-separated files. Production files are loaded
+ * before shipping files. An unreadable or malformed file stops startup so the job fails visibly;
+ * rejected rows are only logged.
+ *
+ * <p>
+ * {@code --generate.lots=N} (with an optional {@code --generate.seed=S}) first fills an empty
+ * database with a synthetic plant of N lots through {@link SyntheticPlantGenerator}, for load tests
+ * and demos.
+ */
+@Component
+public class IngestionRunner implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IngestionRunner.class);
+
+    static final String PRODUCTION_OPTION = "ingest.production";
+    static final String SHIPPING_OPTION = "ingest.shipping";
+    static final String GENERATE_LOTS_OPTION = "generate.lots";
+    static final String GENERATE_SEED_OPTION = "generate.seed";
+
+    private final CsvIngestionService csvIngestionService;
+    private final SyntheticPlantGenerator syntheticPlantGenerator;
+
+    public IngestionRunner(CsvIngestionService csvIngestionService,
+            SyntheticPlantGenerator syntheticPlantGenerator) {
+        this.csvIngestionService = csvIngestionService;
+        this.syntheticPlantGenerator = syntheticPlantGenerator;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        String lots = lastValue(args, GENERATE_LOTS_OPTION);
+        if (lots != null) {
+            String seed = lastValue(args, GENERATE_SEED_OPTION);
+            syntheticPlantGenerator.generate(SyntheticPlantSpec.of(Integer.parseInt(lots.trim()),
+                    seed == null ? 0L : Long.parseLong(seed.trim())));
+        }
+        for (Path file : files(args, PRODUCTION_OPTION)) {
+            report(csvIngestionService.ingestProductionLogs(file));
+        }
+        for (Path file : files(args, SHIPPING_OPTION)) {
+            report(csvIngestionService.ingestShippingLogs(file));
+        }
+    }
+
+    private static String lastValue(ApplicationArguments args, String option) {
+        List<String> values = args.getOptionValues(option);
+        return values == null || values.isEmpty() ? null : values.get(values.size() - 1);
+    }
+
+    private static List<Path> files(ApplicationArguments args, String option) {
+        List<Path> files = new ArrayList<>();
+        List<String> values = args.getOptionValues(option);
+        if (values != null) {
+            for (String value : values) {
+                for (String file : value.split(",")) {
+                    if (!file.isBlank()) {
+                        files.add(Path.of(file.trim()));
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    private static void report(IngestionResult result) {
+        if (LOGGER.isWarnEnabled()) {
+            for (IngestionResult.RowError error : result.errors()) {
+                LOGGER.warn("{} line {} rejected: {}", result.sourceFile(), error.lineNumber(),
+                        error.message());
+            }
+            for (IngestionResult.AmbiguousLot lot : result.ambiguousLots()) {
+                LOGGER.warn("{}: {} row(s) name lot {}, which matches {}", result.sourceFile(),
+                        lot.rowsRejected(), lot.normalizedIdentifier(),
+                        String.join(", ", lot.candidates()));
+            }
+        }
+        long unlisted = result.rowsRejected() - result.errors().size();
+        if (unlisted > 0 && LOGGER.isWarnEnabled()) {
+            LOGGER.warn("{}: {} further rejected row(s) not listed", result.sourceFile(), unlisted);
+        }
+    }
+}
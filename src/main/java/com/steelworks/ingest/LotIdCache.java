@@ -0,0 +1,145 @@
+package com.steelworks.ingest;
+
+import com.steelworks.util.LotIdNormalizer;
+
+/**
+ * Normalized lot identifier to lot id table. AC2: Lets every CSV row be linked to its lot with one
+ * in-memory probe instead of a query.
+ *
+ * <p>
+ * Open addressing with linear probing over parallel arrays: ids are kept as primitive longs, so
+ * the table holds no boxed values or per-entry nodes; only the normalized keys and the stored
+ * identifiers (reused from the query results) are objects. Lookups take the identifier as written
+ * and hash and compare it in normalized form through {@link LotIdNormalizer}, so a hit allocates
+ * nothing. A key shared by several lots is marked ambiguous rather than resolved to one of them.
+ * The table is filled on one thread and only read afterwards.
+ */
+final class LotIdCache {
+
+    /** Returned by {@link #get(CharSequence)} for an unknown lot. */
+    static final long MISSING = 0L;
+
+    /** Returned by {@link #get(CharSequence)} for an identifier several lots normalize to. */
+    static final long AMBIGUOUS = -1L;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final LotIdNormalizer lotIdNormalizer;
+
+    private String[] keys;
+    private int[] hashes;
+    private String[] identifiers;
+    private long[] ids;
+    private int entryCount;
+
+    LotIdCache(LotIdNormalizer lotIdNormalizer, int expectedSize) {
+        this.lotIdNormalizer = lotIdNormalizer;
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @param lotIdentifier
+     *            identifier as stored
+     * @param lotId
+     *            the lot's id; must be positive
+     * @return the stored identifier of the lot already holding the normalized identifier, or null
+     *         if it was new
+     */
+    String put(String lotIdentifier, long lotId) {
+        return put(lotIdentifier, lotIdNormalizer.normalize(lotIdentifier), lotId);
+    }
+
+    /**
+     * Variant of {@link #put(String, long)} for a lot whose normalized identifier is already known.
+     *
+     * @param lotIdentifier
+     *            identifier as stored
+     * @param key
+     *            the identifier after {@link LotIdNormalizer#normalize(String)}
+     * @param lotId
+     *            the lot's id; must be positive
+     * @return the stored identifier of the lot already holding the normalized identifier, or null
+     *         if it was new
+     */
+    String put(String lotIdentifier, String key, long lotId) {
+        if (lotId <= 0) {
+            throw new IllegalArgumentException("Lot id must be positive: " + lotId);
+        }
+        if ((entryCount + 1) * 4L > keys.length * 3L) {
+            resize();
+        }
+        int hash = key.hashCode();
+        int slot = slot(key, hash);
+        if (keys[slot] != null) {
+            ids[slot] = AMBIGUOUS;
+            return identifiers[slot];
+        }
+        keys[slot] = key;
+        hashes[slot] = hash;
+        identifiers[slot] = lotIdentifier;
+        ids[slot] = lotId;
+        entryCount++;
+        return null;
+    }
+
+    /**
+     * @param rawLotIdentifier
+     *            lot identifier as written in the source file; not null
+     * @return the lot id, {@link #MISSING} or {@link #AMBIGUOUS}
+     */
+    long get(CharSequence rawLotIdentifier) {
+        int slot = slot(rawLotIdentifier, lotIdNormalizer.normalizedHashCode(rawLotIdentifier));
+        return keys[slot] == null ? MISSING : ids[slot];
+    }
+
+    int size() {
+        return entryCount;
+    }
+
+    /** Finds the slot holding the identifier, or the empty slot where it belongs. */
+    private int slot(CharSequence lotIdentifier, int hash) {
+        int mask = keys.length - 1;
+        int slot = mix(hash) & mask;
+        while (keys[slot] != null && (hashes[slot] != hash
+                || !lotIdNormalizer.areEquivalent(keys[slot], lotIdentifier))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private void resize() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        String[] oldIdentifiers = identifiers;
+        long[] oldIds = ids;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slot(oldKeys[i], oldHashes[i]);
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                identifiers[slot] = oldIdentifiers[i];
+                ids[slot] = oldIds[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        identifiers = new String[capacity];
+        ids = new long[capacity];
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, expectedSize * 4L / 3 + 1);
+        return (int) Math.min(1 << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    /** Spreads String hash codes, which differ little between similar identifiers. */
+    private static int mix(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
@@ -0,0 +1,259 @@
+package com.steelworks.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A CSV file read through memory-mapped segments, for exports too large to stream through a
+ * {@link java.io.Reader}. AC9: Each segment knows the source line it starts on.
+ *
+ * <p>
+ * {@link #segments(int, ExecutorService)} splits the data rows into record-aligned byte ranges in
+ * two passes. First, the file is cut into equal chunks and every chunk's quotes and line breaks
+ * are counted in parallel. The running quote count tells whether a chunk starts inside a quoted
+ * field. Then each chunk boundary is moved forward to the first line break outside quotes. As in
+ * RFC 4180, quotes are expected only around fields. Segments can then be parsed independently
+ * with {@link #reader(Segment)}. Chunks are at most {@link #MAX_SEGMENT_BYTES}, so each segment's
+ * mapping stays well under the 2 GB {@link MappedByteBuffer} limit.
+ */
+public final class MappedCsvFile implements Closeable {
+
+    /** Largest segment handed to one parser. */
+    static final long MAX_SEGMENT_BYTES = 256L << 20;
+
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+    private static final byte QUOTE = '"';
+    private static final byte LF = '\n';
+
+    private final FileChannel channel;
+    private final long size;
+    private final List<String> header;
+    private final long dataStart;
+    private final long dataStartLine;
+
+    /**
+     * A record-aligned byte range of the file.
+     *
+     * @param start
+     *            offset of the first byte
+     * @param end
+     *            offset after the last byte
+     * @param firstLine
+     *            source line the range starts on
+     */
+    public record Segment(long start, long end, long firstLine) {
+    }
+
+    private MappedCsvFile(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        MappedCsvRecordReader headerReader = new MappedCsvRecordReader(
+                map(0, Math.min(size, MAX_SEGMENT_BYTES)), 1);
+        if (headerReader.next()) {
+            List<String> names = new ArrayList<>(headerReader.size());
+            for (int i = 0; i < headerReader.size(); i++) {
+                names.add(headerReader.get(i));
+            }
+            this.header = List.copyOf(names);
+            this.dataStart = headerReader.getPosition();
+            this.dataStartLine = headerReader.getNextLineNumber();
+        } else {
+            this.header = List.of();
+            this.dataStart = size;
+            this.dataStartLine = 1;
+        }
+    }
+
+    /**
+     * Opens a file and reads its header row.
+     *
+     * @param file
+     *            the CSV file
+     * @return the opened file; close it when done
+     * @throws IOException
+     *             if the file cannot be opened or mapped
+     */
+    public static MappedCsvFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new MappedCsvFile(channel);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * @return the header cells, or an empty list for an empty file
+     */
+    public List<String> getHeader() {
+        return header;
+    }
+
+    /**
+     * Splits the data rows into record-aligned segments.
+     *
+     * @param minSegments
+     *            lower bound on the number of chunks, normally a small multiple of the parallelism
+     * @param executor
+     *            runs the counting pass
+     * @return non-empty segments in file order
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public List<Segment> segments(int minSegments, ExecutorService executor) throws IOException {
+        long dataLength = size - dataStart;
+        if (dataLength <= 0) {
+            return List.of();
+        }
+        long chunkCount = Math.min(dataLength,
+                Math.max(minSegments, ceilDiv(dataLength, MAX_SEGMENT_BYTES)));
+        long chunkSize = ceilDiv(dataLength, chunkCount);
+        List<long[]> chunks = new ArrayList<>();
+        for (long start = dataStart; start < size; start += chunkSize) {
+            chunks.add(new long[]{start, Math.min(size, start + chunkSize)});
+        }
+
+        List<Callable<long[]>> counts = new ArrayList<>(chunks.size());
+        for (long[] chunk : chunks) {
+            counts.add(() -> countQuotesAndLineBreaks(chunk[0], chunk[1]));
+        }
+        List<long[]> chunkCounts = invokeAll(executor, counts);
+
+        List<Segment> segments = new ArrayList<>(chunks.size());
+        long segmentStart = dataStart;
+        long segmentLine = dataStartLine;
+        long quotesBefore = 0;
+        long lineBreaksBefore = 0;
+        for (int i = 1; i < chunks.size(); i++) {
+            quotesBefore += chunkCounts.get(i - 1)[0];
+            lineBreaksBefore += chunkCounts.get(i - 1)[1];
+            long[] boundary = nextRecordBoundary(chunks.get(i)[0], quotesBefore % 2 == 1);
+            if (boundary[0] > segmentStart) {
+                segments.add(segment(segmentStart, boundary[0], segmentLine));
+                segmentStart = boundary[0];
+                segmentLine = dataStartLine + lineBreaksBefore + boundary[1];
+            }
+        }
+        if (size > segmentStart) {
+            segments.add(segment(segmentStart, size, segmentLine));
+        }
+        return segments;
+    }
+
+    /**
+     * @param segment
+     *            a segment from {@link #segments(int, ExecutorService)}
+     * @return a reader over the segment's mapped bytes
+     * @throws IOException
+     *             if the segment cannot be mapped
+     */
+    public MappedCsvRecordReader reader(Segment segment) throws IOException {
+        return new MappedCsvRecordReader(map(segment.start(), segment.end() - segment.start()),
+                segment.firstLine());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static Segment segment(long start, long end, long firstLine) {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Record starting on line " + firstLine + " is too large to map");
+        }
+        return new Segment(start, end, firstLine);
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private long[] countQuotesAndLineBreaks(long start, long end) throws IOException {
+        MappedByteBuffer buffer = map(start, end - start);
+        long quotes = 0;
+        long lineBreaks = 0;
+        int limit = buffer.limit();
+        for (int i = 0; i < limit; i++) {
+            byte current = buffer.get(i);
+            if (current == QUOTE) {
+                quotes++;
+            } else if (current == LF) {
+                lineBreaks++;
+            }
+        }
+        return new long[]{quotes, lineBreaks};
+    }
+
+    /**
+     * Finds the first byte after a line break outside quotes, at or after the offset.
+     *
+     * @return the boundary offset (the file size if there is none) and the line breaks between the
+     *         offset and the boundary
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private long[] nextRecordBoundary(long offset, boolean insideQuotes) throws IOException {
+        boolean quoted = insideQuotes;
+        long lineBreaks = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = offset;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte current = buffer.get(i);
+                if (current == QUOTE) {
+                    quoted = !quoted;
+                } else if (current == LF) {
+                    lineBreaks++;
+                    if (!quoted) {
+                        return new long[]{position + i + 1, lineBreaks};
+                    }
+                }
+            }
+            position += read;
+        }
+        return new long[]{size, lineBreaks};
+    }
+
+    private MappedByteBuffer map(long start, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    private static <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks)
+            throws IOException {
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scanning CSV file", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to scan CSV file", ex);
+        }
+    }
+}
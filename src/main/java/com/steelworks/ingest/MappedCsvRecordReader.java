@@ -0,0 +1,347 @@
+package com.steelworks.ingest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Reads CSV records straight out of a byte buffer, typically one memory-mapped segment of a
+ * {@link MappedCsvFile}. AC9: Tracks the source line each record starts on.
+ *
+ * <p>
+ * A record is held as field offsets into the buffer, so advancing allocates nothing. Numbers,
+ * dates, yes/no flags and shift codes are decoded from the bytes directly. Only
+ * {@link #get(int)} and the text accessors build Strings. Values the fast paths do not recognize
+ * are handed to the String-based parsing inherited from {@link CsvRecord}, which also produces the
+ * rejection message. Input is expected to be UTF-8 or ASCII.
+ */
+public class MappedCsvRecordReader implements CsvRecord {
+
+    private static final int INITIAL_FIELDS = 16;
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int position;
+
+    private long lineNumber;
+    private long nextLineNumber;
+
+    private int fieldCount;
+    private int[] fieldStarts = new int[INITIAL_FIELDS];
+    private int[] fieldEnds = new int[INITIAL_FIELDS];
+    private boolean[] fieldEscaped = new boolean[INITIAL_FIELDS];
+    private byte[] scratch = new byte[256];
+
+    /**
+     * @param buffer
+     *            bytes to read, from index 0 to the buffer's limit; must start on a record boundary
+     * @param firstLineNumber
+     *            source line of the first byte
+     */
+    public MappedCsvRecordReader(ByteBuffer buffer, long firstLineNumber) {
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+        this.nextLineNumber = firstLineNumber;
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return false once the buffer is exhausted
+     * @throws IllegalArgumentException
+     *             if a quoted field is not terminated before the end of the buffer
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public boolean next() {
+        fieldCount = 0;
+        if (position >= limit) {
+            return false;
+        }
+        lineNumber = nextLineNumber;
+        while (true) {
+            if (position >= limit) {
+                addField(position, position, false);
+                return true;
+            }
+            if (buffer.get(position) == QUOTE) {
+                readQuotedField();
+            } else {
+                int end = position;
+                while (end < limit && buffer.get(end) != COMMA && buffer.get(end) != LF) {
+                    end++;
+                }
+                int fieldEnd = end > position && buffer.get(end - 1) == CR ? end - 1 : end;
+                addField(position, fieldEnd, false);
+                position = end;
+            }
+            if (position >= limit) {
+                return true;
+            }
+            byte delimiter = buffer.get(position);
+            position++;
+            if (delimiter == LF) {
+                nextLineNumber++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return offset of the first byte after the current record
+     */
+    int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return source line of the first byte after the current record
+     */
+    long getNextLineNumber() {
+        return nextLineNumber;
+    }
+
+    @Override
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public int size() {
+        return fieldCount;
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= fieldCount) {
+            return null;
+        }
+        int length = fieldEnds[index] - fieldStarts[index];
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(fieldStarts[index], scratch, 0, length);
+        String value = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        return fieldEscaped[index] ? value.replace("\"\"", "\"") : value;
+    }
+
+    @Override
+    public boolean isBlank() {
+        return fieldCount == 1 && trimmedStart(0) == trimmedEnd(0);
+    }
+
+    @Override
+    public int nonNegativeInt(int index, String column) {
+        if (index < 0 || index >= fieldCount || trimmedStart(index) == trimmedEnd(index)) {
+            return CsvRecord.super.nonNegativeInt(index, column);
+        }
+        return nonNegativeInt(index, column, 0);
+    }
+
+    @Override
+    public int nonNegativeInt(int index, String column, int defaultValue) {
+        if (index < 0 || index >= fieldCount) {
+            return defaultValue;
+        }
+        int start = trimmedStart(index);
+        int end = trimmedEnd(index);
+        if (start == end) {
+            return defaultValue;
+        }
+        int value = end - start <= 9 ? digits(start, end - start) : -1;
+        return value >= 0 ? value : CsvRecord.super.nonNegativeInt(index, column, defaultValue);
+    }
+
+    @Override
+    public LocalDate date(int index, String column) {
+        if (index >= 0 && index < fieldCount && !fieldEscaped[index]) {
+            LocalDate date = decodeDate(trimmedStart(index), trimmedEnd(index));
+            if (date != null) {
+                return date;
+            }
+        }
+        return CsvRecord.super.date(index, column);
+    }
+
+    @Override
+    public boolean flag(int index, String column) {
+        if (index < 0 || index >= fieldCount) {
+            return false;
+        }
+        int start = trimmedStart(index);
+        int end = trimmedEnd(index);
+        if (start == end) {
+            return false;
+        }
+        if (matches(start, end, "TRUE") || matches(start, end, "YES") || matches(start, end, "Y")
+                || matches(start, end, "1")) {
+            return true;
+        }
+        if (matches(start, end, "FALSE") || matches(start, end, "NO") || matches(start, end, "N")
+                || matches(start, end, "0")) {
+            return false;
+        }
+        return CsvRecord.super.flag(index, column);
+    }
+
+    @Override
+    public String shift(int index, String column) {
+        if (index >= 0 && index < fieldCount) {
+            int start = trimmedStart(index);
+            int end = trimmedEnd(index);
+            if (matches(start, end, "DAY") || matches(start, end, "D")) {
+                return "Day";
+            }
+            if (matches(start, end, "SWING") || matches(start, end, "S")) {
+                return "Swing";
+            }
+            if (matches(start, end, "NIGHT") || matches(start, end, "N")) {
+                return "Night";
+            }
+        }
+        return CsvRecord.super.shift(index, column);
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private void readQuotedField() {
+        int start = position + 1;
+        int end = start;
+        boolean escaped = false;
+        while (true) {
+            if (end >= limit) {
+                throw new IllegalArgumentException(
+                        "Unterminated quoted field in record starting on line " + lineNumber);
+            }
+            byte current = buffer.get(end);
+            if (current == QUOTE) {
+                if (end + 1 < limit && buffer.get(end + 1) == QUOTE) {
+                    escaped = true;
+                    end += 2;
+                    continue;
+                }
+                break;
+            }
+            if (current == LF) {
+                nextLineNumber++;
+            }
+            end++;
+        }
+        addField(start, end, escaped);
+        // Anything between the closing quote and the delimiter is ignored.
+        position = end + 1;
+        while (position < limit && buffer.get(position) != COMMA && buffer.get(position) != LF) {
+            position++;
+        }
+    }
+
+    private void addField(int start, int end, boolean escaped) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+            fieldEscaped = Arrays.copyOf(fieldEscaped, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldEscaped[fieldCount] = escaped;
+        fieldCount++;
+    }
+
+    private int trimmedStart(int index) {
+        int start = fieldStarts[index];
+        while (start < fieldEnds[index] && isSpace(buffer.get(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimmedEnd(int index) {
+        int start = fieldStarts[index];
+        int end = fieldEnds[index];
+        while (end > start && isSpace(buffer.get(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isSpace(byte value) {
+        return value == ' ' || value == '\t' || value == '\r';
+    }
+
+    /** Parses YYYY-MM-DD, M/D/YYYY or M/D/YY; null when the bytes are in some other form. */
+    private LocalDate decodeDate(int start, int end) {
+        int length = end - start;
+        try {
+            if (length == 10 && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-') {
+                int year = digits(start, 4);
+                int month = digits(start + 5, 2);
+                int day = digits(start + 8, 2);
+                return year >= 0 && month >= 0 && day >= 0 ? LocalDate.of(year, month, day) : null;
+            }
+            int firstSlash = indexOf(start, end, '/');
+            int secondSlash = firstSlash < 0 ? -1 : indexOf(firstSlash + 1, end, '/');
+            if (secondSlash < 0 || firstSlash - start > 2 || secondSlash - firstSlash - 1 > 2) {
+                return null;
+            }
+            int month = digits(start, firstSlash - start);
+            int day = digits(firstSlash + 1, secondSlash - firstSlash - 1);
+            int yearLength = end - secondSlash - 1;
+            int year = yearLength == 2 || yearLength == 4
+                    ? digits(secondSlash + 1, yearLength)
+                    : -1;
+            if (month < 0 || day < 0 || year < 0) {
+                return null;
+            }
+            return LocalDate.of(yearLength == 2 ? 2000 + year : year, month, day);
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    /** Decimal value of length ASCII digits, or -1 if any byte is not a digit. */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private int digits(int start, int length) {
+        if (length <= 0) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private int indexOf(int start, int end, char target) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Case-insensitive comparison of ASCII bytes against an upper-case constant. */
+    private boolean matches(int start, int end, String upperCase) {
+        if (end - start != upperCase.length()) {
+            return false;
+        }
+        for (int i = 0; i < upperCase.length(); i++) {
+            int current = buffer.get(start + i);
+            if (current >= 'a' && current <= 'z') {
+                current -= 'a' - 'A';
+            }
+            if (current != upperCase.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,218 @@
+package com.steelworks.ingest;
+
+import com.steelworks.util.LotIdNormalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory lookup of the reference ids a CSV row points at, built once per ingestion run so rows
+ * are resolved without a query each. AC1: Lots are matched on their normalized identifier. AC2:
+ * "LOT-100" in a file resolves to the lot stored as "lot 100".
+ *
+ * <p>
+ * Lots are held in a {@link LotIdCache} pre-warmed from the lots table. When lot creation is
+ * enabled, an unknown lot is claimed as a {@link NewLot} under its normalized identifier, so every
+ * spelling of it in the run maps to the same new lot; the ingestion service inserts claimed lots
+ * with the batch that first uses them and reports their ids back through
+ * {@link #lotCreated(NewLot, long)}. Rows naming an ambiguous lot are rejected and counted for
+ * {@link #ambiguousLots()}. Resolution is safe to call from several parsing threads.
+ */
+public class ReferenceData {
+
+    private final LotIdNormalizer lotIdNormalizer;
+    private final boolean createMissingLots;
+    private final LotIdCache lotIds;
+    private final Map<String, List<String>> ambiguousLotCandidates = new HashMap<>();
+    private final ConcurrentMap<String, LongAdder> ambiguousLotRows = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, NewLot> newLots = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> createdLotIds = new ConcurrentHashMap<>();
+    private final Map<String, Long> productionLineIds = new HashMap<>();
+    private final Map<String, Long> defectTypeIds = new HashMap<>();
+    private final Map<String, Long> customerIds = new HashMap<>();
+
+    /**
+     * A lot first seen in the file being loaded, to be created with its first row's values.
+     *
+     * @param lotIdentifier
+     *            identifier as first written in the file
+     * @param normalizedIdentifier
+     *            the identifier after {@link LotIdNormalizer#normalize(String)}
+     * @param partNumber
+     *            part number from the same row
+     * @param createdDate
+     *            production date of the same row
+     */
+    public record NewLot(String lotIdentifier, String normalizedIdentifier, String partNumber,
+            LocalDate createdDate) {
+    }
+
+    ReferenceData(LotIdNormalizer lotIdNormalizer, boolean createMissingLots, int expectedLots) {
+        this.lotIdNormalizer = lotIdNormalizer;
+        this.createMissingLots = createMissingLots;
+        this.lotIds = new LotIdCache(lotIdNormalizer, expectedLots);
+    }
+
+    void addLot(long id, String lotIdentifier, String normalizedIdentifier) {
+        String existing = lotIds.put(lotIdentifier, normalizedIdentifier, id);
+        if (existing != null) {
+            ambiguousLotCandidates.computeIfAbsent(normalizedIdentifier,
+                    ignored -> new ArrayList<>(List.of(existing))).add(lotIdentifier);
+        }
+    }
+
+    void addProductionLine(Long id, String lineName) {
+        productionLineIds.put(key(lineName), id);
+    }
+
+    void addDefectType(Long id, String defectCode, String defectName) {
+        defectTypeIds.put(key(defectCode), id);
+        defectTypeIds.putIfAbsent(key(defectName), id);
+    }
+
+    void addCustomer(Long id, String customerName) {
+        customerIds.put(key(customerName), id);
+    }
+
+    /**
+     * @param rawLotIdentifier
+     *            lot identifier as written in the source file
+     * @return the lot's id
+     * @throws IllegalArgumentException
+     *             if no lot, or more than one lot, has the normalized identifier
+     */
+    public long lotId(String rawLotIdentifier) {
+        long id = knownLotId(rawLotIdentifier);
+        if (id == LotIdCache.MISSING) {
+            throw new IllegalArgumentException("Unknown lot: " + rawLotIdentifier);
+        }
+        return id;
+    }
+
+    /**
+     * Resolves a lot like {@link #lotId(String)}, or claims it for creation when lot creation is
+     * enabled. The first row to claim a lot must name its part number; later rows share the claim.
+     * With parallel parsing, "first" is the first row parsed, so a row without a part number may
+     * be rejected if it is parsed before the claiming row; loading the file again picks it up.
+     *
+     * @param rawLotIdentifier
+     *            lot identifier as written in the source file
+     * @param partNumber
+     *            part number from the same row, or null
+     * @param createdDate
+     *            production date of the row
+     * @return the lot's id as a Long, or the {@link NewLot} to create
+     * @throws IllegalArgumentException
+     *             if the lot is ambiguous, or unknown and cannot be created
+     */
+    public Object lotIdOrNewLot(String rawLotIdentifier, String partNumber,
+            LocalDate createdDate) {
+        long id = knownLotId(rawLotIdentifier);
+        if (id != LotIdCache.MISSING) {
+            return id;
+        }
+        if (!createMissingLots) {
+            throw new IllegalArgumentException("Unknown lot: " + rawLotIdentifier);
+        }
+        String key = lotIdNormalizer.normalize(rawLotIdentifier);
+        NewLot claimed = newLots.get(key);
+        if (claimed != null) {
+            return claimed;
+        }
+        if (partNumber == null) {
+            throw new IllegalArgumentException(
+                    "Unknown lot " + rawLotIdentifier + " has no PartNumber to create it with");
+        }
+        return newLots.computeIfAbsent(key,
+                ignored -> new NewLot(rawLotIdentifier, key, partNumber, createdDate));
+    }
+
+    /**
+     * Records the id a claimed lot was created with, so later rows resolve to it directly.
+     */
+    void lotCreated(NewLot lot, long id) {
+        createdLotIds.put(lot.normalizedIdentifier(), id);
+    }
+
+    /**
+     * @return the ambiguous lots rows were rejected for, by normalized identifier
+     */
+    public List<IngestionResult.AmbiguousLot> ambiguousLots() {
+        List<IngestionResult.AmbiguousLot> report = new ArrayList<>(ambiguousLotRows.size());
+        ambiguousLotRows.forEach((key, rows) -> report.add(new IngestionResult.AmbiguousLot(key,
+                List.copyOf(ambiguousLotCandidates.get(key)), rows.sum())));
+        report.sort(Comparator.comparing(IngestionResult.AmbiguousLot::normalizedIdentifier));
+        return report;
+    }
+
+    /** Probes the cache with the raw identifier; a normalized key is only built on a miss. */
+    private long knownLotId(String rawLotIdentifier) {
+        if (rawLotIdentifier == null) {
+            return LotIdCache.MISSING;
+        }
+        long id = lotIds.get(rawLotIdentifier);
+        if (id > 0 || id == LotIdCache.MISSING && createdLotIds.isEmpty()) {
+            return id;
+        }
+        String key = lotIdNormalizer.normalize(rawLotIdentifier);
+        if (id == LotIdCache.AMBIGUOUS) {
+            ambiguousLotRows.computeIfAbsent(key, ignored -> new LongAdder()).increment();
+            throw new IllegalArgumentException("Lot ID " + rawLotIdentifier
+                    + " matches several lots: "
+                    + String.join(", ", ambiguousLotCandidates.get(key)));
+        }
+        Long created = createdLotIds.get(key);
+        return created != null ? created : LotIdCache.MISSING;
+    }
+
+    /**
+     * @param lineName
+     *            production line name, compared case-insensitively
+     * @return the production line's id
+     * @throws IllegalArgumentException
+     *             if no production line has the name
+     */
+    public Long productionLineId(String lineName) {
+        return require(productionLineIds.get(key(lineName)), "Unknown production line", lineName);
+    }
+
+    /**
+     * @param defect
+     *            defect code or defect name, compared case-insensitively
+     * @return the defect type's id
+     * @throws IllegalArgumentException
+     *             if no defect type has the code or name
+     */
+    public Long defectTypeId(String defect) {
+        return require(defectTypeIds.get(key(defect)), "Unknown defect type", defect);
+    }
+
+    /**
+     * @param customerName
+     *            customer name, compared case-insensitively
+     * @return the customer's id
+     * @throws IllegalArgumentException
+     *             if no customer has the name
+     */
+    public Long customerId(String customerName) {
+        return require(customerIds.get(key(customerName)), "Unknown customer", customerName);
+    }
+
+    private static Long require(Long id, String problem, String value) {
+        if (id == null) {
+            throw new IllegalArgumentException(problem + ": " + value);
+        }
+        return id;
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,69 @@
+package com.steelworks.ingest;
+
+import com.steelworks.model.Customer;
+import com.steelworks.model.DefectType;
+import com.steelworks.model.ProductionLine;
+import com.steelworks.repository.CustomerRepository;
+import com.steelworks.repository.DefectTypeRepository;
+import com.steelworks.repository.LotRepository;
+import com.steelworks.repository.ProductionLineRepository;
+import com.steelworks.util.LotIdNormalizer;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the lots, production lines, defect types and customers that CSV rows refer to into a
+ * {@link ReferenceData} snapshot. Lots are read as (id, identifier, normalized identifier)
+ * projections rather than entities, since a plant accumulates far more of them than of the other
+ * reference rows.
+ * Unknown lots may be created during the load when {@code steelworks.ingest.create-missing-lots}
+ * is on.
+ */
+@Component
+public class ReferenceDataLoader {
+
+    private final LotRepository lotRepository;
+    private final ProductionLineRepository productionLineRepository;
+    private final DefectTypeRepository defectTypeRepository;
+    private final CustomerRepository customerRepository;
+    private final LotIdNormalizer lotIdNormalizer;
+    private final boolean createMissingLots;
+
+    public ReferenceDataLoader(LotRepository lotRepository,
+            ProductionLineRepository productionLineRepository,
+            DefectTypeRepository defectTypeRepository, CustomerRepository customerRepository,
+            LotIdNormalizer lotIdNormalizer,
+            @Value("${steelworks.ingest.create-missing-lots}") boolean createMissingLots) {
+        this.lotRepository = lotRepository;
+        this.productionLineRepository = productionLineRepository;
+        this.defectTypeRepository = defectTypeRepository;
+        this.customerRepository = customerRepository;
+        this.lotIdNormalizer = lotIdNormalizer;
+        this.createMissingLots = createMissingLots;
+    }
+
+    /**
+     * @return a snapshot of the current reference rows
+     */
+    public ReferenceData load() {
+        List<Object[]> lots = lotRepository.findIndexEntriesAfter(0L);
+        ReferenceData referenceData = new ReferenceData(lotIdNormalizer, createMissingLots,
+                lots.size());
+        for (Object[] row : lots) {
+            referenceData.addLot(((Number) row[0]).longValue(), (String) row[1],
+                    (String) row[3]);
+        }
+        for (ProductionLine line : productionLineRepository.findAll()) {
+            referenceData.addProductionLine(line.getId(), line.getLineName());
+        }
+        for (DefectType defectType : defectTypeRepository.findAll()) {
+            referenceData.addDefectType(defectType.getId(), defectType.getDefectCode(),
+                    defectType.getDefectName());
+        }
+        for (Customer customer : customerRepository.findAll()) {
+            referenceData.addCustomer(customer.getId(), customer.getCustomerName());
+        }
+        return referenceData;
+    }
+}
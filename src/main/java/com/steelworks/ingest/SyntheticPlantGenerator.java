@@ -0,0 +1,323 @@
+package com.steelworks.ingest;
+
+import com.steelworks.event.ProductionDataChangedEvent;
+import com.steelworks.model.ProductionLog;
+import com.steelworks.model.ShippingLog;
+import com.steelworks.service.LotSearchIndex;
+import com.steelworks.util.LotIdNormalizer;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fills an empty plant database with synthetic lots, production logs and shipping logs for load
+ * tests, benchmarks and demos. The data is drawn by {@link SyntheticPlantModel} from a
+ * {@link SyntheticPlantSpec}: the same spec always produces the same rows, including a share of
+ * orphaned lots (AC10) and of lots produced on two lines (AC11).
+ *
+ * <p>
+ * Production lines, defect types and customers already in the database are reused; missing ones
+ * are created first. Lots are then inserted in index order, so their ids are contiguous, and the
+ * logs are generated and written by {@code steelworks.ingest.parallelism} threads, each owning a
+ * range of lots, with the same batched JDBC inserts and {@code steelworks.ingest.batch-size} as
+ * CSV ingestion. Rows are never held in memory beyond one batch per thread.
+ *
+ * <p>
+ * As with CSV ingestion, a {@link ProductionDataChangedEvent} is published per log type once the
+ * rows are in, and the {@link LotSearchIndex} is invalidated.
+ */
+@Service
+public class SyntheticPlantGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyntheticPlantGenerator.class);
+
+    private static final String LOT_INSERT = "INSERT INTO lots (lot_identifier, "
+            + "normalized_identifier, part_number, created_date) VALUES (?, ?, ?, ?)";
+
+    private static final int[] LOT_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.DATE};
+
+    private static final String PRODUCTION_INSERT = "INSERT INTO production_logs (production_date, "
+            + "shift, production_line_id, lot_id, defect_type_id, units_planned, units_actual, "
+            + "downtime_minutes, issue_flag, supervisor_notes) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] PRODUCTION_TYPES = {Types.DATE, Types.VARCHAR, Types.BIGINT,
+            Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.BOOLEAN,
+            Types.VARCHAR};
+
+    private static final String SHIPPING_INSERT = "INSERT INTO shipping_logs (ship_date, lot_id, "
+            + "customer_id, sales_order_number, destination_state, carrier, bol_number, "
+            + "tracking_number, qty_shipped, ship_status, hold_reason) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] SHIPPING_TYPES = {Types.DATE, Types.BIGINT, Types.BIGINT,
+            Types.VARCHAR, Types.CHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER,
+            Types.VARCHAR, Types.VARCHAR};
+
+    private static final String[] LINE_NAMES = {"Line-A", "Line-B", "Line-C", "Line-D", "Line-E",
+        "Line-F", "Line-G", "Line-H"};
+
+    private static final String CRITICAL = "Critical";
+    private static final String MAJOR = "Major";
+    private static final String MINOR = "Minor";
+
+    private static final String[][] DEFECT_TYPES = {
+        {"D-CRACK", "Crack", CRITICAL}, {"D-INCL", "Inclusion", CRITICAL},
+        {"D-LAP", "Lap", MAJOR}, {"D-SEAM", "Seam", MAJOR}, {"D-SCALE", "Scale", MAJOR},
+        {"D-PIT", "Pitting", MAJOR}, {"D-BURR", "Burr", MINOR}, {"D-SCR", "Scratch", MINOR},
+        {"D-DENT", "Dent", MINOR}, {"D-RUST", "Rust", MINOR},
+        {"D-DIM", "Off dimension", MAJOR}, {"D-WARP", "Warp", CRITICAL}};
+
+    private static final String[] REGIONS = {"Midwest", "Northeast", "Southeast", "South"};
+    private static final int CUSTOMERS = 60;
+
+    /** Lot ranges per thread, so threads that finish early can pick up remaining work. */
+    private static final int RANGES_PER_THREAD = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LotIdNormalizer lotIdNormalizer;
+    private final LotSearchIndex lotSearchIndex;
+    private final int batchSize;
+    private final int parallelism;
+
+    /**
+     * Number of lots and of log rows written.
+     *
+     * @param lots
+     *            lots inserted
+     * @param productionLogs
+     *            production logs inserted
+     * @param shippingLogs
+     *            shipping logs inserted
+     */
+    public record Result(long lots, long productionLogs, long shippingLogs) {
+    }
+
+    public SyntheticPlantGenerator(JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher, LotIdNormalizer lotIdNormalizer,
+            LotSearchIndex lotSearchIndex,
+            @Value("${steelworks.ingest.batch-size}") int batchSize,
+            @Value("${steelworks.ingest.parallelism}") int parallelism) {
+        if (batchSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("batchSize and parallelism must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.lotIdNormalizer = lotIdNormalizer;
+        this.lotSearchIndex = lotSearchIndex;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Generates a plant into the database.
+     *
+     * @param spec
+     *            size, seed and shape of the plant
+     * @return the number of rows written
+     * @throws IllegalStateException
+     *             if lots or logs already exist, since generated rows must not mix with real ones
+     */
+    public Result generate(SyntheticPlantSpec spec) {
+        Long existing = jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*) FROM lots) "
+                + "+ (SELECT COUNT(*) FROM production_logs) + (SELECT COUNT(*) FROM shipping_logs)",
+                Long.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException(
+                    "Synthetic data can only be generated into empty lot and log tables");
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Generating synthetic plant: {} lot(s), seed {}, {} day(s) to {}",
+                    spec.lots(), spec.seed(), spec.days(), spec.endDate());
+        }
+        SyntheticPlantModel model = new SyntheticPlantModel(spec, loadReference(),
+                lotIdNormalizer);
+        long firstLotId = insertLots(model, spec.lots());
+        long[] logs = insertLogs(model, spec.lots(), firstLotId);
+
+        Set<LocalDate> dates = new HashSet<>();
+        for (LocalDate date = spec.endDate().minusDays(spec.days() - 1L);
+                !date.isAfter(spec.endDate()); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        eventPublisher.publishEvent(new ProductionDataChangedEvent(ProductionLog.class, dates));
+        eventPublisher.publishEvent(new ProductionDataChangedEvent(ShippingLog.class, dates));
+        lotSearchIndex.invalidate();
+
+        Result result = new Result(spec.lots(), logs[0], logs[1]);
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Generated {} lot(s), {} production log(s), {} shipping log(s)",
+                    result.lots(), result.productionLogs(), result.shippingLogs());
+        }
+        return result;
+    }
+
+    /** Reads the reference rows in id order, creating the default plant's rows when missing. */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private SyntheticPlantModel.Reference loadReference() {
+        if (count("production_lines") == 0) {
+            List<Object[]> rows = new ArrayList<>(LINE_NAMES.length);
+            for (int line = 0; line < LINE_NAMES.length; line++) {
+                rows.add(new Object[]{LINE_NAMES[line],
+                        line < LINE_NAMES.length / 2 ? "Hot Rolling" : "Finishing"});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO production_lines (line_name, department) VALUES (?, ?)", rows);
+        }
+        if (count("defect_types") == 0) {
+            jdbcTemplate.batchUpdate("INSERT INTO defect_types (defect_code, defect_name, "
+                    + "severity) VALUES (?, ?, ?)", List.of((Object[][]) DEFECT_TYPES));
+        }
+        if (count("customers") == 0) {
+            List<Object[]> rows = new ArrayList<>(CUSTOMERS);
+            for (int customer = 1; customer <= CUSTOMERS; customer++) {
+                rows.add(new Object[]{String.format("Customer %02d", customer),
+                        REGIONS[customer % REGIONS.length]});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO customers (customer_name, region) VALUES (?, ?)", rows);
+        }
+
+        long[] lineIds = jdbcTemplate
+                .queryForList("SELECT id FROM production_lines ORDER BY id", Long.class).stream()
+                .mapToLong(Long::longValue).toArray();
+        List<Map<String, Object>> defectTypes = jdbcTemplate
+                .queryForList("SELECT id, defect_name, severity FROM defect_types ORDER BY id");
+        long[] defectTypeIds = new long[defectTypes.size()];
+        boolean[] critical = new boolean[defectTypes.size()];
+        String[] defectNames = new String[defectTypes.size()];
+        for (int i = 0; i < defectTypes.size(); i++) {
+            Map<String, Object> row = defectTypes.get(i);
+            defectTypeIds[i] = ((Number) row.get("id")).longValue();
+            defectNames[i] = (String) row.get("defect_name");
+            critical[i] = CRITICAL.equals(row.get("severity"));
+        }
+        long[] customerIds = jdbcTemplate
+                .queryForList("SELECT id FROM customers ORDER BY id", Long.class).stream()
+                .mapToLong(Long::longValue).toArray();
+        return new SyntheticPlantModel.Reference(lineIds, defectTypeIds, critical, defectNames,
+                customerIds);
+    }
+
+    private long count(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count == null ? 0L : count;
+    }
+
+    /**
+     * Inserts the lots in index order from one thread, so lot {@code i} gets id
+     * {@code firstId + i}.
+     *
+     * @return the id of the first lot
+     */
+    private long insertLots(SyntheticPlantModel model, int lots) {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int index = 0; index < lots; index++) {
+            SyntheticPlantModel.LotDraw lot = model.lot(index);
+            batch.add(new Object[]{lot.lotIdentifier(), lot.normalizedIdentifier(),
+                    lot.partNumber(), lot.createdDate()});
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate(LOT_INSERT, batch, LOT_TYPES);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(LOT_INSERT, batch, LOT_TYPES);
+        }
+        Map<String, Object> ids = jdbcTemplate
+                .queryForMap("SELECT MIN(id) AS first_id, MAX(id) AS last_id FROM lots");
+        long firstId = ((Number) ids.get("first_id")).longValue();
+        long lastId = ((Number) ids.get("last_id")).longValue();
+        if (lastId - firstId + 1 != lots) {
+            throw new IllegalStateException("Lot ids " + firstId + ".." + lastId
+                    + " are not contiguous for " + lots + " lot(s)");
+        }
+        return firstId;
+    }
+
+    /**
+     * Generates and writes the logs of all lots in parallel ranges.
+     *
+     * @return production and shipping log counts
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private long[] insertLogs(SyntheticPlantModel model, int lots, long firstLotId) {
+        int ranges = Math.min(lots, parallelism * RANGES_PER_THREAD);
+        List<Callable<long[]>> tasks = new ArrayList<>(ranges);
+        for (int range = 0; range < ranges; range++) {
+            int from = (int) ((long) lots * range / ranges);
+            int to = (int) ((long) lots * (range + 1) / ranges);
+            tasks.add(() -> insertLogs(model, from, to, firstLotId));
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long[] total = new long[2];
+            RuntimeException failure = null;
+            for (Future<long[]> future : pool.invokeAll(tasks)) {
+                try {
+                    long[] counts = future.get();
+                    total[0] += counts[0];
+                    total[1] += counts[1];
+                } catch (ExecutionException ex) {
+                    if (failure == null) {
+                        failure = ex.getCause() instanceof RuntimeException runtimeException
+                                ? runtimeException
+                                : new IllegalStateException(ex.getCause());
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return total;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating synthetic logs", ex);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long[] insertLogs(SyntheticPlantModel model, int from, int to, long firstLotId) {
+        List<Object[]> production = new ArrayList<>(batchSize + 3);
+        List<Object[]> shipping = new ArrayList<>(batchSize + 2);
+        long[] counts = new long[2];
+        for (int index = from; index < to; index++) {
+            model.logs(index, firstLotId + index, production, shipping);
+            if (production.size() >= batchSize) {
+                counts[0] += flush(PRODUCTION_INSERT, production, PRODUCTION_TYPES);
+            }
+            if (shipping.size() >= batchSize) {
+                counts[1] += flush(SHIPPING_INSERT, shipping, SHIPPING_TYPES);
+            }
+        }
+        counts[0] += flush(PRODUCTION_INSERT, production, PRODUCTION_TYPES);
+        counts[1] += flush(SHIPPING_INSERT, shipping, SHIPPING_TYPES);
+        return counts;
+    }
+
+    private int flush(String sql, List<Object[]> batch, int... sqlTypes) {
+        int rows = batch.size();
+        if (rows > 0) {
+            jdbcTemplate.batchUpdate(sql, batch, sqlTypes);
+            batch.clear();
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,210 @@
+package com.steelworks.ingest;
+
+import com.steelworks.util.LotIdNormalizer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Draws the rows of one synthetic lot for {@link SyntheticPlantGenerator}. Each lot has its own
+ * random stream derived from the seed and the lot's index, so any lot can be regenerated alone, in
+ * any order and on any thread, and always comes out the same.
+ *
+ * <p>
+ * The distributions follow the plant's exports: lines differ in load and defect rate (the busiest
+ * line also produces the most defects) and each line favors a few defect types; night shifts and
+ * long stoppages raise the defect rate; downtime is usually zero with a long tail; most shipped
+ * lots go to a few large customers. Critical defects always raise the issue flag.
+ */
+final class SyntheticPlantModel {
+
+    static final String[] SHIFTS = {"Day", "Swing", "Night"};
+    static final String[] STATUSES = {"Shipped", "On Hold", "Partial"};
+
+    private static final String[] STATES = {"OH", "PA", "MI", "IN", "IL", "TX", "AL", "SC"};
+    private static final String[] CARRIERS = {"Freight Co", "Rail Link", "Steel Haulers"};
+    private static final int PART_NUMBERS = 400;
+
+    /** Index of the night shift in {@link #SHIFTS}. */
+    private static final int NIGHT_SHIFT = 2;
+
+    /** Downtime beyond which a run's defect rate is raised. */
+    private static final int LONG_STOPPAGE_MINUTES = 60;
+
+    private final SyntheticPlantSpec spec;
+    private final Reference reference;
+    private final LotIdNormalizer lotIdNormalizer;
+    private final String lotNumberFormat;
+
+    /** Database ids and attributes of the reference rows the logs point to. */
+    record Reference(long[] lineIds, long[] defectTypeIds, boolean[] criticalDefects,
+            String[] defectNames, long[] customerIds) {
+    }
+
+    /** A lot row plus the random stream its logs are drawn from. */
+    record LotDraw(int index, String lotIdentifier, String normalizedIdentifier,
+            String partNumber, LocalDate createdDate, SplittableRandom random) {
+    }
+
+    SyntheticPlantModel(SyntheticPlantSpec spec, Reference reference,
+            LotIdNormalizer lotIdNormalizer) {
+        if (reference.lineIds().length == 0 || reference.defectTypeIds().length == 0
+                || reference.customerIds().length == 0) {
+            throw new IllegalArgumentException("Lines, defect types and customers are required");
+        }
+        this.spec = spec;
+        this.reference = reference;
+        this.lotIdNormalizer = lotIdNormalizer;
+        this.lotNumberFormat = "%0" + Math.max(7, Integer.toString(spec.lots()).length()) + "d";
+    }
+
+    /**
+     * @param index
+     *            lot index, from 0 to {@code lots - 1}
+     * @return the lot's row values
+     */
+    LotDraw lot(int index) {
+        SplittableRandom random = new SplittableRandom(
+                spec.seed() * 0x9E3779B97F4A7C15L + index);
+        String number = String.format(lotNumberFormat, index + 1);
+        // One identifier in ten was keyed without the dash.
+        String lotIdentifier = random.nextInt(10) == 0 ? "LOT" + number : "LOT-" + number;
+        String partNumber = "PN-" + (1000 + random.nextInt(PART_NUMBERS));
+        LocalDate createdDate = spec.endDate().minusDays(random.nextInt(spec.days()));
+        return new LotDraw(index, lotIdentifier, lotIdNormalizer.normalize(lotIdentifier),
+                partNumber, createdDate, random);
+    }
+
+    /**
+     * Appends the lot's production and shipping rows, in the column order of
+     * {@link SyntheticPlantGenerator}'s inserts.
+     *
+     * @param index
+     *            lot index
+     * @param lotId
+     *            the lot's database id
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    void logs(int index, long lotId, List<Object[]> productionRows, List<Object[]> shippingRows) {
+        LotDraw lot = lot(index);
+        SplittableRandom random = lot.random();
+        int kind = random.nextInt(100);
+        boolean orphan = kind < spec.orphanPercent();
+        boolean conflict = !orphan && kind < spec.orphanPercent() + spec.conflictPercent();
+        int homeLine = busyLine(random);
+        int runs = orphan ? 0 : conflict ? 2 + random.nextInt(2) : 1 + random.nextInt(3);
+
+        LocalDate lastRun = lot.createdDate();
+        for (int run = 0; run < runs; run++) {
+            int line = conflict && run == runs - 1 ? otherLine(random, homeLine) : homeLine;
+            LocalDate date = lot.createdDate().plusDays(run);
+            if (date.isAfter(spec.endDate())) {
+                date = spec.endDate();
+            }
+            lastRun = date;
+            productionRows.add(productionRow(random, lotId, line, date));
+        }
+
+        LocalDate shipDate = lastRun.plusDays(2 + random.nextInt(10));
+        if (random.nextInt(100) >= 75 || shipDate.isAfter(spec.endDate())) {
+            return;
+        }
+        boolean split = random.nextInt(10) == 0;
+        int quantity = 50 + random.nextInt(950);
+        int customer = largeCustomerBiased(random);
+        int state = (customer + random.nextInt(2)) % STATES.length;
+        int shipments = split && shipDate.plusDays(3).isBefore(spec.endDate()) ? 2 : 1;
+        for (int shipment = 0; shipment < shipments; shipment++) {
+            String status = shipments == 2 && shipment == 0 ? STATUSES[2] : shipStatus(random);
+            int shipped = shipments == 2 ? (shipment == 0 ? quantity / 2 : quantity - quantity / 2)
+                    : quantity;
+            shippingRows.add(new Object[]{shipDate.plusDays(3L * shipment), lotId,
+                    reference.customerIds()[customer], "SO-" + (100_000 + index),
+                    STATES[state], CARRIERS[random.nextInt(CARRIERS.length)],
+                    "BOL-" + lot.normalizedIdentifier() + "-" + (shipment + 1),
+                    "1Z" + Long.toHexString(random.nextLong() >>> 4).toUpperCase(Locale.ROOT),
+                    Math.max(1, shipped), status,
+                    STATUSES[1].equals(status) ? "Awaiting quality release" : null});
+        }
+    }
+
+    /** A line other than the lot's home line, for the run that makes it a conflict (AC11). */
+    private int otherLine(SplittableRandom random, int homeLine) {
+        int lines = reference.lineIds().length;
+        return lines == 1 ? homeLine : (homeLine + 1 + random.nextInt(lines - 1)) % lines;
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private Object[] productionRow(SplittableRandom random, long lotId, int line,
+            LocalDate date) {
+        int shiftDraw = random.nextInt(100);
+        int shift = shiftDraw < 40 ? 0 : shiftDraw < 75 ? 1 : 2;
+        int planned = 10 * (20 + random.nextInt(80));
+        int downtime = random.nextInt(100) < 60 ? 0
+                : Math.min(480, (int) (-Math.log(1.0 - random.nextDouble()) * 25));
+        int lost = planned * downtime / 480 + random.nextInt(planned / 20 + 1);
+        int actual = Math.max(0, planned - lost);
+
+        // Base defect rate 2% on the first line up to about 20% on the last, raised by night
+        // shifts and long stoppages.
+        double defectRate = 0.02 + 0.18 * line / Math.max(1, reference.lineIds().length - 1);
+        if (shift == NIGHT_SHIFT) {
+            defectRate *= 1.5;
+        }
+        if (downtime > LONG_STOPPAGE_MINUTES) {
+            defectRate += 0.1;
+        }
+        Long defectTypeId = null;
+        boolean issue = false;
+        String notes = null;
+        if (random.nextDouble() < defectRate) {
+            int defect = lineDefect(random, line);
+            defectTypeId = reference.defectTypeIds()[defect];
+            issue = reference.criticalDefects()[defect] || random.nextInt(10) < 6;
+            if (issue) {
+                notes = "Held run for " + reference.defectNames()[defect];
+            }
+        }
+        return new Object[]{date, SHIFTS[shift], reference.lineIds()[line], lotId, defectTypeId,
+            planned, actual, downtime, issue, notes};
+    }
+
+    /** Lines are loaded unevenly: each line gets about 1.3 times the work of the one before. */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private int busyLine(SplittableRandom random) {
+        int lines = reference.lineIds().length;
+        double total = (Math.pow(1.3, lines) - 1) / 0.3;
+        double draw = random.nextDouble() * total;
+        double weight = 1;
+        for (int line = 0; line < lines; line++) {
+            if (draw < weight) {
+                return line;
+            }
+            draw -= weight;
+            weight *= 1.3;
+        }
+        return lines - 1;
+    }
+
+    /** Each line favors three defect types, in a geometric mix, over the rest. */
+    private int lineDefect(SplittableRandom random, int line) {
+        int types = reference.defectTypeIds().length;
+        int offset = 0;
+        while (offset < types - 1 && random.nextInt(2) == 0) {
+            offset++;
+        }
+        return (line * 3 + offset) % types;
+    }
+
+    /** Customer index with a quadratic bias towards the first (largest) customers. */
+    private int largeCustomerBiased(SplittableRandom random) {
+        double draw = random.nextDouble();
+        return (int) (draw * draw * reference.customerIds().length);
+    }
+
+    private static String shipStatus(SplittableRandom random) {
+        int draw = random.nextInt(100);
+        return draw < 94 ? STATUSES[0] : draw < 98 ? STATUSES[1] : STATUSES[2];
+    }
+}
@@ -0,0 +1,47 @@
+package com.steelworks.ingest;
+
+import java.time.LocalDate;
+
+/**
+ * Shape of a synthetic plant produced by {@link SyntheticPlantGenerator}. The same spec always
+ * yields the same rows.
+ *
+ * @param lots
+ *            number of lots; each has up to three production runs and up to two shipments
+ * @param seed
+ *            random seed
+ * @param endDate
+ *            last production and ship date
+ * @param days
+ *            number of days, ending on endDate, over which lots are created
+ * @param orphanPercent
+ *            share of lots without production logs (AC10)
+ * @param conflictPercent
+ *            share of lots produced on two lines (AC11)
+ */
+public record SyntheticPlantSpec(int lots, long seed, LocalDate endDate, int days,
+        int orphanPercent, int conflictPercent) {
+
+    static final int DEFAULT_DAYS = 90;
+    static final int DEFAULT_ORPHAN_PERCENT = 3;
+    static final int DEFAULT_CONFLICT_PERCENT = 2;
+
+    public SyntheticPlantSpec {
+        if (lots < 1 || days < 1 || endDate == null) {
+            throw new IllegalArgumentException("lots and days must be at least 1, endDate set");
+        }
+        if (orphanPercent < 0 || conflictPercent < 0 || orphanPercent + conflictPercent > 100) {
+            throw new IllegalArgumentException(
+                    "orphanPercent and conflictPercent must be between 0 and 100 together");
+        }
+    }
+
+    /**
+     * @return a plant of the given size over the 90 days up to today, with 3% orphans and 2%
+     *         multi-line conflicts
+     */
+    public static SyntheticPlantSpec of(int lots, long seed) {
+        return new SyntheticPlantSpec(lots, seed, LocalDate.now(), DEFAULT_DAYS,
+                DEFAULT_ORPHAN_PERCENT, DEFAULT_CONFLICT_PERCENT);
+    }
+}
@@ -0,0 +1,148 @@
+package com.steelworks.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource that feeds {@link SqlMetrics}. Connections taken while a recording is bound to the
+ * thread are wrapped so that statement executions are timed and counted, and rows read from their
+ * result sets are counted; all other connections are returned unwrapped. Statistics go to the
+ * recording bound to the thread running the statement, as a pooled connection may outlive the
+ * request that took it.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private static final String NEXT_METHOD = "next";
+
+    public InstrumentedDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return instrument(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return instrument(super.getConnection(username, password));
+    }
+
+    private static Connection instrument(Connection connection) {
+        if (SqlMetrics.current() == null) {
+            return connection;
+        }
+        return wrap(Connection.class, new ConnectionHandler(connection));
+    }
+
+    private static <T> T wrap(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(Thread.currentThread().getContextClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object... args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Identity semantics for the proxy itself, so pools and transaction managers can compare
+     * wrapped objects; null for every other method.
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private static Object identityMethod(Object proxy, Method method, Object... args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> null;
+        };
+    }
+
+    /** Wraps every statement the connection creates. */
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identityMethod(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return wrap(CallableStatement.class, new StatementHandler(statement));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrap(PreparedStatement.class, new StatementHandler(statement));
+            }
+            if (result instanceof Statement statement) {
+                return wrap(Statement.class, new StatementHandler(statement));
+            }
+            return result;
+        }
+    }
+
+    /** Times execute calls and wraps the result sets they return. */
+    private record StatementHandler(Statement target) implements InvocationHandler {
+
+        @Override
+        @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identityMethod(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            if (!method.getName().startsWith("execute")) {
+                return wrapResultSet(InstrumentedDataSource.invoke(target, method, args));
+            }
+            long start = System.nanoTime();
+            try {
+                return wrapResultSet(InstrumentedDataSource.invoke(target, method, args));
+            } finally {
+                SqlMetrics.Recording recording = SqlMetrics.current();
+                if (recording != null) {
+                    recording.recordStatement(System.nanoTime() - start);
+                }
+            }
+        }
+
+        private static Object wrapResultSet(Object result) {
+            if (result instanceof ResultSet resultSet) {
+                return wrap(ResultSet.class, new ResultSetHandler(resultSet));
+            }
+            return result;
+        }
+    }
+
+    /** Counts the rows read through {@link ResultSet#next()}. */
+    private record ResultSetHandler(ResultSet target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identityMethod(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (Boolean.TRUE.equals(result) && NEXT_METHOD.equals(method.getName())) {
+                SqlMetrics.Recording recording = SqlMetrics.current();
+                if (recording != null) {
+                    recording.recordRow();
+                }
+            }
+            return result;
+        }
+    }
+}
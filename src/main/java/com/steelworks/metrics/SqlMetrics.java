@@ -0,0 +1,132 @@
+package com.steelworks.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-request SQL statistics: statements executed, rows read and time spent waiting on the
+ * database. Makes N+1 query patterns visible per endpoint.
+ *
+ * <p>
+ * {@link SqlMetricsFilter} starts a {@link Recording} for each request and binds it to the request
+ * thread; {@link InstrumentedDataSource} adds to the recording bound to the thread running each
+ * statement. Work handed to other threads (dashboard sections, streamed responses) keeps adding
+ * to the request's recording when it is wrapped with {@code propagate}. Threads with no recording
+ * are not instrumented at all, so bulk ingestion runs on plain JDBC.
+ */
+public final class SqlMetrics {
+
+    private static final ThreadLocal<Recording> BOUND_RECORDING = new ThreadLocal<>();
+
+    private SqlMetrics() {
+    }
+
+    /**
+     * @return the recording bound to the current thread, or null outside an instrumented request
+     */
+    public static Recording current() {
+        return BOUND_RECORDING.get();
+    }
+
+    /**
+     * Starts a recording and binds it to the current thread.
+     *
+     * @return the new recording; pass it to {@link #unbind(Recording)} when the request ends
+     */
+    static Recording start() {
+        Recording recording = new Recording();
+        BOUND_RECORDING.set(recording);
+        return recording;
+    }
+
+    /**
+     * Unbinds the recording from the current thread if it is still the one bound.
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    static void unbind(Recording recording) {
+        if (BOUND_RECORDING.get() == recording) {
+            BOUND_RECORDING.remove();
+        }
+    }
+
+    /**
+     * Wraps a task so that, wherever it runs, its statements count towards the recording of the
+     * thread that called this method.
+     */
+    public static Runnable propagate(Runnable task) {
+        Recording recording = BOUND_RECORDING.get();
+        if (recording == null) {
+            return task;
+        }
+        return () -> {
+            Recording previous = BOUND_RECORDING.get();
+            BOUND_RECORDING.set(recording);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Variant of {@link #propagate(Runnable)} for tasks producing a value.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        Recording recording = BOUND_RECORDING.get();
+        if (recording == null) {
+            return task;
+        }
+        return () -> {
+            Recording previous = BOUND_RECORDING.get();
+            BOUND_RECORDING.set(recording);
+            try {
+                return task.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(Recording previous) {
+        if (previous == null) {
+            BOUND_RECORDING.remove();
+        } else {
+            BOUND_RECORDING.set(previous);
+        }
+    }
+
+    /**
+     * Counters of one request. Updated concurrently by every thread working on the request.
+     */
+    public static final class Recording {
+
+        private final AtomicLong statements = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong databaseNanos = new AtomicLong();
+
+        void recordStatement(long elapsedNanos) {
+            statements.incrementAndGet();
+            databaseNanos.addAndGet(elapsedNanos);
+        }
+
+        void recordRow() {
+            rows.incrementAndGet();
+        }
+
+        /** @return statements executed; a JDBC batch counts once */
+        public long getStatements() {
+            return statements.get();
+        }
+
+        /** @return rows read from result sets */
+        public long getRows() {
+            return rows.get();
+        }
+
+        /** @return time spent inside statement execution calls, in nanoseconds */
+        public long getDatabaseNanos() {
+            return databaseNanos.get();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.steelworks.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the SQL statistics of every request as Micrometer meters, tagged with the HTTP method and
+ * the matched URI pattern:
+ * <ul>
+ * <li>{@value #STATEMENTS_METER}: statements executed per request</li>
+ * <li>{@value #ROWS_METER}: result set rows read per request</li>
+ * <li>{@value #TIME_METER}: time spent executing statements per request</li>
+ * </ul>
+ * Endpoint latency as a whole is recorded by Spring Boot as {@code http.server.requests}. For
+ * asynchronous requests (streamed NDJSON) the meters are recorded once the response completes.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_METER = "steelworks.sql.statements";
+    static final String ROWS_METER = "steelworks.sql.rows";
+    static final String TIME_METER = "steelworks.sql.time";
+
+    /** Request attribute holding the request's {@link SqlMetrics.Recording}. */
+    public static final String RECORDING_ATTRIBUTE = SqlMetricsFilter.class.getName()
+            + ".recording";
+
+    private static final String UNMAPPED_URI = "UNMAPPED";
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        SqlMetrics.Recording recording = SqlMetrics.start();
+        request.setAttribute(RECORDING_ATTRIBUTE, recording);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlMetrics.unbind(recording);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(request, recording));
+            } else {
+                record(request, recording);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlMetrics.Recording recording) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri",
+                pattern != null ? pattern.toString() : UNMAPPED_URI);
+        DistributionSummary.builder(STATEMENTS_METER)
+                .description("SQL statements executed per request").baseUnit("statements")
+                .tags(tags).register(meterRegistry).record(recording.getStatements());
+        DistributionSummary.builder(ROWS_METER).description("Result set rows read per request")
+                .baseUnit("rows").tags(tags).register(meterRegistry).record(recording.getRows());
+        Timer.builder(TIME_METER).description("Time spent executing SQL statements per request")
+                .tags(tags).register(meterRegistry)
+                .record(recording.getDatabaseNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /** Records an asynchronous request once its response is complete. */
+    private final class CompletionListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final SqlMetrics.Recording recording;
+
+        CompletionListener(HttpServletRequest request, SqlMetrics.Recording recording) {
+            this.request = request;
+            this.recording = recording;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(request, recording);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // onComplete follows
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // onComplete follows
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // still the same request
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.steelworks.metrics;
+
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the request's SQL statistics to JSON and text responses, right before the body is written:
+ * {@value #STATEMENTS_HEADER}, {@value #ROWS_HEADER} and a {@code Server-Timing} entry named
+ * {@code db} with the time spent executing statements. Streamed responses are committed before
+ * their queries run and only report through {@link SqlMetricsFilter}'s meters.
+ */
+@ControllerAdvice
+public class SqlMetricsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String ROWS_HEADER = "X-SQL-Rows";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final boolean enabled;
+
+    public SqlMetricsResponseAdvice(
+            @Value("${steelworks.sql-metrics.response-headers}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType,
+            Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request, ServerHttpResponse response) {
+        SqlMetrics.Recording recording = SqlMetrics.current();
+        if (recording != null) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set(STATEMENTS_HEADER, Long.toString(recording.getStatements()));
+            headers.set(ROWS_HEADER, Long.toString(recording.getRows()));
+            headers.add(SERVER_TIMING_HEADER, String.format(Locale.ROOT, "db;dur=%.3f",
+                    recording.getDatabaseNanos() / 1_000_000.0));
+        }
+        return body;
+    }
+}
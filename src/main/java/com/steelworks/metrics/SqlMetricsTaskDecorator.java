@@ -0,0 +1,17 @@
+package com.steelworks.metrics;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries the request's {@link SqlMetrics} recording into tasks run on Spring's application task
+ * executor, which also runs streamed response bodies, so their queries count towards the request.
+ */
+@Component
+public class SqlMetricsTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return SqlMetrics.propagate(runnable);
+    }
+}
@@ -0,0 +1,134 @@
+package com.steelworks.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated production log counts and units per day, production line, defect type and
+ * shift. AC5: Feeds production line rankings and defect rate control charts. AC7: Feeds defect
+ * trends. Rows are rebuilt per day from "production_logs" and map to the "daily_defect_rollups"
+ * table.
+ */
+@Entity
+@Table(name = "daily_defect_rollups")
+public class DailyDefectRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "production_line_id", nullable = false)
+    private ProductionLine productionLine;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "defect_type_id")
+    private DefectType defectType;
+
+    @Column(name = "shift", nullable = false)
+    private String shift;
+
+    /** Production logs with the issue flag set. */
+    @Column(name = "issue_count", nullable = false)
+    private Long issueCount;
+
+    /** All production logs, flagged or not. */
+    @Column(name = "log_count", nullable = false)
+    private Long logCount;
+
+    /** Units produced, summed over all production logs. */
+    @Column(name = "units_actual", nullable = false)
+    private Long unitsActual;
+
+    /** Highest production log id included in this row. */
+    @Column(name = "last_production_log_id", nullable = false)
+    private Long lastProductionLogId;
+
+    public DailyDefectRollup() {
+    }
+
+    // --- Getters and Setters ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getRollupDate() {
+        return rollupDate;
+    }
+
+    public void setRollupDate(LocalDate rollupDate) {
+        this.rollupDate = rollupDate;
+    }
+
+    public ProductionLine getProductionLine() {
+        return productionLine;
+    }
+
+    public void setProductionLine(ProductionLine productionLine) {
+        this.productionLine = productionLine;
+    }
+
+    public DefectType getDefectType() {
+        return defectType;
+    }
+
+    public void setDefectType(DefectType defectType) {
+        this.defectType = defectType;
+    }
+
+    public String getShift() {
+        return shift;
+    }
+
+    public void setShift(String shift) {
+        this.shift = shift;
+    }
+
+    public Long getIssueCount() {
+        return issueCount;
+    }
+
+    public void setIssueCount(Long issueCount) {
+        this.issueCount = issueCount;
+    }
+
+    public Long getLogCount() {
+        return logCount;
+    }
+
+    public void setLogCount(Long logCount) {
+        this.logCount = logCount;
+    }
+
+    public Long getUnitsActual() {
+        return unitsActual;
+    }
+
+    public void setUnitsActual(Long unitsActual) {
+        this.unitsActual = unitsActual;
+    }
+
+    public Long getLastProductionLogId() {
+        return lastProductionLogId;
+    }
+
+    public void setLastProductionLogId(Long lastProductionLogId) {
+        this.lastProductionLogId = lastProductionLogId;
+    }
+}
@@ -1,5 +1,6 @@
 package com.steelworks.model;
 
+import com.steelworks.util.LotIdNormalizer;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -7,6 +8,8 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -15,11 +18,17 @@ import java.util.List;
 /**
  * Central anchor record representing a manufacturing lot. Normalizes inconsistent IDs across
  * different team logs. Maps to the "lots" table in the database.
+ *
+ * <p>
+ * The normalized identifier is derived from the lot identifier by {@link LotIdNormalizer} whenever
+ * the lot is written, so the database can match fuzzy Lot IDs through its index.
  */
 @Entity
 @Table(name = "lots")
 public class Lot {
 
+    private static final LotIdNormalizer LOT_ID_NORMALIZER = new LotIdNormalizer();
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -27,6 +36,9 @@ public class Lot {
     @Column(name = "lot_identifier", nullable = false, unique = true)
     private String lotIdentifier;
 
+    @Column(name = "normalized_identifier", nullable = false)
+    private String normalizedIdentifier;
+
     @Column(name = "part_number", nullable = false)
     private String partNumber;
 
@@ -60,6 +72,10 @@ public class Lot {
         this.lotIdentifier = lotIdentifier;
     }
 
+    public String getNormalizedIdentifier() {
+        return normalizedIdentifier;
+    }
+
     public String getPartNumber() {
         return partNumber;
     }
@@ -91,4 +107,10 @@ public class Lot {
     public void setShippingLogs(List<ShippingLog> shippingLogs) {
         this.shippingLogs = shippingLogs;
     }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeLotIdentifier() {
+        normalizedIdentifier = LOT_ID_NORMALIZER.normalize(lotIdentifier);
+    }
 }
@@ -1,14 +1,21 @@
 package com.steelworks.model;
 
+import com.steelworks.event.ProductionDataChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
 import java.time.LocalDate;
 
 /**
@@ -16,7 +23,9 @@ import java.time.LocalDate;
  * AC4: Links each defect to a specific Production Line via timestamps.
  */
 @Entity
-@Table(name = "production_logs")
+@EntityListeners(ProductionDataChangeListener.class)
+@Table(name = "production_logs", uniqueConstraints = @UniqueConstraint(
+        name = "uq_production_logs_source", columnNames = {"source_file", "source_line"}))
 public class ProductionLog {
 
     @Id
@@ -56,9 +65,28 @@ public class ProductionLog {
     @Column(name = "supervisor_notes")
     private String supervisorNotes;
 
+    /** AC9: File the row was ingested from; null for rows entered through the application. */
+    @Column(name = "source_file")
+    private String sourceFile;
+
+    /** AC9: Line of {@link #sourceFile} the row started on. */
+    @Column(name = "source_line")
+    private Integer sourceLine;
+
+    /** Production date as loaded from the database, so date changes can refresh both days. */
+    @Transient
+    private LocalDate loadedProductionDate;
+
     public ProductionLog() {
     }
 
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberLoadedState() {
+        loadedProductionDate = productionDate;
+    }
+
     public Long getId() {
         return id;
     }
@@ -135,4 +163,22 @@ public class ProductionLog {
     public void setSupervisorNotes(String supervisorNotes) {
         this.supervisorNotes = supervisorNotes;
     }
+
+    public String getSourceFile() {
+        return sourceFile;
+    }
+    public void setSourceFile(String sourceFile) {
+        this.sourceFile = sourceFile;
+    }
+
+    public Integer getSourceLine() {
+        return sourceLine;
+    }
+    public void setSourceLine(Integer sourceLine) {
+        this.sourceLine = sourceLine;
+    }
+
+    public LocalDate getLoadedProductionDate() {
+        return loadedProductionDate;
+    }
 }
@@ -1,7 +1,9 @@
 package com.steelworks.model;
 
+import com.steelworks.event.ProductionDataChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -9,6 +11,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.time.LocalDate;
 
 /**
@@ -17,7 +20,9 @@ import java.time.LocalDate;
  * identify "Problematic Shipped Batches."
  */
 @Entity
-@Table(name = "shipping_logs")
+@EntityListeners(ProductionDataChangeListener.class)
+@Table(name = "shipping_logs", uniqueConstraints = @UniqueConstraint(
+        name = "uq_shipping_logs_source", columnNames = {"source_file", "source_line"}))
 public class ShippingLog {
 
     @Id
@@ -62,6 +67,14 @@ public class ShippingLog {
     @Column(name = "shipping_notes")
     private String shippingNotes;
 
+    /** AC9: File the row was ingested from; null for rows entered through the application. */
+    @Column(name = "source_file")
+    private String sourceFile;
+
+    /** AC9: Line of {@link #sourceFile} the row started on. */
+    @Column(name = "source_line")
+    private Integer sourceLine;
+
     public ShippingLog() {
     }
 
@@ -155,4 +168,18 @@ public class ShippingLog {
     public void setShippingNotes(String shippingNotes) {
         this.shippingNotes = shippingNotes;
     }
+
+    public String getSourceFile() {
+        return sourceFile;
+    }
+    public void setSourceFile(String sourceFile) {
+        this.sourceFile = sourceFile;
+    }
+
+    public Integer getSourceLine() {
+        return sourceLine;
+    }
+    public void setSourceLine(Integer sourceLine) {
+        this.sourceLine = sourceLine;
+    }
 }
@@ -0,0 +1,143 @@
+package com.steelworks.repository;
+
+import com.steelworks.model.DailyDefectRollup;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the DailyDefectRollup entity. AC5: Ranks production lines by defect count. AC7:
+ * Supports defect frequency trending. Reads cost O(days in range) regardless of log volume.
+ */
+@Repository
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface DailyDefectRollupRepository extends JpaRepository<DailyDefectRollup, Long> {
+
+    @Modifying
+    @Query("DELETE FROM DailyDefectRollup r WHERE r.rollupDate IN :dates")
+    int deleteByRollupDates(@Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * Rebuilds the rollup rows of the given days from the raw production logs.
+     */
+    @Modifying
+    @Query("INSERT INTO DailyDefectRollup (rollupDate, productionLine, defectType, shift, "
+            + "issueCount, logCount, unitsActual, lastProductionLogId) "
+            + "SELECT pl.productionDate, pl.productionLine, pl.defectType, pl.shift, "
+            + "SUM(CASE WHEN pl.issueFlag = true THEN 1L ELSE 0L END), COUNT(pl), "
+            + "SUM(pl.unitsActual), MAX(pl.id) "
+            + "FROM ProductionLog pl WHERE pl.productionDate IN :dates "
+            + "GROUP BY pl.productionDate, pl.productionLine, pl.defectType, pl.shift")
+    int insertRollupsForDates(@Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * Log count and highest production log id folded into each of the given days, as (day,
+     * count, max id) rows; days without rollup rows are missing.
+     */
+    @Query("SELECT r.rollupDate, SUM(r.logCount), MAX(r.lastProductionLogId) "
+            + "FROM DailyDefectRollup r WHERE r.rollupDate IN :dates GROUP BY r.rollupDate")
+    List<Object[]> sumLogCountsForDates(@Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * AC5/AC7: Issue counts per day, line name and defect name (null for logs without a defect),
+     * as (day, line name, defect name, count), for the in-memory dashboard aggregates.
+     */
+    @Query("SELECT r.rollupDate, r.productionLine.lineName, dt.defectName, SUM(r.issueCount) "
+            + "FROM DailyDefectRollup r LEFT JOIN r.defectType dt WHERE r.issueCount > 0 "
+            + "GROUP BY r.rollupDate, r.productionLine.lineName, dt.defectName")
+    List<Object[]> sumIssuesPerDay();
+
+    /**
+     * AC5/AC7: The rows of {@link #sumIssuesPerDay()} for the given days.
+     */
+    @Query("SELECT r.rollupDate, r.productionLine.lineName, dt.defectName, SUM(r.issueCount) "
+            + "FROM DailyDefectRollup r LEFT JOIN r.defectType dt "
+            + "WHERE r.issueCount > 0 AND r.rollupDate IN :dates "
+            + "GROUP BY r.rollupDate, r.productionLine.lineName, dt.defectName")
+    List<Object[]> sumIssuesPerDayForDates(@Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * AC5: Control chart subgroups, as (day, line name, shift, logs with issues, logs, units
+     * actual), summed over defect types.
+     */
+    @Query("SELECT r.rollupDate, r.productionLine.lineName, r.shift, SUM(r.issueCount), "
+            + "SUM(r.logCount), SUM(r.unitsActual) FROM DailyDefectRollup r "
+            + "GROUP BY r.rollupDate, r.productionLine.lineName, r.shift")
+    List<Object[]> sumSubgroups();
+
+    /**
+     * AC5: Control chart subgroups of the given days; see {@link #sumSubgroups()}.
+     */
+    @Query("SELECT r.rollupDate, r.productionLine.lineName, r.shift, SUM(r.issueCount), "
+            + "SUM(r.logCount), SUM(r.unitsActual) FROM DailyDefectRollup r "
+            + "WHERE r.rollupDate IN :dates "
+            + "GROUP BY r.rollupDate, r.productionLine.lineName, r.shift")
+    List<Object[]> sumSubgroupsForDates(@Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * AC5: Count defects per production line within a date range for ranking.
+     */
+    @Query("SELECT r.productionLine.lineName, SUM(r.issueCount) FROM DailyDefectRollup r "
+            + "WHERE r.rollupDate BETWEEN :startDate AND :endDate "
+            + "GROUP BY r.productionLine.lineName HAVING SUM(r.issueCount) > 0 "
+            + "ORDER BY SUM(r.issueCount) DESC")
+    List<Object[]> countDefectsByProductionLine(@Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * AC7: Defect counts per defect type for two adjacent periods in one pass: (defect name,
+     * count from currentStart to currentEnd, count from previousStart to the day before
+     * currentStart).
+     */
+    @Query("SELECT r.defectType.defectName, "
+            + "SUM(CASE WHEN r.rollupDate >= :currentStart THEN r.issueCount ELSE 0L END), "
+            + "SUM(CASE WHEN r.rollupDate < :currentStart THEN r.issueCount ELSE 0L END) "
+            + "FROM DailyDefectRollup r WHERE r.defectType IS NOT NULL "
+            + "AND r.rollupDate BETWEEN :previousStart AND :currentEnd "
+            + "GROUP BY r.defectType.defectName HAVING SUM(r.issueCount) > 0")
+    List<Object[]> countDefectsByTypeForAdjacentPeriods(
+            @Param("previousStart") LocalDate previousStart,
+            @Param("currentStart") LocalDate currentStart,
+            @Param("currentEnd") LocalDate currentEnd);
+
+    /**
+     * AC7: Defect counts per day, production line and defect type within a date range, as (day,
+     * line name, defect name, count).
+     */
+    @Query("SELECT r.rollupDate, r.productionLine.lineName, r.defectType.defectName, "
+            + "SUM(r.issueCount) FROM DailyDefectRollup r WHERE r.defectType IS NOT NULL "
+            + "AND r.rollupDate BETWEEN :startDate AND :endDate "
+            + "GROUP BY r.rollupDate, r.productionLine.lineName, r.defectType.defectName "
+            + "HAVING SUM(r.issueCount) > 0")
+    List<Object[]> countDefectsPerDay(@Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * AC7: Defect counts per ISO week (starting Monday), production line and defect type within a
+     * date range, as (first day of the week, line name, defect name, count).
+     */
+    @Query("SELECT cast(trunc(r.rollupDate, week) as LocalDate), r.productionLine.lineName, "
+            + "r.defectType.defectName, SUM(r.issueCount) FROM DailyDefectRollup r "
+            + "WHERE r.defectType IS NOT NULL AND r.rollupDate BETWEEN :startDate AND :endDate "
+            + "GROUP BY cast(trunc(r.rollupDate, week) as LocalDate), "
+            + "r.productionLine.lineName, r.defectType.defectName HAVING SUM(r.issueCount) > 0")
+    List<Object[]> countDefectsPerWeek(@Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * AC7: Defect counts per calendar month, production line and defect type within a date range,
+     * as (first day of the month, line name, defect name, count).
+     */
+    @Query("SELECT cast(trunc(r.rollupDate, month) as LocalDate), r.productionLine.lineName, "
+            + "r.defectType.defectName, SUM(r.issueCount) FROM DailyDefectRollup r "
+            + "WHERE r.defectType IS NOT NULL AND r.rollupDate BETWEEN :startDate AND :endDate "
+            + "GROUP BY cast(trunc(r.rollupDate, month) as LocalDate), "
+            + "r.productionLine.lineName, r.defectType.defectName HAVING SUM(r.issueCount) > 0")
+    List<Object[]> countDefectsPerMonth(@Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+}
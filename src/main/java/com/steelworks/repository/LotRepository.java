@@ -1,9 +1,12 @@
 package com.steelworks.repository;
 
+import com.steelworks.dto.OrphanedRecordDTO;
 import com.steelworks.model.Lot;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,9 +14,106 @@ import org.springframework.stereotype.Repository;
  * Supports fuzzy lookup by lot identifier. AC10: Used to detect orphaned records.
  */
 @Repository
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
 public interface LotRepository extends JpaRepository<Lot, Long> {
 
     Optional<Lot> findByLotIdentifier(String lotIdentifier);
 
-    List<Lot> findByLotIdentifierContainingIgnoreCase(String partialLotId);
+    /**
+     * AC2: Lots whose normalized identifier equals the given one; more than one means the spelling
+     * is ambiguous. Served by the normalized-identifier B-tree index.
+     */
+    List<Lot> findByNormalizedIdentifier(String normalizedIdentifier);
+
+    /**
+     * AC2: Lots whose normalized identifier contains the given fragment, in identifier order.
+     * Served by the pg_trgm index on PostgreSQL.
+     */
+    List<Lot> findByNormalizedIdentifierContainingOrderByNormalizedIdentifier(
+            String normalizedFragment);
+
+    /**
+     * AC2: Highest lot id, used to detect lots created since the lot search index was built. AC10:
+     * Also the lot high-water mark for incremental orphan detection.
+     */
+    @Query("SELECT MAX(l.id) FROM Lot l")
+    Long findMaxLotId();
+
+    /**
+     * AC2: Lot count and highest lot id, used by the lot search index to detect lots committed
+     * below its high-water mark and deleted lots.
+     */
+    @Query("SELECT COUNT(l), MAX(l.id) FROM Lot l")
+    List<Object[]> findIndexStatistics();
+
+    /**
+     * AC2: Columns indexed by the lot search index (id, lot identifier, created date, normalized
+     * identifier) for lots inserted after the given id.
+     */
+    @Query("SELECT l.id, l.lotIdentifier, l.createdDate, l.normalizedIdentifier FROM Lot l "
+            + "WHERE l.id > :afterId ORDER BY l.id")
+    List<Object[]> findIndexEntriesAfter(@Param("afterId") long afterId);
+
+    /**
+     * AC1: Lot columns shown in search results (id, lot identifier, part number) for a batch of
+     * lots.
+     */
+    @Query("SELECT l.id, l.lotIdentifier, l.partNumber FROM Lot l WHERE l.id IN :lotIds")
+    List<Object[]> findSearchColumnsForLotIds(@Param("lotIds") List<Long> lotIds);
+
+    /**
+     * AC1: Lot columns of the consolidated view (id, lot identifier, part number, created date) for
+     * a batch of lots.
+     */
+    @Query("SELECT l.id, l.lotIdentifier, l.partNumber, l.createdDate FROM Lot l "
+            + "WHERE l.id IN :lotIds")
+    List<Object[]> findConsolidatedColumnsForLotIds(@Param("lotIds") List<Long> lotIds);
+
+    /**
+     * AC2: Ids of the lots with any of the given normalized identifiers, resolved through the
+     * normalized-identifier index.
+     */
+    @Query("SELECT l.id FROM Lot l WHERE l.normalizedIdentifier IN :normalizedIdentifiers "
+            + "ORDER BY l.normalizedIdentifier, l.id")
+    List<Long> findIdsByNormalizedIdentifiers(
+            @Param("normalizedIdentifiers") List<String> normalizedIdentifiers);
+
+    /**
+     * AC10: Lots missing shipping or quality data, classified with EXISTS anti-joins over the
+     * production and shipping logs. A lot with quality data always has production data, so those
+     * two checks are enough to find every orphan.
+     */
+    @Query("SELECT new com.steelworks.dto.OrphanedRecordDTO(l.lotIdentifier, "
+            + "CASE WHEN EXISTS (SELECT 1 FROM ProductionLog p WHERE p.lot = l) "
+            + "THEN true ELSE false END, "
+            + "CASE WHEN EXISTS (SELECT 1 FROM ShippingLog s WHERE s.lot = l) "
+            + "THEN true ELSE false END, "
+            + "CASE WHEN EXISTS (SELECT 1 FROM ProductionLog q WHERE q.lot = l "
+            + "AND (q.issueFlag = true OR q.defectType IS NOT NULL)) THEN true ELSE false END) "
+            + "FROM Lot l WHERE NOT EXISTS (SELECT 1 FROM ShippingLog s2 WHERE s2.lot = l) "
+            + "OR NOT EXISTS (SELECT 1 FROM ProductionLog q2 WHERE q2.lot = l "
+            + "AND (q2.issueFlag = true OR q2.defectType IS NOT NULL)) "
+            + "ORDER BY l.lotIdentifier")
+    List<OrphanedRecordDTO> findOrphanedRecords();
+
+    /**
+     * AC10: Source classification for every lot created, or given a production or shipping log,
+     * after the supplied id high-water marks. Complete lots are returned too so an incremental run
+     * can clear lots that are no longer orphaned.
+     */
+    @Query("SELECT new com.steelworks.dto.OrphanedRecordDTO(l.lotIdentifier, "
+            + "CASE WHEN EXISTS (SELECT 1 FROM ProductionLog p WHERE p.lot = l) "
+            + "THEN true ELSE false END, "
+            + "CASE WHEN EXISTS (SELECT 1 FROM ShippingLog s WHERE s.lot = l) "
+            + "THEN true ELSE false END, "
+            + "CASE WHEN EXISTS (SELECT 1 FROM ProductionLog q WHERE q.lot = l "
+            + "AND (q.issueFlag = true OR q.defectType IS NOT NULL)) THEN true ELSE false END) "
+            + "FROM Lot l WHERE l.id > :lotAfterId "
+            + "OR EXISTS (SELECT 1 FROM ProductionLog p2 WHERE p2.lot = l "
+            + "AND p2.id > :productionLogAfterId) "
+            + "OR EXISTS (SELECT 1 FROM ShippingLog s2 WHERE s2.lot = l "
+            + "AND s2.id > :shippingLogAfterId)")
+    List<OrphanedRecordDTO> classifyLotsTouchedAfter(@Param("lotAfterId") long lotAfterId,
+            @Param("productionLogAfterId") long productionLogAfterId,
+            @Param("shippingLogAfterId") long shippingLogAfterId);
 }
@@ -2,7 +2,10 @@ package com.steelworks.repository;
 
 import com.steelworks.model.ProductionLog;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,43 +16,120 @@ import org.springframework.stereotype.Repository;
  * lines by defect count. AC7: Supports defect frequency trending over time periods.
  */
 @Repository
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
 public interface ProductionLogRepository extends JpaRepository<ProductionLog, Long> {
 
+    @EntityGraph(attributePaths = {"lot", "productionLine", "defectType"})
     List<ProductionLog> findByLotId(Long lotId);
 
+    @EntityGraph(attributePaths = {"lot", "productionLine", "defectType"})
     List<ProductionLog> findByProductionDateBetween(LocalDate startDate, LocalDate endDate);
 
+    @EntityGraph(attributePaths = {"lot", "productionLine", "defectType"})
     List<ProductionLog> findByIssueFlagTrueAndProductionDateBetween(LocalDate startDate,
             LocalDate endDate);
 
+    @EntityGraph(attributePaths = {"lot", "productionLine", "defectType"})
     List<ProductionLog> findByIssueFlagTrue();
 
+    @EntityGraph(attributePaths = {"lot", "productionLine", "defectType"})
     List<ProductionLog> findByProductionLineIdAndProductionDateBetween(Long productionLineId,
             LocalDate startDate, LocalDate endDate);
 
     /**
-     * AC5: Count defects per production line within a date range for ranking.
+     * AC4: Name of the production line a production log entry is attributed to, read as a single
+     * column instead of loading the log and its line.
      */
-    @Query("SELECT pl.productionLine.lineName, COUNT(pl) FROM ProductionLog pl "
-            + "WHERE pl.issueFlag = true AND pl.productionDate BETWEEN :startDate AND :endDate "
-            + "GROUP BY pl.productionLine.lineName ORDER BY COUNT(pl) DESC")
-    List<Object[]> countDefectsByProductionLine(@Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate);
+    @Query("SELECT line.lineName FROM ProductionLog pl JOIN pl.productionLine line "
+            + "WHERE pl.id = :id")
+    Optional<String> findLineNameById(@Param("id") Long id);
 
     /**
-     * AC7: Count defect occurrences by defect type within a date range for trend analysis.
+     * AC11: Distinct (lot identifier, production line name) pairs for every lot associated with
+     * multiple production lines (data conflict), ordered by lot identifier.
      */
-    @Query("SELECT pl.defectType.defectName, COUNT(pl) FROM ProductionLog pl "
-            + "WHERE pl.issueFlag = true AND pl.defectType IS NOT NULL "
-            + "AND pl.productionDate BETWEEN :startDate AND :endDate "
-            + "GROUP BY pl.defectType.defectName")
-    List<Object[]> countDefectsByType(@Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate);
+    @Query("SELECT DISTINCT lot.lotIdentifier, line.lineName FROM ProductionLog pl "
+            + "JOIN pl.lot lot JOIN pl.productionLine line WHERE lot.id IN ("
+            + "SELECT p2.lot.id FROM ProductionLog p2 GROUP BY p2.lot.id "
+            + "HAVING COUNT(DISTINCT p2.productionLine.id) > 1) "
+            + "ORDER BY lot.lotIdentifier")
+    List<Object[]> findConflictingLotLineNames();
 
     /**
-     * AC11: Find lots associated with multiple production lines (data conflict).
+     * AC1: Distinct (lot id, production line name) pairs for a batch of lots, used to build search
+     * results without loading each lot's production logs.
      */
-    @Query("SELECT pl.lot.id FROM ProductionLog pl "
-            + "GROUP BY pl.lot.id HAVING COUNT(DISTINCT pl.productionLine.id) > 1")
-    List<Long> findLotIdsWithMultipleProductionLines();
+    @Query("SELECT DISTINCT pl.lot.id, line.lineName FROM ProductionLog pl "
+            + "JOIN pl.productionLine line WHERE pl.lot.id IN :lotIds")
+    List<Object[]> findLineNamesForLotIds(@Param("lotIds") List<Long> lotIds);
+
+    /**
+     * AC1: Representative defect (lot id, defect name, severity) per lot, taken from the earliest
+     * production log of each lot that recorded a defect type.
+     */
+    @Query("SELECT pl.lot.id, dt.defectName, dt.severity FROM ProductionLog pl "
+            + "JOIN pl.defectType dt WHERE pl.id IN (SELECT MIN(p2.id) FROM ProductionLog p2 "
+            + "WHERE p2.defectType IS NOT NULL AND p2.lot.id IN :lotIds GROUP BY p2.lot.id)")
+    List<Object[]> findRepresentativeDefectsForLotIds(@Param("lotIds") List<Long> lotIds);
+
+    /**
+     * AC1: Production totals per lot for a batch of lots: (lot id, units planned, units actual,
+     * downtime minutes, 1 if any log raised the issue flag else 0).
+     */
+    @Query("SELECT pl.lot.id, SUM(pl.unitsPlanned), SUM(pl.unitsActual), "
+            + "SUM(pl.downtimeMinutes), MAX(CASE WHEN pl.issueFlag = true THEN 1 ELSE 0 END) "
+            + "FROM ProductionLog pl WHERE pl.lot.id IN :lotIds GROUP BY pl.lot.id")
+    List<Object[]> findProductionTotalsForLotIds(@Param("lotIds") List<Long> lotIds);
+
+    /**
+     * AC1, AC9: Distinct (lot id, source file, defect name) combinations of the production logs of
+     * a batch of lots; the defect name is null for logs without a defect type.
+     */
+    @Query("SELECT DISTINCT pl.lot.id, pl.sourceFile, dt.defectName FROM ProductionLog pl "
+            + "LEFT JOIN pl.defectType dt WHERE pl.lot.id IN :lotIds")
+    List<Object[]> findDefectSourcesForLotIds(@Param("lotIds") List<Long> lotIds);
+
+    /**
+     * AC10: Highest production log id, the high-water mark for incremental orphan detection.
+     */
+    @Query("SELECT MAX(pl.id) FROM ProductionLog pl")
+    Long findMaxId();
+
+    /**
+     * AC9: Source file and line of one production log as a (sourceFile, sourceLine) row; empty
+     * when the log does not exist.
+     */
+    @Query("SELECT pl.sourceFile, pl.sourceLine FROM ProductionLog pl WHERE pl.id = :id")
+    List<Object[]> findSourceLocationById(@Param("id") Long id);
+
+    /**
+     * AC5/AC7: Distinct production dates of the logs with ids in (afterId, upToId], used to
+     * refresh the daily defect rollup incrementally.
+     */
+    @Query("SELECT DISTINCT pl.productionDate FROM ProductionLog pl "
+            + "WHERE pl.id > :afterId AND pl.id <= :upToId")
+    List<LocalDate> findProductionDatesForIdRange(@Param("afterId") long afterId,
+            @Param("upToId") long upToId);
+
+    /**
+     * AC5/AC7: Count and highest id of the production logs with ids above afterId, as one
+     * (count, max id) row. A change reveals logs committed, or deleted, below the rollup's
+     * high-water mark.
+     */
+    @Query("SELECT COUNT(pl), MAX(pl.id) FROM ProductionLog pl WHERE pl.id > :afterId")
+    List<Object[]> findIdWindowStatistics(@Param("afterId") long afterId);
+
+    /**
+     * AC5/AC7: Log count and highest log id per production date, as (day, count, max id) rows,
+     * to compare against the daily defect rollup.
+     */
+    @Query("SELECT pl.productionDate, COUNT(pl), MAX(pl.id) FROM ProductionLog pl "
+            + "WHERE pl.productionDate IN :dates GROUP BY pl.productionDate")
+    List<Object[]> countLogsForProductionDates(@Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * AC6: Ids of the lots with a production log on any of the given dates.
+     */
+    @Query("SELECT DISTINCT pl.lot.id FROM ProductionLog pl WHERE pl.productionDate IN :dates")
+    List<Long> findLotIdsForProductionDates(@Param("dates") Collection<LocalDate> dates);
 }
@@ -1,8 +1,11 @@
 package com.steelworks.repository;
 
+import com.steelworks.dto.ShippingRiskAlertDTO;
 import com.steelworks.model.ShippingLog;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,16 +18,96 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ShippingLogRepository extends JpaRepository<ShippingLog, Long> {
 
+    @EntityGraph(attributePaths = {"lot", "customer"})
     List<ShippingLog> findByLotId(Long lotId);
 
+    @EntityGraph(attributePaths = {"lot", "customer"})
     List<ShippingLog> findByShipDateBetween(LocalDate startDate, LocalDate endDate);
 
     boolean existsByLotIdAndShipDateIsNotNull(Long lotId);
 
     /**
-     * AC6: Find shipped lots that also have critical defects.
+     * AC6: Shipping risk alert rows for every critical-severity production log whose lot has
+     * shipped, paired with the lot's latest shipment. Lots with several shipments on that date
+     * yield one row per shipment; rows are ordered by production log id, then shipping log id.
      */
-    @Query("SELECT s FROM ShippingLog s " + "WHERE s.shipStatus = 'Shipped' "
-            + "AND s.lot.id IN :lotIds")
-    List<ShippingLog> findShippedLogsForLotIds(@Param("lotIds") List<Long> lotIds);
+    @Query("SELECT new com.steelworks.dto.ShippingRiskAlertDTO(lot.lotIdentifier, "
+            + "dt.defectName, dt.severity, s.shipDate, c.customerName, line.lineName) "
+            + "FROM ProductionLog pl JOIN pl.defectType dt JOIN pl.lot lot "
+            + "JOIN pl.productionLine line, ShippingLog s JOIN s.customer c "
+            + "WHERE s.lot = lot AND pl.issueFlag = true AND UPPER(dt.severity) = 'CRITICAL' "
+            + "AND s.shipStatus = 'Shipped' AND s.shipDate = (SELECT MAX(s2.shipDate) "
+            + "FROM ShippingLog s2 WHERE s2.lot = lot AND s2.shipStatus = 'Shipped') "
+            + "ORDER BY pl.id, s.id")
+    List<ShippingRiskAlertDTO> findCriticalShippedAlerts();
+
+    /**
+     * AC6: The rows of {@link #findCriticalShippedAlerts()} as (lot id, production log id,
+     * production date, lot identifier, defect name, severity, ship date, customer name, line
+     * name), so they can be maintained per lot.
+     */
+    @Query("SELECT lot.id, pl.id, pl.productionDate, lot.lotIdentifier, dt.defectName, "
+            + "dt.severity, s.shipDate, c.customerName, line.lineName "
+            + "FROM ProductionLog pl JOIN pl.defectType dt JOIN pl.lot lot "
+            + "JOIN pl.productionLine line, ShippingLog s JOIN s.customer c "
+            + "WHERE s.lot = lot AND pl.issueFlag = true AND UPPER(dt.severity) = 'CRITICAL' "
+            + "AND s.shipStatus = 'Shipped' AND s.shipDate = (SELECT MAX(s2.shipDate) "
+            + "FROM ShippingLog s2 WHERE s2.lot = lot AND s2.shipStatus = 'Shipped') "
+            + "ORDER BY pl.id, s.id")
+    List<Object[]> findCriticalShippedAlertRows();
+
+    /**
+     * AC6: The rows of {@link #findCriticalShippedAlertRows()} for a batch of lots.
+     */
+    @Query("SELECT lot.id, pl.id, pl.productionDate, lot.lotIdentifier, dt.defectName, "
+            + "dt.severity, s.shipDate, c.customerName, line.lineName "
+            + "FROM ProductionLog pl JOIN pl.defectType dt JOIN pl.lot lot "
+            + "JOIN pl.productionLine line, ShippingLog s JOIN s.customer c "
+            + "WHERE lot.id IN :lotIds AND s.lot = lot AND pl.issueFlag = true "
+            + "AND UPPER(dt.severity) = 'CRITICAL' AND s.shipStatus = 'Shipped' "
+            + "AND s.shipDate = (SELECT MAX(s2.shipDate) FROM ShippingLog s2 "
+            + "WHERE s2.lot = lot AND s2.shipStatus = 'Shipped') ORDER BY pl.id, s.id")
+    List<Object[]> findCriticalShippedAlertRowsForLotIds(@Param("lotIds") List<Long> lotIds);
+
+    /**
+     * AC6: Ids of the lots with a shipping log on any of the given dates.
+     */
+    @Query("SELECT DISTINCT s.lot.id FROM ShippingLog s WHERE s.shipDate IN :dates")
+    List<Long> findLotIdsForShipDates(@Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * AC6: Distinct ship dates of the logs with ids in (afterId, upToId], used to refresh the
+     * dashboard aggregates incrementally.
+     */
+    @Query("SELECT DISTINCT s.shipDate FROM ShippingLog s "
+            + "WHERE s.id > :afterId AND s.id <= :upToId")
+    List<LocalDate> findShipDatesForIdRange(@Param("afterId") long afterId,
+            @Param("upToId") long upToId);
+
+    /**
+     * AC3: Ids of the given lots that appear in the shipping log at least once.
+     */
+    @Query("SELECT DISTINCT s.lot.id FROM ShippingLog s WHERE s.lot.id IN :lotIds")
+    List<Long> findLotIdsWithShippingLogs(@Param("lotIds") List<Long> lotIds);
+
+    /**
+     * AC1, AC9: (lot id, ship date, customer name, source file) of every shipping log of a batch
+     * of lots, in id order.
+     */
+    @Query("SELECT s.lot.id, s.shipDate, c.customerName, s.sourceFile FROM ShippingLog s "
+            + "JOIN s.customer c WHERE s.lot.id IN :lotIds ORDER BY s.id")
+    List<Object[]> findConsolidatedShippingForLotIds(@Param("lotIds") List<Long> lotIds);
+
+    /**
+     * AC10: Highest shipping log id, the high-water mark for incremental orphan detection.
+     */
+    @Query("SELECT MAX(s.id) FROM ShippingLog s")
+    Long findMaxId();
+
+    /**
+     * AC9: Source file and line of one shipping log as a (sourceFile, sourceLine) row; empty when
+     * the log does not exist.
+     */
+    @Query("SELECT s.sourceFile, s.sourceLine FROM ShippingLog s WHERE s.id = :id")
+    List<Object[]> findSourceLocationById(@Param("id") Long id);
 }
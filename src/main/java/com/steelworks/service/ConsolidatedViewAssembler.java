@@ -0,0 +1,173 @@
+package com.steelworks.service;
+
+import com.steelworks.dto.ConsolidatedLotView;
+import com.steelworks.repository.LotRepository;
+import com.steelworks.repository.ProductionLogRepository;
+import com.steelworks.repository.ShippingLogRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds {@link ConsolidatedLotView}s for many lots with a fixed number of set-based queries. AC1:
+ * Cross-references Production, Quality, and Shipping data. AC9: Populates source file references
+ * for traceability.
+ *
+ * <p>
+ * Lot ids are processed in batches of {@link #LOT_ID_BATCH_SIZE}; each batch costs five queries
+ * (lot columns, production totals, line names, defects with their source files, shipping logs) no
+ * matter how many logs the lots have, and is handed to the caller before the next one is read.
+ */
+@Component
+public class ConsolidatedViewAssembler {
+
+    /** Lots per batch: bounds both the IN-lists and the views held in memory at once. */
+    static final int LOT_ID_BATCH_SIZE = 500;
+
+    private static final String PRODUCTION_FALLBACK_SOURCE = "db:production_logs";
+    private static final String SHIPPING_FALLBACK_SOURCE = "db:shipping_logs";
+    private static final String QUALITY_FALLBACK_SOURCE = "db:production_logs#quality";
+
+    private final LotRepository lotRepository;
+    private final ProductionLogRepository productionLogRepository;
+    private final ShippingLogRepository shippingLogRepository;
+
+    public ConsolidatedViewAssembler(LotRepository lotRepository,
+            ProductionLogRepository productionLogRepository,
+            ShippingLogRepository shippingLogRepository) {
+        this.lotRepository = lotRepository;
+        this.productionLogRepository = productionLogRepository;
+        this.shippingLogRepository = shippingLogRepository;
+    }
+
+    /**
+     * Assembles consolidated views for the given lots batch by batch, preserving the order of the
+     * input ids. Ids that no longer exist are skipped.
+     *
+     * @param lotIds
+     *            database ids of the lots to assemble
+     * @param batchConsumer
+     *            receives the views of each batch in order
+     * @return number of views assembled
+     */
+    public long assemble(List<Long> lotIds, Consumer<List<ConsolidatedLotView>> batchConsumer) {
+        long assembled = 0;
+        for (int from = 0; from < lotIds.size(); from += LOT_ID_BATCH_SIZE) {
+            List<ConsolidatedLotView> views = assembleBatch(
+                    lotIds.subList(from, Math.min(from + LOT_ID_BATCH_SIZE, lotIds.size())));
+            batchConsumer.accept(views);
+            assembled += views.size();
+        }
+        return assembled;
+    }
+
+    /**
+     * Lists the distinct files the rows were ingested from, with the fallback standing in for rows
+     * entered through the application. AC9: Source transparency.
+     */
+    private static String describeSources(Stream<String> sourceFiles, String fallback) {
+        String sources = sourceFiles.map(file -> file != null ? file : fallback).distinct()
+                .sorted().collect(Collectors.joining(", "));
+        return sources.isEmpty() ? fallback : sources;
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private List<ConsolidatedLotView> assembleBatch(List<Long> lotIds) {
+        Map<Long, Object[]> lotColumns = new HashMap<>(lotIds.size() * 2);
+        for (Object[] row : lotRepository.findConsolidatedColumnsForLotIds(lotIds)) {
+            lotColumns.put(((Number) row[0]).longValue(), row);
+        }
+
+        Map<Long, Object[]> totalsByLot = new HashMap<>(lotIds.size() * 2);
+        for (Object[] row : productionLogRepository.findProductionTotalsForLotIds(lotIds)) {
+            totalsByLot.put(((Number) row[0]).longValue(), row);
+        }
+
+        Map<Long, Set<String>> lineNamesByLot = new HashMap<>();
+        for (Object[] row : productionLogRepository.findLineNamesForLotIds(lotIds)) {
+            lineNamesByLot.computeIfAbsent(((Number) row[0]).longValue(), id -> new TreeSet<>())
+                    .add((String) row[1]);
+        }
+
+        Map<Long, List<Object[]>> defectSourcesByLot = groupByLot(
+                productionLogRepository.findDefectSourcesForLotIds(lotIds));
+        Map<Long, List<Object[]>> shippingByLot = groupByLot(
+                shippingLogRepository.findConsolidatedShippingForLotIds(lotIds));
+
+        List<ConsolidatedLotView> views = new ArrayList<>(lotIds.size());
+        for (Long lotId : lotIds) {
+            Object[] lot = lotColumns.get(lotId);
+            if (lot == null) {
+                continue;
+            }
+            ConsolidatedLotView view = new ConsolidatedLotView();
+            view.setLotId(lotId);
+            view.setLotIdentifier((String) lot[1]);
+            view.setPartNumber((String) lot[2]);
+            view.setCreatedDate((LocalDate) lot[3]);
+            view.setAssociatedProductionLines(
+                    List.copyOf(lineNamesByLot.getOrDefault(lotId, Set.of())));
+            applyProductionTotals(view, totalsByLot.get(lotId));
+            applyDefects(view, defectSourcesByLot.getOrDefault(lotId, List.of()));
+            applyShipping(view, shippingByLot.getOrDefault(lotId, List.of()));
+            views.add(view);
+        }
+        return views;
+    }
+
+    private static void applyProductionTotals(ConsolidatedLotView view, Object... totals) {
+        view.setTotalUnitsPlanned(totals == null ? 0 : intValue(totals[1]));
+        view.setTotalUnitsActual(totals == null ? 0 : intValue(totals[2]));
+        view.setTotalDowntimeMinutes(totals == null ? 0 : intValue(totals[3]));
+        view.setHasIssueFlag(totals != null && intValue(totals[4]) > 0);
+    }
+
+    private static void applyDefects(ConsolidatedLotView view, List<Object[]> defectSources) {
+        view.setDefectsFound(defectSources.stream().map(row -> (String) row[2])
+                .filter(defect -> defect != null).distinct().sorted().toList());
+        view.setProductionSourceFile(describeSources(
+                defectSources.stream().map(row -> (String) row[1]), PRODUCTION_FALLBACK_SOURCE));
+        view.setQualitySourceFile(describeSources(defectSources.stream()
+                .filter(row -> row[2] != null).map(row -> (String) row[1])
+                .map(file -> file != null ? file + "#quality" : null), QUALITY_FALLBACK_SOURCE));
+    }
+
+    private static void applyShipping(ConsolidatedLotView view, List<Object[]> shippingLogs) {
+        Object[] latest = null;
+        for (Object[] row : shippingLogs) {
+            if (latest == null || ((LocalDate) row[1]).isAfter((LocalDate) latest[1])) {
+                latest = row;
+            }
+        }
+        if (latest == null) {
+            view.setShippingStatus("In Inventory");
+        } else {
+            view.setShippingStatus("Shipped");
+            view.setShipDate((LocalDate) latest[1]);
+            view.setCustomerName((String) latest[2]);
+        }
+        view.setShippingSourceFile(describeSources(
+                shippingLogs.stream().map(row -> (String) row[3]), SHIPPING_FALLBACK_SOURCE));
+    }
+
+    private static Map<Long, List<Object[]>> groupByLot(List<Object[]> rows) {
+        Map<Long, List<Object[]>> rowsByLot = new HashMap<>();
+        for (Object[] row : rows) {
+            rowsByLot.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>())
+                    .add(row);
+        }
+        return rowsByLot;
+    }
+
+    private static int intValue(Object value) {
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+}
@@ -0,0 +1,257 @@
+package com.steelworks.service;
+
+import com.steelworks.event.ProductionDataChangedEvent;
+import com.steelworks.model.ProductionLog;
+import com.steelworks.repository.DailyDefectRollupRepository;
+import com.steelworks.repository.ProductionLogRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the daily defect rollup (counts per day, production line, defect type and shift).
+ * AC5: Backs production line rankings. AC7: Backs defect trends.
+ *
+ * <p>
+ * A day is rebuilt from the raw production logs when it is marked dirty. Days become dirty when
+ * a JPA write to a production log commits ({@link ProductionDataChangedEvent}), when
+ * {@link #markDirty(Collection)} is called by writers in the same process that bypass JPA, or
+ * when the production logs of the day no longer match its rollup rows. Readers call
+ * {@link #ensureUpToDate()} first, so a refresh costs O(changed days) rather than O(log rows).
+ *
+ * <p>
+ * Logs written by other processes, such as the command-line ingestion, are found by id. Ids are
+ * handed out before the rows commit, so a log may become visible below the highest id already
+ * seen. Each refresh therefore counts the logs in a trailing window of
+ * {@code steelworks.rollup.trailing-id-window} ids below the high-water mark; when the count or
+ * the highest id changed, the days of the logs in the window are compared with their rollup rows
+ * by log count and highest log id, and only the days that differ are rebuilt.
+ *
+ * <p>
+ * Dirty days are only kept in memory, so days marked by a previous run of the application may
+ * never have been rebuilt. The first refresh after startup therefore rebuilds every day.
+ *
+ * <p>
+ * Every refresh that rebuilds days starts a new generation. Consumers that keep state derived
+ * from the rollup remember the generation they last read and fetch only the days rebuilt since
+ * through {@link #changesSince(long)}.
+ */
+@Service
+public class DailyDefectRollupService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DailyDefectRollupService.class);
+
+    /** Upper bound on dates per IN-list when rebuilding. */
+    static final int DATE_BATCH_SIZE = 500;
+
+    private final DailyDefectRollupRepository dailyDefectRollupRepository;
+    private final ProductionLogRepository productionLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long trailingIdWindow;
+
+    /** Days waiting to be rebuilt; guarded by this. */
+    private final Set<LocalDate> dirtyDates = new HashSet<>();
+
+    /** Highest production log id folded into the rollup; null until the first refresh. */
+    private Long lastProductionLogId;
+
+    /** Trailing id window as counted by the last refresh; guarded by this. */
+    private IdWindow lastIdWindow;
+
+    /** Number of refreshes that rebuilt at least one day; guarded by this. */
+    private long generation;
+
+    /** Generation in which each day was last rebuilt; guarded by this. */
+    private final Map<LocalDate, Long> rebuiltInGeneration = new HashMap<>();
+
+    private record RefreshResult(Set<LocalDate> rebuiltDates, IdWindow idWindow) {
+    }
+
+    /** Count and highest id of the production logs with ids above afterId. */
+    private record IdWindow(long afterId, long logCount, long maxProductionLogId) {
+    }
+
+    /** Log count and highest log id of one day. */
+    private record DayTotals(long logCount, long maxProductionLogId) {
+    }
+
+    /**
+     * Days rebuilt after a given generation.
+     *
+     * @param generation
+     *            current generation, to pass to the next {@link #changesSince(long)} call
+     * @param dates
+     *            days rebuilt after the requested generation
+     */
+    public record Changes(long generation, Set<LocalDate> dates) {
+    }
+
+    public DailyDefectRollupService(DailyDefectRollupRepository dailyDefectRollupRepository,
+            ProductionLogRepository productionLogRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${steelworks.rollup.trailing-id-window}") long trailingIdWindow) {
+        if (trailingIdWindow < 0) {
+            throw new IllegalArgumentException("trailingIdWindow must not be negative");
+        }
+        this.dailyDefectRollupRepository = dailyDefectRollupRepository;
+        this.productionLogRepository = productionLogRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.trailingIdWindow = trailingIdWindow;
+    }
+
+    /**
+     * Rebuilds every dirty day and every day whose production logs changed since the last
+     * refresh, or every day on the first call. The rebuild commits before this method returns, so
+     * callers read consistent rows.
+     */
+    public synchronized void ensureUpToDate() {
+        RefreshResult result = transactionTemplate.execute(status -> refresh());
+        if (result == null) {
+            return;
+        }
+        lastProductionLogId = Math.max(orZero(lastProductionLogId),
+                result.idWindow().maxProductionLogId());
+        lastIdWindow = result.idWindow();
+        dirtyDates.removeAll(result.rebuiltDates());
+        if (!result.rebuiltDates().isEmpty()) {
+            generation++;
+            for (LocalDate date : result.rebuiltDates()) {
+                rebuiltInGeneration.put(date, generation);
+            }
+        }
+        if (LOGGER.isInfoEnabled() && !result.rebuiltDates().isEmpty()) {
+            LOGGER.info("Daily defect rollup rebuilt for {} day(s)", result.rebuiltDates().size());
+        }
+    }
+
+    /**
+     * Returns the days rebuilt since a generation returned by an earlier call. Does not refresh;
+     * call {@link #ensureUpToDate()} first.
+     *
+     * @param sinceGeneration
+     *            generation of the caller's last call, or a negative value for none
+     * @return the current generation and the days rebuilt after sinceGeneration
+     */
+    public synchronized Changes changesSince(long sinceGeneration) {
+        if (sinceGeneration >= generation) {
+            return new Changes(generation, Set.of());
+        }
+        Set<LocalDate> dates = new TreeSet<>();
+        for (Map.Entry<LocalDate, Long> entry : rebuiltInGeneration.entrySet()) {
+            if (entry.getValue() > sinceGeneration) {
+                dates.add(entry.getKey());
+            }
+        }
+        return new Changes(generation, dates);
+    }
+
+    /**
+     * Marks days whose production logs changed outside JPA (e.g. bulk JDBC loads) for rebuild.
+     *
+     * @param dates
+     *            production dates to rebuild on the next refresh
+     */
+    public synchronized void markDirty(Collection<LocalDate> dates) {
+        dirtyDates.addAll(dates);
+    }
+
+    /**
+     * Marks every day in the range for rebuild, e.g. after manual data repair.
+     *
+     * @param startDate
+     *            first day to rebuild
+     * @param endDate
+     *            last day to rebuild
+     */
+    public synchronized void markDirty(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        startDate.datesUntil(endDate.plusDays(1)).forEach(dirtyDates::add);
+    }
+
+    /**
+     * Marks the days touched by a committed production log write for rebuild.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductionDataChanged(ProductionDataChangedEvent event) {
+        if (ProductionLog.class.isAssignableFrom(event.entityType())) {
+            markDirty(event.affectedDates());
+        }
+    }
+
+    private RefreshResult refresh() {
+        IdWindow idWindow = countIdWindow(lastProductionLogId == null ? 0L
+                : Math.max(0L, lastProductionLogId - trailingIdWindow));
+
+        Set<LocalDate> dates = new TreeSet<>(dirtyDates);
+        if (lastProductionLogId == null) {
+            // Also drops the rows of days whose production logs have all been deleted since.
+            dailyDefectRollupRepository.deleteAllInBatch();
+            dates.addAll(productionLogRepository.findProductionDatesForIdRange(0L,
+                    idWindow.maxProductionLogId()));
+        } else if (!idWindow.equals(lastIdWindow)) {
+            dates.addAll(changedDates(productionLogRepository.findProductionDatesForIdRange(
+                    idWindow.afterId(), idWindow.maxProductionLogId())));
+        }
+
+        List<LocalDate> orderedDates = new ArrayList<>(dates);
+        for (int from = 0; from < orderedDates.size(); from += DATE_BATCH_SIZE) {
+            List<LocalDate> batch = orderedDates.subList(from,
+                    Math.min(from + DATE_BATCH_SIZE, orderedDates.size()));
+            dailyDefectRollupRepository.deleteByRollupDates(batch);
+            dailyDefectRollupRepository.insertRollupsForDates(batch);
+        }
+        return new RefreshResult(dates, idWindow);
+    }
+
+    private IdWindow countIdWindow(long afterId) {
+        List<Object[]> rows = productionLogRepository.findIdWindowStatistics(afterId);
+        Object[] row = rows.isEmpty() ? new Object[]{0L, null} : rows.get(0);
+        return new IdWindow(afterId, orZero((Number) row[0]), orZero((Number) row[1]));
+    }
+
+    /** The candidate days whose logs differ from their rollup rows in count or highest id. */
+    private Set<LocalDate> changedDates(List<LocalDate> candidates) {
+        Set<LocalDate> changed = new TreeSet<>();
+        for (int from = 0; from < candidates.size(); from += DATE_BATCH_SIZE) {
+            List<LocalDate> batch = candidates.subList(from,
+                    Math.min(from + DATE_BATCH_SIZE, candidates.size()));
+            Map<LocalDate, DayTotals> rolledUp = dayTotals(
+                    dailyDefectRollupRepository.sumLogCountsForDates(batch));
+            dayTotals(productionLogRepository.countLogsForProductionDates(batch))
+                    .forEach((date, totals) -> {
+                        if (!totals.equals(rolledUp.get(date))) {
+                            changed.add(date);
+                        }
+                    });
+        }
+        return changed;
+    }
+
+    private static Map<LocalDate, DayTotals> dayTotals(List<Object[]> rows) {
+        Map<LocalDate, DayTotals> totals = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            totals.put((LocalDate) row[0],
+                    new DayTotals(orZero((Number) row[1]), orZero((Number) row[2])));
+        }
+        return totals;
+    }
+
+    private static long orZero(Number value) {
+        return value != null ? value.longValue() : 0L;
+    }
+}
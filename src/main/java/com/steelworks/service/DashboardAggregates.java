@@ -0,0 +1,420 @@
+package com.steelworks.service;
+
+import com.steelworks.dto.DefectTrendDTO;
+import com.steelworks.dto.ProductionLineRankingDTO;
+import com.steelworks.dto.ShippingRiskAlertDTO;
+import com.steelworks.event.ProductionDataChangedEvent;
+import com.steelworks.model.ProductionLog;
+import com.steelworks.model.ShippingLog;
+import com.steelworks.repository.DailyDefectRollupRepository;
+import com.steelworks.repository.ProductionLogRepository;
+import com.steelworks.repository.ShippingLogRepository;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory aggregates behind the summary dashboard. AC5: Issue counts per day and production
+ * line. AC6: The set of shipped lots with critical defects. AC7: Issue counts per day and defect
+ * type.
+ *
+ * <p>
+ * Readers get an immutable snapshot through a volatile read and never touch the database while
+ * nothing has changed. Changes are captured by the JPA entity listener
+ * ({@link ProductionDataChangedEvent}) and by high-water marks on production and shipping log ids,
+ * which also pick up rows written outside JPA; the id marks are polled at most once per poll
+ * interval. The next read after a change folds in only the changed days: their counts are
+ * reloaded from the daily defect rollup ({@link DailyDefectRollupService#changesSince(long)}),
+ * and only the lots produced or shipped on them are re-checked for shipping risk.
+ *
+ * <p>
+ * The id marks cannot see shipping logs committed below a mark, deleted rows, or updates made
+ * outside JPA, such as a ship status or defect severity changed in the database. Everything is
+ * therefore loaded again on the first read and then on the first read after each full reload
+ * interval.
+ */
+@Component
+public class DashboardAggregates {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardAggregates.class);
+
+    private final DailyDefectRollupService dailyDefectRollupService;
+    private final DailyDefectRollupRepository dailyDefectRollupRepository;
+    private final ProductionLogRepository productionLogRepository;
+    private final ShippingLogRepository shippingLogRepository;
+    private final long pollIntervalNanos;
+    private final long fullReloadIntervalNanos;
+    private final LongSupplier nanoTime;
+
+    private volatile Snapshot snapshot = new Snapshot(new TreeMap<>(), List.of());
+
+    /** Incremented by every recorded write. */
+    private final AtomicLong changeSequence = new AtomicLong();
+
+    /**
+     * Change sequence folded into the published snapshot; negative until the first refresh.
+     * Written only after the snapshot, so a reader that sees it current also sees the snapshot.
+     */
+    private volatile long appliedSequence = -1;
+    private volatile long nextPollNanos;
+
+    /** Ship dates of committed shipping log writes not yet folded in. */
+    private final Set<LocalDate> pendingShipDates = ConcurrentHashMap.newKeySet();
+
+    /** Rollup generation the day counts reflect; negative until the first load. */
+    private long rollupGeneration = -1;
+    private long lastShippingLogId;
+    private long nextFullReloadNanos;
+
+    /** Shipping risk alert rows per lot id, in query order; guarded by this. */
+    private final Map<Long, List<AlertRow>> alertRowsByLot = new HashMap<>();
+
+    /**
+     * Immutable aggregate state.
+     *
+     * @param days
+     *            issue counts per day that had any
+     * @param shippingRiskAlerts
+     *            problematic shipped batches, most recent ship date first
+     */
+    private record Snapshot(NavigableMap<LocalDate, DayCounts> days,
+            List<ShippingRiskAlertDTO> shippingRiskAlerts) {
+    }
+
+    /** Issue counts of one day per line name and per defect name. */
+    private record DayCounts(Map<String, Long> issuesByLine, Map<String, Long> issuesByDefect) {
+    }
+
+    /** One row of the shipping risk alert query. */
+    private record AlertRow(long productionLogId, LocalDate productionDate,
+            ShippingRiskAlertDTO alert) {
+    }
+
+    @Autowired
+    public DashboardAggregates(DailyDefectRollupService dailyDefectRollupService,
+            DailyDefectRollupRepository dailyDefectRollupRepository,
+            ProductionLogRepository productionLogRepository,
+            ShippingLogRepository shippingLogRepository,
+            @Value("${steelworks.dashboard.aggregates.poll-interval}") Duration pollInterval,
+            @Value("${steelworks.dashboard.aggregates.full-reload-interval}")
+            Duration fullReloadInterval) {
+        this(dailyDefectRollupService, dailyDefectRollupRepository, productionLogRepository,
+                shippingLogRepository, pollInterval, fullReloadInterval, System::nanoTime);
+    }
+
+    DashboardAggregates(DailyDefectRollupService dailyDefectRollupService,
+            DailyDefectRollupRepository dailyDefectRollupRepository,
+            ProductionLogRepository productionLogRepository,
+            ShippingLogRepository shippingLogRepository, Duration pollInterval,
+            Duration fullReloadInterval, LongSupplier nanoTime) {
+        this.dailyDefectRollupService = dailyDefectRollupService;
+        this.dailyDefectRollupRepository = dailyDefectRollupRepository;
+        this.productionLogRepository = productionLogRepository;
+        this.shippingLogRepository = shippingLogRepository;
+        this.pollIntervalNanos = pollInterval.toNanos();
+        this.fullReloadIntervalNanos = fullReloadInterval.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Ranks production lines by issues within the range. AC5: Same result as
+     * {@link DefectAnalysisService#rankProductionLinesByDefects}, read from memory.
+     *
+     * @param startDate
+     *            beginning of the period
+     * @param endDate
+     *            end of the period
+     * @return ranked list of production lines, highest defects first
+     */
+    public List<ProductionLineRankingDTO> rankProductionLinesByDefects(LocalDate startDate,
+            LocalDate endDate) {
+        Map<String, Long> totals = new HashMap<>();
+        for (DayCounts day : current().days().subMap(startDate, true, endDate, true).values()) {
+            day.issuesByLine().forEach((line, count) -> totals.merge(line, count, Long::sum));
+        }
+        List<Map.Entry<String, Long>> ordered = new ArrayList<>(totals.entrySet());
+        ordered.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        List<ProductionLineRankingDTO> rankings = new ArrayList<>(ordered.size());
+        for (Map.Entry<String, Long> entry : ordered) {
+            ProductionLineRankingDTO dto = new ProductionLineRankingDTO();
+            dto.setLineName(entry.getKey());
+            dto.setTotalDefects(entry.getValue());
+            dto.setRank(rankings.size() + 1);
+            rankings.add(dto);
+        }
+        return rankings;
+    }
+
+    /**
+     * Compares each defect type's issues in the 7 days ending on the reference date with the 7
+     * days before. AC7: Same result as {@link DefectAnalysisService#computeDefectTrends}, read
+     * from memory.
+     *
+     * @param referenceDate
+     *            the last day of the current period
+     * @return defect trends, by defect name
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public List<DefectTrendDTO> computeDefectTrends(LocalDate referenceDate) {
+        LocalDate currentStart = referenceDate.minusDays(6);
+        LocalDate previousStart = currentStart.minusDays(7);
+        Map<String, long[]> counts = new TreeMap<>();
+        for (Map.Entry<LocalDate, DayCounts> day : current().days()
+                .subMap(previousStart, true, referenceDate, true).entrySet()) {
+            int period = day.getKey().isBefore(currentStart) ? 1 : 0;
+            day.getValue().issuesByDefect().forEach((defect, count) -> counts
+                    .computeIfAbsent(defect, name -> new long[2])[period] += count);
+        }
+
+        List<DefectTrendDTO> trends = new ArrayList<>(counts.size());
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            long currentCount = entry.getValue()[0];
+            long previousCount = entry.getValue()[1];
+            DefectTrendDTO dto = new DefectTrendDTO();
+            dto.setDefectName(entry.getKey());
+            dto.setCurrentPeriodCount(currentCount);
+            dto.setPreviousPeriodCount(previousCount);
+            dto.setTrendDirection(
+                    DefectAnalysisService.resolveTrendDirection(currentCount, previousCount));
+            trends.add(dto);
+        }
+        return trends;
+    }
+
+    /**
+     * Returns the lots with critical defects that have shipped. AC6: Same result as
+     * {@link ShippingStatusService#getProblematicShippedBatches()}, read from memory. The alerts
+     * are shared between callers and must not be modified.
+     *
+     * @return shipping risk alerts, most recent ship date first
+     */
+    public List<ShippingRiskAlertDTO> getProblematicShippedBatches() {
+        return current().shippingRiskAlerts();
+    }
+
+    /**
+     * Records a committed production or shipping log write, to be folded in on the next read.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductionDataChanged(ProductionDataChangedEvent event) {
+        if (ShippingLog.class.isAssignableFrom(event.entityType())) {
+            pendingShipDates.addAll(event.affectedDates());
+            changeSequence.incrementAndGet();
+        } else if (ProductionLog.class.isAssignableFrom(event.entityType())) {
+            changeSequence.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the current snapshot, first folding in any changes when a write was recorded or
+     * the poll interval has elapsed. Readers that arrive during a refresh wait for it.
+     *
+     * <p>
+     * The change sequence is read before the refresh starts and marked applied only after the
+     * new snapshot is published. A write recorded during the refresh therefore leaves the
+     * sequence ahead, and the next read folds it in; a failed refresh marks nothing applied, so
+     * the next read retries it.
+     */
+    private Snapshot current() {
+        if (changeSequence.get() == appliedSequence
+                && nanoTime.getAsLong() - nextPollNanos < 0) {
+            return snapshot;
+        }
+        synchronized (this) {
+            long sequence = changeSequence.get();
+            long now = nanoTime.getAsLong();
+            if (sequence != appliedSequence || now - nextPollNanos >= 0) {
+                refresh();
+                nextPollNanos = now + pollIntervalNanos;
+                appliedSequence = sequence;
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Folds every change since the previous refresh into a new snapshot. Pending ship dates are
+     * drained before the database is read, so a date recorded again meanwhile stays pending for
+     * the next refresh; if the refresh fails, the drained dates are put back.
+     */
+    private void refresh() {
+        Set<LocalDate> drained = new TreeSet<>();
+        for (LocalDate date : pendingShipDates) {
+            if (pendingShipDates.remove(date)) {
+                drained.add(date);
+            }
+        }
+        try {
+            refresh(drained);
+        } catch (RuntimeException ex) {
+            pendingShipDates.addAll(drained);
+            throw ex;
+        }
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private void refresh(Set<LocalDate> recordedShipDates) {
+        Set<LocalDate> shipDates = new TreeSet<>(recordedShipDates);
+        dailyDefectRollupService.ensureUpToDate();
+        DailyDefectRollupService.Changes changes = dailyDefectRollupService
+                .changesSince(rollupGeneration);
+        long maxShippingLogId = orZero(shippingLogRepository.findMaxId());
+        if (rollupGeneration < 0 || nanoTime.getAsLong() - nextFullReloadNanos >= 0) {
+            loadAll(changes.generation(), maxShippingLogId);
+            return;
+        }
+        if (maxShippingLogId > lastShippingLogId) {
+            shipDates.addAll(shippingLogRepository.findShipDatesForIdRange(lastShippingLogId,
+                    maxShippingLogId));
+        }
+        if (changes.dates().isEmpty() && shipDates.isEmpty()) {
+            rollupGeneration = changes.generation();
+            lastShippingLogId = Math.max(lastShippingLogId, maxShippingLogId);
+            return;
+        }
+        NavigableMap<LocalDate, DayCounts> days = snapshot.days();
+        if (!changes.dates().isEmpty()) {
+            days = new TreeMap<>(days);
+            days.keySet().removeAll(changes.dates());
+            for (List<LocalDate> batch : batches(changes.dates())) {
+                addDayCounts(days, dailyDefectRollupRepository.sumIssuesPerDayForDates(batch));
+            }
+        }
+        Set<Long> lotIds = affectedLots(changes.dates(), shipDates);
+        alertRowsByLot.keySet().removeAll(lotIds);
+        for (List<Long> batch : batches(lotIds)) {
+            addAlertRows(shippingLogRepository.findCriticalShippedAlertRowsForLotIds(batch));
+        }
+        snapshot = new Snapshot(days, shippingRiskAlerts());
+        rollupGeneration = changes.generation();
+        lastShippingLogId = Math.max(lastShippingLogId, maxShippingLogId);
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Dashboard aggregates updated for {} production day(s), {} ship "
+                    + "day(s) and {} lot(s)", changes.dates().size(), shipDates.size(),
+                    lotIds.size());
+        }
+    }
+
+    private void loadAll(long generation, long maxShippingLogId) {
+        NavigableMap<LocalDate, DayCounts> days = new TreeMap<>();
+        addDayCounts(days, dailyDefectRollupRepository.sumIssuesPerDay());
+        alertRowsByLot.clear();
+        addAlertRows(shippingLogRepository.findCriticalShippedAlertRows());
+        snapshot = new Snapshot(days, shippingRiskAlerts());
+        rollupGeneration = generation;
+        lastShippingLogId = maxShippingLogId;
+        nextFullReloadNanos = nanoTime.getAsLong() + fullReloadIntervalNanos;
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Dashboard aggregates loaded: {} day(s), {} shipped lot(s) at risk",
+                    days.size(), alertRowsByLot.size());
+        }
+    }
+
+    /**
+     * Lots whose shipping risk may have changed: those with alert rows on a changed production
+     * or ship date, which covers deleted rows, and those the database lists for the dates.
+     */
+    private Set<Long> affectedLots(Set<LocalDate> productionDates, Set<LocalDate> shipDates) {
+        Set<Long> lotIds = new TreeSet<>();
+        for (Map.Entry<Long, List<AlertRow>> entry : alertRowsByLot.entrySet()) {
+            for (AlertRow row : entry.getValue()) {
+                if (productionDates.contains(row.productionDate())
+                        || shipDates.contains(row.alert().getShipDate())) {
+                    lotIds.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        for (List<LocalDate> batch : batches(productionDates)) {
+            lotIds.addAll(productionLogRepository.findLotIdsForProductionDates(batch));
+        }
+        for (List<LocalDate> batch : batches(shipDates)) {
+            lotIds.addAll(shippingLogRepository.findLotIdsForShipDates(batch));
+        }
+        return lotIds;
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private static void addDayCounts(NavigableMap<LocalDate, DayCounts> days,
+            List<Object[]> rows) {
+        Map<LocalDate, Map<String, Long>> byLine = new HashMap<>();
+        Map<LocalDate, Map<String, Long>> byDefect = new HashMap<>();
+        for (Object[] row : rows) {
+            LocalDate date = (LocalDate) row[0];
+            long count = ((Number) row[3]).longValue();
+            byLine.computeIfAbsent(date, key -> new HashMap<>()).merge((String) row[1], count,
+                    Long::sum);
+            Map<String, Long> defects = byDefect.computeIfAbsent(date, key -> new HashMap<>());
+            if (row[2] != null) {
+                defects.merge((String) row[2], count, Long::sum);
+            }
+        }
+        byLine.forEach((date, lines) -> days.put(date,
+                new DayCounts(Map.copyOf(lines), Map.copyOf(byDefect.get(date)))));
+    }
+
+    private void addAlertRows(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            ShippingRiskAlertDTO alert = new ShippingRiskAlertDTO((String) row[3],
+                    (String) row[4], (String) row[5], (LocalDate) row[6], (String) row[7],
+                    (String) row[8]);
+            alertRowsByLot.computeIfAbsent(((Number) row[0]).longValue(),
+                    key -> new ArrayList<>()).add(new AlertRow(((Number) row[1]).longValue(),
+                            (LocalDate) row[2], alert));
+        }
+    }
+
+    /**
+     * One alert per lot and defect type, from the lot's first matching row, ordered as
+     * {@link ShippingStatusService#getProblematicShippedBatches()} orders them.
+     */
+    private List<ShippingRiskAlertDTO> shippingRiskAlerts() {
+        List<AlertRow> firstRows = new ArrayList<>();
+        for (List<AlertRow> rows : alertRowsByLot.values()) {
+            Map<String, AlertRow> byDefect = new LinkedHashMap<>();
+            for (AlertRow row : rows) {
+                byDefect.putIfAbsent(row.alert().getDefectName(), row);
+            }
+            firstRows.addAll(byDefect.values());
+        }
+        firstRows.sort(Comparator.comparing((AlertRow row) -> row.alert().getShipDate())
+                .reversed().thenComparingLong(AlertRow::productionLogId));
+        return firstRows.stream().map(AlertRow::alert).toList();
+    }
+
+    private static <T> List<List<T>> batches(Collection<T> values) {
+        List<T> ordered = new ArrayList<>(values);
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < ordered.size();
+                from += DailyDefectRollupService.DATE_BATCH_SIZE) {
+            batches.add(ordered.subList(from,
+                    Math.min(from + DailyDefectRollupService.DATE_BATCH_SIZE, ordered.size())));
+        }
+        return batches;
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+}
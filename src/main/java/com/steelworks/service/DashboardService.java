@@ -1,37 +1,95 @@
 package com.steelworks.service;
 
+import com.steelworks.dto.ControlChartDTO;
 import com.steelworks.dto.DashboardSummaryDTO;
+import com.steelworks.dto.DefectTrendDTO;
+import com.steelworks.dto.ProductionLineRankingDTO;
+import com.steelworks.dto.ShippingRiskAlertDTO;
+import com.steelworks.enums.ControlChartType;
 import com.steelworks.enums.TimeGrouping;
+import com.steelworks.metrics.SqlMetrics;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * Orchestration service for the Summary Dashboard ("Meeting Ready" view). AC5: Includes production
- * line rankings. AC6: Includes shipping risk alerts. AC7: Includes defect trends. AC8: Defaults to
- * WEEKLY, supports DAILY and MONTHLY toggle.
+ * line rankings and defect rate control charts. AC6: Includes shipping risk alerts. AC7: Includes
+ * defect trends. AC8: Defaults to WEEKLY, supports DAILY and MONTHLY toggle.
+ *
+ * <p>
+ * Rankings, shipping risk alerts and trends are read from {@link DashboardAggregates}, which
+ * keeps them in memory and folds in only what changed since the previous read. The sections are
+ * computed concurrently on a bounded thread pool, so a summary takes about as long as its slowest
+ * section. A section that fails or exceeds its timeout is
+ * returned empty and named in {@link DashboardSummaryDTO#getDegradedSections()}.
  */
 @Service
 public class DashboardService {
 
-    private final DefectAnalysisService defectAnalysisService;
-    private final ShippingStatusService shippingStatusService;
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardService.class);
 
-    public DashboardService(DefectAnalysisService defectAnalysisService,
-            ShippingStatusService shippingStatusService) {
-        this.defectAnalysisService = defectAnalysisService;
-        this.shippingStatusService = shippingStatusService;
+    static final String RANKINGS_SECTION = "productionLineRankings";
+    static final String SHIPPING_RISK_SECTION = "shippingRiskAlerts";
+    static final String TRENDS_SECTION = "defectTrends";
+    static final String CONTROL_CHARTS_SECTION = "controlCharts";
+
+    private final DashboardAggregates dashboardAggregates;
+    private final SpcService spcService;
+    private final DashboardSummaryCache dashboardSummaryCache;
+    private final Executor sectionExecutor;
+    private final long sectionTimeoutMillis;
+
+    @Autowired
+    public DashboardService(DashboardAggregates dashboardAggregates, SpcService spcService,
+            DashboardSummaryCache dashboardSummaryCache,
+            @Value("${steelworks.dashboard.sections.threads}") int sectionThreads,
+            @Value("${steelworks.dashboard.sections.queue-capacity}") int sectionQueueCapacity,
+            @Value("${steelworks.dashboard.sections.timeout}") Duration sectionTimeout) {
+        this(dashboardAggregates, spcService, dashboardSummaryCache,
+                newSectionExecutor(sectionThreads, sectionQueueCapacity), sectionTimeout);
+    }
+
+    DashboardService(DashboardAggregates dashboardAggregates, SpcService spcService,
+            DashboardSummaryCache dashboardSummaryCache, Executor sectionExecutor,
+            Duration sectionTimeout) {
+        this.dashboardAggregates = dashboardAggregates;
+        this.spcService = spcService;
+        this.dashboardSummaryCache = dashboardSummaryCache;
+        this.sectionExecutor = sectionExecutor;
+        this.sectionTimeoutMillis = sectionTimeout.toMillis();
     }
 
     /**
      * Builds the complete dashboard summary for the given time grouping. AC8: Defaults to WEEKLY if
-     * no time grouping is specified. Aggregates production line rankings (AC5), shipping risk
-     * alerts (AC6), and defect trends (AC7).
+     * no time grouping is specified. Aggregates production line rankings and control charts
+     * (AC5), shipping risk alerts (AC6), and defect trends (AC7). Summaries are served from
+     * {@link DashboardSummaryCache} and only recomputed when missing or expired.
      *
      * @param timeGrouping
      *            the time grouping for the report (DAILY, WEEKLY, MONTHLY); defaults to WEEKLY if
      *            null
      * @return complete dashboard summary DTO
      */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
     public DashboardSummaryDTO getDashboardSummary(TimeGrouping timeGrouping) {
         TimeGrouping effectiveGrouping = timeGrouping == null ? TimeGrouping.WEEKLY : timeGrouping;
 
@@ -42,12 +100,87 @@ public class DashboardService {
             case MONTHLY -> endDate.minusDays(29);
         };
 
+        return dashboardSummaryCache.get(effectiveGrouping, endDate,
+                () -> buildSummary(effectiveGrouping, startDate, endDate));
+    }
+
+    /**
+     * Drops every cached dashboard summary, e.g. after a bulk load that bypassed JPA.
+     */
+    public void invalidateSummaries() {
+        dashboardSummaryCache.invalidateAll();
+    }
+
+    private DashboardSummaryDTO buildSummary(TimeGrouping effectiveGrouping, LocalDate startDate,
+            LocalDate endDate) {
+        Set<String> degradedSections = ConcurrentHashMap.newKeySet();
+        CompletableFuture<List<ProductionLineRankingDTO>> rankings = computeSection(
+                RANKINGS_SECTION,
+                () -> dashboardAggregates.rankProductionLinesByDefects(startDate, endDate),
+                degradedSections);
+        CompletableFuture<List<ShippingRiskAlertDTO>> shippingRiskAlerts = computeSection(
+                SHIPPING_RISK_SECTION, dashboardAggregates::getProblematicShippedBatches,
+                degradedSections);
+        CompletableFuture<List<DefectTrendDTO>> defectTrends = computeSection(TRENDS_SECTION,
+                () -> dashboardAggregates.computeDefectTrends(endDate), degradedSections);
+        CompletableFuture<List<ControlChartDTO>> controlCharts = computeSection(
+                CONTROL_CHARTS_SECTION,
+                () -> spcService.getControlCharts(ControlChartType.U, startDate, endDate),
+                degradedSections);
+
         DashboardSummaryDTO summary = new DashboardSummaryDTO();
         summary.setTimeGrouping(effectiveGrouping);
-        summary.setProductionLineRankings(
-                defectAnalysisService.rankProductionLinesByDefects(startDate, endDate));
-        summary.setShippingRiskAlerts(shippingStatusService.getProblematicShippedBatches());
-        summary.setDefectTrends(defectAnalysisService.computeDefectTrends(endDate));
+        summary.setProductionLineRankings(rankings.join());
+        summary.setShippingRiskAlerts(shippingRiskAlerts.join());
+        summary.setDefectTrends(defectTrends.join());
+        summary.setControlCharts(controlCharts.join());
+        List<String> degraded = new ArrayList<>(degradedSections);
+        degraded.sort(null);
+        summary.setDegradedSections(degraded);
         return summary;
     }
+
+    @PreDestroy
+    void shutdown() {
+        if (sectionExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Bounded pool for section computations. When both the threads and the queue are busy the
+     * requesting thread computes the section itself, so overload degrades to sequential assembly
+     * instead of unbounded queuing.
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private static ExecutorService newSectionExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable,
+                    "dashboard-section-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Runs one dashboard section on the section executor. If it fails or does not finish within
+     * the section timeout, the section falls back to an empty list and its name is recorded. The
+     * section's queries count towards the request's {@link SqlMetrics}.
+     */
+    private <T> CompletableFuture<List<T>> computeSection(String sectionName,
+            Supplier<List<T>> section, Set<String> degradedSections) {
+        return CompletableFuture.supplyAsync(SqlMetrics.propagate(section), sectionExecutor)
+                .orTimeout(sectionTimeoutMillis, TimeUnit.MILLISECONDS).exceptionally(ex -> {
+                    degradedSections.add(sectionName);
+                    if (LOGGER.isWarnEnabled()) {
+                        LOGGER.warn("Dashboard section {} unavailable, returning it empty",
+                                sectionName, ex);
+                    }
+                    return List.of();
+                });
+    }
 }
@@ -0,0 +1,218 @@
+package com.steelworks.service;
+
+import com.steelworks.dto.DashboardSummaryDTO;
+import com.steelworks.enums.TimeGrouping;
+import com.steelworks.event.ProductionDataChangedEvent;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded, time-limited cache of dashboard summaries keyed by time grouping and reference date.
+ * AC5/AC6/AC7: Serves the "Meeting Ready" view without recomputing every section per request.
+ *
+ * <p>
+ * Concurrent misses for the same key share a single computation. With stale-while-revalidate
+ * enabled, an expired entry keeps being served for up to the stale window while one background
+ * refresh replaces it, so a wall of polling screens never triggers a burst of recomputations.
+ * Entries are invalidated after any transaction that writes production or shipping logs commits;
+ * {@link #invalidateAll()} is also available to writers that bypass JPA. Summaries with degraded
+ * sections are never stored.
+ */
+@Component
+public class DashboardSummaryCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardSummaryCache.class);
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final boolean staleWhileRevalidate;
+    private final long staleWindowNanos;
+    private final LongSupplier nanoTime;
+    private final Executor refreshExecutor;
+
+    private final Map<Key, Entry> entries;
+    private final Map<Key, CompletableFuture<DashboardSummaryDTO>> inFlight = new HashMap<>();
+
+    /** Bumped on every invalidation so loads started before it are not stored. */
+    private long generation;
+
+    /** Cache key: the dashboard period and the date it ends on. */
+    record Key(TimeGrouping timeGrouping, LocalDate referenceDate) {
+    }
+
+    private record Entry(DashboardSummaryDTO summary, long expiresAtNanos) {
+    }
+
+    @Autowired
+    public DashboardSummaryCache(@Value("${steelworks.dashboard.cache.ttl}") Duration ttl,
+            @Value("${steelworks.dashboard.cache.max-entries}") int maxEntries,
+            @Value("${steelworks.dashboard.cache.stale-while-revalidate}") boolean staleWhileRevalidate,
+            @Value("${steelworks.dashboard.cache.stale-window}") Duration staleWindow) {
+        this(ttl, maxEntries, staleWhileRevalidate, staleWindow, System::nanoTime,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-cache-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    DashboardSummaryCache(Duration ttl, int maxEntries, boolean staleWhileRevalidate,
+            Duration staleWindow, LongSupplier nanoTime, Executor refreshExecutor) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.staleWindowNanos = staleWindow.toNanos();
+        this.nanoTime = nanoTime;
+        this.refreshExecutor = refreshExecutor;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > DashboardSummaryCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached summary for the key, computing it with the loader on a miss. Only one
+     * caller computes a given key at a time; the others wait for its result.
+     *
+     * @param timeGrouping
+     *            the dashboard period
+     * @param referenceDate
+     *            the last day of the period
+     * @param loader
+     *            computes the summary when it is not cached
+     * @return the cached or freshly computed summary
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public DashboardSummaryDTO get(TimeGrouping timeGrouping, LocalDate referenceDate,
+            Supplier<DashboardSummaryDTO> loader) {
+        Key key = new Key(timeGrouping, referenceDate);
+        CompletableFuture<DashboardSummaryDTO> pending;
+        long loadGeneration = -1;
+        synchronized (this) {
+            long now = nanoTime.getAsLong();
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.expiresAtNanos() < 0) {
+                return entry.summary();
+            }
+            if (entry != null && staleWhileRevalidate
+                    && now - entry.expiresAtNanos() < staleWindowNanos) {
+                if (!inFlight.containsKey(key)) {
+                    CompletableFuture<DashboardSummaryDTO> refresh = new CompletableFuture<>();
+                    inFlight.put(key, refresh);
+                    long refreshGeneration = generation;
+                    refreshExecutor.execute(() -> load(key, loader, refresh, refreshGeneration));
+                }
+                return entry.summary();
+            }
+            pending = inFlight.get(key);
+            if (pending == null) {
+                pending = new CompletableFuture<>();
+                inFlight.put(key, pending);
+                loadGeneration = generation;
+            }
+        }
+        if (loadGeneration >= 0) {
+            load(key, loader, pending, loadGeneration);
+        }
+        return await(pending);
+    }
+
+    /**
+     * Invalidates every cached summary. With stale-while-revalidate enabled the entries are
+     * marked expired and refreshed in the background on their next read; otherwise they are
+     * dropped.
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public synchronized void invalidateAll() {
+        generation++;
+        inFlight.clear();
+        if (staleWhileRevalidate) {
+            long now = nanoTime.getAsLong();
+            entries.replaceAll((key, entry) -> new Entry(entry.summary(), now));
+        } else {
+            entries.clear();
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Dashboard summary cache invalidated");
+        }
+    }
+
+    /**
+     * Invalidates the cache once a transaction that changed production or shipping logs commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductionDataChanged(ProductionDataChangedEvent event) {
+        invalidateAll();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void load(Key key, Supplier<DashboardSummaryDTO> loader,
+            CompletableFuture<DashboardSummaryDTO> pending, long loadGeneration) {
+        try {
+            DashboardSummaryDTO summary = loader.get();
+            synchronized (this) {
+                if (loadGeneration == generation && isComplete(summary)) {
+                    entries.put(key, new Entry(summary, nanoTime.getAsLong() + ttlNanos));
+                }
+                inFlight.remove(key, pending);
+            }
+            pending.complete(summary);
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                inFlight.remove(key, pending);
+            }
+            pending.completeExceptionally(ex);
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn("Dashboard summary computation failed for {}", key, ex);
+            }
+        }
+    }
+
+    /** Degraded summaries are returned to the caller but never cached. */
+    private static boolean isComplete(DashboardSummaryDTO summary) {
+        return summary.getDegradedSections() == null || summary.getDegradedSections().isEmpty();
+    }
+
+    private static DashboardSummaryDTO await(CompletableFuture<DashboardSummaryDTO> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package com.steelworks.service;
 
 import com.steelworks.dto.DataConflictDTO;
-import com.steelworks.model.ProductionLog;
-import com.steelworks.repository.LotRepository;
 import com.steelworks.repository.ProductionLogRepository;
+import com.steelworks.repository.ShippingLogRepository;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import org.springframework.stereotype.Service;
 
 /**
@@ -17,18 +18,19 @@ import org.springframework.stereotype.Service;
 @Service
 public class DataIntegrityService {
 
-    private final LotRepository lotRepository;
     private final ProductionLogRepository productionLogRepository;
+    private final ShippingLogRepository shippingLogRepository;
 
-    public DataIntegrityService(LotRepository lotRepository,
-            ProductionLogRepository productionLogRepository) {
-        this.lotRepository = lotRepository;
+    public DataIntegrityService(ProductionLogRepository productionLogRepository,
+            ShippingLogRepository shippingLogRepository) {
         this.productionLogRepository = productionLogRepository;
+        this.shippingLogRepository = shippingLogRepository;
     }
 
     /**
      * Retrieves the source file name/location for a specific data point. AC9: Users must be able to
-     * see the source file for any data point in a consolidated view.
+     * see the source file for any data point in a consolidated view. Rows loaded from CSV exports
+     * are reported as "file:line"; other rows fall back to their table reference.
      *
      * @param entityType
      *            the type of entity ("production", "shipping", "quality")
@@ -43,9 +45,14 @@ public class DataIntegrityService {
 
         String normalizedType = entityType.toLowerCase(Locale.ROOT);
         return switch (normalizedType) {
-            case "production" -> "db:production_logs/" + recordId;
-            case "shipping" -> "db:shipping_logs/" + recordId;
-            case "quality" -> "db:production_logs/" + recordId + "#quality";
+            case "production" -> sourceLocation(
+                    productionLogRepository.findSourceLocationById(recordId),
+                    "db:production_logs/" + recordId);
+            case "shipping" -> sourceLocation(shippingLogRepository.findSourceLocationById(recordId),
+                    "db:shipping_logs/" + recordId);
+            case "quality" -> sourceLocation(
+                    productionLogRepository.findSourceLocationById(recordId),
+                    "db:production_logs/" + recordId) + "#quality";
             case "lot" -> "db:lots/" + recordId;
             default -> "db:unknown/" + recordId;
         };
@@ -53,26 +60,25 @@ public class DataIntegrityService {
 
     /**
      * Detects Lot IDs that are associated with multiple Production Lines across files. AC11: Flags
-     * "Data Conflict" entries for manual review.
+     * "Data Conflict" entries for manual review. All conflicting lots and their line names come
+     * from one query, so the cost grows with the number of conflicts rather than with their logs.
+     * Line names are sorted here rather than by the database, whose collation may order them
+     * differently.
      *
      * @return list of data conflicts with the conflicting production line details
      */
     public List<DataConflictDTO> detectDataConflicts() {
-        List<Long> conflictingLotIds = productionLogRepository
-                .findLotIdsWithMultipleProductionLines();
-        List<DataConflictDTO> conflicts = new ArrayList<>(conflictingLotIds.size());
-
-        for (Long lotId : conflictingLotIds) {
-            List<String> lineNames = productionLogRepository.findByLotId(lotId).stream()
-                    .map(ProductionLog::getProductionLine).map(line -> line.getLineName())
-                    .distinct().sorted().toList();
-
-            String lotIdentifier = lotRepository.findById(lotId).map(lot -> lot.getLotIdentifier())
-                    .orElse("UNKNOWN_LOT_" + lotId);
+        Map<String, List<String>> lineNamesByLot = new LinkedHashMap<>();
+        for (Object[] row : productionLogRepository.findConflictingLotLineNames()) {
+            lineNamesByLot.computeIfAbsent((String) row[0], lotIdentifier -> new ArrayList<>())
+                    .add((String) row[1]);
+        }
 
+        List<DataConflictDTO> conflicts = new ArrayList<>(lineNamesByLot.size());
+        for (Map.Entry<String, List<String>> entry : lineNamesByLot.entrySet()) {
             DataConflictDTO dto = new DataConflictDTO();
-            dto.setLotIdentifier(lotIdentifier);
-            dto.setConflictingProductionLines(lineNames);
+            dto.setLotIdentifier(entry.getKey());
+            dto.setConflictingProductionLines(entry.getValue().stream().sorted().toList());
             dto.setDescription(
                     "Lot is linked to multiple production lines and needs manual review.");
             conflicts.add(dto);
@@ -80,4 +86,12 @@ public class DataIntegrityService {
 
         return conflicts;
     }
+
+    private static String sourceLocation(List<Object[]> rows, String fallback) {
+        if (rows.isEmpty() || rows.get(0)[0] == null) {
+            return fallback;
+        }
+        Object[] row = rows.get(0);
+        return row[0] + ":" + row[1];
+    }
 }
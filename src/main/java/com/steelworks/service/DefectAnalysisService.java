@@ -1,32 +1,45 @@
 package com.steelworks.service;
 
+import com.steelworks.dto.DefectTimeSeriesDTO;
 import com.steelworks.dto.DefectTrendDTO;
 import com.steelworks.dto.ProductionLineRankingDTO;
-import com.steelworks.model.ProductionLog;
+import com.steelworks.enums.TimeGrouping;
+import com.steelworks.repository.DailyDefectRollupRepository;
 import com.steelworks.repository.ProductionLogRepository;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.TreeMap;
 import org.springframework.stereotype.Service;
 
 /**
  * Service for defect analysis, line attribution, ranking, and trending. AC4: Maps defects to
  * specific Production Lines based on Production log timestamps. AC5: Ranks production lines by
  * total defect count for the current period. AC7: Computes defect trend direction
- * (increasing/decreasing/stable).
+ * (increasing/decreasing/stable) and defect time series over arbitrary ranges.
  */
 @Service
 public class DefectAnalysisService {
 
+    /** Longest range a defect time series may cover, about ten years. */
+    public static final int MAX_TIME_SERIES_DAYS = 3660;
+
     private final ProductionLogRepository productionLogRepository;
+    private final DailyDefectRollupRepository dailyDefectRollupRepository;
+    private final DailyDefectRollupService dailyDefectRollupService;
 
-    public DefectAnalysisService(ProductionLogRepository productionLogRepository) {
+    public DefectAnalysisService(ProductionLogRepository productionLogRepository,
+            DailyDefectRollupRepository dailyDefectRollupRepository,
+            DailyDefectRollupService dailyDefectRollupService) {
         this.productionLogRepository = productionLogRepository;
+        this.dailyDefectRollupRepository = dailyDefectRollupRepository;
+        this.dailyDefectRollupService = dailyDefectRollupService;
     }
 
     /**
@@ -38,13 +51,13 @@ public class DefectAnalysisService {
      * @return the name of the production line attributed to the defect
      */
     public String getLineAttribution(Long productionLogId) {
-        return productionLogRepository.findById(productionLogId)
-                .map(ProductionLog::getProductionLine).map(line -> line.getLineName()).orElse(null);
+        return productionLogRepository.findLineNameById(productionLogId).orElse(null);
     }
 
     /**
      * Ranks production lines by total defect count within the given date range. AC5: Summary view
-     * ranks production lines by total defect count for the current week.
+     * ranks production lines by total defect count for the current week. Counts come from the
+     * daily defect rollup, so the cost grows with the days in range rather than the log rows.
      *
      * @param startDate
      *            beginning of the period
@@ -54,8 +67,9 @@ public class DefectAnalysisService {
      */
     public List<ProductionLineRankingDTO> rankProductionLinesByDefects(LocalDate startDate,
             LocalDate endDate) {
-        List<Object[]> rawCounts = productionLogRepository.countDefectsByProductionLine(startDate,
-                endDate);
+        dailyDefectRollupService.ensureUpToDate();
+        List<Object[]> rawCounts = dailyDefectRollupRepository
+                .countDefectsByProductionLine(startDate, endDate);
         List<ProductionLineRankingDTO> rankings = new ArrayList<>(rawCounts.size());
         for (int index = 0; index < rawCounts.size(); index++) {
             Object[] rawCount = rawCounts.get(index);
@@ -71,6 +85,7 @@ public class DefectAnalysisService {
     /**
      * Computes defect trend direction for each defect type. AC7: Compares current 7-day period
      * against the previous 7-day period and returns an indicator (INCREASING, DECREASING, STABLE).
+     * Both periods are counted by a single grouped query over the daily defect rollup.
      *
      * @param referenceDate
      *            the anchor date for the current period (typically today)
@@ -82,24 +97,18 @@ public class DefectAnalysisService {
         LocalDate currentStart = effectiveReferenceDate.minusDays(6);
         LocalDate currentEnd = effectiveReferenceDate;
         LocalDate previousStart = currentStart.minusDays(7);
-        LocalDate previousEnd = currentStart.minusDays(1);
-
-        Map<String, Long> currentCounts = toCountMap(
-                productionLogRepository.countDefectsByType(currentStart, currentEnd));
-        Map<String, Long> previousCounts = toCountMap(
-                productionLogRepository.countDefectsByType(previousStart, previousEnd));
 
-        Set<String> defectNames = new TreeSet<>();
-        defectNames.addAll(currentCounts.keySet());
-        defectNames.addAll(previousCounts.keySet());
+        dailyDefectRollupService.ensureUpToDate();
+        List<Object[]> rawCounts = dailyDefectRollupRepository
+                .countDefectsByTypeForAdjacentPeriods(previousStart, currentStart, currentEnd);
 
-        List<DefectTrendDTO> trends = new ArrayList<>(defectNames.size());
-        for (String defectName : defectNames) {
-            long current = currentCounts.getOrDefault(defectName, 0L);
-            long previous = previousCounts.getOrDefault(defectName, 0L);
+        List<DefectTrendDTO> trends = new ArrayList<>(rawCounts.size());
+        for (Object[] row : rawCounts) {
+            long current = ((Number) row[1]).longValue();
+            long previous = ((Number) row[2]).longValue();
 
             DefectTrendDTO dto = new DefectTrendDTO();
-            dto.setDefectName(defectName);
+            dto.setDefectName((String) row[0]);
             dto.setCurrentPeriodCount(current);
             dto.setPreviousPeriodCount(previous);
             dto.setTrendDirection(resolveTrendDirection(current, previous));
@@ -110,15 +119,111 @@ public class DefectAnalysisService {
         return trends;
     }
 
-    private Map<String, Long> toCountMap(List<Object[]> rawCounts) {
-        Map<String, Long> counts = new HashMap<>();
+    /**
+     * Counts defects per day, week or month for each defect type and production line. AC7: Defect
+     * frequency trending over any range. All buckets come from one grouped query over the daily
+     * defect rollup, so a multi-year chart costs one query whose result grows with the buckets
+     * that have defects rather than with the log rows.
+     *
+     * <p>
+     * Weeks start on Monday and months on the first. Only days within the range are counted, so
+     * the first and last bucket may be partial.
+     *
+     * @param startDate
+     *            first day of the range
+     * @param endDate
+     *            last day of the range
+     * @param timeGrouping
+     *            bucket size; defaults to WEEKLY
+     * @return bucket start dates and one gap-free count series per defect type and line, ordered
+     *         by defect name and then line name
+     * @throws IllegalArgumentException
+     *             if a date is missing, the range is reversed or it spans more than
+     *             {@value #MAX_TIME_SERIES_DAYS} days
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public DefectTimeSeriesDTO computeDefectTimeSeries(LocalDate startDate, LocalDate endDate,
+            TimeGrouping timeGrouping) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_TIME_SERIES_DAYS) {
+            throw new IllegalArgumentException(
+                    "Time series cover at most " + MAX_TIME_SERIES_DAYS + " days");
+        }
+        TimeGrouping grouping = timeGrouping == null ? TimeGrouping.WEEKLY : timeGrouping;
+
+        List<LocalDate> bucketStarts = new ArrayList<>();
+        Map<LocalDate, Integer> bucketIndex = new HashMap<>();
+        for (LocalDate bucket = bucketStart(startDate, grouping); !bucket.isAfter(endDate);
+                bucket = nextBucket(bucket, grouping)) {
+            bucketIndex.put(bucket, bucketStarts.size());
+            bucketStarts.add(bucket);
+        }
+
+        dailyDefectRollupService.ensureUpToDate();
+        List<Object[]> rawCounts = switch (grouping) {
+            case DAILY -> dailyDefectRollupRepository.countDefectsPerDay(startDate, endDate);
+            case WEEKLY -> dailyDefectRollupRepository.countDefectsPerWeek(startDate, endDate);
+            case MONTHLY -> dailyDefectRollupRepository.countDefectsPerMonth(startDate, endDate);
+        };
+
+        // defect name -> line name -> count per bucket
+        Map<String, Map<String, long[]>> countsByDefect = new TreeMap<>();
         for (Object[] row : rawCounts) {
-            counts.put((String) row[0], ((Number) row[1]).longValue());
+            Integer index = bucketIndex.get(bucketStart((LocalDate) row[0], grouping));
+            if (index == null) {
+                continue;
+            }
+            long[] counts = countsByDefect.computeIfAbsent((String) row[2], name -> new TreeMap<>())
+                    .computeIfAbsent((String) row[1], name -> new long[bucketStarts.size()]);
+            counts[index] += ((Number) row[3]).longValue();
+        }
+
+        List<DefectTimeSeriesDTO.Series> series = new ArrayList<>();
+        for (Map.Entry<String, Map<String, long[]>> defect : countsByDefect.entrySet()) {
+            for (Map.Entry<String, long[]> line : defect.getValue().entrySet()) {
+                DefectTimeSeriesDTO.Series dto = new DefectTimeSeriesDTO.Series();
+                dto.setDefectName(defect.getKey());
+                dto.setLineName(line.getKey());
+                List<Long> counts = new ArrayList<>(bucketStarts.size());
+                long total = 0;
+                for (long count : line.getValue()) {
+                    counts.add(count);
+                    total += count;
+                }
+                dto.setCounts(counts);
+                dto.setTotal(total);
+                series.add(dto);
+            }
         }
-        return counts;
+
+        DefectTimeSeriesDTO timeSeries = new DefectTimeSeriesDTO();
+        timeSeries.setStartDate(startDate);
+        timeSeries.setEndDate(endDate);
+        timeSeries.setTimeGrouping(grouping);
+        timeSeries.setBucketStarts(bucketStarts);
+        timeSeries.setSeries(series);
+        return timeSeries;
+    }
+
+    private static LocalDate bucketStart(LocalDate date, TimeGrouping grouping) {
+        return switch (grouping) {
+            case DAILY -> date;
+            case WEEKLY -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> date.withDayOfMonth(1);
+        };
+    }
+
+    private static LocalDate nextBucket(LocalDate bucketStart, TimeGrouping grouping) {
+        return switch (grouping) {
+            case DAILY -> bucketStart.plusDays(1);
+            case WEEKLY -> bucketStart.plusWeeks(1);
+            case MONTHLY -> bucketStart.plusMonths(1);
+        };
     }
 
-    private DefectTrendDTO.TrendDirection resolveTrendDirection(long current, long previous) {
+    static DefectTrendDTO.TrendDirection resolveTrendDirection(long current, long previous) {
         if (current > previous) {
             return DefectTrendDTO.TrendDirection.INCREASING;
         }
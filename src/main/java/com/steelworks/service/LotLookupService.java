@@ -1,55 +1,114 @@
 package com.steelworks.service;
 
 import com.steelworks.dto.ConsolidatedLotView;
+import com.steelworks.dto.ConsolidatedViewRequest;
+import com.steelworks.dto.LotSearchPage;
 import com.steelworks.dto.LotSearchRequest;
 import com.steelworks.dto.LotSearchResult;
+import com.steelworks.dto.LotSuggestion;
 import com.steelworks.dto.OrphanedRecordDTO;
-import com.steelworks.enums.ShipStatus;
-import com.steelworks.model.Lot;
-import com.steelworks.model.ProductionLog;
-import com.steelworks.model.ShippingLog;
 import com.steelworks.repository.LotRepository;
 import com.steelworks.repository.ProductionLogRepository;
 import com.steelworks.repository.ShippingLogRepository;
 import com.steelworks.util.LotIdNormalizer;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * Service for lot lookup and cross-referencing. AC1: Joins data from Quality, Shipping, and
- * Production using Lot ID. AC2: Fuzzy matching via LotIdNormalizer. AC9: Provides source
- * transparency in consolidated views. AC10: Handles orphaned / unmatched records.
+ * Production using Lot ID. AC2: Fuzzy matching via the normalized-identifier LotSearchIndex. AC9:
+ * Provides source transparency in consolidated views. AC10: Handles orphaned / unmatched records.
  */
 @Service
 public class LotLookupService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LotLookupService.class);
 
+    /** Page size used when a cursor is supplied without an explicit limit. */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /** Largest page a single request may ask for. */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /** Suggestions returned when no limit is given. */
+    public static final int DEFAULT_SUGGESTION_LIMIT = 10;
+
+    /** Largest number of lots one bulk consolidated view request may name. */
+    public static final int MAX_CONSOLIDATED_LOTS = 10_000;
+
+    /** Number of lots assembled per batch when streaming search results. */
+    static final int STREAM_BATCH_SIZE = 500;
+
     private final LotRepository lotRepository;
     private final ProductionLogRepository productionLogRepository;
     private final ShippingLogRepository shippingLogRepository;
+    private final LotSearchIndex lotSearchIndex;
+    private final LotSearchResultAssembler lotSearchResultAssembler;
+    private final ConsolidatedViewAssembler consolidatedViewAssembler;
     private final LotIdNormalizer lotIdNormalizer;
+    private final long fullScanIntervalNanos;
+    private final LongSupplier nanoTime;
+
+    /** Result and high-water marks of the last orphan detection run; null until the first run. */
+    private OrphanScan orphanScan;
 
+    /**
+     * Orphaned records keyed by lot identifier, with the id high-water marks they cover and the
+     * {@link System#nanoTime()} value after which incremental runs fall back to a full scan.
+     */
+    private record OrphanScan(long lotHighWater, long productionLogHighWater,
+            long shippingLogHighWater, Map<String, OrphanedRecordDTO> orphansByLot,
+            long nextFullScanNanos) {
+    }
+
+    @Autowired
     public LotLookupService(LotRepository lotRepository,
             ProductionLogRepository productionLogRepository,
-            ShippingLogRepository shippingLogRepository, LotIdNormalizer lotIdNormalizer) {
+            ShippingLogRepository shippingLogRepository, LotSearchIndex lotSearchIndex,
+            LotSearchResultAssembler lotSearchResultAssembler,
+            ConsolidatedViewAssembler consolidatedViewAssembler, LotIdNormalizer lotIdNormalizer,
+            @Value("${steelworks.orphans.full-scan-interval}") Duration fullScanInterval) {
+        this(lotRepository, productionLogRepository, shippingLogRepository, lotSearchIndex,
+                lotSearchResultAssembler, consolidatedViewAssembler, lotIdNormalizer,
+                fullScanInterval, System::nanoTime);
+    }
+
+    LotLookupService(LotRepository lotRepository,
+            ProductionLogRepository productionLogRepository,
+            ShippingLogRepository shippingLogRepository, LotSearchIndex lotSearchIndex,
+            LotSearchResultAssembler lotSearchResultAssembler,
+            ConsolidatedViewAssembler consolidatedViewAssembler, LotIdNormalizer lotIdNormalizer,
+            Duration fullScanInterval, LongSupplier nanoTime) {
         this.lotRepository = lotRepository;
         this.productionLogRepository = productionLogRepository;
         this.shippingLogRepository = shippingLogRepository;
+        this.lotSearchIndex = lotSearchIndex;
+        this.lotSearchResultAssembler = lotSearchResultAssembler;
+        this.consolidatedViewAssembler = consolidatedViewAssembler;
         this.lotIdNormalizer = lotIdNormalizer;
+        this.fullScanIntervalNanos = fullScanInterval.toNanos();
+        this.nanoTime = nanoTime;
     }
 
     /**
      * Searches for lots by ID (with fuzzy matching) and optional date range. AC1: Cross-references
      * Production, Quality (defect data), and Shipping sources. AC2: Uses fuzzy matching on Lot ID
-     * input.
+     * input. Candidate lots come from the in-memory {@link LotSearchIndex}; results for the
+     * matching lots are assembled in batches by {@link LotSearchResultAssembler}.
      *
      * @param request
      *            the search criteria (lot ID, date range)
@@ -65,16 +124,11 @@ public class LotLookupService {
                     lotIdFilter, startDateFilter, endDateFilter);
         }
 
-        List<LotSearchResult> results = new ArrayList<>();
-        for (Lot lot : lotRepository.findAll()) {
-            if (!matchesLotIdFilter(lot, lotIdFilter)) {
-                continue;
-            }
-            if (!matchesDateFilter(lot, startDateFilter, endDateFilter)) {
-                continue;
-            }
-            results.add(buildSearchResult(lot));
-        }
+        List<Long> matchingLotIds = lotSearchIndex
+                .search(lotIdFilter, startDateFilter, endDateFilter).stream()
+                .map(LotSearchIndex.IndexedLot::lotId).toList();
+        List<LotSearchResult> results = new ArrayList<>(
+                lotSearchResultAssembler.assemble(matchingLotIds));
 
         results.sort(Comparator.comparing(LotSearchResult::getLotIdentifier));
         if (LOGGER.isInfoEnabled()) {
@@ -83,11 +137,114 @@ public class LotLookupService {
         return results;
     }
 
+    /**
+     * Returns one keyset page of lot search results. AC1, AC2: Same matching and cross-referencing
+     * as {@link #searchLots(LotSearchRequest)}, but results are ordered by normalized lot
+     * identifier and only the requested page is assembled.
+     *
+     * @param request
+     *            the search criteria plus optional cursor and limit
+     * @return the page of results and the cursor of the next page, if any
+     * @throws IllegalArgumentException
+     *             if the cursor is malformed
+     */
+    public LotSearchPage searchLotsPage(LotSearchRequest request) {
+        LotSearchRequest effectiveRequest = request != null ? request : new LotSearchRequest();
+        int limit = resolvePageSize(effectiveRequest.getLimit());
+        LotSearchIndex.IndexedLot after = LotSearchIndex.decodeCursor(effectiveRequest.getCursor());
+
+        List<LotSearchIndex.IndexedLot> window = lotSearchIndex.search(effectiveRequest.getLotId(),
+                effectiveRequest.getStartDate(), effectiveRequest.getEndDate(), after, limit + 1);
+        boolean hasMore = window.size() > limit;
+        List<LotSearchIndex.IndexedLot> pageLots = hasMore ? window.subList(0, limit) : window;
+
+        LotSearchPage page = new LotSearchPage();
+        page.setResults(lotSearchResultAssembler
+                .assemble(pageLots.stream().map(LotSearchIndex.IndexedLot::lotId).toList()));
+        if (hasMore) {
+            page.setNextCursor(LotSearchIndex.encodeCursor(pageLots.get(pageLots.size() - 1)));
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Lot search page produced {} result(s), hasMore={}",
+                    page.getResults().size(), hasMore);
+        }
+        return page;
+    }
+
+    /**
+     * Streams every lot search result to the consumer in batches ordered by normalized lot
+     * identifier. Heap use is bounded by {@link #STREAM_BATCH_SIZE} regardless of result size.
+     *
+     * @param request
+     *            the search criteria; cursor and limit are ignored
+     * @param batchConsumer
+     *            receives each assembled batch in order
+     * @return total number of results streamed
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public long streamSearchLots(LotSearchRequest request,
+            Consumer<List<LotSearchResult>> batchConsumer) {
+        LotSearchRequest effectiveRequest = request != null ? request : new LotSearchRequest();
+        long streamed = 0;
+        LotSearchIndex.IndexedLot after = null;
+        while (true) {
+            List<LotSearchIndex.IndexedLot> batch = lotSearchIndex.search(
+                    effectiveRequest.getLotId(), effectiveRequest.getStartDate(),
+                    effectiveRequest.getEndDate(), after, STREAM_BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<LotSearchResult> results = lotSearchResultAssembler
+                    .assemble(batch.stream().map(LotSearchIndex.IndexedLot::lotId).toList());
+            batchConsumer.accept(results);
+            streamed += results.size();
+            if (batch.size() < STREAM_BATCH_SIZE) {
+                break;
+            }
+            after = batch.get(batch.size() - 1);
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Lot search stream produced {} result(s)", streamed);
+        }
+        return streamed;
+    }
+
+    /**
+     * Suggests lots for a Lot ID that may have been mistyped. AC2: Ranks lots whose normalized
+     * identifier is within a couple of edits of the requested one, such as "LOT1234" for
+     * "LOT1243", using the edit-distance walk of the {@link LotSearchIndex}.
+     *
+     * @param request
+     *            the Lot ID and optional date range; limit caps the number of suggestions
+     * @return suggestions, closest first; empty for a blank Lot ID
+     */
+    public List<LotSuggestion> suggestLots(LotSearchRequest request) {
+        LotSearchRequest effectiveRequest = request != null ? request : new LotSearchRequest();
+        int limit = effectiveRequest.getLimit() == null ? DEFAULT_SUGGESTION_LIMIT
+                : resolvePageSize(effectiveRequest.getLimit());
+        List<LotSuggestion> suggestions = lotSearchIndex
+                .suggest(effectiveRequest.getLotId(), effectiveRequest.getStartDate(),
+                        effectiveRequest.getEndDate(), limit)
+                .stream().map(suggestion -> new LotSuggestion(suggestion.lot().lotId(),
+                        suggestion.lot().lotIdentifier(), suggestion.distance()))
+                .toList();
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Lot suggestion for lotId='{}' produced {} suggestion(s)",
+                    effectiveRequest.getLotId(), suggestions.size());
+        }
+        return suggestions;
+    }
+
     /**
      * Builds a consolidated view for a single lot, joining all data sources. AC1: Cross-references
      * three data sources using Lot ID as primary key. AC9: Populates source file references for
      * traceability.
      *
+     * <p>
+     * Built by {@link ConsolidatedViewAssembler} from the same flat projections as the bulk view,
+     * so the statement count stays fixed however many logs the lot has and no production line,
+     * defect type or customer is loaded lazily.
+     *
      * @param lotId
      *            the database ID of the lot
      * @return consolidated view with production, quality, and shipping data
@@ -96,152 +253,170 @@ public class LotLookupService {
         if (LOGGER.isInfoEnabled()) {
             LOGGER.info("Building consolidated lot view for lotId={}", lotId);
         }
-        Optional<Lot> lotOptional = lotRepository.findById(lotId);
-        if (lotOptional.isEmpty()) {
+        List<ConsolidatedLotView> views = new ArrayList<>(1);
+        consolidatedViewAssembler.assemble(List.of(lotId), views::addAll);
+        if (views.isEmpty()) {
             LOGGER.warn("Cannot build consolidated lot view because lotId={} was not found", lotId);
             throw new IllegalArgumentException("Lot not found: " + lotId);
         }
-        Lot lot = lotOptional.get();
-
-        List<ProductionLog> productionLogs = productionLogRepository.findByLotId(lotId);
-        List<ShippingLog> shippingLogs = shippingLogRepository.findByLotId(lotId);
-
-        ConsolidatedLotView view = new ConsolidatedLotView();
-        view.setLotIdentifier(lot.getLotIdentifier());
-        view.setPartNumber(lot.getPartNumber());
-        view.setCreatedDate(lot.getCreatedDate());
-
-        view.setAssociatedProductionLines(
-                productionLogs.stream().map(ProductionLog::getProductionLine)
-                        .map(line -> line.getLineName()).distinct().sorted().toList());
-        view.setTotalUnitsPlanned(productionLogs.stream().map(ProductionLog::getUnitsPlanned)
-                .filter(value -> value != null).mapToInt(Integer::intValue).sum());
-        view.setTotalUnitsActual(productionLogs.stream().map(ProductionLog::getUnitsActual)
-                .filter(value -> value != null).mapToInt(Integer::intValue).sum());
-        view.setTotalDowntimeMinutes(productionLogs.stream().map(ProductionLog::getDowntimeMinutes)
-                .filter(value -> value != null).mapToInt(Integer::intValue).sum());
-
-        view.setDefectsFound(productionLogs.stream().map(ProductionLog::getDefectType)
-                .filter(defect -> defect != null).map(defect -> defect.getDefectName()).distinct()
-                .sorted().toList());
-        view.setHasIssueFlag(
-                productionLogs.stream().anyMatch(log -> Boolean.TRUE.equals(log.getIssueFlag())));
-
-        ShippingLog latestShippingLog = shippingLogs.stream()
-                .max(Comparator.comparing(ShippingLog::getShipDate)).orElse(null);
-        if (latestShippingLog == null) {
-            view.setShippingStatus("In Inventory");
-        } else {
-            view.setShippingStatus("Shipped");
-            view.setShipDate(latestShippingLog.getShipDate());
-            view.setCustomerName(latestShippingLog.getCustomer().getCustomerName());
-        }
-
-        view.setProductionSourceFile("db:production_logs");
-        view.setShippingSourceFile("db:shipping_logs");
-        view.setQualitySourceFile("db:production_logs#quality");
+        ConsolidatedLotView view = views.get(0);
 
         if (LOGGER.isInfoEnabled()) {
             LOGGER.info(
-                    "Consolidated lot view built for lotId={} with {} production log(s) and {} shipping log(s)",
-                    lotId, productionLogs.size(), shippingLogs.size());
+                    "Consolidated lot view built for lotId={} with {} production line(s) and shipping status {}",
+                    lotId, view.getAssociatedProductionLines().size(), view.getShippingStatus());
         }
         return view;
     }
 
+    /**
+     * Resolves the lots named by a bulk consolidated view request to database ids: ids as given,
+     * then the lots whose normalized identifier matches each Lot ID (AC2), in request order and
+     * without duplicates. Unknown ids are kept and later skipped by
+     * {@link #streamConsolidatedViews(List, Consumer)}; unknown Lot IDs resolve to nothing, and an
+     * ambiguous one to every lot sharing its normalized form.
+     *
+     * @param request
+     *            lot ids and/or Lot IDs
+     * @return database ids of the requested lots
+     * @throws IllegalArgumentException
+     *             if the request names more than {@value #MAX_CONSOLIDATED_LOTS} lots
+     */
+    public List<Long> resolveLotIds(ConsolidatedViewRequest request) {
+        List<Long> lotIds = request == null || request.getLotIds() == null ? List.of()
+                : request.getLotIds();
+        List<String> lotIdentifiers = request == null || request.getLotIdentifiers() == null
+                ? List.of()
+                : request.getLotIdentifiers();
+        if (lotIds.size() + lotIdentifiers.size() > MAX_CONSOLIDATED_LOTS) {
+            throw new IllegalArgumentException("At most " + MAX_CONSOLIDATED_LOTS
+                    + " lots may be requested at once");
+        }
+
+        Set<Long> resolved = new LinkedHashSet<>(lotIds);
+        resolved.remove(null);
+        List<String> normalizedIdentifiers = lotIdentifiers.stream()
+                .filter(identifier -> identifier != null && !identifier.isBlank())
+                .map(lotIdNormalizer::normalize).distinct().toList();
+        for (int from = 0; from < normalizedIdentifiers.size();
+                from += ConsolidatedViewAssembler.LOT_ID_BATCH_SIZE) {
+            List<String> batch = normalizedIdentifiers.subList(from, Math.min(
+                    from + ConsolidatedViewAssembler.LOT_ID_BATCH_SIZE,
+                    normalizedIdentifiers.size()));
+            resolved.addAll(lotRepository.findIdsByNormalizedIdentifiers(batch));
+        }
+        return List.copyOf(resolved);
+    }
+
+    /**
+     * Streams consolidated views for many lots in batches. AC1: Same cross-referencing as
+     * {@link #getConsolidatedView(Long)}, built from a fixed number of set-based queries per batch
+     * by {@link ConsolidatedViewAssembler}. AC9: Source references are included.
+     *
+     * @param lotIds
+     *            database ids of the lots, as resolved by
+     *            {@link #resolveLotIds(ConsolidatedViewRequest)}; ids that do not exist are skipped
+     * @param batchConsumer
+     *            receives each assembled batch in order
+     * @return total number of views streamed
+     */
+    public long streamConsolidatedViews(List<Long> lotIds,
+            Consumer<List<ConsolidatedLotView>> batchConsumer) {
+        long streamed = consolidatedViewAssembler.assemble(lotIds, batchConsumer);
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Bulk consolidated view streamed {} of {} requested lot(s)", streamed,
+                    lotIds.size());
+        }
+        return streamed;
+    }
+
     /**
      * Finds lots that exist in one data source but not in others. AC10: Flags unmatched records as
-     * "Orphaned Data" instead of excluding them.
+     * "Orphaned Data" instead of excluding them. Classification runs in the database as a single
+     * EXISTS-based query, and the result becomes the baseline for incremental runs.
      *
      * @return list of orphaned records with details on which sources are missing
      */
     public List<OrphanedRecordDTO> findOrphanedRecords() {
+        return findOrphanedRecords(false);
+    }
+
+    /**
+     * Finds orphaned records, optionally re-examining only the lots touched since the previous
+     * run. AC10: Flags unmatched records as "Orphaned Data" instead of excluding them.
+     *
+     * <p>
+     * A lot counts as touched when it, or one of its production or shipping logs, has an id above
+     * the high-water marks recorded by the previous run. Rows that commit below a high-water mark
+     * after it was read, and edits and deletions of existing rows, are not tracked, so incremental
+     * mode falls back to a full run when no baseline exists yet or when the last full run is older
+     * than the configured full-scan interval.
+     *
+     * @param incremental
+     *            whether to re-examine only lots touched since the previous run
+     * @return list of orphaned records with details on which sources are missing
+     */
+    public synchronized List<OrphanedRecordDTO> findOrphanedRecords(boolean incremental) {
         if (LOGGER.isInfoEnabled()) {
-            LOGGER.info("Finding orphaned records");
+            LOGGER.info("Finding orphaned records (incremental={})", incremental);
         }
-        List<OrphanedRecordDTO> orphanedRecords = new ArrayList<>();
-
-        for (Lot lot : lotRepository.findAll()) {
-            List<ProductionLog> productionLogs = productionLogRepository.findByLotId(lot.getId());
-            List<ShippingLog> shippingLogs = shippingLogRepository.findByLotId(lot.getId());
-
-            boolean inProduction = !productionLogs.isEmpty();
-            boolean inShipping = !shippingLogs.isEmpty();
-            boolean inQuality = productionLogs.stream().anyMatch(
-                    log -> Boolean.TRUE.equals(log.getIssueFlag()) || log.getDefectType() != null);
+        // High-water marks are read before the scan so rows inserted during it are re-examined
+        // next time rather than skipped.
+        long lotHighWater = orZero(lotRepository.findMaxLotId());
+        long productionLogHighWater = orZero(productionLogRepository.findMaxId());
+        long shippingLogHighWater = orZero(shippingLogRepository.findMaxId());
 
-            if (inProduction && inShipping && inQuality) {
-                continue;
+        Map<String, OrphanedRecordDTO> orphansByLot;
+        long nextFullScanNanos;
+        if (incremental && orphanScan != null
+                && nanoTime.getAsLong() - orphanScan.nextFullScanNanos() < 0) {
+            nextFullScanNanos = orphanScan.nextFullScanNanos();
+            orphansByLot = new TreeMap<>(orphanScan.orphansByLot());
+            List<OrphanedRecordDTO> touched = lotRepository.classifyLotsTouchedAfter(
+                    orphanScan.lotHighWater(), orphanScan.productionLogHighWater(),
+                    orphanScan.shippingLogHighWater());
+            for (OrphanedRecordDTO record : touched) {
+                if (record.isInProduction() && record.isInShipping() && record.isInQuality()) {
+                    orphansByLot.remove(record.getLotIdentifier());
+                } else {
+                    orphansByLot.put(record.getLotIdentifier(), withReason(record));
+                }
+            }
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("Incremental orphan detection re-examined {} lot(s)", touched.size());
+            }
+        } else {
+            nextFullScanNanos = nanoTime.getAsLong() + fullScanIntervalNanos;
+            orphansByLot = new TreeMap<>();
+            for (OrphanedRecordDTO record : lotRepository.findOrphanedRecords()) {
+                orphansByLot.put(record.getLotIdentifier(), withReason(record));
             }
-
-            OrphanedRecordDTO dto = new OrphanedRecordDTO();
-            dto.setLotIdentifier(lot.getLotIdentifier());
-            dto.setInProduction(inProduction);
-            dto.setInShipping(inShipping);
-            dto.setInQuality(inQuality);
-            dto.setReason(buildOrphanReason(inProduction, inShipping, inQuality));
-            orphanedRecords.add(dto);
         }
+        orphanScan = new OrphanScan(lotHighWater, productionLogHighWater, shippingLogHighWater,
+                orphansByLot, nextFullScanNanos);
 
-        orphanedRecords.sort(Comparator.comparing(OrphanedRecordDTO::getLotIdentifier));
+        List<OrphanedRecordDTO> orphanedRecords = new ArrayList<>(orphansByLot.values());
         if (LOGGER.isInfoEnabled()) {
             LOGGER.info("Orphaned record detection produced {} record(s)", orphanedRecords.size());
         }
         return orphanedRecords;
     }
 
-    private boolean matchesLotIdFilter(Lot lot, String rawQuery) {
-        String normalizedQuery = lotIdNormalizer.normalize(rawQuery);
-        if (normalizedQuery == null || normalizedQuery.isBlank()) {
-            return true;
-        }
-        String normalizedLotId = lotIdNormalizer.normalize(lot.getLotIdentifier());
-        if (normalizedLotId == null) {
-            return false;
+    private int resolvePageSize(Integer requestedLimit) {
+        if (requestedLimit == null) {
+            return DEFAULT_PAGE_SIZE;
         }
-        return normalizedLotId.contains(normalizedQuery)
-                || lotIdNormalizer.areEquivalent(lot.getLotIdentifier(), normalizedQuery);
+        return Math.max(1, Math.min(MAX_PAGE_SIZE, requestedLimit));
     }
 
-    private boolean matchesDateFilter(Lot lot, LocalDate startDate, LocalDate endDate) {
-        if (startDate != null && lot.getCreatedDate().isBefore(startDate)) {
-            return false;
-        }
-        if (endDate != null && lot.getCreatedDate().isAfter(endDate)) {
-            return false;
-        }
-        return true;
+    private OrphanedRecordDTO withReason(OrphanedRecordDTO record) {
+        record.setReason(buildOrphanReason(record.isInProduction(), record.isInShipping(),
+                record.isInQuality()));
+        return record;
     }
 
-    private LotSearchResult buildSearchResult(Lot lot) {
-        List<ProductionLog> productionLogs = productionLogRepository.findByLotId(lot.getId());
-        List<ShippingLog> shippingLogs = shippingLogRepository.findByLotId(lot.getId());
-
-        LotSearchResult result = new LotSearchResult();
-        result.setLotId(lot.getId());
-        result.setLotIdentifier(lot.getLotIdentifier());
-        result.setPartNumber(lot.getPartNumber());
-
-        result.setProductionLineName(productionLogs.stream().map(ProductionLog::getProductionLine)
-                .map(line -> line.getLineName()).distinct().sorted()
-                .reduce((left, right) -> left + ", " + right).orElse(null));
-
-        result.setShippingStatus(
-                shippingLogs.isEmpty() ? ShipStatus.IN_INVENTORY : ShipStatus.SHIPPED);
-
-        ProductionLog representativeDefect = productionLogs.stream()
-                .filter(log -> log.getDefectType() != null).findFirst().orElse(null);
-        if (representativeDefect != null) {
-            result.setDefectName(representativeDefect.getDefectType().getDefectName());
-            result.setDefectSeverity(
-                    representativeDefect.getDefectType().getSeverity().toUpperCase(Locale.ROOT));
-        }
-
-        long uniqueLines = productionLogs.stream().map(ProductionLog::getProductionLine)
-                .map(line -> line.getLineName()).distinct().count();
-        result.setHasDataConflict(uniqueLines > 1);
-        result.setSourceReference("db:lots/" + lot.getId());
-        return result;
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
     }
 
     private String buildOrphanReason(boolean inProduction, boolean inShipping, boolean inQuality) {
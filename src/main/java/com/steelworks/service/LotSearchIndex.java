@@ -0,0 +1,751 @@
+package com.steelworks.service;
+
+import com.steelworks.repository.LotRepository;
+import com.steelworks.util.LotIdNormalizer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory trigram index over normalized lot identifiers. AC2: Substring and fuzzy lot lookups are
+ * answered from trigram posting lists instead of normalizing every row of the lots table on each
+ * request. Date filters on created_date are applied against a created-date ordering so blank-query
+ * range searches only touch lots inside the range.
+ *
+ * <p>
+ * The index is refreshed lazily: every lookup compares the highest lot id with the indexed
+ * snapshot. Newly inserted lots are appended to a small unsorted delta that is folded into the main
+ * snapshot once it grows past {@link #MAX_DELTA_SIZE}; a lower highest id triggers a full reload of
+ * the indexed columns. Normalized identifiers are read as stored in the lots table rather than
+ * recomputed on each reload.
+ *
+ * <p>
+ * The highest id alone misses lots committed below it, as parallel loaders do, and deleted lots.
+ * At most once per {@code steelworks.lots.index.consistency-check-interval} a lookup therefore
+ * also counts the lots and reloads the index when the count differs. Deleted lots may linger until
+ * then, so callers load matches by id and skip the ones that no longer exist. Bulk loaders call
+ * {@link #invalidate()} to force a reload.
+ */
+@Component
+public class LotSearchIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LotSearchIndex.class);
+
+    static final int MAX_DELTA_SIZE = 1024;
+
+    private static final int TRIGRAM_LENGTH = 3;
+    private static final long[] NO_TRIGRAMS = new long[0];
+
+    /** Largest edit distance between a query and a "did you mean" suggestion. */
+    public static final int MAX_SUGGESTION_DISTANCE = 2;
+
+    /** Normalized queries up to this length only get suggestions one edit away. */
+    private static final int SHORT_QUERY_LENGTH = 4;
+
+    private static final String CURSOR_SEPARATOR = "\u0000";
+    private static final int CURSOR_PARTS = 3;
+
+    private static final Comparator<IndexedLot> INDEX_ORDER = Comparator
+            .comparing(IndexedLot::normalizedIdentifier)
+            .thenComparing(IndexedLot::lotIdentifier).thenComparingLong(IndexedLot::lotId);
+
+    private static final Comparator<Suggestion> SUGGESTION_ORDER = Comparator
+            .comparingInt(Suggestion::distance).thenComparing(Suggestion::lot, INDEX_ORDER);
+
+    private final LotRepository lotRepository;
+    private final LotIdNormalizer lotIdNormalizer;
+
+    private final long consistencyCheckIntervalNanos;
+    private final LongSupplier nanoTime;
+
+    private volatile IndexState state = IndexState.EMPTY;
+
+    /** Set on each reload and consistency check; guarded by this, read without the lock. */
+    private volatile long nextConsistencyCheckNanos;
+
+    @Autowired
+    public LotSearchIndex(LotRepository lotRepository, LotIdNormalizer lotIdNormalizer,
+            @Value("${steelworks.lots.index.consistency-check-interval}")
+            Duration consistencyCheckInterval) {
+        this(lotRepository, lotIdNormalizer, consistencyCheckInterval, System::nanoTime);
+    }
+
+    LotSearchIndex(LotRepository lotRepository, LotIdNormalizer lotIdNormalizer,
+            Duration consistencyCheckInterval, LongSupplier nanoTime) {
+        this.lotRepository = lotRepository;
+        this.lotIdNormalizer = lotIdNormalizer;
+        this.consistencyCheckIntervalNanos = consistencyCheckInterval.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Finds lots whose normalized identifier contains the normalized query and whose created date
+     * falls inside the optional range.
+     *
+     * @param rawQuery
+     *            the Lot ID as typed by the user; blank matches every lot
+     * @param startDate
+     *            optional inclusive lower bound on created_date
+     * @param endDate
+     *            optional inclusive upper bound on created_date
+     * @return matching lots ordered by normalized identifier, then lot identifier
+     */
+    public List<IndexedLot> search(String rawQuery, LocalDate startDate, LocalDate endDate) {
+        return search(rawQuery, startDate, endDate, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Keyset variant of {@link #search(String, LocalDate, LocalDate)}: returns at most
+     * {@code limit} matches that sort strictly after {@code after}. Only the requested window is
+     * materialized, so paging through a blank query never copies the whole index.
+     *
+     * @param rawQuery
+     *            the Lot ID as typed by the user; blank matches every lot
+     * @param startDate
+     *            optional inclusive lower bound on created_date
+     * @param endDate
+     *            optional inclusive upper bound on created_date
+     * @param after
+     *            last lot of the previous page (see {@link #decodeCursor(String)}), or null
+     * @param limit
+     *            maximum number of matches to return
+     * @return matching lots ordered by normalized identifier, then lot identifier
+     */
+    public List<IndexedLot> search(String rawQuery, LocalDate startDate, LocalDate endDate,
+            IndexedLot after, int limit) {
+        IndexState current = refreshIfStale();
+        String normalizedQuery = lotIdNormalizer.normalize(rawQuery);
+        int startDay = startDate == null ? Integer.MIN_VALUE : (int) startDate.toEpochDay();
+        int endDay = endDate == null ? Integer.MAX_VALUE : (int) endDate.toEpochDay();
+
+        List<IndexedLot> matches = current.snapshot.search(normalizedQuery, startDay, endDay,
+                after, limit);
+        if (current.delta.isEmpty()) {
+            return matches;
+        }
+
+        List<IndexedLot> merged = new ArrayList<>(matches);
+        for (IndexedLot lot : current.delta) {
+            if (lot.matches(normalizedQuery, startDay, endDay)
+                    && (after == null || INDEX_ORDER.compare(lot, after) > 0)) {
+                merged.add(lot);
+            }
+        }
+        merged.sort(INDEX_ORDER);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    /**
+     * Ranks lots whose normalized identifier is a few edits away from the normalized query, for
+     * "did you mean" hints. An edit inserts, deletes or replaces one character or swaps two
+     * neighbouring ones, so "LOT1243" is one edit from "LOT1234". Queries of up to
+     * {@value #SHORT_QUERY_LENGTH} characters allow one edit, longer ones
+     * {@value #MAX_SUGGESTION_DISTANCE}.
+     *
+     * <p>
+     * The snapshot is sorted by normalized identifier, so it is walked as a trie: each shared
+     * prefix extends one row of edit distances to the query, and a prefix is abandoned as soon as
+     * no query prefix is within reach. Only lots close to the query are visited, and the allowed
+     * distance grows one edit at a time until enough suggestions are found.
+     *
+     * @param rawQuery
+     *            the Lot ID as typed by the user; blank yields no suggestions
+     * @param startDate
+     *            optional inclusive lower bound on created_date
+     * @param endDate
+     *            optional inclusive upper bound on created_date
+     * @param limit
+     *            maximum number of suggestions to return
+     * @return suggestions ordered by distance, then like {@link #search}
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public List<Suggestion> suggest(String rawQuery, LocalDate startDate, LocalDate endDate,
+            int limit) {
+        IndexState current = refreshIfStale();
+        String normalizedQuery = lotIdNormalizer.normalize(rawQuery);
+        if (normalizedQuery == null || normalizedQuery.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        int maxDistance = normalizedQuery.length() <= SHORT_QUERY_LENGTH ? 1
+                : MAX_SUGGESTION_DISTANCE;
+        int startDay = startDate == null ? Integer.MIN_VALUE : (int) startDate.toEpochDay();
+        int endDay = endDate == null ? Integer.MAX_VALUE : (int) endDate.toEpochDay();
+
+        // Dense identifier ranges hold thousands of lots two edits from a query, so the distance
+        // is only widened while closer lots do not fill the limit.
+        List<Suggestion> suggestions = List.of();
+        for (int distance = 0; distance <= maxDistance && suggestions.size() < limit; distance++) {
+            suggestions = collectSuggestions(current, normalizedQuery, distance, startDay, endDay);
+        }
+        suggestions.sort(SUGGESTION_ORDER);
+        return suggestions.size() > limit ? suggestions.subList(0, limit) : suggestions;
+    }
+
+    private static List<Suggestion> collectSuggestions(IndexState current, String normalizedQuery,
+            int maxDistance, int startDay, int endDay) {
+        List<Suggestion> suggestions = current.snapshot.suggest(normalizedQuery, maxDistance,
+                startDay, endDay);
+        for (IndexedLot lot : current.delta) {
+            long createdDay = lot.createdDate().toEpochDay();
+            if (createdDay < startDay || createdDay > endDay) {
+                continue;
+            }
+            int distance = editDistance(lot.normalizedIdentifier(), normalizedQuery, maxDistance);
+            if (distance <= maxDistance) {
+                suggestions.add(new Suggestion(lot, distance));
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Encodes the sort key of a lot as an opaque, URL-safe keyset cursor.
+     *
+     * @param lot
+     *            last lot of a page
+     * @return cursor pointing just after the lot
+     */
+    public static String encodeCursor(IndexedLot lot) {
+        String key = lot.normalizedIdentifier() + CURSOR_SEPARATOR + lot.lotIdentifier()
+                + CURSOR_SEPARATOR + lot.lotId();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeCursor(IndexedLot)}.
+     *
+     * @param cursor
+     *            opaque cursor from a previous page; blank means "from the start"
+     * @return sort key of the last lot of the previous page, or null for a blank cursor
+     * @throws IllegalArgumentException
+     *             if the cursor is malformed
+     */
+    public static IndexedLot decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = key.split(CURSOR_SEPARATOR, -1);
+        if (parts.length != CURSOR_PARTS) {
+            throw new IllegalArgumentException("Malformed lot search cursor: " + cursor);
+        }
+        try {
+            return new IndexedLot(Long.parseLong(parts[2]), parts[1], parts[0], null);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("Malformed lot search cursor: " + cursor,
+                    exception);
+        }
+    }
+
+    /**
+     * Drops the indexed snapshot so the next lookup reloads it from the lots table. Intended for
+     * bulk loaders that bypass JPA or rewrite lot identifiers in place.
+     */
+    public synchronized void invalidate() {
+        state = IndexState.EMPTY;
+    }
+
+    private IndexState refreshIfStale() {
+        IndexState current = state;
+        if (current.loaded && nanoTime.getAsLong() - nextConsistencyCheckNanos >= 0) {
+            return checkConsistency();
+        }
+        long maxLotId = orZero(lotRepository.findMaxLotId());
+        if (current.loaded && current.maxLotId == maxLotId) {
+            return current;
+        }
+        return refresh(maxLotId);
+    }
+
+    /**
+     * Brings the index up to the highest lot id, then reloads it if it does not hold as many lots
+     * as the table.
+     */
+    private synchronized IndexState checkConsistency() {
+        if (nanoTime.getAsLong() - nextConsistencyCheckNanos < 0) {
+            return refresh(orZero(lotRepository.findMaxLotId()));
+        }
+        List<Object[]> statistics = lotRepository.findIndexStatistics();
+        Object[] row = statistics.isEmpty() ? new Object[]{0L, null} : statistics.get(0);
+        IndexState current = refresh(orZero((Number) row[1]));
+        if (current.size() != orZero((Number) row[0])) {
+            return reload();
+        }
+        nextConsistencyCheckNanos = nanoTime.getAsLong() + consistencyCheckIntervalNanos;
+        return current;
+    }
+
+    private synchronized IndexState refresh(long maxLotId) {
+        IndexState current = state;
+        if (current.loaded && current.maxLotId == maxLotId) {
+            return current;
+        }
+        if (current.loaded && maxLotId > current.maxLotId) {
+            state = current.append(
+                    toIndexedLots(lotRepository.findIndexEntriesAfter(current.maxLotId)),
+                    maxLotId);
+            return state;
+        }
+        return reload();
+    }
+
+    private synchronized IndexState reload() {
+        List<IndexedLot> allLots = toIndexedLots(lotRepository.findIndexEntriesAfter(0L));
+        state = new IndexState(LotSnapshot.build(allLots), List.of(), highestLotId(allLots, 0L),
+                true);
+        nextConsistencyCheckNanos = nanoTime.getAsLong() + consistencyCheckIntervalNanos;
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Lot search index rebuilt with {} lot(s)", allLots.size());
+        }
+        return state;
+    }
+
+    private static long orZero(Number value) {
+        return value == null ? 0L : value.longValue();
+    }
+
+    /** Rows are read in id order, so the last one has the highest id. */
+    private static long highestLotId(List<IndexedLot> lots, long floor) {
+        return lots.isEmpty() ? floor : Math.max(floor, lots.get(lots.size() - 1).lotId());
+    }
+
+    private static List<IndexedLot> toIndexedLots(List<Object[]> rows) {
+        List<IndexedLot> lots = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            lots.add(new IndexedLot(((Number) row[0]).longValue(), (String) row[1],
+                    (String) row[3], (LocalDate) row[2]));
+        }
+        return lots;
+    }
+
+    /**
+     * Indexed view of a single lot row.
+     *
+     * @param lotId
+     *            database id of the lot
+     * @param lotIdentifier
+     *            lot identifier as stored
+     * @param normalizedIdentifier
+     *            identifier after {@link LotIdNormalizer#normalize(String)}, as stored in the
+     *            normalized_identifier column
+     * @param createdDate
+     *            lot creation date; null for sort keys decoded from a cursor
+     */
+    public record IndexedLot(long lotId, String lotIdentifier, String normalizedIdentifier,
+            LocalDate createdDate) {
+
+        boolean matches(String normalizedQuery, int startDay, int endDay) {
+            long createdDay = createdDate.toEpochDay();
+            if (createdDay < startDay || createdDay > endDay) {
+                return false;
+            }
+            return normalizedQuery == null || normalizedQuery.isBlank()
+                    || normalizedIdentifier.contains(normalizedQuery);
+        }
+    }
+
+    /**
+     * A "did you mean" candidate.
+     *
+     * @param lot
+     *            the suggested lot
+     * @param distance
+     *            edits between its normalized identifier and the normalized query
+     */
+    public record Suggestion(IndexedLot lot, int distance) {
+    }
+
+    /**
+     * Published index state: an immutable sorted snapshot plus the lots appended since it was
+     * built.
+     */
+    private static final class IndexState {
+
+        static final IndexState EMPTY = new IndexState(LotSnapshot.build(List.of()), List.of(),
+                0L, false);
+
+        final LotSnapshot snapshot;
+        final List<IndexedLot> delta;
+        final long maxLotId;
+        final boolean loaded;
+
+        IndexState(LotSnapshot snapshot, List<IndexedLot> delta, long maxLotId, boolean loaded) {
+            this.snapshot = snapshot;
+            this.delta = delta;
+            this.maxLotId = maxLotId;
+            this.loaded = loaded;
+        }
+
+        int size() {
+            return snapshot.size() + delta.size();
+        }
+
+        /**
+         * Rows committed between the max id probe and the read are appended too, so the new high
+         * water mark is taken from the rows themselves.
+         */
+        IndexState append(List<IndexedLot> appended, long newMaxLotId) {
+            long maxId = highestLotId(appended, newMaxLotId);
+            List<IndexedLot> newDelta = new ArrayList<>(delta.size() + appended.size());
+            newDelta.addAll(delta);
+            newDelta.addAll(appended);
+            if (newDelta.size() <= MAX_DELTA_SIZE) {
+                return new IndexState(snapshot, List.copyOf(newDelta), maxId, true);
+            }
+            List<IndexedLot> allLots = new ArrayList<>(snapshot.size() + newDelta.size());
+            allLots.addAll(snapshot.asList());
+            allLots.addAll(newDelta);
+            return new IndexState(LotSnapshot.build(allLots), List.of(), maxId, true);
+        }
+    }
+
+    /**
+     * Immutable trigram index. Positions are assigned in {@link #INDEX_ORDER}, so every posting
+     * list is ascending and intersections come out already sorted.
+     */
+    private static final class LotSnapshot {
+
+        private final IndexedLot[] lots;
+        private final int[] createdDays;
+        private final int[] positionsByCreatedDay;
+        private final Map<Long, int[]> postings;
+
+        private LotSnapshot(IndexedLot[] lots, int[] createdDays, int[] positionsByCreatedDay,
+                Map<Long, int[]> postings) {
+            this.lots = lots;
+            this.createdDays = createdDays;
+            this.positionsByCreatedDay = positionsByCreatedDay;
+            this.postings = postings;
+        }
+
+        static LotSnapshot build(List<IndexedLot> source) {
+            IndexedLot[] lots = source.toArray(new IndexedLot[0]);
+            Arrays.sort(lots, INDEX_ORDER);
+
+            int[] createdDays = Arrays.stream(lots)
+                    .mapToInt(lot -> (int) lot.createdDate().toEpochDay()).toArray();
+            int[] positionsByCreatedDay = sortPositionsByCreatedDay(createdDays);
+
+            Map<Long, int[]> counts = new HashMap<>();
+            for (IndexedLot lot : lots) {
+                for (long key : distinctTrigrams(lot.normalizedIdentifier())) {
+                    counts.computeIfAbsent(key, ignored -> new int[1])[0]++;
+                }
+            }
+            Map<Long, int[]> postings = new HashMap<>(counts.size() * 2);
+            Map<Long, int[]> fill = new HashMap<>(counts.size() * 2);
+            counts.forEach((key, count) -> {
+                postings.put(key, new int[count[0]]);
+                fill.put(key, new int[1]);
+            });
+            for (int position = 0; position < lots.length; position++) {
+                for (long key : distinctTrigrams(lots[position].normalizedIdentifier())) {
+                    postings.get(key)[fill.get(key)[0]++] = position;
+                }
+            }
+            return new LotSnapshot(lots, createdDays, positionsByCreatedDay, postings);
+        }
+
+        int size() {
+            return lots.length;
+        }
+
+        List<IndexedLot> asList() {
+            return Arrays.asList(lots);
+        }
+
+        List<IndexedLot> search(String normalizedQuery, int startDay, int endDay,
+                IndexedLot after, int limit) {
+            if (normalizedQuery == null || normalizedQuery.isBlank()) {
+                return collectByCreatedDay(startDay, endDay, firstPositionAfter(after), limit);
+            }
+            if (normalizedQuery.length() < TRIGRAM_LENGTH) {
+                return scan(normalizedQuery, startDay, endDay, firstPositionAfter(after), limit);
+            }
+
+            List<int[]> lists = postingLists(normalizedQuery);
+            if (lists.isEmpty()) {
+                return List.of();
+            }
+
+            List<IndexedLot> matches = new ArrayList<>();
+            int[] smallest = lists.get(0);
+            int start = Arrays.binarySearch(smallest, firstPositionAfter(after));
+            for (int index = start < 0 ? -start - 1 : start; index < smallest.length
+                    && matches.size() < limit; index++) {
+                int position = smallest[index];
+                if (createdDays[position] < startDay || createdDays[position] > endDay) {
+                    continue;
+                }
+                if (!containedInAll(lists, position)) {
+                    continue;
+                }
+                if (lots[position].normalizedIdentifier().contains(normalizedQuery)) {
+                    matches.add(lots[position]);
+                }
+            }
+            return matches;
+        }
+
+        /**
+         * Posting lists of the query's trigrams, shortest first, or none if a trigram occurs in
+         * no lot.
+         */
+        private List<int[]> postingLists(String normalizedQuery) {
+            List<int[]> lists = Arrays.stream(distinctTrigrams(normalizedQuery))
+                    .mapToObj(postings::get).collect(Collectors.toCollection(ArrayList::new));
+            if (lists.contains(null)) {
+                return List.of();
+            }
+            lists.sort(Comparator.comparingInt(list -> list.length));
+            return lists;
+        }
+
+        List<Suggestion> suggest(String normalizedQuery, int maxDistance, int startDay,
+                int endDay) {
+            SuggestionWalk walk = new SuggestionWalk(normalizedQuery, maxDistance, startDay,
+                    endDay);
+            walk.visit(0, lots.length, 0);
+            return walk.matches;
+        }
+
+        /** Depth-first walk of the trie implied by the snapshot's sort order. */
+        private final class SuggestionWalk {
+
+            private final String normalizedQuery;
+            private final int maxDistance;
+            private final int startDay;
+            private final int endDay;
+            private final int[][] rows;
+            private final List<Suggestion> matches = new ArrayList<>();
+
+            SuggestionWalk(String normalizedQuery, int maxDistance, int startDay, int endDay) {
+                this.normalizedQuery = normalizedQuery;
+                this.maxDistance = maxDistance;
+                this.startDay = startDay;
+                this.endDay = endDay;
+                // A prefix longer than the query plus maxDistance is out of reach.
+                this.rows = distanceRows(normalizedQuery.length() + maxDistance + 1,
+                        normalizedQuery);
+            }
+
+            /**
+             * Visits positions [from, to), whose normalized identifiers share their first
+             * {@code depth} characters; {@code rows[depth]} holds the edit distances between
+             * that prefix and each prefix of the query.
+             */
+            @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+            void visit(int from, int to, int depth) {
+                int distance = rows[depth][normalizedQuery.length()];
+                int position = from;
+                while (position < to
+                        && lots[position].normalizedIdentifier().length() == depth) {
+                    if (distance <= maxDistance && createdDays[position] >= startDay
+                            && createdDays[position] <= endDay) {
+                        matches.add(new Suggestion(lots[position], distance));
+                    }
+                    position++;
+                }
+                if (depth + 1 == rows.length) {
+                    return;
+                }
+                while (position < to) {
+                    String identifier = lots[position].normalizedIdentifier();
+                    int runEnd = endOfRun(position, to, depth, identifier.charAt(depth));
+                    if (nextRow(normalizedQuery, rows, depth, identifier) <= maxDistance) {
+                        visit(position, runEnd, depth + 1);
+                    }
+                    position = runEnd;
+                }
+            }
+        }
+
+        /** First position in [from, to) whose character at {@code depth} sorts after ch. */
+        private int endOfRun(int from, int to, int depth, char ch) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (lots[middle].normalizedIdentifier().charAt(depth) <= ch) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Lots created within the range from firstPosition on, in index order. A range holding
+         * at most {@code limit} lots is read from the created-date ordering and sorted back into
+         * index order; a wider one is walked in index order until the page is full, so paging
+         * through it costs O(lots) in total rather than a sort of the whole range per page.
+         */
+        private List<IndexedLot> collectByCreatedDay(int startDay, int endDay, int firstPosition,
+                int limit) {
+            if (startDay == Integer.MIN_VALUE && endDay == Integer.MAX_VALUE) {
+                int to = (int) Math.min(lots.length, (long) firstPosition + limit);
+                return Arrays.asList(lots).subList(Math.min(firstPosition, to), to);
+            }
+            int from = lowerBound(startDay);
+            int to = Math.max(from, lowerBound(endDay == Integer.MAX_VALUE ? endDay : endDay + 1));
+            if (to - from > limit) {
+                return scan(null, startDay, endDay, firstPosition, limit);
+            }
+            int[] positions = Arrays.copyOfRange(positionsByCreatedDay, from, to);
+            Arrays.sort(positions);
+            List<IndexedLot> matches = new ArrayList<>(positions.length);
+            for (int position : positions) {
+                if (position >= firstPosition) {
+                    matches.add(lots[position]);
+                }
+            }
+            return matches;
+        }
+
+        /** Walks the snapshot in index order; a null query matches every lot in the range. */
+        private List<IndexedLot> scan(String normalizedQuery, int startDay, int endDay,
+                int firstPosition, int limit) {
+            List<IndexedLot> matches = new ArrayList<>();
+            for (int position = firstPosition; position < lots.length
+                    && matches.size() < limit; position++) {
+                if (createdDays[position] >= startDay && createdDays[position] <= endDay
+                        && (normalizedQuery == null || lots[position].normalizedIdentifier()
+                                .contains(normalizedQuery))) {
+                    matches.add(lots[position]);
+                }
+            }
+            return matches;
+        }
+
+        /** First position sorting after the cursor, or 0 without one. */
+        private int firstPositionAfter(IndexedLot after) {
+            if (after == null) {
+                return 0;
+            }
+            int low = 0;
+            int high = lots.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (INDEX_ORDER.compare(lots[middle], after) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int lowerBound(int day) {
+            int low = 0;
+            int high = positionsByCreatedDay.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (createdDays[positionsByCreatedDay[middle]] < day) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static boolean containedInAll(List<int[]> lists, int position) {
+            for (int index = 1; index < lists.size(); index++) {
+                if (Arrays.binarySearch(lists.get(index), position) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int[] sortPositionsByCreatedDay(int... createdDays) {
+            return IntStream.range(0, createdDays.length).boxed()
+                    .sorted(Comparator.comparingInt(position -> createdDays[position]))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Edit distance between two normalized identifiers, counting swapped neighbours as one edit.
+     *
+     * @return the distance, or {@code maxDistance + 1} if it exceeds maxDistance
+     */
+    static int editDistance(String candidate, String normalizedQuery, int maxDistance) {
+        if (Math.abs(candidate.length() - normalizedQuery.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[][] rows = distanceRows(candidate.length() + 1, normalizedQuery);
+        for (int depth = 0; depth < candidate.length(); depth++) {
+            if (nextRow(normalizedQuery, rows, depth, candidate) > maxDistance) {
+                return maxDistance + 1;
+            }
+        }
+        return Math.min(rows[candidate.length()][normalizedQuery.length()], maxDistance + 1);
+    }
+
+    /**
+     * Rows of edit distances between prefixes of up to {@code depths - 1} characters and each
+     * prefix of the query; the first row, for the empty prefix, is filled in.
+     */
+    private static int[][] distanceRows(int depths, String normalizedQuery) {
+        int[][] rows = new int[depths][normalizedQuery.length() + 1];
+        Arrays.setAll(rows[0], column -> column);
+        return rows;
+    }
+
+    /**
+     * Fills {@code rows[depth + 1]} with the distances between the candidate's first
+     * {@code depth + 1} characters and each prefix of the query (optimal string alignment).
+     *
+     * @return the smallest distance in the row; once it exceeds the limit, no longer candidate
+     *         with the same prefix can come back within it
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private static int nextRow(String normalizedQuery, int[][] rows, int depth, String candidate) {
+        int[] previous = rows[depth];
+        int[] row = rows[depth + 1];
+        char ch = candidate.charAt(depth);
+        row[0] = depth + 1;
+        int min = row[0];
+        for (int column = 1; column < row.length; column++) {
+            char queryChar = normalizedQuery.charAt(column - 1);
+            int distance = Math.min(Math.min(previous[column], row[column - 1]) + 1,
+                    previous[column - 1] + (ch == queryChar ? 0 : 1));
+            if (depth > 0 && column > 1 && ch == normalizedQuery.charAt(column - 2)
+                    && candidate.charAt(depth - 1) == queryChar) {
+                distance = Math.min(distance, rows[depth - 1][column - 2] + 1);
+            }
+            row[column] = distance;
+            min = Math.min(min, distance);
+        }
+        return min;
+    }
+
+    /** Distinct trigrams of the value packed into longs, ascending; none if it is shorter. */
+    private static long[] distinctTrigrams(String value) {
+        if (value == null || value.length() < TRIGRAM_LENGTH) {
+            return NO_TRIGRAMS;
+        }
+        return IntStream.rangeClosed(0, value.length() - TRIGRAM_LENGTH)
+                .mapToLong(offset -> ((long) value.charAt(offset) << 32)
+                        | ((long) value.charAt(offset + 1) << 16) | value.charAt(offset + 2))
+                .sorted().distinct().toArray();
+    }
+}
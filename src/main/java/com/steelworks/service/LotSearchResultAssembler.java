@@ -0,0 +1,113 @@
+package com.steelworks.service;
+
+import com.steelworks.dto.LotSearchResult;
+import com.steelworks.enums.ShipStatus;
+import com.steelworks.repository.LotRepository;
+import com.steelworks.repository.ProductionLogRepository;
+import com.steelworks.repository.ShippingLogRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds {@link LotSearchResult}s for a set of lots with a fixed number of set-based queries. AC1:
+ * Cross-references Production, Quality (defect data), and Shipping sources. AC3: Computes shipping
+ * status. AC11: Flags lots linked to more than one production line.
+ *
+ * <p>
+ * Lot ids are processed in batches of {@link #LOT_ID_BATCH_SIZE}; each batch costs four queries
+ * (lot columns, line names, representative defects, shipped lot ids) no matter how many logs the
+ * lots have.
+ */
+@Component
+public class LotSearchResultAssembler {
+
+    /** Upper bound on ids per IN-list so large result sets stay under driver parameter limits. */
+    static final int LOT_ID_BATCH_SIZE = 1000;
+
+    private final LotRepository lotRepository;
+    private final ProductionLogRepository productionLogRepository;
+    private final ShippingLogRepository shippingLogRepository;
+
+    public LotSearchResultAssembler(LotRepository lotRepository,
+            ProductionLogRepository productionLogRepository,
+            ShippingLogRepository shippingLogRepository) {
+        this.lotRepository = lotRepository;
+        this.productionLogRepository = productionLogRepository;
+        this.shippingLogRepository = shippingLogRepository;
+    }
+
+    /**
+     * Assembles search results for the given lots, preserving the order of the input ids. Ids that
+     * no longer exist are skipped.
+     *
+     * @param lotIds
+     *            database ids of the lots to assemble
+     * @return one search result per existing lot
+     */
+    public List<LotSearchResult> assemble(List<Long> lotIds) {
+        List<LotSearchResult> results = new ArrayList<>(lotIds.size());
+        for (int from = 0; from < lotIds.size(); from += LOT_ID_BATCH_SIZE) {
+            List<Long> batch = lotIds.subList(from,
+                    Math.min(from + LOT_ID_BATCH_SIZE, lotIds.size()));
+            assembleBatch(batch, results);
+        }
+        return results;
+    }
+
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private void assembleBatch(List<Long> lotIds, List<LotSearchResult> results) {
+        Map<Long, Object[]> lotColumns = new HashMap<>(lotIds.size() * 2);
+        for (Object[] row : lotRepository.findSearchColumnsForLotIds(lotIds)) {
+            lotColumns.put(((Number) row[0]).longValue(), row);
+        }
+
+        Map<Long, Set<String>> lineNamesByLot = new HashMap<>();
+        for (Object[] row : productionLogRepository.findLineNamesForLotIds(lotIds)) {
+            lineNamesByLot.computeIfAbsent(((Number) row[0]).longValue(), id -> new TreeSet<>())
+                    .add((String) row[1]);
+        }
+
+        Map<Long, Object[]> defectsByLot = new HashMap<>();
+        for (Object[] row : productionLogRepository.findRepresentativeDefectsForLotIds(lotIds)) {
+            defectsByLot.put(((Number) row[0]).longValue(), row);
+        }
+
+        Set<Long> shippedLotIds = new HashSet<>(
+                shippingLogRepository.findLotIdsWithShippingLogs(lotIds));
+
+        for (Long lotId : lotIds) {
+            Object[] lot = lotColumns.get(lotId);
+            if (lot == null) {
+                continue;
+            }
+            results.add(toResult(lotId, lot, lineNamesByLot.getOrDefault(lotId, Set.of()),
+                    defectsByLot.get(lotId), shippedLotIds.contains(lotId)));
+        }
+    }
+
+    private LotSearchResult toResult(Long lotId, Object[] lot, Set<String> lineNames,
+            Object[] defect, boolean shipped) {
+        LotSearchResult result = new LotSearchResult();
+        result.setLotId(lotId);
+        result.setLotIdentifier((String) lot[1]);
+        result.setPartNumber((String) lot[2]);
+        if (!lineNames.isEmpty()) {
+            result.setProductionLineName(String.join(", ", lineNames));
+        }
+        result.setShippingStatus(shipped ? ShipStatus.SHIPPED : ShipStatus.IN_INVENTORY);
+        if (defect != null) {
+            result.setDefectName((String) defect[1]);
+            result.setDefectSeverity(((String) defect[2]).toUpperCase(Locale.ROOT));
+        }
+        result.setHasDataConflict(lineNames.size() > 1);
+        result.setSourceReference("db:lots/" + lotId);
+        return result;
+    }
+}
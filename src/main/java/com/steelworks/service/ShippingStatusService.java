@@ -2,9 +2,6 @@ package com.steelworks.service;
 
 import com.steelworks.dto.ShippingRiskAlertDTO;
 import com.steelworks.enums.ShipStatus;
-import com.steelworks.model.ProductionLog;
-import com.steelworks.model.ShippingLog;
-import com.steelworks.repository.ProductionLogRepository;
 import com.steelworks.repository.ShippingLogRepository;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -22,12 +19,9 @@ import org.springframework.stereotype.Service;
 public class ShippingStatusService {
 
     private final ShippingLogRepository shippingLogRepository;
-    private final ProductionLogRepository productionLogRepository;
 
-    public ShippingStatusService(ShippingLogRepository shippingLogRepository,
-            ProductionLogRepository productionLogRepository) {
+    public ShippingStatusService(ShippingLogRepository shippingLogRepository) {
         this.shippingLogRepository = shippingLogRepository;
-        this.productionLogRepository = productionLogRepository;
     }
 
     /**
@@ -45,56 +39,20 @@ public class ShippingStatusService {
 
     /**
      * Returns a high-priority list of lots with critical defects that have shipped. AC6:
-     * "Problematic Shipped Batches" — lots with critical defects and an associated ship date.
+     * "Problematic Shipped Batches" — lots with critical defects and an associated ship date. The
+     * severity filter and the latest-shipment lookup run in the database, and rows arrive already
+     * projected into alerts.
      *
-     * @return list of shipping risk alerts ordered by severity
+     * @return list of shipping risk alerts, most recent ship date first
      */
-    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
     public List<ShippingRiskAlertDTO> getProblematicShippedBatches() {
-        List<ProductionLog> criticalProductionLogs = productionLogRepository.findByIssueFlagTrue()
-                .stream().filter(log -> log.getDefectType() != null)
-                .filter(log -> "CRITICAL".equalsIgnoreCase(log.getDefectType().getSeverity()))
-                .toList();
-
-        if (criticalProductionLogs.isEmpty()) {
-            return List.of();
-        }
-
-        List<Long> lotIds = criticalProductionLogs.stream().map(log -> log.getLot().getId())
-                .distinct().toList();
-        List<ShippingLog> shippedLogs = shippingLogRepository.findShippedLogsForLotIds(lotIds);
-
         Map<String, ShippingRiskAlertDTO> alertsByKey = new LinkedHashMap<>();
-        for (ProductionLog productionLog : criticalProductionLogs) {
-            ShippingLog shippingLog = findLatestShippingForLot(shippedLogs,
-                    productionLog.getLot().getId());
-            if (shippingLog == null) {
-                continue;
-            }
-
-            String dedupeKey = productionLog.getLot().getId() + "|"
-                    + productionLog.getDefectType().getDefectName();
-            alertsByKey.putIfAbsent(dedupeKey, toAlert(productionLog, shippingLog));
+        for (ShippingRiskAlertDTO alert : shippingLogRepository.findCriticalShippedAlerts()) {
+            alertsByKey.putIfAbsent(alert.getLotIdentifier() + "|" + alert.getDefectName(), alert);
         }
 
         List<ShippingRiskAlertDTO> alerts = new ArrayList<>(alertsByKey.values());
         alerts.sort(Comparator.comparing(ShippingRiskAlertDTO::getShipDate).reversed());
         return alerts;
     }
-
-    private ShippingLog findLatestShippingForLot(List<ShippingLog> shippedLogs, Long lotId) {
-        return shippedLogs.stream().filter(log -> log.getLot().getId().equals(lotId))
-                .max(Comparator.comparing(ShippingLog::getShipDate)).orElse(null);
-    }
-
-    private ShippingRiskAlertDTO toAlert(ProductionLog productionLog, ShippingLog shippingLog) {
-        ShippingRiskAlertDTO alert = new ShippingRiskAlertDTO();
-        alert.setLotIdentifier(productionLog.getLot().getLotIdentifier());
-        alert.setDefectName(productionLog.getDefectType().getDefectName());
-        alert.setDefectSeverity(productionLog.getDefectType().getSeverity());
-        alert.setShipDate(shippingLog.getShipDate());
-        alert.setCustomerName(shippingLog.getCustomer().getCustomerName());
-        alert.setProductionLineName(productionLog.getProductionLine().getLineName());
-        return alert;
-    }
 }
@@ -0,0 +1,298 @@
+package com.steelworks.service;
+
+import com.steelworks.dto.ControlChartDTO;
+import com.steelworks.enums.ControlChartType;
+import com.steelworks.enums.WesternElectricRule;
+import com.steelworks.repository.DailyDefectRollupRepository;
+import com.steelworks.util.RunningStatistics;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Statistical process control of defect rates per production line and shift. AC5: Replaces raw
+ * defect counts, which favour low-volume lines, with P and U charts whose subgroups are production
+ * days. Points are checked against the Western Electric rules.
+ *
+ * <p>
+ * Subgroup totals are kept in memory and maintained incrementally from the daily defect rollup:
+ * each request refreshes the rollup and reloads only the days rebuilt since the previous request
+ * ({@link DailyDefectRollupService#changesSince(long)}). Pooled totals and Welford accumulators of
+ * the subgroup rates are updated as subgroups are replaced, so no request re-scans history.
+ */
+@Service
+public class SpcService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpcService.class);
+
+    /** Longest range a control chart request may cover. */
+    public static final int MAX_CHART_DAYS = 366;
+
+    /** Subgroups before the range that the run rules look back on. */
+    static final int RULE_LOOKBACK = 7;
+
+    private static final double CONTROL_LIMIT_SIGMAS = 3;
+
+    private final DailyDefectRollupRepository dailyDefectRollupRepository;
+    private final DailyDefectRollupService dailyDefectRollupService;
+
+    /** Subgroups per production line and shift; guarded by this. */
+    private final Map<SeriesKey, Series> seriesByKey = new HashMap<>();
+
+    /** Rollup generation the subgroups reflect; negative until the first load. */
+    private long syncedGeneration = -1;
+
+    private record SeriesKey(String lineName, String shift) {
+    }
+
+    /** Production logs of one day, line and shift. */
+    private record Subgroup(long defects, long runs, long units) {
+
+        long sampleSize(ControlChartType chartType) {
+            return chartType == ControlChartType.P ? runs : units;
+        }
+    }
+
+    /** Subgroups of one production line and shift with their running totals. */
+    private static final class Series {
+
+        private final NavigableMap<LocalDate, Subgroup> subgroups = new TreeMap<>();
+        private final Map<ControlChartType, RunningStatistics> rates = new EnumMap<>(
+                ControlChartType.class);
+        private long defects;
+        private long runs;
+        private long units;
+
+        Series() {
+            for (ControlChartType chartType : ControlChartType.values()) {
+                rates.put(chartType, new RunningStatistics());
+            }
+        }
+
+        void add(LocalDate date, Subgroup subgroup) {
+            remove(date);
+            subgroups.put(date, subgroup);
+            update(subgroup, 1);
+        }
+
+        void remove(LocalDate date) {
+            Subgroup subgroup = subgroups.remove(date);
+            if (subgroup != null) {
+                update(subgroup, -1);
+            }
+        }
+
+        private void update(Subgroup subgroup, int sign) {
+            defects += sign * subgroup.defects();
+            runs += sign * subgroup.runs();
+            units += sign * subgroup.units();
+            for (Map.Entry<ControlChartType, RunningStatistics> entry : rates.entrySet()) {
+                long sampleSize = subgroup.sampleSize(entry.getKey());
+                if (sampleSize > 0) {
+                    double rate = (double) subgroup.defects() / sampleSize;
+                    if (sign > 0) {
+                        entry.getValue().add(rate);
+                    } else {
+                        entry.getValue().remove(rate);
+                    }
+                }
+            }
+        }
+
+        double centerLine(ControlChartType chartType) {
+            long sampleSize = chartType == ControlChartType.P ? runs : units;
+            return sampleSize == 0 ? 0 : (double) defects / sampleSize;
+        }
+    }
+
+    public SpcService(DailyDefectRollupRepository dailyDefectRollupRepository,
+            DailyDefectRollupService dailyDefectRollupService) {
+        this.dailyDefectRollupRepository = dailyDefectRollupRepository;
+        this.dailyDefectRollupService = dailyDefectRollupService;
+    }
+
+    /**
+     * Builds a control chart for every production line and shift that produced within the range,
+     * highest defect rate first. AC5: Lines are compared by defect rate rather than defect count.
+     * Days without output (zero sample size) are left out. The run rules also consider up to
+     * {@value #RULE_LOOKBACK} days before startDate, so a pattern that started earlier is still
+     * detected.
+     *
+     * @param chartType
+     *            P for the share of production runs with an issue, U for issues per unit actual
+     * @param startDate
+     *            first day of the range
+     * @param endDate
+     *            last day of the range
+     * @return control charts, ordered by period defect rate, descending
+     * @throws IllegalArgumentException
+     *             if startDate is after endDate or the range exceeds {@value #MAX_CHART_DAYS} days
+     */
+    public synchronized List<ControlChartDTO> getControlCharts(ControlChartType chartType,
+            LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_CHART_DAYS) {
+            throw new IllegalArgumentException(
+                    "Range must not exceed " + MAX_CHART_DAYS + " days");
+        }
+        synchronize();
+
+        List<ControlChartDTO> charts = new ArrayList<>();
+        for (Map.Entry<SeriesKey, Series> entry : seriesByKey.entrySet()) {
+            ControlChartDTO chart = buildChart(chartType, entry.getKey(), entry.getValue(),
+                    startDate, endDate);
+            if (chart != null) {
+                charts.add(chart);
+            }
+        }
+        charts.sort(Comparator.comparingDouble(ControlChartDTO::getPeriodRate).reversed()
+                .thenComparing(ControlChartDTO::getLineName)
+                .thenComparing(ControlChartDTO::getShift));
+        return charts;
+    }
+
+    /**
+     * Brings the subgroups up to date with the rollup. The first call loads every subgroup; later
+     * calls replace only the days rebuilt since. If a load fails the generation is not advanced,
+     * so the next call repeats it.
+     */
+    private void synchronize() {
+        dailyDefectRollupService.ensureUpToDate();
+        DailyDefectRollupService.Changes changes = dailyDefectRollupService
+                .changesSince(syncedGeneration);
+        if (syncedGeneration < 0) {
+            seriesByKey.clear();
+            addSubgroups(dailyDefectRollupRepository.sumSubgroups());
+        } else if (!changes.dates().isEmpty()) {
+            for (Series series : seriesByKey.values()) {
+                changes.dates().forEach(series::remove);
+            }
+            List<LocalDate> dates = new ArrayList<>(changes.dates());
+            for (int from = 0; from < dates.size();
+                    from += DailyDefectRollupService.DATE_BATCH_SIZE) {
+                addSubgroups(dailyDefectRollupRepository.sumSubgroupsForDates(dates.subList(from,
+                        Math.min(from + DailyDefectRollupService.DATE_BATCH_SIZE,
+                                dates.size()))));
+            }
+            seriesByKey.values().removeIf(series -> series.subgroups.isEmpty());
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("Control chart subgroups reloaded for {} day(s)",
+                        changes.dates().size());
+            }
+        }
+        syncedGeneration = changes.generation();
+    }
+
+    private void addSubgroups(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            seriesByKey.computeIfAbsent(new SeriesKey((String) row[1], (String) row[2]),
+                    key -> new Series()).add((LocalDate) row[0],
+                            new Subgroup(((Number) row[3]).longValue(),
+                                    ((Number) row[4]).longValue(),
+                                    ((Number) row[5]).longValue()));
+        }
+    }
+
+    /**
+     * Builds one chart, or returns null when the series has no output within the range. Points
+     * are standardized against their own limits, which widen as the sample size shrinks, before
+     * the run rules are applied.
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    private static ControlChartDTO buildChart(ControlChartType chartType, SeriesKey key,
+            Series series, LocalDate startDate, LocalDate endDate) {
+        Deque<Map.Entry<LocalDate, Subgroup>> entries = new ArrayDeque<>();
+        Iterator<Map.Entry<LocalDate, Subgroup>> before = series.subgroups
+                .headMap(startDate, false).descendingMap().entrySet().iterator();
+        while (entries.size() < RULE_LOOKBACK && before.hasNext()) {
+            Map.Entry<LocalDate, Subgroup> entry = before.next();
+            if (entry.getValue().sampleSize(chartType) > 0) {
+                entries.addFirst(entry);
+            }
+        }
+        int lookback = entries.size();
+        for (Map.Entry<LocalDate, Subgroup> entry : series.subgroups
+                .subMap(startDate, true, endDate, true).entrySet()) {
+            if (entry.getValue().sampleSize(chartType) > 0) {
+                entries.addLast(entry);
+            }
+        }
+        if (entries.size() == lookback) {
+            return null;
+        }
+
+        double centerLine = series.centerLine(chartType);
+        double[] zScores = new double[entries.size()];
+        List<ControlChartDTO.Point> points = new ArrayList<>(entries.size() - lookback);
+        long periodDefects = 0;
+        long periodSampleSize = 0;
+        int index = 0;
+        for (Map.Entry<LocalDate, Subgroup> entry : entries) {
+            Subgroup subgroup = entry.getValue();
+            long sampleSize = subgroup.sampleSize(chartType);
+            double rate = (double) subgroup.defects() / sampleSize;
+            double sigma = Math.sqrt((chartType == ControlChartType.P
+                    ? centerLine * (1 - centerLine)
+                    : centerLine) / sampleSize);
+            zScores[index] = sigma > 0 ? (rate - centerLine) / sigma : 0;
+            if (index >= lookback) {
+                ControlChartDTO.Point point = new ControlChartDTO.Point();
+                point.setDate(entry.getKey());
+                point.setSampleSize(sampleSize);
+                point.setDefects(subgroup.defects());
+                point.setRate(rate);
+                point.setLowerControlLimit(
+                        Math.max(0, centerLine - CONTROL_LIMIT_SIGMAS * sigma));
+                double upperControlLimit = centerLine + CONTROL_LIMIT_SIGMAS * sigma;
+                point.setUpperControlLimit(chartType == ControlChartType.P
+                        ? Math.min(1, upperControlLimit)
+                        : upperControlLimit);
+                points.add(point);
+                periodDefects += subgroup.defects();
+                periodSampleSize += sampleSize;
+            }
+            index++;
+        }
+
+        boolean outOfControl = false;
+        for (int i = 0; i < points.size(); i++) {
+            List<WesternElectricRule> violations = new ArrayList<>();
+            for (WesternElectricRule rule : WesternElectricRule.values()) {
+                if (rule.isViolatedAt(zScores, lookback + i)) {
+                    violations.add(rule);
+                }
+            }
+            points.get(i).setViolations(violations);
+            outOfControl |= !violations.isEmpty();
+        }
+
+        RunningStatistics rates = series.rates.get(chartType);
+        ControlChartDTO chart = new ControlChartDTO();
+        chart.setLineName(key.lineName());
+        chart.setShift(key.shift());
+        chart.setChartType(chartType);
+        chart.setCenterLine(centerLine);
+        chart.setSubgroupCount(rates.getCount());
+        chart.setSubgroupRateMean(rates.getMean());
+        chart.setSubgroupRateStandardDeviation(rates.getStandardDeviation());
+        chart.setPeriodRate((double) periodDefects / periodSampleSize);
+        chart.setOutOfControl(outOfControl);
+        chart.setPoints(points);
+        return chart;
+    }
+}
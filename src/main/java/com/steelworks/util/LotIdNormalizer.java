@@ -6,10 +6,28 @@ import org.springframework.stereotype.Component;
 /**
  * Utility for normalizing and fuzzy-matching Lot IDs. AC2: Recognizes and links Lot IDs with minor
  * formatting differences (e.g., "LOT123" vs "LOT-123").
+ *
+ * <p>
+ * Normalization drops dashes and whitespace and upper-cases what remains. ASCII input is handled
+ * in a single pass over its chars: an identifier that is already canonical is returned as is, and
+ * the others are copied into a per-thread buffer so the result String is the only allocation. The
+ * {@link CharSequence} methods compare and hash identifiers in their normalized form without
+ * building it at all. Non-ASCII input falls back to {@link String#toUpperCase(Locale)}, whose
+ * case mappings can change the length.
  */
 @Component
 public class LotIdNormalizer {
 
+    private static final int INITIAL_BUFFER_SIZE = 64;
+
+    /** First char outside ASCII. */
+    private static final char NON_ASCII = 0x80;
+
+    private static final int HASH_MULTIPLIER = 31;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal
+            .withInitial(() -> new char[INITIAL_BUFFER_SIZE]);
+
     /**
      * Normalizes a raw Lot ID by stripping formatting differences (dashes, spaces, case) to produce
      * a canonical form.
@@ -18,11 +36,37 @@ public class LotIdNormalizer {
      *            the Lot ID as entered or imported
      * @return the normalized form for comparison
      */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
     public String normalize(String rawLotId) {
         if (rawLotId == null) {
             return null;
         }
-        return rawLotId.replaceAll("[\\-\\s]", "").toUpperCase(Locale.ROOT);
+        int length = rawLotId.length();
+        int firstChange = 0;
+        while (firstChange < length && isCanonical(rawLotId.charAt(firstChange))) {
+            firstChange++;
+        }
+        if (firstChange == length) {
+            return rawLotId;
+        }
+
+        char[] buffer = BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+            BUFFER.set(buffer);
+        }
+        rawLotId.getChars(0, firstChange, buffer, 0);
+        int size = firstChange;
+        for (int i = firstChange; i < length; i++) {
+            char ch = rawLotId.charAt(i);
+            if (ch >= NON_ASCII) {
+                return normalizeNonAscii(rawLotId);
+            }
+            if (!isSeparator(ch)) {
+                buffer[size++] = toUpperAscii(ch);
+            }
+        }
+        return new String(buffer, 0, size);
     }
 
     /**
@@ -35,11 +79,95 @@ public class LotIdNormalizer {
      * @return true if they match after normalization
      */
     public boolean areEquivalent(String lotId1, String lotId2) {
-        String normalizedLotId1 = normalize(lotId1);
-        String normalizedLotId2 = normalize(lotId2);
-        if (normalizedLotId1 == null || normalizedLotId2 == null) {
+        return areEquivalent((CharSequence) lotId1, (CharSequence) lotId2);
+    }
+
+    /**
+     * Compares two Lot IDs in normalized form without building either normalized String.
+     *
+     * @param lotId1
+     *            first Lot ID
+     * @param lotId2
+     *            second Lot ID
+     * @return true if they match after normalization; false if either is null
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public boolean areEquivalent(CharSequence lotId1, CharSequence lotId2) {
+        if (lotId1 == null || lotId2 == null) {
             return false;
         }
-        return normalizedLotId1.equals(normalizedLotId2);
+        int i = 0;
+        int j = 0;
+        while (true) {
+            i = skipSeparators(lotId1, i);
+            j = skipSeparators(lotId2, j);
+            if (i == lotId1.length() || j == lotId2.length()) {
+                return i == lotId1.length() && j == lotId2.length();
+            }
+            char ch1 = lotId1.charAt(i++);
+            char ch2 = lotId2.charAt(j++);
+            if (ch1 >= NON_ASCII || ch2 >= NON_ASCII) {
+                return normalize(lotId1.toString()).equals(normalize(lotId2.toString()));
+            }
+            if (toUpperAscii(ch1) != toUpperAscii(ch2)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Hash code of the normalized form, equal to {@code normalize(rawLotId).hashCode()}, so
+     * normalized keys can be probed with a raw Lot ID.
+     *
+     * @param rawLotId
+     *            the Lot ID as entered or imported; not null
+     * @return hash code of the normalized Lot ID
+     */
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    public int normalizedHashCode(CharSequence rawLotId) {
+        int hash = 0;
+        for (int i = 0; i < rawLotId.length(); i++) {
+            char ch = rawLotId.charAt(i);
+            if (ch >= NON_ASCII) {
+                return normalize(rawLotId.toString()).hashCode();
+            }
+            if (!isSeparator(ch)) {
+                hash = HASH_MULTIPLIER * hash + toUpperAscii(ch);
+            }
+        }
+        return hash;
+    }
+
+    private static String normalizeNonAscii(String rawLotId) {
+        StringBuilder stripped = new StringBuilder(rawLotId.length());
+        for (int i = 0; i < rawLotId.length(); i++) {
+            char ch = rawLotId.charAt(i);
+            if (!isSeparator(ch)) {
+                stripped.append(ch);
+            }
+        }
+        return stripped.toString().toUpperCase(Locale.ROOT);
+    }
+
+    private static int skipSeparators(CharSequence value, int from) {
+        int index = from;
+        while (index < value.length() && isSeparator(value.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /** Dash or one of the whitespace characters matched by the regex class {@code \s}. */
+    private static boolean isSeparator(char ch) {
+        return ch == '-' || ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f'
+                || ch == '\r';
+    }
+
+    private static boolean isCanonical(char ch) {
+        return ch < NON_ASCII && !isSeparator(ch) && (ch < 'a' || ch > 'z');
+    }
+
+    private static char toUpperAscii(char ch) {
+        return ch >= 'a' && ch <= 'z' ? (char) (ch - ('a' - 'A')) : ch;
     }
 }
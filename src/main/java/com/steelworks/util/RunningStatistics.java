@@ -0,0 +1,76 @@
+package com.steelworks.util;
+
+/**
+ * Streaming mean and variance of a series of values (Welford's algorithm). Values can be added
+ * and removed in any order, each in O(1), so statistics over a changing set of observations are
+ * kept current without revisiting the others. Not thread-safe.
+ */
+public class RunningStatistics {
+
+    private long count;
+    private double mean;
+    /** Sum of squared deviations from the mean. */
+    private double sumOfSquares;
+
+    public RunningStatistics() {
+    }
+
+    /**
+     * Adds an observation.
+     *
+     * @param value
+     *            the observed value
+     */
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        sumOfSquares += delta * (value - mean);
+    }
+
+    /**
+     * Removes an observation added earlier by reversing its {@link #add(double)} step.
+     *
+     * @param value
+     *            a value previously added and not yet removed
+     * @throws IllegalStateException
+     *             if there are no observations
+     */
+    public void remove(double value) {
+        if (count == 0) {
+            throw new IllegalStateException("No observations to remove");
+        }
+        count--;
+        if (count == 0) {
+            mean = 0;
+            sumOfSquares = 0;
+            return;
+        }
+        double previousMean = mean;
+        mean = (previousMean * (count + 1) - value) / count;
+        // Rounding can leave a tiny negative remainder once the values left are all equal.
+        sumOfSquares = Math.max(0, sumOfSquares - (value - mean) * (value - previousMean));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return mean of the observations, 0 when there are none
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return sample variance of the observations, 0 with fewer than two
+     */
+    public double getVariance() {
+        return count < 2 ? 0 : sumOfSquares / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+}
@@ -96,6 +96,7 @@ async function loadDashboard() {
         const rankings = data.productionLineRankings ?? [];
         const alerts = data.shippingRiskAlerts ?? [];
         const trends = data.defectTrends ?? [];
+        const degradedSections = data.degradedSections ?? [];
 
         renderRankings(rankings);
         renderAlerts(alerts);
@@ -104,7 +105,11 @@ async function loadDashboard() {
         kpiLines.textContent = String(rankings.length);
         kpiAlerts.textContent = String(alerts.length);
         kpiTrends.textContent = String(trends.length);
-        setStatus(`Loaded ${grouping.toLowerCase()} view`);
+        if (degradedSections.length > 0) {
+            setStatus(`Loaded ${grouping.toLowerCase()} view (unavailable: ${degradedSections.join(", ")})`);
+        } else {
+            setStatus(`Loaded ${grouping.toLowerCase()} view`);
+        }
     } catch (error) {
         rankingBody.innerHTML = "";
         alertsBody.innerHTML = "";
@@ -6,6 +6,12 @@ const endDateInput = document.getElementById("endDate");
 const searchStatus = document.getElementById("searchStatus");
 const searchTableBody = document.getElementById("searchTableBody");
 const searchEmpty = document.getElementById("searchEmpty");
+const loadMoreButton = document.getElementById("loadMoreResults");
+
+const SEARCH_PAGE_SIZE = 100;
+let searchParams = null;
+let nextCursor = null;
+let loadedResultCount = 0;
 
 const orphanedTableBody = document.getElementById("orphanedTableBody");
 const conflictsTableBody = document.getElementById("conflictsTableBody");
@@ -75,27 +81,42 @@ async function searchLots(event) {
     searchTableBody.innerHTML = "";
     setEmptyVisibility(searchEmpty, false);
 
-    const params = buildSearchParams();
-    const searchPath = params.toString().length > 0 ? `/api/lots/search?${params}` : "/api/lots/search";
+    searchParams = buildSearchParams();
+    nextCursor = null;
+    loadedResultCount = 0;
+    await loadSearchPage();
+}
+
+async function loadSearchPage() {
+    const params = new URLSearchParams(searchParams);
+    params.append("limit", SEARCH_PAGE_SIZE);
+    if (nextCursor) {
+        params.append("cursor", nextCursor);
+    }
+    loadMoreButton.classList.add("hidden");
 
     try {
-        const response = await fetch(searchPath);
+        const response = await fetch(`/api/lots/search?${params}`);
         if (!response.ok) {
             throw new Error(`HTTP ${response.status}`);
         }
         const results = await response.json();
-        renderSearchResults(results);
-        setSearchStatus(`Found ${results.length} lot(s)`);
+        nextCursor = response.headers.get("X-Next-Cursor");
+        loadedResultCount += results.length;
+
+        appendSearchResults(results);
+        setEmptyVisibility(searchEmpty, loadedResultCount === 0);
+        loadMoreButton.classList.toggle("hidden", !nextCursor);
+        setSearchStatus(nextCursor
+            ? `Showing ${loadedResultCount} lot(s), more available`
+            : `Found ${loadedResultCount} lot(s)`);
     } catch (error) {
         setSearchStatus(`Search failed: ${error.message}`);
-        setEmptyVisibility(searchEmpty, true);
+        setEmptyVisibility(searchEmpty, loadedResultCount === 0);
     }
 }
 
-function renderSearchResults(results) {
-    searchTableBody.innerHTML = "";
-    setEmptyVisibility(searchEmpty, results.length === 0);
-
+function appendSearchResults(results) {
     results.forEach((result) => {
         const tr = document.createElement("tr");
         tr.innerHTML = `
@@ -205,6 +226,7 @@ async function loadConflicts() {
 }
 
 lotSearchForm.addEventListener("submit", searchLots);
+loadMoreButton.addEventListener("click", loadSearchPage);
 refreshOrphanedButton.addEventListener("click", loadOrphaned);
 refreshConflictsButton.addEventListener("click", loadConflicts);
 
@@ -1,8 +1,18 @@
 package com.steelworks.controller;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
 
+import com.steelworks.dto.ControlChartDTO;
+import com.steelworks.dto.DefectTimeSeriesDTO;
+import com.steelworks.enums.ControlChartType;
+import com.steelworks.enums.TimeGrouping;
 import com.steelworks.service.DashboardService;
+import com.steelworks.service.DefectAnalysisService;
+import com.steelworks.service.SpcService;
+import java.time.LocalDate;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -21,6 +31,12 @@ class DashboardControllerTest {
     @Mock
     private DashboardService dashboardService;
 
+    @Mock
+    private DefectAnalysisService defectAnalysisService;
+
+    @Mock
+    private SpcService spcService;
+
     @InjectMocks
     private DashboardController dashboardController;
 
@@ -35,4 +51,30 @@ class DashboardControllerTest {
         // TODO: AC8 - Verify WEEKLY is the default when no param is provided
         assertNotNull(dashboardController, TODO_MESSAGE);
     }
+
+    @Test
+    void getDefectTimeSeries_shouldUseRollingWindowEndingOnEndDate() {
+        LocalDate end = LocalDate.of(2026, 3, 31);
+        DefectTimeSeriesDTO timeSeries = new DefectTimeSeriesDTO();
+        when(defectAnalysisService.computeDefectTimeSeries(LocalDate.of(2026, 3, 2), end,
+                TimeGrouping.DAILY)).thenReturn(timeSeries);
+
+        DefectTimeSeriesDTO body = dashboardController
+                .getDefectTimeSeries(null, end, 30, TimeGrouping.DAILY).getBody();
+
+        assertSame(timeSeries, body, "Expected a 30-day window ending on endDate");
+    }
+
+    @Test
+    void getControlCharts_shouldDefaultToThirtyDayWindowEndingOnEndDate() {
+        LocalDate end = LocalDate.of(2026, 3, 31);
+        List<ControlChartDTO> charts = List.of(new ControlChartDTO());
+        when(spcService.getControlCharts(ControlChartType.U, LocalDate.of(2026, 3, 2), end))
+                .thenReturn(charts);
+
+        List<ControlChartDTO> body = dashboardController
+                .getControlCharts(ControlChartType.U, null, end, null).getBody();
+
+        assertSame(charts, body, "Expected a 30-day window ending on endDate");
+    }
 }
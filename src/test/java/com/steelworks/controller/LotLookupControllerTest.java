@@ -7,8 +7,10 @@ import static org.mockito.Mockito.when;
 
 import com.steelworks.dto.ConsolidatedLotView;
 import com.steelworks.dto.DataConflictDTO;
+import com.steelworks.dto.LotSearchPage;
 import com.steelworks.dto.LotSearchRequest;
 import com.steelworks.dto.LotSearchResult;
+import com.steelworks.dto.LotSuggestion;
 import com.steelworks.dto.OrphanedRecordDTO;
 import com.steelworks.service.DataIntegrityService;
 import com.steelworks.service.LotLookupService;
@@ -48,7 +50,7 @@ class LotLookupControllerTest {
                 .thenReturn(List.of(lotSearchResult));
 
         ResponseEntity<List<LotSearchResult>> response = lotLookupController.searchLots("lot100",
-                startDate, endDate);
+                startDate, endDate, null, null);
         ArgumentCaptor<LotSearchRequest> requestCaptor = ArgumentCaptor
                 .forClass(LotSearchRequest.class);
         verify(lotLookupService).searchLots(requestCaptor.capture());
@@ -64,6 +66,50 @@ class LotLookupControllerTest {
                 "Expected controller to map query params into LotSearchRequest and return service data");
     }
 
+    @Test
+    void searchLots_shouldReturnPageAndNextCursorHeaderWhenLimitIsGiven() {
+        LotSearchResult lotSearchResult = new LotSearchResult();
+        lotSearchResult.setLotIdentifier("LOT-100");
+        LotSearchPage page = new LotSearchPage();
+        page.setResults(List.of(lotSearchResult));
+        page.setNextCursor("next-page");
+        when(lotLookupService.searchLotsPage(any(LotSearchRequest.class))).thenReturn(page);
+
+        ResponseEntity<List<LotSearchResult>> response = lotLookupController.searchLots("lot",
+                null, null, "this-page", 1);
+        ArgumentCaptor<LotSearchRequest> requestCaptor = ArgumentCaptor
+                .forClass(LotSearchRequest.class);
+        verify(lotLookupService).searchLotsPage(requestCaptor.capture());
+        LotSearchRequest capturedRequest = requestCaptor.getValue();
+
+        boolean isPageReturned = response.getStatusCode().is2xxSuccessful()
+                && response.getBody() != null && response.getBody().size() == 1
+                && "next-page".equals(
+                        response.getHeaders().getFirst(LotLookupController.NEXT_CURSOR_HEADER))
+                && "this-page".equals(capturedRequest.getCursor())
+                && Integer.valueOf(1).equals(capturedRequest.getLimit());
+        assertTrue(isPageReturned,
+                "Expected paged search to return one page and expose the next cursor header");
+    }
+
+    @Test
+    void searchLots_shouldSuggestClosestLotsWhenNothingMatches() {
+        when(lotLookupService.searchLots(any(LotSearchRequest.class))).thenReturn(List.of());
+        when(lotLookupService.suggestLots(any(LotSearchRequest.class)))
+                .thenReturn(List.of(new LotSuggestion(1L, "LOT-1234", 1),
+                        new LotSuggestion(2L, "LOT-1342", 2)));
+
+        ResponseEntity<List<LotSearchResult>> response = lotLookupController.searchLots("LOT1243",
+                null, null, null, null);
+
+        boolean isSuggested = response.getStatusCode().is2xxSuccessful()
+                && response.getBody() != null && response.getBody().isEmpty()
+                && "LOT-1234,LOT-1342".equals(
+                        response.getHeaders().getFirst(LotLookupController.DID_YOU_MEAN_HEADER));
+        assertTrue(isSuggested,
+                "Expected an empty search to carry the ranked suggestions in the header");
+    }
+
     @Test
     void getConsolidatedView_shouldDelegateToLotLookupService() {
         ConsolidatedLotView consolidatedLotView = new ConsolidatedLotView();
@@ -85,10 +131,11 @@ class LotLookupControllerTest {
         OrphanedRecordDTO orphanedRecord = new OrphanedRecordDTO();
         orphanedRecord.setLotIdentifier("LOT-404");
         orphanedRecord.setReason("Missing in shipping.");
-        when(lotLookupService.findOrphanedRecords()).thenReturn(List.of(orphanedRecord));
+        when(lotLookupService.findOrphanedRecords(false)).thenReturn(List.of(orphanedRecord));
 
-        ResponseEntity<List<OrphanedRecordDTO>> response = lotLookupController.getOrphanedRecords();
-        verify(lotLookupService).findOrphanedRecords();
+        ResponseEntity<List<OrphanedRecordDTO>> response = lotLookupController
+                .getOrphanedRecords(false);
+        verify(lotLookupService).findOrphanedRecords(false);
 
         boolean isDelegatedAndReturned = response.getStatusCode().is2xxSuccessful()
                 && response.getBody() != null && response.getBody().size() == 1
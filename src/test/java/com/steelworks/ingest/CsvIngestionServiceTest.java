@@ -0,0 +1,233 @@
+package com.steelworks.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.steelworks.event.ProductionDataChangedEvent;
+import com.steelworks.model.ProductionLog;
+import com.steelworks.service.LotSearchIndex;
+import com.steelworks.util.LotIdNormalizer;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for CsvIngestionService. AC1: References resolved in memory. AC9: Source file and line
+ * recorded per row.
+ */
+@ExtendWith(MockitoExtension.class)
+class CsvIngestionServiceTest {
+
+    private static final String PRODUCTION_HEADER = "Date,Shift,Line Name,Lot ID,Units Planned,"
+            + "Units Actual,Downtime Minutes,Issue Flag,Primary Issue,Supervisor Notes\n";
+
+    private static final String PRODUCTION_FILE = "production_feb.csv";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ReferenceDataLoader referenceDataLoader;
+
+    @Mock
+    private LotSearchIndex lotSearchIndex;
+
+    private ReferenceData referenceData;
+
+    private CsvIngestionService csvIngestionService;
+
+    @BeforeEach
+    void setUp() {
+        referenceData = new ReferenceData(new LotIdNormalizer(), true, 4);
+        referenceData.addLot(10L, "LOT-100", "LOT100");
+        referenceData.addLot(20L, "LOT-200", "LOT200");
+        referenceData.addProductionLine(1L, "Line-A");
+        referenceData.addDefectType(5L, "CRK", "Crack");
+        referenceData.addCustomer(7L, "Acme");
+        when(referenceDataLoader.load()).thenReturn(referenceData);
+        csvIngestionService = new CsvIngestionService(jdbcTemplate, transactionManager,
+                eventPublisher, referenceDataLoader, lotSearchIndex, 2, 10, 1);
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void ingestProductionLogs_shouldBatchRowsWithSourceLocation() throws IOException {
+        List<List<Object[]>> batches = recordBatches();
+
+        IngestionResult result = csvIngestionService.ingestProductionLogs(
+                new StringReader(PRODUCTION_HEADER
+                        + "2026-02-01,Day,Line-A,lot 100,100,95,10,yes,crack,\"Belt, slipped\"\n"
+                        + "02/02/26,N,line-a,LOT100,80,80,,,,\n"
+                        + "2026-02-03,Swing,Line-A,LOT-200,50,49,0,false,CRK,\n"),
+                PRODUCTION_FILE);
+
+        Object[] first = batches.get(0).get(0);
+        boolean firstRowConverted = LocalDate.of(2026, 2, 1).equals(first[0])
+                && "Day".equals(first[1]) && Long.valueOf(1L).equals(first[2])
+                && Long.valueOf(10L).equals(first[3]) && Long.valueOf(5L).equals(first[4])
+                && Boolean.TRUE.equals(first[8]) && "Belt, slipped".equals(first[9])
+                && PRODUCTION_FILE.equals(first[10]) && Integer.valueOf(2).equals(first[11]);
+        assertTrue(firstRowConverted,
+                "Expected references resolved by normalized value and the source line recorded");
+        boolean batchedBySize = batches.size() == 2 && batches.get(0).size() == 2
+                && batches.get(1).size() == 1 && result.rowsInserted() == 3;
+        assertTrue(batchedBySize, "Expected rows written in batches of the configured size");
+    }
+
+    @Test
+    void ingestProductionLogs_shouldRejectInvalidRowsAndReportTheirLines() throws IOException {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class)))
+                .thenReturn(new int[]{0});
+
+        IngestionResult result = csvIngestionService.ingestProductionLogs(
+                new StringReader(PRODUCTION_HEADER + "2026-02-01,Day,Line-A,LOT-999,1,1,,,,\n"
+                        + "2026-02-01,Graveyard,Line-A,LOT-100,1,1,,,,\n"
+                        + "2026-02-01,Day,Line-A,LOT-100,1,1,,,,\n"),
+                PRODUCTION_FILE);
+
+        boolean rejectionsReported = result.rowsRead() == 3 && result.rowsRejected() == 2
+                && result.rowsSkipped() == 1 && result.errors().size() == 2
+                && result.errors().get(0).lineNumber() == 2
+                && result.errors().get(0).message().contains("Unknown lot")
+                && result.errors().get(1).lineNumber() == 3;
+        assertTrue(rejectionsReported,
+                "Expected bad rows rejected by line and already loaded rows counted as skipped");
+    }
+
+    @Test
+    void ingestProductionLogs_shouldPublishLoadedDates() throws IOException {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class)))
+                .thenReturn(new int[]{1, 1});
+
+        csvIngestionService.ingestProductionLogs(
+                new StringReader(PRODUCTION_HEADER + "2026-02-01,Day,Line-A,LOT-100,1,1,,,,\n"
+                        + "2026-02-03,Day,Line-A,LOT-100,1,1,,,,\n"),
+                PRODUCTION_FILE);
+
+        verify(eventPublisher).publishEvent(new ProductionDataChangedEvent(ProductionLog.class,
+                Set.of(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 2, 3))));
+    }
+
+    @Test
+    void ingestProductionLogs_shouldRejectAndReportAmbiguousLots() throws IOException {
+        referenceData.addLot(30L, "LOT-300", "LOT300");
+        referenceData.addLot(31L, "lot 300", "LOT300");
+
+        IngestionResult result = csvIngestionService.ingestProductionLogs(
+                new StringReader(PRODUCTION_HEADER + "2026-02-01,Day,Line-A,LOT300,1,1,,,,\n"
+                        + "2026-02-02,Day,Line-A,Lot-300,1,1,,,,\n"),
+                PRODUCTION_FILE);
+
+        assertEquals(List.of(new IngestionResult.AmbiguousLot("LOT300",
+                List.of("LOT-300", "lot 300"), 2)), result.ambiguousLots(),
+                "Expected both rows rejected and the ambiguous lot reported with its candidates");
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), any(int[].class));
+    }
+
+    @Test
+    @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+    void ingestProductionLogs_shouldCreateUnknownLotOnceAndReuseItsId() throws IOException {
+        List<List<Object[]>> batches = recordBatches();
+        doAnswer(invocation -> {
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getLong(1)).thenReturn(55L);
+            when(resultSet.getString(2)).thenReturn("LOT-500");
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class),
+                any(Object[].class));
+
+        IngestionResult result = csvIngestionService.ingestProductionLogs(new StringReader(
+                "Date,Shift,LineName,LotID,UnitsPlanned,UnitsActual,PartNumber\n"
+                        + "2026-02-01,Day,Line-A,LOT-500,1,1,P-9\n"
+                        + "2026-02-01,Day,Line-A,lot 500,1,1,P-9\n"
+                        + "2026-02-02,Day,Line-A,LOT500,1,1,\n"),
+                PRODUCTION_FILE);
+
+        Object[] newLot = batches.get(0).get(0);
+        boolean createdOnce = result.lotsCreated() == 1 && result.rowsInserted() == 3
+                && batches.size() == 3 && batches.get(0).size() == 1
+                && "LOT-500".equals(newLot[0]) && "LOT500".equals(newLot[1])
+                && "P-9".equals(newLot[2]) && LocalDate.of(2026, 2, 1).equals(newLot[3])
+                && Long.valueOf(55L).equals(batches.get(1).get(0)[3])
+                && Long.valueOf(55L).equals(batches.get(1).get(1)[3])
+                && Long.valueOf(55L).equals(batches.get(2).get(0)[3]);
+        assertTrue(createdOnce,
+                "Expected one lot insert for both spellings and later rows to reuse its id");
+        verify(lotSearchIndex).invalidate();
+    }
+
+    @Test
+    void ingestShippingLogs_shouldRequireDocumentedColumns() {
+        assertThrows(IllegalArgumentException.class,
+                () -> csvIngestionService.ingestShippingLogs(
+                        new StringReader("LotID,ShipDate\nLOT-100,2026-02-01\n"), "ship.csv"),
+                "Expected a file without the required columns to be refused");
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), any(int[].class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void ingestShippingLogs_shouldConvertShippingRows() throws IOException {
+        List<List<Object[]>> batches = recordBatches();
+
+        IngestionResult result = csvIngestionService.ingestShippingLogs(new StringReader(
+                "LotID,ShipDate,SalesOrder,CustomerName,DestinationState,Carrier,BOLNumber,"
+                        + "TrackingNumber,QtyShipped,ShipStatus,HoldReason,ShippingNotes\n"
+                        + "LOT-200,2026-02-05,SO-1,acme,oh,UPS,BOL-1,,40,on hold,QA review,\n"),
+                "shipping_feb.csv");
+
+        Object[] row = batches.get(0).get(0);
+        boolean rowConverted = result.rowsInserted() == 1
+                && LocalDate.of(2026, 2, 5).equals(row[0]) && Long.valueOf(20L).equals(row[1])
+                && Long.valueOf(7L).equals(row[2]) && "OH".equals(row[4])
+                && Integer.valueOf(40).equals(row[8]) && "On Hold".equals(row[9])
+                && "shipping_feb.csv".equals(row[12]) && Integer.valueOf(2).equals(row[13]);
+        assertTrue(rowConverted,
+                "Expected shipping values canonicalized and the source location recorded");
+    }
+
+    /** Copies each batch as it is written, since the service reuses the batch list. */
+    private List<List<Object[]>> recordBatches() {
+        List<List<Object[]>> batches = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class)))
+                .thenAnswer(invocation -> {
+                    List<Object[]> batch = invocation.getArgument(1);
+                    batches.add(new ArrayList<>(batch));
+                    int[] updateCounts = new int[batch.size()];
+                    Arrays.fill(updateCounts, 1);
+                    return updateCounts;
+                });
+        return batches;
+    }
+}
@@ -0,0 +1,61 @@
+package com.steelworks.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for CsvRecordReader. AC9: Records keep the source line they start on.
+ */
+class CsvRecordReaderTest {
+
+    @Test
+    void next_shouldSplitQuotedFieldsAndTrackStartingLines() throws IOException {
+        List<String> records = new ArrayList<>();
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader("LotID,Notes\r\n"
+                + "LOT-1,\"Crack, \"\"minor\"\"\"\r\nLOT-2,\"two\nlines\"\nLOT-3,\n"))) {
+            while (reader.next()) {
+                records.add(reader.getLineNumber() + ":" + reader.get(0) + "|" + reader.get(1));
+            }
+        }
+
+        assertEquals(List.of("1:LotID|Notes", "2:LOT-1|Crack, \"minor\"", "3:LOT-2|two\nlines",
+                "5:LOT-3|"), records,
+                "Expected quoted commas, doubled quotes and line breaks to stay inside fields");
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void next_shouldReadLastRecordWithoutTrailingNewline() throws IOException {
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader("a,b\n\nc,d"))) {
+            assertTrue(reader.next() && reader.next() && reader.isBlank(),
+                    "Expected an empty line to be read as a blank record");
+            assertTrue(reader.next() && "d".equals(reader.get(1)) && reader.get(2) == null,
+                    "Expected the final record to be returned and missing fields to read as null");
+            assertFalse(reader.next(), "Expected no record after the end of the input");
+        }
+    }
+
+    @Test
+    void next_shouldRejectUnterminatedQuotedField() throws IOException {
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader("a\n\"open"))) {
+            reader.next();
+
+            assertThrows(IllegalArgumentException.class, reader::next,
+                    "Expected an unterminated quote to be reported");
+        }
+    }
+
+    @Test
+    void normalizeHeader_shouldIgnoreCaseSeparatorsAndByteOrderMark() {
+        assertEquals("lotid", CsvRecordReader.normalizeHeader("\uFEFFLot_ID "),
+                "Expected header names to be compared by letters and digits only");
+    }
+}
@@ -0,0 +1,46 @@
+package com.steelworks.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.steelworks.util.LotIdNormalizer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for LotIdCache. AC2: Normalized lot identifiers resolve to one lot id, or are flagged
+ * as ambiguous.
+ */
+class LotIdCacheTest {
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void get_shouldResolveEveryKeyAfterGrowing() {
+        LotIdCache cache = new LotIdCache(new LotIdNormalizer(), 1);
+        for (long id = 1; id <= 5000; id++) {
+            cache.put("LOT-" + id, id);
+        }
+
+        boolean allResolved = cache.size() == 5000;
+        for (long id = 1; id <= 5000; id++) {
+            allResolved &= cache.get("lot " + id) == id;
+        }
+        assertTrue(allResolved,
+                "Expected every spelling to resolve to its lot as the table grows");
+        assertEquals(LotIdCache.MISSING, cache.get("LOT5001"),
+                "Expected an unknown key to be reported as missing");
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void put_shouldMarkSharedKeyAmbiguous() {
+        LotIdCache cache = new LotIdCache(new LotIdNormalizer(), 4);
+        cache.put("LOT-100", 10L);
+
+        String existing = cache.put("lot 100", 11L);
+
+        assertEquals("LOT-100", existing,
+                "Expected the lot already holding the key to be returned");
+        assertEquals(LotIdCache.AMBIGUOUS, cache.get("LOT100"),
+                "Expected a key shared by two lots to resolve to neither");
+    }
+}
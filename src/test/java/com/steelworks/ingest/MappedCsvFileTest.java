@@ -0,0 +1,119 @@
+package com.steelworks.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for MappedCsvFile and MappedCsvRecordReader. AC9: Segments keep the source line each
+ * record starts on.
+ */
+class MappedCsvFileTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings({"PMD.JUnitTestContainsTooManyAsserts", "PMD.DataflowAnomalyAnalysis"})
+    void segments_shouldSplitOnRecordBoundariesOutsideQuotes() throws IOException {
+        StringBuilder csv = new StringBuilder("LotID,Notes\r\n");
+        for (int i = 0; i < 40; i++) {
+            csv.append("LOT-").append(i).append(i % 3 == 0 ? ",\"a,\nb \"\"c\"\"\"\r\n" : ",x\r\n");
+        }
+        Path file = write(csv.toString());
+
+        List<String> records = new ArrayList<>();
+        try (MappedCsvFile mapped = MappedCsvFile.open(file)) {
+            List<MappedCsvFile.Segment> segments = mapped.segments(8, executor);
+            assertTrue(segments.size() > 1, "Expected a small file to be split into many segments");
+            for (MappedCsvFile.Segment segment : segments) {
+                MappedCsvRecordReader reader = mapped.reader(segment);
+                while (reader.next()) {
+                    records.add(reader.getLineNumber() + ":" + reader.get(0) + "|" + reader.get(1));
+                }
+            }
+            assertEquals(List.of("LotID", "Notes"), mapped.getHeader(),
+                    "Expected the header row to be read separately from the data");
+        }
+
+        List<String> expected = new ArrayList<>();
+        long line = 2;
+        for (int i = 0; i < 40; i++) {
+            boolean quoted = i % 3 == 0;
+            expected.add(line + ":LOT-" + i + "|" + (quoted ? "a,\nb \"c\"" : "x"));
+            line += quoted ? 2 : 1;
+        }
+        assertEquals(expected, records,
+                "Expected every record once, in order, with the line it starts on");
+    }
+
+    @Test
+    @SuppressWarnings({"PMD.JUnitTestContainsTooManyAsserts", "PMD.DataflowAnomalyAnalysis"})
+    void reader_shouldDecodeTypedFieldsFromBytes() throws IOException {
+        Path file = write("Date,Units,Flag,Shift,Name\n"
+                + " 2026-02-01 ,42,yes,n,Über\n"
+                + "2/3/26,,0,Swing,\n");
+
+        try (MappedCsvFile mapped = MappedCsvFile.open(file)) {
+            MappedCsvRecordReader reader = mapped.reader(mapped.segments(1, executor).get(0));
+
+            assertTrue(reader.next(), "Expected the first data record");
+            assertEquals(LocalDate.of(2026, 2, 1), reader.date(0, "Date"),
+                    "Expected ISO dates to be decoded with surrounding spaces trimmed");
+            assertEquals(42, reader.nonNegativeInt(1, "Units"), "Expected digits to be decoded");
+            assertTrue(reader.flag(2, "Flag"), "Expected yes to read as true");
+            assertEquals("Night", reader.shift(3, "Shift"), "Expected N to read as Night");
+            assertEquals("Über", reader.get(4), "Expected text to be decoded as UTF-8");
+
+            assertTrue(reader.next(), "Expected the second data record");
+            assertEquals(LocalDate.of(2026, 2, 3), reader.date(0, "Date"),
+                    "Expected M/D/YY dates to be decoded");
+            assertEquals(7, reader.nonNegativeInt(1, "Units", 7),
+                    "Expected a blank number to take the default");
+            assertFalse(reader.flag(2, "Flag"), "Expected 0 to read as false");
+            assertNull(reader.optional(4), "Expected a blank field to be optional");
+            assertFalse(reader.next(), "Expected the end of the segment");
+        }
+    }
+
+    @Test
+    void segments_shouldBeEmptyForHeaderOnlyFile() throws IOException {
+        try (MappedCsvFile mapped = MappedCsvFile.open(write("LotID,Notes\n"))) {
+            assertTrue(mapped.segments(4, executor).isEmpty(),
+                    "Expected no segments when the file has no data rows");
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("export.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
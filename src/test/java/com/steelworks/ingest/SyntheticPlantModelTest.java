@@ -0,0 +1,96 @@
+package com.steelworks.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.steelworks.util.LotIdNormalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for SyntheticPlantModel. Generated plants are reproducible and contain orphaned lots
+ * (AC10) and lots produced on more than one line (AC11).
+ */
+class SyntheticPlantModelTest {
+
+    private static final int LOTS = 2000;
+    private static final SyntheticPlantSpec SPEC = new SyntheticPlantSpec(LOTS, 42L,
+            LocalDate.of(2026, 3, 31), 90, 3, 2);
+
+    private static SyntheticPlantModel model() {
+        long[] lineIds = {1, 2, 3, 4, 5, 6, 7, 8};
+        long[] defectTypeIds = {11, 12, 13, 14};
+        boolean[] critical = {true, false, false, false};
+        String[] names = {"Crack", "Lap", "Seam", "Scale"};
+        long[] customerIds = {21, 22, 23};
+        return new SyntheticPlantModel(SPEC, new SyntheticPlantModel.Reference(lineIds,
+                defectTypeIds, critical, names, customerIds), new LotIdNormalizer());
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void logs_shouldBeIdenticalInAnyOrder() {
+        SyntheticPlantModel model = model();
+        List<Object[]> forward = new ArrayList<>();
+        List<Object[]> shippingForward = new ArrayList<>();
+        for (int i = 0; i < LOTS; i++) {
+            model.logs(i, 1000L + i, forward, shippingForward);
+        }
+        List<Object[]> backward = new ArrayList<>();
+        List<Object[]> shippingBackward = new ArrayList<>();
+        SyntheticPlantModel other = model();
+        for (int i = LOTS - 1; i >= 0; i--) {
+            List<Object[]> production = new ArrayList<>();
+            other.logs(i, 1000L + i, production, shippingBackward);
+            backward.addAll(0, production);
+        }
+
+        assertEquals(forward.size(), backward.size(),
+                "Expected the same number of production rows whatever the order");
+        boolean same = true;
+        for (int i = 0; i < forward.size(); i++) {
+            same &= Arrays.equals(forward.get(i), backward.get(i));
+        }
+        assertTrue(same, "Expected every production row to be regenerated identically");
+        assertEquals(shippingForward.size(), shippingBackward.size(),
+                "Expected the same number of shipping rows whatever the order");
+        assertEquals(model.lot(7).lotIdentifier(), other.lot(7).lotIdentifier(),
+                "Expected lot identifiers to depend only on seed and index");
+    }
+
+    @Test
+    @SuppressWarnings({"PMD.JUnitTestContainsTooManyAsserts", "PMD.DataflowAnomalyAnalysis"})
+    void logs_shouldIncludeOrphanedAndMultiLineLots() {
+        SyntheticPlantModel model = model();
+        int orphans = 0;
+        int conflicts = 0;
+        Set<Object> bolNumbers = new HashSet<>();
+        int shipments = 0;
+        for (int i = 0; i < LOTS; i++) {
+            List<Object[]> production = new ArrayList<>();
+            List<Object[]> shipping = new ArrayList<>();
+            model.logs(i, i + 1L, production, shipping);
+            Set<Object> lines = new HashSet<>();
+            for (Object[] row : production) {
+                lines.add(row[2]);
+            }
+            orphans += production.isEmpty() ? 1 : 0;
+            conflicts += lines.size() > 1 ? 1 : 0;
+            for (Object[] row : shipping) {
+                bolNumbers.add(row[6]);
+                shipments++;
+            }
+        }
+
+        assertTrue(orphans > LOTS / 100 && orphans < LOTS / 20,
+                "Expected about 3% of lots without production logs, got " + orphans);
+        assertTrue(conflicts > LOTS / 200 && conflicts < LOTS / 25,
+                "Expected about 2% of lots on two lines, got " + conflicts);
+        assertEquals(shipments, bolNumbers.size(), "Expected every BOL number to be unique");
+    }
+}
@@ -2,11 +2,15 @@ package com.steelworks.integration;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.steelworks.metrics.SqlMetricsResponseAdvice;
 import com.steelworks.model.Customer;
 import com.steelworks.model.DefectType;
 import com.steelworks.model.Lot;
@@ -14,30 +18,39 @@ import com.steelworks.model.ProductionLine;
 import com.steelworks.model.ProductionLog;
 import com.steelworks.model.ShippingLog;
 import com.steelworks.repository.CustomerRepository;
+import com.steelworks.repository.DailyDefectRollupRepository;
 import com.steelworks.repository.DefectTypeRepository;
 import com.steelworks.repository.LotRepository;
 import com.steelworks.repository.ProductionLineRepository;
 import com.steelworks.repository.ProductionLogRepository;
 import com.steelworks.repository.ShippingLogRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.LocalDate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@Import(SqlStatementBudgetConfig.class)
 class ApiIntegrationTest {
 
     private static final String CONFLICT_LOT_IDENTIFIER = "LOT-900";
+    private static final String LINE_A = "Line-A";
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private DailyDefectRollupRepository dailyDefectRollupRepository;
+
     @Autowired
     private ShippingLogRepository shippingLogRepository;
 
@@ -56,8 +69,12 @@ class ApiIntegrationTest {
     @Autowired
     private ProductionLineRepository productionLineRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void cleanDatabase() {
+        dailyDefectRollupRepository.deleteAll();
         shippingLogRepository.deleteAll();
         productionLogRepository.deleteAll();
         lotRepository.deleteAll();
@@ -68,7 +85,7 @@ class ApiIntegrationTest {
 
     @Test
     void lotSearch_supportsFuzzyMatchAndCrossReferenceFields() throws Exception {
-        ProductionLine line = saveProductionLine("Line-A");
+        ProductionLine line = saveProductionLine(LINE_A);
         DefectType criticalDefect = saveDefectType("D-CRACK", "Crack", "Critical");
         Customer customer = saveCustomer("Acme Steel");
         Lot lot = saveLot("LOT-123", "PN-9");
@@ -85,9 +102,24 @@ class ApiIntegrationTest {
                 "Lot search response should include target lot");
     }
 
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void lotRepository_findsLotsByStoredNormalizedIdentifier() {
+        Lot lot = saveLot("lot 77-1", "PN-77");
+
+        assertEquals("LOT771", lot.getNormalizedIdentifier(),
+                "Expected the normalized identifier to be derived when the lot is saved");
+        assertEquals(1, lotRepository.findByNormalizedIdentifier("LOT771").size(),
+                "Expected an exact match on the normalized identifier");
+        assertEquals(1,
+                lotRepository.findByNormalizedIdentifierContainingOrderByNormalizedIdentifier("T77")
+                        .size(),
+                "Expected a substring match on the normalized identifier");
+    }
+
     @Test
     void dashboardSummary_returnsRankingsAndRiskAlerts() throws Exception {
-        ProductionLine line = saveProductionLine("Line-A");
+        ProductionLine line = saveProductionLine(LINE_A);
         DefectType criticalDefect = saveDefectType("D-BURR", "Burr", "Critical");
         Customer customer = saveCustomer("Acme Steel");
         Lot lot = saveLot("LOT-500", "PN-500");
@@ -98,15 +130,62 @@ class ApiIntegrationTest {
                 .perform(get("/api/dashboard/summary").param("timeGrouping", "WEEKLY"))
                 .andExpect(status().isOk()).andExpect(jsonPath("$.timeGrouping", is("WEEKLY")))
                 .andExpect(jsonPath("$.productionLineRankings", hasSize(1)))
-                .andExpect(jsonPath("$.shippingRiskAlerts", hasSize(1))).andReturn().getResponse()
-                .getContentAsString();
+                .andExpect(jsonPath("$.shippingRiskAlerts", hasSize(1)))
+                .andExpect(header().exists(SqlMetricsResponseAdvice.STATEMENTS_HEADER))
+                .andExpect(header().exists(SqlMetricsResponseAdvice.ROWS_HEADER)).andReturn()
+                .getResponse().getContentAsString();
         assertTrue(responseBody.contains("WEEKLY"),
                 "Dashboard response should contain selected time grouping");
     }
 
+    @Test
+    void defectTrends_countsDefectsPerMonthForEachLine() throws Exception {
+        ProductionLine line = saveProductionLine(LINE_A);
+        DefectType defect = saveDefectType("D-SEAM", "Seam", "Major");
+        Lot lot = saveLot("LOT-600", "PN-600");
+        saveProductionLog(lot, line, defect, LocalDate.of(2025, 11, 3), true);
+        saveProductionLog(lot, line, defect, LocalDate.of(2026, 1, 20), true);
+
+        String responseBody = mockMvc.perform(get("/api/dashboard/trends")
+                .param("startDate", "2025-10-15").param("endDate", "2026-01-31")
+                .param("timeGrouping", "MONTHLY"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.bucketStarts", hasSize(4)))
+                .andExpect(jsonPath("$.bucketStarts[0]", is("2025-10-01")))
+                .andExpect(jsonPath("$.series", hasSize(1)))
+                .andExpect(jsonPath("$.series[0].lineName", is(LINE_A)))
+                .andExpect(jsonPath("$.series[0].counts[1]", is(1)))
+                .andExpect(jsonPath("$.series[0].counts[3]", is(1)))
+                .andExpect(jsonPath("$.series[0].total", is(2))).andReturn().getResponse()
+                .getContentAsString();
+        assertTrue(responseBody.contains("MONTHLY"),
+                "Defect trends response should contain selected time grouping");
+    }
+
+    @Test
+    void controlCharts_reportDefectRatePerUnitForEachLineAndShift() throws Exception {
+        ProductionLine line = saveProductionLine(LINE_A);
+        DefectType defect = saveDefectType("D-SEAM", "Seam", "Major");
+        Lot lot = saveLot("LOT-700", "PN-700");
+        saveProductionLog(lot, line, defect, LocalDate.of(2026, 1, 19), false);
+        saveProductionLog(lot, line, defect, LocalDate.of(2026, 1, 20), true);
+
+        String responseBody = mockMvc.perform(get("/api/dashboard/control-charts")
+                .param("startDate", "2026-01-01").param("endDate", "2026-01-31"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].lineName", is(LINE_A)))
+                .andExpect(jsonPath("$[0].shift", is("Day")))
+                .andExpect(jsonPath("$[0].chartType", is("U")))
+                .andExpect(jsonPath("$[0].points", hasSize(2)))
+                .andExpect(jsonPath("$[0].points[1].sampleSize", is(95)))
+                .andExpect(jsonPath("$[0].points[1].defects", is(1))).andReturn().getResponse()
+                .getContentAsString();
+        assertTrue(responseBody.contains("upperControlLimit"),
+                "Control chart response should contain the control limits of each point");
+    }
+
     @Test
     void conflictAndOrphanEndpoints_flagExpectedLots() throws Exception {
-        ProductionLine lineA = saveProductionLine("Line-A");
+        ProductionLine lineA = saveProductionLine(LINE_A);
         ProductionLine lineB = saveProductionLine("Line-B");
         DefectType defect = saveDefectType("D-PIT", "Pitting", "Major");
         Lot conflictLot = saveLot(CONFLICT_LOT_IDENTIFIER, "PN-900");
@@ -127,6 +206,23 @@ class ApiIntegrationTest {
                 "Conflict endpoint should return the conflicting lot");
     }
 
+    @Test
+    void consolidatedView_reportsSqlStatisticsInHeadersAndMeters() throws Exception {
+        Lot lot = saveLot("LOT-800", "PN-800");
+        saveProductionLog(lot, saveProductionLine("Line-C"), saveDefectType("D-DENT", "Dent",
+                "Minor"), LocalDate.now().minusDays(1), true);
+
+        mockMvc.perform(get("/api/lots/{id}/consolidated", lot.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlMetricsResponseAdvice.STATEMENTS_HEADER, not("0")))
+                .andExpect(header().string(SqlMetricsResponseAdvice.ROWS_HEADER, not("0")));
+
+        DistributionSummary statements = meterRegistry.find("steelworks.sql.statements")
+                .tag("uri", "/api/lots/{id}/consolidated").summary();
+        assertTrue(statements != null && statements.totalAmount() > 0,
+                "Expected the request's statements to be recorded under its URI pattern");
+    }
+
     private ProductionLine saveProductionLine(String lineName) {
         ProductionLine line = new ProductionLine();
         line.setLineName(lineName);
@@ -0,0 +1,45 @@
+package com.steelworks.integration;
+
+import com.steelworks.metrics.SqlMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Fails any API request that issues more SQL statements than
+ * {@code steelworks.test.max-sql-statements-per-request}, so an N+1 query pattern on a read path
+ * breaks the integration tests instead of surfacing under production data volumes.
+ *
+ * <p>
+ * Reads the request's {@link SqlMetrics} recording, which includes statements run on the dashboard
+ * section executor and through {@code JdbcTemplate}. Statements run by a streaming response body
+ * after the handler returns are not checked.
+ */
+@TestConfiguration
+class SqlStatementBudgetConfig {
+
+    @Bean
+    OncePerRequestFilter sqlStatementBudgetFilter(
+            @Value("${steelworks.test.max-sql-statements-per-request}") int budget) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request,
+                    HttpServletResponse response, FilterChain filterChain)
+                    throws ServletException, IOException {
+                filterChain.doFilter(request, response);
+                SqlMetrics.Recording recording = SqlMetrics.current();
+                if (recording != null && recording.getStatements() > budget) {
+                    throw new IllegalStateException(request.getMethod() + " "
+                            + request.getRequestURI() + " issued " + recording.getStatements()
+                            + " SQL statements, more than the budget of " + budget);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.steelworks.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Unit tests for InstrumentedDataSource and SqlMetrics. Per-request SQL statistics make N+1 query
+ * patterns visible.
+ */
+@ExtendWith(MockitoExtension.class)
+class InstrumentedDataSourceTest {
+
+    private static final String QUERY = "SELECT id FROM lots";
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Test
+    @SuppressWarnings({"PMD.JUnitTestContainsTooManyAsserts", "PMD.DataflowAnomalyAnalysis"})
+    void getConnection_shouldCountStatementsAndRowsOfTheBoundRecording() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(QUERY)).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        InstrumentedDataSource instrumented = new InstrumentedDataSource(dataSource);
+
+        SqlMetrics.Recording recording = SqlMetrics.start();
+        try (Connection wrapped = instrumented.getConnection();
+                PreparedStatement prepared = wrapped.prepareStatement(QUERY);
+                ResultSet rows = prepared.executeQuery()) {
+            while (rows.next()) {
+                rows.getLong(1);
+            }
+        } finally {
+            SqlMetrics.unbind(recording);
+        }
+
+        assertEquals(1, recording.getStatements(), "Expected one executed statement");
+        assertEquals(3, recording.getRows(), "Expected every row read to be counted");
+    }
+
+    @Test
+    void getConnection_shouldReturnPlainConnectionOutsideARequest() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        try (Connection plain = new InstrumentedDataSource(dataSource).getConnection()) {
+            assertSame(connection, plain,
+                    "Expected ingestion and other unrecorded work to run on unwrapped connections");
+        }
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void propagate_shouldCountWorkOnOtherThreadsTowardsTheRequest() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        SqlMetrics.Recording recording = SqlMetrics.start();
+        try {
+            CompletableFuture.runAsync(
+                    SqlMetrics.propagate(() -> SqlMetrics.current().recordStatement(5L)),
+                    executor).join();
+            boolean workerUnbound = CompletableFuture
+                    .supplyAsync(() -> SqlMetrics.current() == null, executor).join();
+
+            assertEquals(1, recording.getStatements(),
+                    "Expected the worker's statement in the request's recording");
+            assertEquals(5L, recording.getDatabaseNanos(),
+                    "Expected the worker's statement time in the request's recording");
+            assertTrue(workerUnbound, "Expected the worker thread to be unbound afterwards");
+        } finally {
+            SqlMetrics.unbind(recording);
+            executor.shutdownNow();
+        }
+    }
+}
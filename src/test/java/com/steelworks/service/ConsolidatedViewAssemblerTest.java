@@ -0,0 +1,87 @@
+package com.steelworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.steelworks.dto.ConsolidatedLotView;
+import com.steelworks.repository.LotRepository;
+import com.steelworks.repository.ProductionLogRepository;
+import com.steelworks.repository.ShippingLogRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Unit tests for ConsolidatedViewAssembler. AC1: Cross-referencing data sources for many lots at
+ * once. AC9: Source transparency.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConsolidatedViewAssemblerTest {
+
+    private static final List<Long> LOT_IDS = List.of(2L, 1L, 3L);
+    private static final LocalDate FEB_1 = LocalDate.of(2026, 2, 1);
+
+    @Mock
+    private LotRepository lotRepository;
+
+    @Mock
+    private ProductionLogRepository productionLogRepository;
+
+    @Mock
+    private ShippingLogRepository shippingLogRepository;
+
+    @InjectMocks
+    private ConsolidatedViewAssembler consolidatedViewAssembler;
+
+    @Test
+    void assemble_shouldBuildViewsFromSetBasedQueriesInRequestOrder() {
+        when(lotRepository.findConsolidatedColumnsForLotIds(LOT_IDS))
+                .thenReturn(rows(new Object[]{1L, "LOT-100", "PN-100", FEB_1},
+                        new Object[]{2L, "LOT-200", "PN-200", FEB_1}));
+        when(productionLogRepository.findProductionTotalsForLotIds(LOT_IDS))
+                .thenReturn(rows(new Object[]{1L, 200L, 190L, 15L, 1}));
+        when(productionLogRepository.findLineNamesForLotIds(LOT_IDS)).thenReturn(
+                rows(new Object[]{1L, "Line-B"}, new Object[]{1L, "Line-A"}));
+        when(productionLogRepository.findDefectSourcesForLotIds(LOT_IDS)).thenReturn(rows(
+                new Object[]{1L, "prod_feb.csv", "Crack"}, new Object[]{1L, null, null}));
+        when(shippingLogRepository.findConsolidatedShippingForLotIds(LOT_IDS)).thenReturn(rows(
+                new Object[]{1L, FEB_1, "Acme", "ship_feb.csv"},
+                new Object[]{1L, FEB_1.plusDays(3), "Globex", "ship_feb.csv"}));
+
+        List<ConsolidatedLotView> views = new ArrayList<>();
+        long assembled = consolidatedViewAssembler.assemble(LOT_IDS, views::addAll);
+        ConsolidatedLotView empty = views.get(0);
+        ConsolidatedLotView full = views.get(1);
+
+        boolean assembledAsSingleView = assembled == 2 && views.size() == 2
+                && Long.valueOf(2L).equals(empty.getLotId())
+                && empty.getAssociatedProductionLines().isEmpty()
+                && empty.getTotalUnitsPlanned() == 0 && !empty.isHasIssueFlag()
+                && "In Inventory".equals(empty.getShippingStatus())
+                && "db:production_logs".equals(empty.getProductionSourceFile())
+                && "db:shipping_logs".equals(empty.getShippingSourceFile())
+                && "db:production_logs#quality".equals(empty.getQualitySourceFile())
+                && "LOT-100".equals(full.getLotIdentifier())
+                && List.of("Line-A", "Line-B").equals(full.getAssociatedProductionLines())
+                && full.getTotalUnitsPlanned() == 200 && full.getTotalUnitsActual() == 190
+                && full.getTotalDowntimeMinutes() == 15 && full.isHasIssueFlag()
+                && List.of("Crack").equals(full.getDefectsFound())
+                && "Shipped".equals(full.getShippingStatus())
+                && FEB_1.plusDays(3).equals(full.getShipDate())
+                && "Globex".equals(full.getCustomerName())
+                && "db:production_logs, prod_feb.csv".equals(full.getProductionSourceFile())
+                && "prod_feb.csv#quality".equals(full.getQualitySourceFile())
+                && "ship_feb.csv".equals(full.getShippingSourceFile());
+        assertTrue(assembledAsSingleView,
+                "Expected views in request order, deleted lots skipped, and the latest shipment");
+    }
+
+    private List<Object[]> rows(Object[]... rows) {
+        return List.of(rows);
+    }
+}
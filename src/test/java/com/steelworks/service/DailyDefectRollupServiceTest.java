@@ -0,0 +1,166 @@
+package com.steelworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.steelworks.event.ProductionDataChangedEvent;
+import com.steelworks.model.ProductionLog;
+import com.steelworks.model.ShippingLog;
+import com.steelworks.repository.DailyDefectRollupRepository;
+import com.steelworks.repository.ProductionLogRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for DailyDefectRollupService. AC5/AC7: The rollup is refreshed per changed day.
+ */
+@ExtendWith(MockitoExtension.class)
+class DailyDefectRollupServiceTest {
+
+    private static final LocalDate FEB_1 = LocalDate.of(2026, 2, 1);
+    private static final LocalDate FEB_2 = LocalDate.of(2026, 2, 2);
+    private static final LocalDate FEB_20 = LocalDate.of(2026, 2, 20);
+    private static final long TRAILING_ID_WINDOW = 5L;
+
+    @Mock
+    private DailyDefectRollupRepository dailyDefectRollupRepository;
+
+    @Mock
+    private ProductionLogRepository productionLogRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DailyDefectRollupService dailyDefectRollupService;
+
+    @BeforeEach
+    void setUp() {
+        dailyDefectRollupService = new DailyDefectRollupService(dailyDefectRollupRepository,
+                productionLogRepository, transactionManager, TRAILING_ID_WINDOW);
+    }
+
+    @Test
+    void ensureUpToDate_shouldRebuildEveryDayOnTheFirstRefresh() {
+        when(productionLogRepository.findIdWindowStatistics(0L))
+                .thenReturn(rows(new Object[]{12L, 12L}));
+        when(productionLogRepository.findProductionDatesForIdRange(0L, 12L))
+                .thenReturn(List.of(FEB_20, FEB_1));
+
+        dailyDefectRollupService.ensureUpToDate();
+
+        verify(dailyDefectRollupRepository).deleteAllInBatch();
+        verify(dailyDefectRollupRepository).insertRollupsForDates(List.of(FEB_1, FEB_20));
+    }
+
+    @Test
+    void ensureUpToDate_shouldRebuildOnlyDaysWithNewLogs() {
+        startUp();
+        // Logs 6 to 10 of FEB_1 and the new logs 11 and 12 of FEB_20.
+        when(productionLogRepository.findIdWindowStatistics(5L))
+                .thenReturn(rows(new Object[]{7L, 12L}));
+        when(productionLogRepository.findProductionDatesForIdRange(5L, 12L))
+                .thenReturn(List.of(FEB_1, FEB_20));
+        when(dailyDefectRollupRepository.sumLogCountsForDates(List.of(FEB_1, FEB_20)))
+                .thenReturn(rows(new Object[]{FEB_1, 10L, 10L}));
+        when(productionLogRepository.countLogsForProductionDates(List.of(FEB_1, FEB_20)))
+                .thenReturn(rows(new Object[]{FEB_1, 10L, 10L}, new Object[]{FEB_20, 2L, 12L}));
+
+        dailyDefectRollupService.ensureUpToDate();
+
+        verify(dailyDefectRollupRepository, times(1)).deleteByRollupDates(List.of(FEB_20));
+        verify(dailyDefectRollupRepository, times(1)).insertRollupsForDates(List.of(FEB_20));
+        verify(dailyDefectRollupRepository, times(1)).deleteAllInBatch();
+    }
+
+    @Test
+    void ensureUpToDate_shouldRebuildDaysOfLogsCommittedBelowTheHighWaterMark() {
+        startUp();
+        List<Object[]> rolledUp = rows(new Object[]{FEB_1, 10L, 10L});
+        when(productionLogRepository.findIdWindowStatistics(5L))
+                .thenReturn(rows(new Object[]{5L, 10L}), rows(new Object[]{5L, 10L}),
+                        rows(new Object[]{6L, 10L}));
+        when(productionLogRepository.findProductionDatesForIdRange(5L, 10L))
+                .thenReturn(List.of(FEB_1), List.of(FEB_1, FEB_2));
+        when(dailyDefectRollupRepository.sumLogCountsForDates(List.of(FEB_1)))
+                .thenReturn(rolledUp);
+        when(productionLogRepository.countLogsForProductionDates(List.of(FEB_1)))
+                .thenReturn(rolledUp);
+        // Log 9 of FEB_2 was allocated before log 10 but commits after the first refresh.
+        when(dailyDefectRollupRepository.sumLogCountsForDates(List.of(FEB_1, FEB_2)))
+                .thenReturn(rolledUp);
+        when(productionLogRepository.countLogsForProductionDates(List.of(FEB_1, FEB_2)))
+                .thenReturn(rows(new Object[]{FEB_1, 10L, 10L}, new Object[]{FEB_2, 1L, 9L}));
+
+        dailyDefectRollupService.ensureUpToDate();
+        dailyDefectRollupService.ensureUpToDate();
+        dailyDefectRollupService.ensureUpToDate();
+
+        verify(productionLogRepository, times(2)).findProductionDatesForIdRange(5L, 10L);
+        verify(dailyDefectRollupRepository, times(1)).insertRollupsForDates(List.of(FEB_2));
+        verify(dailyDefectRollupRepository, times(1)).insertRollupsForDates(List.of(FEB_1));
+    }
+
+    @Test
+    void onProductionDataChanged_shouldRebuildEveryDayTouchedByAnUpdate() {
+        startUp();
+
+        dailyDefectRollupService.onProductionDataChanged(
+                new ProductionDataChangedEvent(ProductionLog.class, Set.of(FEB_20, FEB_2)));
+        dailyDefectRollupService.ensureUpToDate();
+
+        verify(dailyDefectRollupRepository).deleteByRollupDates(List.of(FEB_2, FEB_20));
+        verify(dailyDefectRollupRepository).insertRollupsForDates(List.of(FEB_2, FEB_20));
+    }
+
+    @Test
+    void onProductionDataChanged_shouldIgnoreShippingLogChanges() {
+        startUp();
+
+        dailyDefectRollupService.onProductionDataChanged(
+                new ProductionDataChangedEvent(ShippingLog.class, Set.of(FEB_2)));
+        dailyDefectRollupService.ensureUpToDate();
+
+        verify(dailyDefectRollupRepository, never()).deleteByRollupDates(List.of(FEB_2));
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void changesSince_shouldReturnDaysRebuiltAfterTheGivenGeneration() {
+        startUp();
+        DailyDefectRollupService.Changes first = dailyDefectRollupService.changesSince(-1);
+
+        dailyDefectRollupService.markDirty(List.of(FEB_2));
+        dailyDefectRollupService.ensureUpToDate();
+        DailyDefectRollupService.Changes second = dailyDefectRollupService
+                .changesSince(first.generation());
+
+        assertEquals(Set.of(FEB_1), first.dates(), "Expected the days of the first rebuild");
+        assertEquals(Set.of(FEB_2), second.dates(), "Expected only the day rebuilt since");
+        assertEquals(Set.of(), dailyDefectRollupService.changesSince(second.generation()).dates(),
+                "Expected no days when nothing was rebuilt since");
+    }
+
+    /** Runs the first refresh over production logs 1 to 10, all produced on FEB_1. */
+    private void startUp() {
+        when(productionLogRepository.findIdWindowStatistics(0L))
+                .thenReturn(rows(new Object[]{10L, 10L}));
+        when(productionLogRepository.findProductionDatesForIdRange(0L, 10L))
+                .thenReturn(List.of(FEB_1));
+        dailyDefectRollupService.ensureUpToDate();
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
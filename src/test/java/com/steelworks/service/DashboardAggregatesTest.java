@@ -0,0 +1,260 @@
+package com.steelworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.steelworks.dto.DefectTrendDTO;
+import com.steelworks.dto.ProductionLineRankingDTO;
+import com.steelworks.dto.ShippingRiskAlertDTO;
+import com.steelworks.event.ProductionDataChangedEvent;
+import com.steelworks.model.ShippingLog;
+import com.steelworks.repository.DailyDefectRollupRepository;
+import com.steelworks.repository.ProductionLogRepository;
+import com.steelworks.repository.ShippingLogRepository;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Unit tests for DashboardAggregates. AC5/AC6/AC7: Dashboard sections are served from memory and
+ * only the changed days and lots are reloaded.
+ */
+@ExtendWith(MockitoExtension.class)
+class DashboardAggregatesTest {
+
+    private static final LocalDate MAR_1 = LocalDate.of(2026, 3, 1);
+    private static final LocalDate MAR_2 = LocalDate.of(2026, 3, 2);
+    private static final LocalDate MAR_3 = LocalDate.of(2026, 3, 3);
+    private static final LocalDate MAR_14 = LocalDate.of(2026, 3, 14);
+    private static final String CRACK = "Crack";
+    private static final String LINE_A = "Line-A";
+    private static final String LOT_1 = "LOT-1";
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(5);
+    private static final Duration FULL_RELOAD_INTERVAL = Duration.ofMinutes(10);
+    private static final int READER_COUNT = 4;
+
+    @Mock
+    private DailyDefectRollupService dailyDefectRollupService;
+
+    @Mock
+    private DailyDefectRollupRepository dailyDefectRollupRepository;
+
+    @Mock
+    private ProductionLogRepository productionLogRepository;
+
+    @Mock
+    private ShippingLogRepository shippingLogRepository;
+
+    private final long[] now = {0};
+
+    private DashboardAggregates dashboardAggregates;
+
+    @BeforeEach
+    void setUp() {
+        dashboardAggregates = new DashboardAggregates(dailyDefectRollupService,
+                dailyDefectRollupRepository, productionLogRepository, shippingLogRepository,
+                POLL_INTERVAL, FULL_RELOAD_INTERVAL, () -> now[0]);
+        when(dailyDefectRollupService.changesSince(-1))
+                .thenReturn(new DailyDefectRollupService.Changes(1, Set.of()));
+    }
+
+    @Test
+    void rankProductionLinesByDefects_shouldSumIssuesPerLineWithinTheRange() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{MAR_1, LINE_A, CRACK, 2L});
+        rows.add(new Object[]{MAR_2, LINE_A, null, 1L});
+        rows.add(new Object[]{MAR_2, "Line-B", CRACK, 4L});
+        rows.add(new Object[]{MAR_14, LINE_A, CRACK, 9L});
+        when(dailyDefectRollupRepository.sumIssuesPerDay()).thenReturn(rows);
+
+        List<ProductionLineRankingDTO> rankings = dashboardAggregates
+                .rankProductionLinesByDefects(MAR_1, MAR_3);
+
+        boolean ranked = List.of("Line-B", LINE_A)
+                .equals(rankings.stream().map(ProductionLineRankingDTO::getLineName).toList())
+                && rankings.get(1).getTotalDefects() == 3;
+        assertTrue(ranked, "Expected lines ranked by issues within the range, counting issues "
+                + "without a defect type towards the line");
+    }
+
+    @Test
+    void computeDefectTrends_shouldCompareLastSevenDaysWithThePreviousSeven() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{MAR_1, LINE_A, CRACK, 2L});
+        rows.add(new Object[]{MAR_14, LINE_A, CRACK, 5L});
+        when(dailyDefectRollupRepository.sumIssuesPerDay()).thenReturn(rows);
+
+        DefectTrendDTO trend = dashboardAggregates.computeDefectTrends(MAR_14).get(0);
+
+        boolean compared = trend.getCurrentPeriodCount() == 5
+                && trend.getPreviousPeriodCount() == 2
+                && trend.getTrendDirection() == DefectTrendDTO.TrendDirection.INCREASING;
+        assertTrue(compared, "Expected Mar 8-14 in the current period, Mar 1-7 in the previous "
+                + "one and INCREASING when the current period has more defects");
+    }
+
+    @Test
+    void getProblematicShippedBatches_shouldServeSnapshotWithoutQueriesUntilPollIntervalElapses() {
+        when(shippingLogRepository.findMaxId()).thenReturn(10L, 12L);
+        when(shippingLogRepository.findCriticalShippedAlertRows())
+                .thenReturn(alertRows(alertRow(1L, MAR_1)));
+        when(dailyDefectRollupService.changesSince(1))
+                .thenReturn(new DailyDefectRollupService.Changes(1, Set.of()));
+        when(shippingLogRepository.findShipDatesForIdRange(10L, 12L)).thenReturn(List.of(MAR_3));
+        when(shippingLogRepository.findLotIdsForShipDates(List.of(MAR_3)))
+                .thenReturn(List.of(4L));
+        when(shippingLogRepository.findCriticalShippedAlertRowsForLotIds(List.of(4L)))
+                .thenReturn(alertRows(alertRow(4L, MAR_3)));
+
+        dashboardAggregates.getProblematicShippedBatches();
+        dashboardAggregates.getProblematicShippedBatches();
+        verify(dailyDefectRollupService, times(1)).ensureUpToDate();
+
+        now[0] += POLL_INTERVAL.toNanos();
+        List<ShippingRiskAlertDTO> alerts = dashboardAggregates.getProblematicShippedBatches();
+
+        assertEquals(List.of("LOT-4", LOT_1),
+                alerts.stream().map(ShippingRiskAlertDTO::getLotIdentifier).toList(),
+                "Expected a lot shipped outside JPA to be found by the id high-water mark");
+        verify(shippingLogRepository, times(1)).findCriticalShippedAlertRows();
+    }
+
+    @Test
+    void getProblematicShippedBatches_shouldReloadEverythingAfterTheFullReloadInterval() {
+        // Lot 1's shipment is set back to pending in the database, below the id high-water mark.
+        when(shippingLogRepository.findCriticalShippedAlertRows())
+                .thenReturn(alertRows(alertRow(1L, MAR_1)), alertRows());
+        when(dailyDefectRollupService.changesSince(1))
+                .thenReturn(new DailyDefectRollupService.Changes(1, Set.of()));
+
+        dashboardAggregates.getProblematicShippedBatches();
+        now[0] += FULL_RELOAD_INTERVAL.toNanos();
+
+        assertEquals(List.of(), dashboardAggregates.getProblematicShippedBatches(),
+                "Expected a change made outside JPA to show up after the full reload");
+    }
+
+    @Test
+    void onProductionDataChanged_shouldRecheckOnlyLotsShippedOnChangedDays() {
+        when(shippingLogRepository.findCriticalShippedAlertRows())
+                .thenReturn(alertRows(alertRow(1L, MAR_1), alertRow(2L, MAR_2)));
+        when(dailyDefectRollupService.changesSince(1))
+                .thenReturn(new DailyDefectRollupService.Changes(1, Set.of()));
+        when(shippingLogRepository.findLotIdsForShipDates(List.of(MAR_2)))
+                .thenReturn(List.of(3L));
+        when(shippingLogRepository.findCriticalShippedAlertRowsForLotIds(List.of(2L, 3L)))
+                .thenReturn(alertRows(alertRow(3L, MAR_2)));
+
+        dashboardAggregates.getProblematicShippedBatches();
+        dashboardAggregates.onProductionDataChanged(
+                new ProductionDataChangedEvent(ShippingLog.class, Set.of(MAR_2)));
+        List<ShippingRiskAlertDTO> alerts = dashboardAggregates.getProblematicShippedBatches();
+
+        verify(dailyDefectRollupRepository, never()).sumIssuesPerDayForDates(any());
+        boolean rechecked = List.of("LOT-3", LOT_1)
+                .equals(alerts.stream().map(ShippingRiskAlertDTO::getLotIdentifier).toList())
+                && alerts.stream().allMatch(alert -> CRACK.equals(alert.getDefectName()));
+        assertTrue(rechecked, "Expected lot 2 dropped and lot 3 added, lot 1 kept as is, with "
+                + "the alert rows' defect names");
+    }
+
+    @Test
+    void getProblematicShippedBatches_shouldMakeReadersWaitForTheFirstRefresh() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(shippingLogRepository.findCriticalShippedAlertRows()).thenAnswer(invocation -> {
+            loading.countDown();
+            return release.await(5, TimeUnit.SECONDS) ? alertRows(alertRow(1L, MAR_1))
+                    : alertRows();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(READER_COUNT + 1);
+        boolean started;
+        boolean waited;
+        List<List<String>> results = new ArrayList<>();
+        try {
+            List<Future<List<ShippingRiskAlertDTO>>> readers = new ArrayList<>();
+            readers.add(executor.submit(dashboardAggregates::getProblematicShippedBatches));
+            started = loading.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < READER_COUNT; i++) {
+                readers.add(executor.submit(dashboardAggregates::getProblematicShippedBatches));
+            }
+
+            waited = stillWaiting(readers.get(READER_COUNT));
+            release.countDown();
+            for (Future<List<ShippingRiskAlertDTO>> reader : readers) {
+                results.add(reader.get(5, TimeUnit.SECONDS).stream()
+                        .map(ShippingRiskAlertDTO::getLotIdentifier).toList());
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        verify(shippingLogRepository, times(1)).findCriticalShippedAlertRows();
+        assertTrue(started && waited
+                && results.equals(Collections.nCopies(READER_COUNT + 1, List.of(LOT_1))),
+                "Expected readers to wait for the first refresh instead of returning the empty "
+                        + "initial snapshot, then all to get the loaded alerts");
+    }
+
+    @Test
+    void onProductionDataChanged_shouldFoldInWriteRecordedDuringRefresh() {
+        when(shippingLogRepository.findCriticalShippedAlertRows()).thenAnswer(invocation -> {
+            dashboardAggregates.onProductionDataChanged(
+                    new ProductionDataChangedEvent(ShippingLog.class, Set.of(MAR_2)));
+            return alertRows(alertRow(1L, MAR_1));
+        });
+        when(dailyDefectRollupService.changesSince(1))
+                .thenReturn(new DailyDefectRollupService.Changes(1, Set.of()));
+        when(shippingLogRepository.findLotIdsForShipDates(List.of(MAR_2)))
+                .thenReturn(List.of(2L));
+        when(shippingLogRepository.findCriticalShippedAlertRowsForLotIds(List.of(2L)))
+                .thenReturn(alertRows(alertRow(2L, MAR_2)));
+
+        int firstRead = dashboardAggregates.getProblematicShippedBatches().size();
+        List<ShippingRiskAlertDTO> alerts = dashboardAggregates.getProblematicShippedBatches();
+
+        assertTrue(firstRead == 1 && List.of("LOT-2", LOT_1)
+                .equals(alerts.stream().map(ShippingRiskAlertDTO::getLotIdentifier).toList()),
+                "Expected the first read to return the loaded alerts and the write recorded "
+                        + "during it to be folded in next");
+    }
+
+    /** Whether the reader is still blocked after a short wait. */
+    private static boolean stillWaiting(Future<?> reader) throws Exception {
+        try {
+            reader.get(200, TimeUnit.MILLISECONDS);
+            return false;
+        } catch (TimeoutException expected) {
+            return true;
+        }
+    }
+
+    /** (lot id, production log id, production date, lot, defect, severity, ship date, ...). */
+    private static Object[] alertRow(long lotId, LocalDate shipDate) {
+        return new Object[]{lotId, lotId * 10, shipDate.minusDays(1), "LOT-" + lotId, CRACK,
+            "Critical", shipDate, "Acme", LINE_A};
+    }
+
+    private static List<Object[]> alertRows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
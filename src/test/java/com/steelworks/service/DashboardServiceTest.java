@@ -1,64 +1,170 @@
 package com.steelworks.service;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.steelworks.dto.ControlChartDTO;
+import com.steelworks.dto.DashboardSummaryDTO;
+import com.steelworks.dto.DefectTrendDTO;
+import com.steelworks.dto.ProductionLineRankingDTO;
+import com.steelworks.dto.ShippingRiskAlertDTO;
+import com.steelworks.enums.ControlChartType;
+import com.steelworks.enums.TimeGrouping;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 /**
- * Unit tests for DashboardService. AC5: Production line rankings included. AC6: Shipping risk
- * alerts included. AC7: Defect trends included. AC8: Time grouping defaults to WEEKLY.
+ * Unit tests for DashboardService. AC5: Production line rankings and control charts included. AC6:
+ * Shipping risk alerts included. AC7: Defect trends included. AC8: Time grouping defaults to
+ * WEEKLY.
  */
 @ExtendWith(MockitoExtension.class)
 class DashboardServiceTest {
 
-    private static final String TODO_MESSAGE = "TODO: add assertions";
-
     @Mock
-    private DefectAnalysisService defectAnalysisService;
+    private DashboardAggregates dashboardAggregates;
 
     @Mock
-    private ShippingStatusService shippingStatusService;
+    private SpcService spcService;
 
-    @InjectMocks
     private DashboardService dashboardService;
 
+    @BeforeEach
+    void setUp() {
+        DashboardSummaryCache cache = new DashboardSummaryCache(Duration.ofMinutes(1), 8, false,
+                Duration.ZERO, System::nanoTime, Runnable::run);
+        dashboardService = new DashboardService(dashboardAggregates, spcService, cache,
+                Runnable::run, Duration.ofSeconds(5));
+    }
+
     @Test
     void getDashboardSummary_shouldDefaultToWeeklyWhenNullTimeGrouping() {
-        // TODO: AC8 - Verify WEEKLY is used when null is passed
-        assertNotNull(dashboardService, TODO_MESSAGE);
+        LocalDate today = LocalDate.now();
+
+        DashboardSummaryDTO summary = dashboardService.getDashboardSummary(null);
+
+        verify(dashboardAggregates).rankProductionLinesByDefects(today.minusDays(6), today);
+        assertSame(TimeGrouping.WEEKLY, summary.getTimeGrouping(),
+                "Expected WEEKLY grouping when none is given");
     }
 
     @Test
     void getDashboardSummary_shouldIncludeProductionLineRankings() {
-        // TODO: AC5 - Verify rankings are populated in the summary
-        assertNotNull(dashboardService, TODO_MESSAGE);
+        ProductionLineRankingDTO ranking = new ProductionLineRankingDTO();
+        ranking.setLineName("Line-A");
+        when(dashboardAggregates.rankProductionLinesByDefects(any(), any()))
+                .thenReturn(List.of(ranking));
+
+        DashboardSummaryDTO summary = dashboardService.getDashboardSummary(TimeGrouping.WEEKLY);
+
+        assertTrue(summary.getProductionLineRankings().equals(List.of(ranking)),
+                "Expected rankings from DashboardAggregates in the summary");
     }
 
     @Test
     void getDashboardSummary_shouldIncludeShippingRiskAlerts() {
-        // TODO: AC6 - Verify shipping risk alerts are populated
-        assertNotNull(dashboardService, TODO_MESSAGE);
+        ShippingRiskAlertDTO alert = new ShippingRiskAlertDTO();
+        alert.setLotIdentifier("LOT-100");
+        when(dashboardAggregates.getProblematicShippedBatches()).thenReturn(List.of(alert));
+
+        DashboardSummaryDTO summary = dashboardService.getDashboardSummary(TimeGrouping.WEEKLY);
+
+        assertTrue(summary.getShippingRiskAlerts().equals(List.of(alert)),
+                "Expected shipping risk alerts from DashboardAggregates in the summary");
     }
 
     @Test
     void getDashboardSummary_shouldIncludeDefectTrends() {
-        // TODO: AC7 - Verify defect trends are populated
-        assertNotNull(dashboardService, TODO_MESSAGE);
+        DefectTrendDTO trend = new DefectTrendDTO();
+        trend.setDefectName("Crack");
+        when(dashboardAggregates.computeDefectTrends(LocalDate.now())).thenReturn(List.of(trend));
+
+        DashboardSummaryDTO summary = dashboardService.getDashboardSummary(TimeGrouping.WEEKLY);
+
+        assertTrue(summary.getDefectTrends().equals(List.of(trend)),
+                "Expected defect trends anchored on today in the summary");
+    }
+
+    @Test
+    void getDashboardSummary_shouldIncludeUnitControlChartsForThePeriod() {
+        LocalDate today = LocalDate.now();
+        ControlChartDTO chart = new ControlChartDTO();
+        chart.setLineName("Line-A");
+        when(spcService.getControlCharts(ControlChartType.U, today.minusDays(6), today))
+                .thenReturn(List.of(chart));
+
+        DashboardSummaryDTO summary = dashboardService.getDashboardSummary(TimeGrouping.WEEKLY);
+
+        assertTrue(summary.getControlCharts().equals(List.of(chart)),
+                "Expected U charts over the week from SpcService in the summary");
     }
 
     @Test
     void getDashboardSummary_shouldRespectDailyTimeGrouping() {
-        // TODO: AC8 - Verify DAILY grouping changes the date range correctly
-        assertNotNull(dashboardService, TODO_MESSAGE);
+        LocalDate today = LocalDate.now();
+
+        dashboardService.getDashboardSummary(TimeGrouping.DAILY);
+
+        verify(dashboardAggregates).rankProductionLinesByDefects(today, today);
     }
 
     @Test
     void getDashboardSummary_shouldRespectMonthlyTimeGrouping() {
-        // TODO: AC8 - Verify MONTHLY grouping changes the date range correctly
-        assertNotNull(dashboardService, TODO_MESSAGE);
+        LocalDate today = LocalDate.now();
+
+        dashboardService.getDashboardSummary(TimeGrouping.MONTHLY);
+
+        verify(dashboardAggregates).rankProductionLinesByDefects(today.minusDays(29), today);
+    }
+
+    @Test
+    void getDashboardSummary_shouldServeRepeatedRequestsFromCacheUntilInvalidated() {
+        dashboardService.getDashboardSummary(TimeGrouping.WEEKLY);
+        dashboardService.getDashboardSummary(TimeGrouping.WEEKLY);
+        verify(dashboardAggregates, times(1)).getProblematicShippedBatches();
+
+        dashboardService.invalidateSummaries();
+        dashboardService.getDashboardSummary(TimeGrouping.WEEKLY);
+        verify(dashboardAggregates, times(2)).getProblematicShippedBatches();
+    }
+
+    @Test
+    void getDashboardSummary_shouldReturnPartialSummaryWhenSectionFails() {
+        when(dashboardAggregates.getProblematicShippedBatches())
+                .thenThrow(new IllegalStateException("database unavailable"));
+
+        DashboardSummaryDTO summary = dashboardService.getDashboardSummary(TimeGrouping.WEEKLY);
+        dashboardService.getDashboardSummary(TimeGrouping.WEEKLY);
+
+        boolean partial = summary.getShippingRiskAlerts().isEmpty()
+                && summary.getProductionLineRankings() != null
+                && List.of("shippingRiskAlerts").equals(summary.getDegradedSections());
+        assertTrue(partial, "Expected the failed section to be empty and listed as degraded");
+        verify(dashboardAggregates, times(2)).getProblematicShippedBatches();
+    }
+
+    @Test
+    void getDashboardSummary_shouldFallBackWhenSectionsTimeOut() {
+        DashboardSummaryCache cache = new DashboardSummaryCache(Duration.ofMinutes(1), 8, false,
+                Duration.ZERO, System::nanoTime, Runnable::run);
+        DashboardService stalledService = new DashboardService(dashboardAggregates, spcService,
+                cache, runnable -> {
+                }, Duration.ofMillis(10));
+
+        DashboardSummaryDTO summary = stalledService.getDashboardSummary(TimeGrouping.DAILY);
+
+        assertEquals(4, summary.getDegradedSections().size(),
+                "Expected every section that misses its timeout to be reported as degraded");
     }
 }
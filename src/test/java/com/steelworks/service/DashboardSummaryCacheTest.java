@@ -0,0 +1,119 @@
+package com.steelworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.steelworks.dto.DashboardSummaryDTO;
+import com.steelworks.enums.TimeGrouping;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for DashboardSummaryCache. AC5/AC6/AC7: Dashboard summaries are reused until they
+ * expire or production data changes.
+ */
+class DashboardSummaryCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 2, 20);
+    private static final Duration TTL = Duration.ofSeconds(60);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger computations = new AtomicInteger();
+    private final List<Runnable> scheduledRefreshes = new ArrayList<>();
+
+    @Test
+    void get_shouldRecomputeOnlyAfterTtlExpires() {
+        DashboardSummaryCache cache = cache(false, 8);
+
+        DashboardSummaryDTO first = cache.get(TimeGrouping.WEEKLY, TODAY, loader());
+        clock.addAndGet(TTL.toNanos() - 1);
+        DashboardSummaryDTO cached = cache.get(TimeGrouping.WEEKLY, TODAY, loader());
+        clock.addAndGet(1);
+        DashboardSummaryDTO recomputed = cache.get(TimeGrouping.WEEKLY, TODAY, loader());
+
+        boolean recomputedOnceAfterTtl = first.equals(cached) && !first.equals(recomputed)
+                && computations.get() == 2;
+        assertTrue(recomputedOnceAfterTtl,
+                "Expected the cached summary to be reused until the TTL elapses, then recomputed");
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsedKeyWhenFull() {
+        DashboardSummaryCache cache = cache(false, 2);
+
+        cache.get(TimeGrouping.DAILY, TODAY, loader());
+        cache.get(TimeGrouping.WEEKLY, TODAY, loader());
+        cache.get(TimeGrouping.DAILY, TODAY, loader());
+        cache.get(TimeGrouping.MONTHLY, TODAY, loader());
+        cache.get(TimeGrouping.DAILY, TODAY, loader());
+        cache.get(TimeGrouping.WEEKLY, TODAY, loader());
+
+        assertEquals(4, computations.get(),
+                "Expected only the least recently used key to be evicted and recomputed");
+    }
+
+    @Test
+    void get_shouldServeStaleSummaryWhileRefreshingInBackground() {
+        DashboardSummaryCache cache = cache(true, 8);
+
+        DashboardSummaryDTO first = cache.get(TimeGrouping.WEEKLY, TODAY, loader());
+        clock.addAndGet(TTL.toNanos());
+        DashboardSummaryDTO stale = cache.get(TimeGrouping.WEEKLY, TODAY, loader());
+        DashboardSummaryDTO stillStale = cache.get(TimeGrouping.WEEKLY, TODAY, loader());
+        boolean staleServedWhileRefreshPending = first.equals(stale) && first.equals(stillStale)
+                && scheduledRefreshes.size() == 1;
+
+        scheduledRefreshes.get(0).run();
+        DashboardSummaryDTO refreshed = cache.get(TimeGrouping.WEEKLY, TODAY, loader());
+
+        boolean refreshedInBackground = staleServedWhileRefreshPending && !first.equals(refreshed)
+                && computations.get() == 2;
+        assertTrue(refreshedInBackground,
+                "Expected the stale summary until a single background refresh replaced it");
+    }
+
+    @Test
+    void invalidateAll_shouldDropEntriesWhenStaleWhileRevalidateIsOff() {
+        DashboardSummaryCache cache = cache(false, 8);
+
+        DashboardSummaryDTO first = cache.get(TimeGrouping.WEEKLY, TODAY, loader());
+        cache.invalidateAll();
+        DashboardSummaryDTO recomputed = cache.get(TimeGrouping.WEEKLY, TODAY, loader());
+
+        boolean recomputedAfterInvalidation = !first.equals(recomputed) && computations.get() == 2;
+        assertTrue(recomputedAfterInvalidation,
+                "Expected invalidation to drop the summary and force a synchronous recomputation");
+    }
+
+    @Test
+    void invalidateAll_shouldNotStoreResultsOfLoadsStartedBeforeIt() {
+        DashboardSummaryCache cache = cache(false, 8);
+
+        cache.get(TimeGrouping.WEEKLY, TODAY, () -> {
+            cache.invalidateAll();
+            return new DashboardSummaryDTO();
+        });
+        cache.get(TimeGrouping.WEEKLY, TODAY, loader());
+
+        assertEquals(1, computations.get(),
+                "Expected a summary computed across an invalidation to be discarded");
+    }
+
+    private DashboardSummaryCache cache(boolean staleWhileRevalidate, int maxEntries) {
+        return new DashboardSummaryCache(TTL, maxEntries, staleWhileRevalidate,
+                Duration.ofMinutes(5), clock::get, scheduledRefreshes::add);
+    }
+
+    private Supplier<DashboardSummaryDTO> loader() {
+        return () -> {
+            computations.incrementAndGet();
+            return new DashboardSummaryDTO();
+        };
+    }
+}
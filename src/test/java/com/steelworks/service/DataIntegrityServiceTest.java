@@ -1,9 +1,13 @@
 package com.steelworks.service;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
 
-import com.steelworks.repository.LotRepository;
+import com.steelworks.dto.DataConflictDTO;
 import com.steelworks.repository.ProductionLogRepository;
+import com.steelworks.repository.ShippingLogRepository;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -16,38 +20,62 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class DataIntegrityServiceTest {
 
-    private static final String TODO_MESSAGE = "TODO: add assertions";
-
     @Mock
-    private LotRepository lotRepository;
+    private ProductionLogRepository productionLogRepository;
 
     @Mock
-    private ProductionLogRepository productionLogRepository;
+    private ShippingLogRepository shippingLogRepository;
 
     @InjectMocks
     private DataIntegrityService dataIntegrityService;
 
     @Test
     void getSourceReference_shouldReturnSourceFileForProductionRecord() {
-        // TODO: AC9 - Verify source file path is returned for a production record
-        assertNotNull(dataIntegrityService, TODO_MESSAGE);
+        List<Object[]> location = List.<Object[]>of(new Object[]{"production_feb.csv", 42});
+        when(productionLogRepository.findSourceLocationById(7L)).thenReturn(location);
+
+        boolean ingestedRowTraced = "production_feb.csv:42"
+                .equals(dataIntegrityService.getSourceReference("production", 7L))
+                && "production_feb.csv:42#quality"
+                        .equals(dataIntegrityService.getSourceReference("Quality", 7L));
+        assertTrue(ingestedRowTraced,
+                "Expected ingested production and quality data to point at their file and line");
     }
 
     @Test
     void getSourceReference_shouldReturnSourceFileForShippingRecord() {
-        // TODO: AC9 - Verify source file path is returned for a shipping record
-        assertNotNull(dataIntegrityService, TODO_MESSAGE);
+        List<Object[]> enteredInApp = List.<Object[]>of(new Object[]{null, null});
+        when(shippingLogRepository.findSourceLocationById(3L)).thenReturn(enteredInApp);
+
+        assertEquals("db:shipping_logs/3", dataIntegrityService.getSourceReference("shipping", 3L),
+                "Expected rows without a source file to fall back to their table reference");
     }
 
     @Test
     void detectDataConflicts_shouldFlagLotWithMultipleProductionLines() {
-        // TODO: AC11 - Verify a lot mapped to 2+ production lines is flagged
-        assertNotNull(dataIntegrityService, TODO_MESSAGE);
+        List<Object[]> rows = List.of(new Object[]{"LOT-100", "Line-B"},
+                new Object[]{"LOT-100", "Line-A"}, new Object[]{"LOT-200", "Line-C"},
+                new Object[]{"LOT-200", "Line-D"});
+        when(productionLogRepository.findConflictingLotLineNames()).thenReturn(rows);
+
+        List<DataConflictDTO> conflicts = dataIntegrityService.detectDataConflicts();
+
+        boolean conflictsGroupedByLot = conflicts.size() == 2
+                && "LOT-100".equals(conflicts.get(0).getLotIdentifier())
+                && List.of("Line-A", "Line-B")
+                        .equals(conflicts.get(0).getConflictingProductionLines())
+                && "LOT-200".equals(conflicts.get(1).getLotIdentifier())
+                && List.of("Line-C", "Line-D")
+                        .equals(conflicts.get(1).getConflictingProductionLines());
+        assertTrue(conflictsGroupedByLot,
+                "Expected one conflict per lot listing its production lines in name order");
     }
 
     @Test
     void detectDataConflicts_shouldReturnEmptyWhenNoConflicts() {
-        // TODO: AC11 - Verify empty list when all lots have a single production line
-        assertNotNull(dataIntegrityService, TODO_MESSAGE);
+        when(productionLogRepository.findConflictingLotLineNames()).thenReturn(List.of());
+
+        assertTrue(dataIntegrityService.detectDataConflicts().isEmpty(),
+                "Expected no conflicts when every lot has a single production line");
     }
 }
@@ -1,8 +1,12 @@
 package com.steelworks.service;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -11,27 +15,26 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
 import com.steelworks.dto.ConsolidatedLotView;
+import com.steelworks.dto.ConsolidatedViewRequest;
+import com.steelworks.dto.LotSearchPage;
 import com.steelworks.dto.LotSearchRequest;
 import com.steelworks.dto.LotSearchResult;
 import com.steelworks.dto.OrphanedRecordDTO;
-import com.steelworks.enums.ShipStatus;
-import com.steelworks.model.Customer;
-import com.steelworks.model.DefectType;
 import com.steelworks.model.Lot;
-import com.steelworks.model.ProductionLine;
-import com.steelworks.model.ProductionLog;
-import com.steelworks.model.ShippingLog;
 import com.steelworks.repository.LotRepository;
 import com.steelworks.repository.ProductionLogRepository;
 import com.steelworks.repository.ShippingLogRepository;
 import com.steelworks.util.LotIdNormalizer;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.LoggerFactory;
 
@@ -43,9 +46,11 @@ import org.slf4j.LoggerFactory;
 class LotLookupServiceTest {
 
     private static final String LOT_100 = "LOT-100";
+    private static final String LOT_200 = "LOT-200";
+    private static final String LOT_300 = "LOT-300";
     private static final String PN_100 = "PN-100";
     private static final String LINE_A = "Line-A";
-    private static final String DEFECT_CRACK = "Crack";
+    private static final Duration FULL_SCAN_INTERVAL = Duration.ofMinutes(10);
 
     @Mock
     private LotRepository lotRepository;
@@ -57,33 +62,44 @@ class LotLookupServiceTest {
     private ShippingLogRepository shippingLogRepository;
 
     @Mock
-    private LotIdNormalizer lotIdNormalizer;
+    private LotSearchIndex lotSearchIndex;
+
+    @Mock
+    private LotSearchResultAssembler lotSearchResultAssembler;
+
+    @Mock
+    private ConsolidatedViewAssembler consolidatedViewAssembler;
+
+    @Spy
+    private LotIdNormalizer lotIdNormalizer = new LotIdNormalizer();
+
+    private final AtomicLong nanoTime = new AtomicLong();
 
-    @InjectMocks
     private LotLookupService lotLookupService;
 
+    @BeforeEach
+    void setUp() {
+        lotLookupService = new LotLookupService(lotRepository, productionLogRepository,
+                shippingLogRepository, lotSearchIndex, lotSearchResultAssembler,
+                consolidatedViewAssembler, lotIdNormalizer, FULL_SCAN_INTERVAL, nanoTime::get);
+    }
+
     @Test
-    void searchLots_shouldReturnCrossReferencedResults() {
-        Lot lot = createLot(1L, LOT_100, PN_100, LocalDate.of(2026, 2, 20));
-        ProductionLog productionLog = createProductionLog(LINE_A, DEFECT_CRACK, "critical", true,
-                100, 95, 10);
-        ShippingLog shippingLog = createShippingLog(LocalDate.of(2026, 2, 22), "Acme");
-        when(lotRepository.findAll()).thenReturn(List.of(lot));
-        when(productionLogRepository.findByLotId(1L)).thenReturn(List.of(productionLog));
-        when(shippingLogRepository.findByLotId(1L)).thenReturn(List.of(shippingLog));
+    void searchLots_shouldReturnAssembledResultsSortedByLotIdentifier() {
+        Lot laterLot = createLot(2L, LOT_200, "PN-200", LocalDate.of(2026, 2, 20));
+        Lot earlierLot = createLot(1L, LOT_100, PN_100, LocalDate.of(2026, 2, 20));
+        when(lotSearchIndex.search(null, null, null))
+                .thenReturn(List.of(indexed(laterLot), indexed(earlierLot)));
+        when(lotSearchResultAssembler.assemble(List.of(2L, 1L)))
+                .thenReturn(List.of(result(laterLot), result(earlierLot)));
 
         List<LotSearchResult> results = lotLookupService.searchLots(new LotSearchRequest());
-        LotSearchResult result = results.isEmpty() ? null : results.get(0);
-
-        boolean hasExpectedCrossReference = results.size() == 1 && result != null
-                && LOT_100.equals(result.getLotIdentifier())
-                && LINE_A.equals(result.getProductionLineName())
-                && ShipStatus.SHIPPED == result.getShippingStatus()
-                && DEFECT_CRACK.equals(result.getDefectName())
-                && "CRITICAL".equals(result.getDefectSeverity()) && !result.isHasDataConflict()
-                && "db:lots/1".equals(result.getSourceReference());
-        assertTrue(hasExpectedCrossReference,
-                "Expected search to return one cross-referenced result with production, defect, and shipping fields");
+
+        boolean sortedByIdentifier = results.size() == 2
+                && LOT_100.equals(results.get(0).getLotIdentifier())
+                && LOT_200.equals(results.get(1).getLotIdentifier());
+        assertTrue(sortedByIdentifier,
+                "Expected search to return assembled results ordered by lot identifier");
     }
 
     @Test
@@ -91,28 +107,25 @@ class LotLookupServiceTest {
         Lot lot = createLot(1L, LOT_100, PN_100, LocalDate.of(2026, 2, 20));
         LotSearchRequest request = new LotSearchRequest();
         request.setLotId("lot100");
-        when(lotRepository.findAll()).thenReturn(List.of(lot));
-        when(lotIdNormalizer.normalize("lot100")).thenReturn("LOT100");
-        when(lotIdNormalizer.normalize(LOT_100)).thenReturn("NON_MATCHING");
-        when(lotIdNormalizer.areEquivalent(LOT_100, "LOT100")).thenReturn(true);
-        when(productionLogRepository.findByLotId(1L)).thenReturn(List.of());
-        when(shippingLogRepository.findByLotId(1L)).thenReturn(List.of());
+        when(lotSearchIndex.search("lot100", null, null)).thenReturn(List.of(indexed(lot)));
+        when(lotSearchResultAssembler.assemble(List.of(1L))).thenReturn(List.of(result(lot)));
 
         List<LotSearchResult> results = lotLookupService.searchLots(request);
-        verify(lotIdNormalizer).areEquivalent(LOT_100, "LOT100");
+        verify(lotSearchIndex).search("lot100", null, null);
 
         boolean fuzzyMatchingWorked = results.size() == 1;
         assertTrue(fuzzyMatchingWorked,
-                "Expected fuzzy search to include lot when LotIdNormalizer reports equivalence");
+                "Expected fuzzy search to include lot when the search index reports a match");
     }
 
     @Test
     void searchLots_shouldFilterByDateRange() {
-        Lot lot = createLot(1L, LOT_100, PN_100, LocalDate.of(2026, 1, 1));
         LotSearchRequest request = new LotSearchRequest();
         request.setStartDate(LocalDate.of(2026, 2, 1));
         request.setEndDate(LocalDate.of(2026, 3, 1));
-        when(lotRepository.findAll()).thenReturn(List.of(lot));
+        when(lotSearchIndex.search(null, LocalDate.of(2026, 2, 1), LocalDate.of(2026, 3, 1)))
+                .thenReturn(List.of());
+        when(lotSearchResultAssembler.assemble(List.of())).thenReturn(List.of());
 
         List<LotSearchResult> results = lotLookupService.searchLots(request);
         verify(productionLogRepository, never()).findByLotId(anyLong());
@@ -120,71 +133,54 @@ class LotLookupServiceTest {
 
         boolean dateFilterApplied = results.isEmpty();
         assertTrue(dateFilterApplied,
-                "Expected search to exclude lots created before start date and skip downstream lookups");
+                "Expected search to exclude lots outside the date range and skip downstream lookups");
     }
 
     @Test
-    void getConsolidatedView_shouldJoinAllThreeDataSources() {
-        Lot lot = createLot(1L, LOT_100, PN_100, LocalDate.of(2026, 2, 20));
-        ProductionLog lineAProduction = createProductionLog(LINE_A, DEFECT_CRACK, "Critical", true,
-                100, 95, 10);
-        ProductionLog lineBProduction = createProductionLog("Line-B", "Pit", "Major", false, 80, 78,
-                5);
-        ShippingLog olderShipping = createShippingLog(LocalDate.of(2026, 2, 21), "Acme");
-        ShippingLog latestShipping = createShippingLog(LocalDate.of(2026, 2, 23), "Globex");
-        when(lotRepository.findById(1L)).thenReturn(Optional.of(lot));
-        when(productionLogRepository.findByLotId(1L))
-                .thenReturn(List.of(lineAProduction, lineBProduction));
-        when(shippingLogRepository.findByLotId(1L))
-                .thenReturn(List.of(olderShipping, latestShipping));
-
-        ConsolidatedLotView view = lotLookupService.getConsolidatedView(1L);
-
-        boolean viewIsConsolidated = LOT_100.equals(view.getLotIdentifier())
-                && PN_100.equals(view.getPartNumber())
-                && List.of(LINE_A, "Line-B").equals(view.getAssociatedProductionLines())
-                && Integer.valueOf(180).equals(view.getTotalUnitsPlanned())
-                && Integer.valueOf(173).equals(view.getTotalUnitsActual())
-                && Integer.valueOf(15).equals(view.getTotalDowntimeMinutes())
-                && List.of(DEFECT_CRACK, "Pit").equals(view.getDefectsFound())
-                && view.isHasIssueFlag() && "Shipped".equals(view.getShippingStatus())
-                && LocalDate.of(2026, 2, 23).equals(view.getShipDate())
-                && "Globex".equals(view.getCustomerName());
-        assertTrue(viewIsConsolidated,
-                "Expected consolidated view to merge production totals, defect list, and latest shipping details");
+    void searchLotsPage_shouldReturnRequestedPageAndNextCursor() {
+        Lot firstLot = createLot(1L, LOT_100, PN_100, LocalDate.of(2026, 2, 20));
+        Lot secondLot = createLot(2L, LOT_200, "PN-200", LocalDate.of(2026, 2, 20));
+        LotSearchRequest request = new LotSearchRequest();
+        request.setLimit(1);
+        when(lotSearchIndex.search(null, null, null, null, 2))
+                .thenReturn(List.of(indexed(firstLot), indexed(secondLot)));
+        when(lotSearchResultAssembler.assemble(List.of(1L))).thenReturn(List.of(result(firstLot)));
+
+        LotSearchPage page = lotLookupService.searchLotsPage(request);
+        LotSearchIndex.IndexedLot cursor = LotSearchIndex.decodeCursor(page.getNextCursor());
+
+        boolean pageIsBounded = page.getResults().size() == 1
+                && LOT_100.equals(page.getResults().get(0).getLotIdentifier()) && cursor != null
+                && cursor.lotId() == 1L && "LOT100".equals(cursor.normalizedIdentifier());
+        assertTrue(pageIsBounded,
+                "Expected page to hold one result and a cursor pointing after the last lot");
     }
 
     @Test
-    void getConsolidatedView_shouldIncludeSourceReferences() {
-        Lot lot = createLot(2L, "LOT-200", "PN-200", LocalDate.of(2026, 2, 20));
-        when(lotRepository.findById(2L)).thenReturn(Optional.of(lot));
-        when(productionLogRepository.findByLotId(2L)).thenReturn(List.of());
-        when(shippingLogRepository.findByLotId(2L)).thenReturn(List.of());
-
-        ConsolidatedLotView view = lotLookupService.getConsolidatedView(2L);
-
-        boolean hasExpectedSources = "In Inventory".equals(view.getShippingStatus())
-                && "db:production_logs".equals(view.getProductionSourceFile())
-                && "db:shipping_logs".equals(view.getShippingSourceFile())
-                && "db:production_logs#quality".equals(view.getQualitySourceFile());
-        assertTrue(hasExpectedSources,
-                "Expected consolidated view to include fixed production/shipping/quality source references");
+    void getConsolidatedView_shouldBuildSingleLotFromSetBasedAssembler() {
+        ConsolidatedLotView assembled = new ConsolidatedLotView();
+        assembled.setLotId(1L);
+        assembled.setLotIdentifier(LOT_100);
+        assembled.setAssociatedProductionLines(List.of(LINE_A));
+        assembled.setShippingStatus("Shipped");
+        when(consolidatedViewAssembler.assemble(eq(List.of(1L)), any())).thenAnswer(invocation -> {
+            Consumer<List<ConsolidatedLotView>> batchConsumer = invocation.getArgument(1);
+            batchConsumer.accept(List.of(assembled));
+            return 1L;
+        });
+
+        ConsolidatedLotView view = lotLookupService.getConsolidatedView(1L);
+        verify(productionLogRepository, never()).findByLotId(anyLong());
+        verify(shippingLogRepository, never()).findByLotId(anyLong());
+
+        assertSame(assembled, view,
+                "Expected the view assembled from flat projections without loading log entities");
     }
 
     @Test
     void findOrphanedRecords_shouldFlagLotsWithMissingSources() {
-        Lot completeLot = createLot(1L, LOT_100, PN_100, LocalDate.of(2026, 2, 20));
-        Lot orphanedLot = createLot(2L, "LOT-200", "PN-200", LocalDate.of(2026, 2, 20));
-        ProductionLog completeProduction = createProductionLog(LINE_A, DEFECT_CRACK, "Major", true,
-                100, 100, 0);
-        ProductionLog orphanedProduction = createProductionLog(LINE_A, null, null, false, 100, 100,
-                0);
-        when(lotRepository.findAll()).thenReturn(List.of(completeLot, orphanedLot));
-        when(productionLogRepository.findByLotId(1L)).thenReturn(List.of(completeProduction));
-        when(shippingLogRepository.findByLotId(1L))
-                .thenReturn(List.of(createShippingLog(LocalDate.of(2026, 2, 25), "Acme")));
-        when(productionLogRepository.findByLotId(2L)).thenReturn(List.of(orphanedProduction));
-        when(shippingLogRepository.findByLotId(2L)).thenReturn(List.of());
+        when(lotRepository.findOrphanedRecords())
+                .thenReturn(List.of(new OrphanedRecordDTO(LOT_200, true, false, false)));
 
         List<OrphanedRecordDTO> orphanedRecords = lotLookupService.findOrphanedRecords();
         OrphanedRecordDTO orphanedRecord = orphanedRecords.isEmpty()
@@ -192,7 +188,7 @@ class LotLookupServiceTest {
                 : orphanedRecords.get(0);
 
         boolean orphanIsFlagged = orphanedRecords.size() == 1 && orphanedRecord != null
-                && "LOT-200".equals(orphanedRecord.getLotIdentifier())
+                && LOT_200.equals(orphanedRecord.getLotIdentifier())
                 && orphanedRecord.isInProduction() && !orphanedRecord.isInShipping()
                 && !orphanedRecord.isInQuality()
                 && "Missing in shipping, quality.".equals(orphanedRecord.getReason());
@@ -202,10 +198,8 @@ class LotLookupServiceTest {
 
     @Test
     void findOrphanedRecords_shouldNotExcludeUnmatchedRecords() {
-        Lot lot = createLot(3L, "LOT-300", "PN-300", LocalDate.of(2026, 2, 20));
-        when(lotRepository.findAll()).thenReturn(List.of(lot));
-        when(productionLogRepository.findByLotId(3L)).thenReturn(List.of());
-        when(shippingLogRepository.findByLotId(3L)).thenReturn(List.of());
+        when(lotRepository.findOrphanedRecords())
+                .thenReturn(List.of(new OrphanedRecordDTO(LOT_300, false, false, false)));
 
         List<OrphanedRecordDTO> orphanedRecords = lotLookupService.findOrphanedRecords();
         OrphanedRecordDTO orphanedRecord = orphanedRecords.isEmpty()
@@ -213,7 +207,7 @@ class LotLookupServiceTest {
                 : orphanedRecords.get(0);
 
         boolean unmatchedRecordReturned = orphanedRecords.size() == 1 && orphanedRecord != null
-                && "LOT-300".equals(orphanedRecord.getLotIdentifier())
+                && LOT_300.equals(orphanedRecord.getLotIdentifier())
                 && !orphanedRecord.isInProduction() && !orphanedRecord.isInShipping()
                 && !orphanedRecord.isInQuality()
                 && "Missing in production, shipping, quality.".equals(orphanedRecord.getReason());
@@ -221,13 +215,65 @@ class LotLookupServiceTest {
                 "Expected fully unmatched lot to be returned instead of being silently excluded");
     }
 
+    @Test
+    void findOrphanedRecords_shouldOnlyReexamineTouchedLotsWhenIncremental() {
+        when(lotRepository.findMaxLotId()).thenReturn(3L);
+        when(productionLogRepository.findMaxId()).thenReturn(5L);
+        when(shippingLogRepository.findMaxId()).thenReturn(7L);
+        when(lotRepository.findOrphanedRecords())
+                .thenReturn(List.of(new OrphanedRecordDTO(LOT_200, true, false, false),
+                        new OrphanedRecordDTO(LOT_300, false, false, false)));
+        when(lotRepository.classifyLotsTouchedAfter(3L, 5L, 7L))
+                .thenReturn(List.of(new OrphanedRecordDTO(LOT_200, true, true, true),
+                        new OrphanedRecordDTO("LOT-400", true, true, false)));
+
+        lotLookupService.findOrphanedRecords(true);
+        List<OrphanedRecordDTO> orphanedRecords = lotLookupService.findOrphanedRecords(true);
+        verify(lotRepository, times(1)).findOrphanedRecords();
+
+        boolean onlyTouchedLotsChanged = orphanedRecords.size() == 2
+                && LOT_300.equals(orphanedRecords.get(0).getLotIdentifier())
+                && "LOT-400".equals(orphanedRecords.get(1).getLotIdentifier())
+                && "Missing in quality.".equals(orphanedRecords.get(1).getReason());
+        assertTrue(onlyTouchedLotsChanged,
+                "Expected incremental run to drop the completed lot and add the newly orphaned one");
+    }
+
+    @Test
+    void findOrphanedRecords_shouldRunFullScanWhenIncrementalBaselineIsTooOld() {
+        when(lotRepository.findOrphanedRecords())
+                .thenReturn(List.of(new OrphanedRecordDTO(LOT_100, true, false, false)))
+                .thenReturn(List.of());
+
+        lotLookupService.findOrphanedRecords(true);
+        nanoTime.addAndGet(FULL_SCAN_INTERVAL.toNanos());
+        List<OrphanedRecordDTO> orphanedRecords = lotLookupService.findOrphanedRecords(true);
+        verify(lotRepository, never()).classifyLotsTouchedAfter(anyLong(), anyLong(), anyLong());
+
+        assertTrue(orphanedRecords.isEmpty(),
+                "Expected a full scan to drop a lot completed below the high-water marks");
+    }
+
+    @Test
+    void resolveLotIds_shouldMergeIdsAndNormalizedIdentifiersInRequestOrder() {
+        when(lotRepository.findIdsByNormalizedIdentifiers(List.of("LOT100", "LOT300")))
+                .thenReturn(List.of(1L, 3L));
+        ConsolidatedViewRequest request = new ConsolidatedViewRequest();
+        request.setLotIds(List.of(2L, 1L));
+        request.setLotIdentifiers(List.of("lot 100", LOT_300, "Lot100", " "));
+
+        List<Long> lotIds = lotLookupService.resolveLotIds(request);
+
+        assertTrue(List.of(2L, 1L, 3L).equals(lotIds),
+                "Expected ids first, then lots found by normalized identifier, without repeats");
+    }
+
     @Test
     void getConsolidatedView_shouldLogWarningAndThrowWhenLotIsMissing() {
         Logger logger = (Logger) LoggerFactory.getLogger(LotLookupService.class);
         ListAppender<ILoggingEvent> listAppender = new ListAppender<>();
         listAppender.start();
         logger.addAppender(listAppender);
-        when(lotRepository.findById(99L)).thenReturn(Optional.empty());
 
         try {
             boolean threwExpectedException = throwsLotNotFoundFor(99L);
@@ -250,6 +296,18 @@ class LotLookupServiceTest {
         }
     }
 
+    private LotSearchIndex.IndexedLot indexed(Lot lot) {
+        return new LotSearchIndex.IndexedLot(lot.getId(), lot.getLotIdentifier(),
+                lot.getLotIdentifier().replace("-", ""), lot.getCreatedDate());
+    }
+
+    private LotSearchResult result(Lot lot) {
+        LotSearchResult result = new LotSearchResult();
+        result.setLotId(lot.getId());
+        result.setLotIdentifier(lot.getLotIdentifier());
+        return result;
+    }
+
     private Lot createLot(Long id, String lotIdentifier, String partNumber, LocalDate createdDate) {
         Lot lot = new Lot();
         lot.setId(id);
@@ -258,32 +316,4 @@ class LotLookupServiceTest {
         lot.setCreatedDate(createdDate);
         return lot;
     }
-
-    private ProductionLog createProductionLog(String lineName, String defectName, String severity,
-            boolean issueFlag, int unitsPlanned, int unitsActual, int downtimeMinutes) {
-        ProductionLog productionLog = new ProductionLog();
-        ProductionLine productionLine = new ProductionLine();
-        productionLine.setLineName(lineName);
-        productionLog.setProductionLine(productionLine);
-        if (defectName != null) {
-            DefectType defectType = new DefectType();
-            defectType.setDefectName(defectName);
-            defectType.setSeverity(severity);
-            productionLog.setDefectType(defectType);
-        }
-        productionLog.setIssueFlag(issueFlag);
-        productionLog.setUnitsPlanned(unitsPlanned);
-        productionLog.setUnitsActual(unitsActual);
-        productionLog.setDowntimeMinutes(downtimeMinutes);
-        return productionLog;
-    }
-
-    private ShippingLog createShippingLog(LocalDate shipDate, String customerName) {
-        ShippingLog shippingLog = new ShippingLog();
-        Customer customer = new Customer();
-        customer.setCustomerName(customerName);
-        shippingLog.setCustomer(customer);
-        shippingLog.setShipDate(shipDate);
-        return shippingLog;
-    }
 }
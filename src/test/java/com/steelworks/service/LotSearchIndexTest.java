@@ -0,0 +1,170 @@
+package com.steelworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.steelworks.repository.LotRepository;
+import com.steelworks.util.LotIdNormalizer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Unit tests for LotSearchIndex. AC2: Fuzzy substring matching on normalized lot identifiers with
+ * created-date pruning.
+ */
+@ExtendWith(MockitoExtension.class)
+class LotSearchIndexTest {
+
+    private static final LocalDate FEB_1 = LocalDate.of(2026, 2, 1);
+    private static final LocalDate FEB_15 = LocalDate.of(2026, 2, 15);
+    private static final LocalDate MAR_1 = LocalDate.of(2026, 3, 1);
+    private static final String LOT_100 = "LOT-100";
+    private static final Duration CHECK_INTERVAL = Duration.ofSeconds(30);
+
+    @Mock
+    private LotRepository lotRepository;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private LotSearchIndex lotSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        lotSearchIndex = new LotSearchIndex(lotRepository, new LotIdNormalizer(), CHECK_INTERVAL,
+                nanoTime::get);
+    }
+
+    @Test
+    void search_shouldMatchDifferentlyFormattedIdentifiers() {
+        givenLots(row(1L, LOT_100, FEB_1), row(2L, "LOT-200", FEB_1));
+
+        assertEquals(List.of(1L), lotIds(lotSearchIndex.search("lot 100", null, null)),
+                "Expected normalized query to match the dashed identifier");
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void search_shouldMatchSubstringsAndShortQueries() {
+        givenLots(row(1L, LOT_100, FEB_1), row(2L, "LOT-1001", FEB_1),
+                row(3L, "LOT-200", FEB_1));
+
+        assertEquals(List.of(1L, 2L), lotIds(lotSearchIndex.search("T-10", null, null)),
+                "Expected trigram lookup to return every identifier containing the query");
+        assertEquals(List.of(1L, 2L, 3L), lotIds(lotSearchIndex.search("0", null, null)),
+                "Expected queries shorter than a trigram to fall back to a scan");
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void search_shouldPruneByCreatedDate() {
+        givenLots(row(1L, LOT_100, FEB_1), row(2L, "LOT-101", FEB_15),
+                row(3L, "LOT-102", MAR_1));
+
+        assertEquals(List.of(2L), lotIds(lotSearchIndex.search(null, FEB_15, FEB_15)),
+                "Expected blank query to return only lots inside the date range");
+        assertEquals(List.of(2L, 3L), lotIds(lotSearchIndex.search("LOT10", FEB_15, null)),
+                "Expected trigram matches outside the date range to be dropped");
+    }
+
+    @Test
+    void search_shouldPageThroughDateRangeWiderThanThePage() {
+        givenLots(row(1L, LOT_100, FEB_15), row(2L, "LOT-101", FEB_1), row(3L, "LOT-102", FEB_15),
+                row(4L, "LOT-103", MAR_1), row(5L, "LOT-104", FEB_15));
+
+        List<LotSearchIndex.IndexedLot> firstPage = lotSearchIndex.search(null, FEB_15, FEB_15,
+                null, 2);
+        List<LotSearchIndex.IndexedLot> pages = new ArrayList<>(firstPage);
+        pages.addAll(lotSearchIndex.search(null, FEB_15, FEB_15, firstPage.get(1), 2));
+
+        assertEquals(List.of(1L, 3L, 5L), lotIds(pages),
+                "Expected pages of a blank date-range query to continue in index order");
+    }
+
+    @Test
+    void search_shouldAppendNewLotsWithoutFullReload() {
+        givenLots(row(1L, LOT_100, FEB_1));
+        lotSearchIndex.search(null, null, null);
+
+        List<Object[]> appended = new ArrayList<>();
+        appended.add(row(2L, "LOT-101", FEB_1));
+        when(lotRepository.findMaxLotId()).thenReturn(2L);
+        when(lotRepository.findIndexEntriesAfter(1L)).thenReturn(appended);
+
+        assertEquals(List.of(1L, 2L), lotIds(lotSearchIndex.search("lot10", null, null)),
+                "Expected newly created lot to be searchable after the incremental refresh");
+        verify(lotRepository, times(1)).findIndexEntriesAfter(0L);
+    }
+
+    @Test
+    void search_shouldReloadWhenLotCountDiffersAfterCheckInterval() {
+        givenLots(row(1L, LOT_100, FEB_1), row(3L, "LOT-108", FEB_1));
+        lotSearchIndex.search(null, null, null);
+
+        // Lot 2 commits after lot 3 was indexed, so the highest id does not change.
+        when(lotRepository.findIndexEntriesAfter(0L)).thenReturn(new ArrayList<>(List.of(
+                row(1L, LOT_100, FEB_1), row(2L, "LOT-107", FEB_1), row(3L, "LOT-108", FEB_1))));
+        List<Object[]> statistics = new ArrayList<>();
+        statistics.add(new Object[]{3L, 3L});
+        when(lotRepository.findIndexStatistics()).thenReturn(statistics);
+        nanoTime.addAndGet(CHECK_INTERVAL.toNanos());
+
+        assertEquals(List.of(1L, 2L, 3L), lotIds(lotSearchIndex.search("lot10", null, null)),
+                "Expected a lot committed below the highest indexed id after the count check");
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void suggest_shouldRankLotsByEditDistance() {
+        givenLots(row(1L, "LOT-1234", FEB_1), row(2L, "LOT-1243", FEB_1),
+                row(3L, "LOT-1299", FEB_1), row(4L, "LOT-9876", FEB_1));
+
+        List<LotSearchIndex.Suggestion> suggestions = lotSearchIndex.suggest("lot 1234", null,
+                null, 10);
+
+        assertEquals(List.of(1L, 2L, 3L), suggestions.stream()
+                .map(suggestion -> suggestion.lot().lotId()).toList(),
+                "Expected lots within two edits, closest first");
+        assertEquals(List.of(0, 1, 2),
+                suggestions.stream().map(LotSearchIndex.Suggestion::distance).toList(),
+                "Expected swapped neighbouring digits to count as one edit");
+    }
+
+    @Test
+    void suggest_shouldIncludeLotsCreatedAfterTheSnapshot() {
+        givenLots(row(1L, "LOT-5000", FEB_1));
+        lotSearchIndex.search(null, null, null);
+
+        List<Object[]> appended = new ArrayList<>();
+        appended.add(row(2L, "LOT-5001", FEB_15));
+        when(lotRepository.findMaxLotId()).thenReturn(2L);
+        when(lotRepository.findIndexEntriesAfter(1L)).thenReturn(appended);
+
+        assertEquals(List.of(2L), lotSearchIndex.suggest("LOT5010", FEB_15, null, 10).stream()
+                .map(suggestion -> suggestion.lot().lotId()).toList(),
+                "Expected a newly created lot to be suggested, with the date range applied");
+    }
+
+    private void givenLots(Object[]... rows) {
+        when(lotRepository.findMaxLotId()).thenReturn((Long) rows[rows.length - 1][0]);
+        when(lotRepository.findIndexEntriesAfter(0L)).thenReturn(new ArrayList<>(List.of(rows)));
+    }
+
+    private Object[] row(Long id, String lotIdentifier, LocalDate createdDate) {
+        return new Object[]{id, lotIdentifier, createdDate,
+                new LotIdNormalizer().normalize(lotIdentifier)};
+    }
+
+    private List<Long> lotIds(List<LotSearchIndex.IndexedLot> lots) {
+        return lots.stream().map(LotSearchIndex.IndexedLot::lotId).toList();
+    }
+}
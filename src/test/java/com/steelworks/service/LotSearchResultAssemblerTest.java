@@ -0,0 +1,90 @@
+package com.steelworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.steelworks.dto.LotSearchResult;
+import com.steelworks.enums.ShipStatus;
+import com.steelworks.repository.LotRepository;
+import com.steelworks.repository.ProductionLogRepository;
+import com.steelworks.repository.ShippingLogRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Unit tests for LotSearchResultAssembler. AC1: Cross-referencing data sources. AC3: Shipping
+ * status. AC11: Data conflict flag.
+ */
+@ExtendWith(MockitoExtension.class)
+class LotSearchResultAssemblerTest {
+
+    private static final List<Long> LOT_IDS = List.of(1L, 2L);
+
+    @Mock
+    private LotRepository lotRepository;
+
+    @Mock
+    private ProductionLogRepository productionLogRepository;
+
+    @Mock
+    private ShippingLogRepository shippingLogRepository;
+
+    @InjectMocks
+    private LotSearchResultAssembler lotSearchResultAssembler;
+
+    @Test
+    void assemble_shouldReturnCrossReferencedResults() {
+        when(lotRepository.findSearchColumnsForLotIds(LOT_IDS))
+                .thenReturn(rows(new Object[]{1L, "LOT-100", "PN-100"},
+                        new Object[]{2L, "LOT-200", "PN-200"}));
+        when(productionLogRepository.findLineNamesForLotIds(LOT_IDS))
+                .thenReturn(rows(new Object[]{1L, "Line-A"}, new Object[]{2L, "Line-B"},
+                        new Object[]{2L, "Line-A"}));
+        when(productionLogRepository.findRepresentativeDefectsForLotIds(LOT_IDS))
+                .thenReturn(rows(new Object[]{1L, "Crack", "critical"}));
+        when(shippingLogRepository.findLotIdsWithShippingLogs(LOT_IDS)).thenReturn(List.of(1L));
+
+        List<LotSearchResult> results = lotSearchResultAssembler.assemble(LOT_IDS);
+        LotSearchResult shipped = results.get(0);
+        LotSearchResult conflicted = results.get(1);
+
+        boolean hasExpectedCrossReference = results.size() == 2
+                && "LOT-100".equals(shipped.getLotIdentifier())
+                && "Line-A".equals(shipped.getProductionLineName())
+                && ShipStatus.SHIPPED == shipped.getShippingStatus()
+                && "Crack".equals(shipped.getDefectName())
+                && "CRITICAL".equals(shipped.getDefectSeverity()) && !shipped.isHasDataConflict()
+                && "db:lots/1".equals(shipped.getSourceReference())
+                && "Line-A, Line-B".equals(conflicted.getProductionLineName())
+                && ShipStatus.IN_INVENTORY == conflicted.getShippingStatus()
+                && conflicted.getDefectName() == null && conflicted.isHasDataConflict();
+        assertTrue(hasExpectedCrossReference,
+                "Expected assembler to merge line, defect, shipping, and conflict data per lot");
+    }
+
+    @Test
+    void assemble_shouldSkipLotsThatNoLongerExist() {
+        when(lotRepository.findSearchColumnsForLotIds(LOT_IDS))
+                .thenReturn(rows(new Object[]{2L, "LOT-200", "PN-200"}));
+        when(productionLogRepository.findLineNamesForLotIds(LOT_IDS)).thenReturn(List.of());
+        when(productionLogRepository.findRepresentativeDefectsForLotIds(LOT_IDS))
+                .thenReturn(List.of());
+        when(shippingLogRepository.findLotIdsWithShippingLogs(LOT_IDS)).thenReturn(List.of());
+
+        List<LotSearchResult> results = lotSearchResultAssembler.assemble(LOT_IDS);
+
+        boolean onlyExistingLotReturned = results.size() == 1
+                && "LOT-200".equals(results.get(0).getLotIdentifier())
+                && results.get(0).getProductionLineName() == null;
+        assertTrue(onlyExistingLotReturned,
+                "Expected deleted lots to be skipped and lots without logs to have no line name");
+    }
+
+    private List<Object[]> rows(Object[]... rows) {
+        return List.of(rows);
+    }
+}
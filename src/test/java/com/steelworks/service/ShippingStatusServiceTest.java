@@ -1,9 +1,13 @@
 package com.steelworks.service;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
 
-import com.steelworks.repository.ProductionLogRepository;
+import com.steelworks.dto.ShippingRiskAlertDTO;
 import com.steelworks.repository.ShippingLogRepository;
+import java.time.LocalDate;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -17,13 +21,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 class ShippingStatusServiceTest {
 
     private static final String TODO_MESSAGE = "TODO: add assertions";
+    private static final String LOT_100 = "LOT-100";
+    private static final String CRACK = "Crack";
+    private static final String ACME = "Acme";
 
     @Mock
     private ShippingLogRepository shippingLogRepository;
 
-    @Mock
-    private ProductionLogRepository productionLogRepository;
-
     @InjectMocks
     private ShippingStatusService shippingStatusService;
 
@@ -41,13 +45,46 @@ class ShippingStatusServiceTest {
 
     @Test
     void getProblematicShippedBatches_shouldReturnLotsWithCriticalDefectsAndShipDate() {
-        // TODO: AC6 - Verify only lots with critical defects AND a ship date are returned
-        assertNotNull(shippingStatusService, TODO_MESSAGE);
+        when(shippingLogRepository.findCriticalShippedAlerts()).thenReturn(List.of(
+                alert(LOT_100, CRACK, LocalDate.of(2026, 2, 21), ACME),
+                alert("LOT-200", CRACK, LocalDate.of(2026, 2, 23), "Globex")));
+
+        List<ShippingRiskAlertDTO> alerts = shippingStatusService.getProblematicShippedBatches();
+
+        boolean newestShipmentFirst = alerts.size() == 2
+                && "LOT-200".equals(alerts.get(0).getLotIdentifier())
+                && LOT_100.equals(alerts.get(1).getLotIdentifier());
+        assertTrue(newestShipmentFirst,
+                "Expected projected alerts to be returned with the most recent ship date first");
+    }
+
+    @Test
+    void getProblematicShippedBatches_shouldKeepOneAlertPerLotAndDefect() {
+        when(shippingLogRepository.findCriticalShippedAlerts()).thenReturn(List.of(
+                alert(LOT_100, CRACK, LocalDate.of(2026, 2, 23), ACME),
+                alert(LOT_100, CRACK, LocalDate.of(2026, 2, 23), "Globex"),
+                alert(LOT_100, "Pit", LocalDate.of(2026, 2, 23), ACME)));
+
+        List<ShippingRiskAlertDTO> alerts = shippingStatusService.getProblematicShippedBatches();
+
+        boolean deduplicated = alerts.size() == 2 && ACME.equals(alerts.get(0).getCustomerName())
+                && CRACK.equals(alerts.get(0).getDefectName())
+                && "Pit".equals(alerts.get(1).getDefectName());
+        assertTrue(deduplicated,
+                "Expected the first row per lot and defect to win when shipments share a date");
     }
 
     @Test
     void getProblematicShippedBatches_shouldExcludeNonShippedLots() {
-        // TODO: AC6 - Verify lots not yet shipped are excluded from risk alerts
-        assertNotNull(shippingStatusService, TODO_MESSAGE);
+        when(shippingLogRepository.findCriticalShippedAlerts()).thenReturn(List.of());
+
+        assertTrue(shippingStatusService.getProblematicShippedBatches().isEmpty(),
+                "Expected no alerts when no critical lot has shipped");
+    }
+
+    private ShippingRiskAlertDTO alert(String lotIdentifier, String defectName,
+            LocalDate shipDate, String customerName) {
+        return new ShippingRiskAlertDTO(lotIdentifier, defectName, "Critical", shipDate,
+                customerName, "Line-A");
     }
 }
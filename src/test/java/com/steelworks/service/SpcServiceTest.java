@@ -0,0 +1,123 @@
+package com.steelworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.steelworks.dto.ControlChartDTO;
+import com.steelworks.enums.ControlChartType;
+import com.steelworks.enums.WesternElectricRule;
+import com.steelworks.repository.DailyDefectRollupRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Unit tests for SpcService. AC5: Production lines are compared by defect rate on control charts
+ * that are maintained incrementally from the daily defect rollup.
+ */
+@ExtendWith(MockitoExtension.class)
+class SpcServiceTest {
+
+    private static final LocalDate MAR_1 = LocalDate.of(2026, 3, 1);
+    private static final LocalDate MAR_20 = LocalDate.of(2026, 3, 20);
+    private static final LocalDate MAR_31 = LocalDate.of(2026, 3, 31);
+    private static final String LINE_A = "Line-A";
+    private static final String DAY_SHIFT = "Day";
+
+    @Mock
+    private DailyDefectRollupRepository dailyDefectRollupRepository;
+
+    @Mock
+    private DailyDefectRollupService dailyDefectRollupService;
+
+    private SpcService spcService;
+
+    @BeforeEach
+    void setUp() {
+        spcService = new SpcService(dailyDefectRollupRepository, dailyDefectRollupService);
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void getControlCharts_shouldRankLinesByDefectRateRatherThanCount() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{MAR_1, LINE_A, DAY_SHIFT, 10L, 40L, 10_000L});
+        rows.add(new Object[]{MAR_1, "Line-B", DAY_SHIFT, 2L, 4L, 100L});
+        stubFirstLoad(rows);
+
+        List<ControlChartDTO> charts = spcService.getControlCharts(ControlChartType.U, MAR_1,
+                MAR_1);
+
+        assertEquals("Line-B", charts.get(0).getLineName(),
+                "Expected the line with fewer defects but a higher rate per unit first");
+        assertEquals(0.02, charts.get(0).getPeriodRate(), 1e-12,
+                "Expected 2 defects per 100 units actual");
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void getControlCharts_shouldFlagPointBeyondThreeSigma() {
+        List<Object[]> rows = new ArrayList<>();
+        MAR_1.datesUntil(MAR_20).forEach(
+                date -> rows.add(new Object[]{date, LINE_A, DAY_SHIFT, 1L, 10L, 1_000L}));
+        rows.add(new Object[]{MAR_20, LINE_A, DAY_SHIFT, 20L, 10L, 1_000L});
+        stubFirstLoad(rows);
+
+        List<ControlChartDTO.Point> points = spcService
+                .getControlCharts(ControlChartType.U, MAR_1, MAR_31).get(0).getPoints();
+
+        ControlChartDTO.Point last = points.get(points.size() - 1);
+        assertTrue(last.getRate() > last.getUpperControlLimit()
+                && last.getViolations().contains(WesternElectricRule.BEYOND_THREE_SIGMA),
+                "Expected the spike above the upper control limit to be flagged");
+        assertTrue(points.get(0).getViolations().isEmpty(), "Expected a typical day in control");
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void getControlCharts_shouldReloadOnlyDaysRebuiltSinceTheLastRequest() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{MAR_1, LINE_A, DAY_SHIFT, 1L, 10L, 1_000L});
+        rows.add(new Object[]{MAR_20, LINE_A, DAY_SHIFT, 1L, 10L, 1_000L});
+        stubFirstLoad(rows);
+        spcService.getControlCharts(ControlChartType.P, MAR_1, MAR_31);
+
+        List<Object[]> changed = new ArrayList<>();
+        changed.add(new Object[]{MAR_20, LINE_A, DAY_SHIFT, 5L, 10L, 1_000L});
+        when(dailyDefectRollupService.changesSince(1))
+                .thenReturn(new DailyDefectRollupService.Changes(2, Set.of(MAR_20)));
+        when(dailyDefectRollupRepository.sumSubgroupsForDates(List.of(MAR_20)))
+                .thenReturn(changed);
+        ControlChartDTO chart = spcService.getControlCharts(ControlChartType.P, MAR_1, MAR_31)
+                .get(0);
+
+        verify(dailyDefectRollupRepository, times(1)).sumSubgroups();
+        assertEquals(0.3, chart.getCenterLine(), 1e-12,
+                "Expected 6 of 20 production runs with an issue after the reload");
+        assertEquals(2, chart.getSubgroupCount(), "Expected the rebuilt day to replace the old");
+    }
+
+    @Test
+    void getControlCharts_shouldRejectRangeLongerThanLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> spcService.getControlCharts(ControlChartType.U, MAR_1,
+                        MAR_1.plusDays(SpcService.MAX_CHART_DAYS)),
+                "Expected ranges over the limit to be rejected");
+    }
+
+    private void stubFirstLoad(List<Object[]> rows) {
+        when(dailyDefectRollupService.changesSince(-1))
+                .thenReturn(new DailyDefectRollupService.Changes(1, Set.of()));
+        when(dailyDefectRollupRepository.sumSubgroups()).thenReturn(rows);
+    }
+}
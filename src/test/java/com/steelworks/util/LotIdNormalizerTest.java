@@ -2,7 +2,8 @@ package com.steelworks.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -14,7 +15,6 @@ import org.junit.jupiter.api.Test;
 class LotIdNormalizerTest {
 
     private static final String NORMALIZED_LOT = "LOT123";
-    private static final String TODO_MESSAGE = "TODO: add assertions";
 
     private LotIdNormalizer lotIdNormalizer;
 
@@ -31,7 +31,7 @@ class LotIdNormalizerTest {
 
     @Test
     void normalize_shouldKeepPlainId() {
-        assertEquals(NORMALIZED_LOT, lotIdNormalizer.normalize("LOT123"),
+        assertEquals(NORMALIZED_LOT, lotIdNormalizer.normalize(NORMALIZED_LOT),
                 "Should preserve already normalized IDs");
     }
 
@@ -49,19 +49,48 @@ class LotIdNormalizerTest {
 
     @Test
     void normalize_shouldHandleNullInput() {
-        // TODO: Verify graceful handling of null input
-        assertNotNull(lotIdNormalizer, TODO_MESSAGE);
+        assertNull(lotIdNormalizer.normalize(null), "Should return null for null input");
     }
 
     @Test
     void normalize_shouldHandleEmptyString() {
-        // TODO: Verify graceful handling of empty string
-        assertNotNull(lotIdNormalizer, TODO_MESSAGE);
+        assertEquals("", lotIdNormalizer.normalize(""), "Should return an empty string as is");
+    }
+
+    @Test
+    void normalize_shouldReturnCanonicalInputUnchanged() {
+        String canonical = NORMALIZED_LOT;
+        assertSame(canonical, lotIdNormalizer.normalize(canonical),
+                "Should not copy an ID that is already normalized");
+    }
+
+    @Test
+    void normalize_shouldStripEveryWhitespaceKindAndUpperCaseNonAscii() {
+        assertEquals("LOT123ÄB", lotIdNormalizer.normalize(" lot\t-1\r\n2\f3 äb "),
+                "Should strip dashes and all whitespace and upper-case non-ASCII letters");
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void areEquivalent_shouldCompareCharSequencesWithoutNormalizingFirst() {
+        assertTrue(lotIdNormalizer.areEquivalent(new StringBuilder("lot-12 3"), NORMALIZED_LOT),
+                "Should match a CharSequence against a differently formatted ID");
+        assertFalse(lotIdNormalizer.areEquivalent(new StringBuilder("LOT-12"), NORMALIZED_LOT),
+                "Should not match when one ID is a prefix of the other");
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void normalizedHashCode_shouldMatchHashOfNormalizedForm() {
+        assertEquals(NORMALIZED_LOT.hashCode(), lotIdNormalizer.normalizedHashCode("lot - 123"),
+                "Should hash a raw ID the same as its normalized form");
+        assertEquals("ÄB".hashCode(), lotIdNormalizer.normalizedHashCode("ä-b"),
+                "Should hash non-ASCII IDs the same as their normalized form");
     }
 
     @Test
     void areEquivalent_shouldReturnTrueForMatchingIds() {
-        assertTrue(lotIdNormalizer.areEquivalent("LOT-123", "LOT123"),
+        assertTrue(lotIdNormalizer.areEquivalent("LOT-123", NORMALIZED_LOT),
                 "Should consider differently formatted matching lot IDs equivalent");
     }
 
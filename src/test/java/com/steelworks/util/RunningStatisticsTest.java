@@ -0,0 +1,55 @@
+package com.steelworks.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for RunningStatistics. AC5: Streaming mean and variance behind control charts.
+ */
+class RunningStatisticsTest {
+
+    private static final double TOLERANCE = 1e-12;
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void add_shouldMatchTwoPassMeanAndSampleVariance() {
+        RunningStatistics statistics = new RunningStatistics();
+        for (double value : new double[]{2, 4, 4, 4, 5, 5, 7, 9}) {
+            statistics.add(value);
+        }
+
+        assertEquals(5.0, statistics.getMean(), TOLERANCE, "Expected the mean of the values");
+        assertEquals(32.0 / 7, statistics.getVariance(), TOLERANCE,
+                "Expected the sum of squared deviations divided by n - 1");
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void remove_shouldRestoreStatisticsOfTheRemainingValues() {
+        RunningStatistics statistics = new RunningStatistics();
+        statistics.add(0.002);
+        statistics.add(0.010);
+        statistics.add(0.004);
+
+        statistics.remove(0.010);
+
+        assertEquals(2, statistics.getCount(), "Expected one value fewer");
+        assertEquals(0.003, statistics.getMean(), TOLERANCE, "Expected the mean of 0.002, 0.004");
+        assertEquals(0.000002, statistics.getVariance(), TOLERANCE,
+                "Expected the variance of 0.002, 0.004");
+    }
+
+    @Test
+    @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+    void remove_shouldResetWhenTheLastValueIsRemoved() {
+        RunningStatistics statistics = new RunningStatistics();
+        statistics.add(3);
+        statistics.remove(3);
+
+        assertEquals(0, statistics.getMean(), TOLERANCE, "Expected no mean without values");
+        assertThrows(IllegalStateException.class, () -> statistics.remove(3),
+                "Expected removing from an empty accumulator to fail");
+    }
+}